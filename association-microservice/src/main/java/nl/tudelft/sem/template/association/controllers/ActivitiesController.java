@@ -73,8 +73,8 @@ public class ActivitiesController {
     @PostMapping("/add-activity")
     public ResponseEntity<?> addActivity(@RequestBody AddActivityRequestModel activityRequest) {
         try {
-            boolean isMember = associationService.getAssociationById(activityRequest.getAssociationId())
-                    .getMemberUserIds().contains(authManager.getUserId());
+            boolean isMember = associationService.hasMember(activityRequest.getAssociationId(),
+                    authManager.getUserId());
 
             if (isMember && activityRequest.isComplete()) {
                 activityService.addActivity(activityRequest.getEventName(),
@@ -134,8 +134,7 @@ public class ActivitiesController {
 
                 int associationId = activity.getAssociationId();
 
-                boolean isMember = associationService.getAssociationById(associationId).getMemberUserIds()
-                        .contains(authManager.getUserId());
+                boolean isMember = associationService.hasMember(associationId, authManager.getUserId());
 
                 if (isMember) {
                     activityService.addInterested(request.getActivityId(), authManager.getUserId());
@@ -170,8 +169,7 @@ public class ActivitiesController {
             if (activity != null) {
 
                 int associationId = activity.getAssociationId();
-                boolean isMember = associationService.getAssociationById(associationId).getMemberUserIds()
-                        .contains(authManager.getUserId());
+                boolean isMember = associationService.hasMember(associationId, authManager.getUserId());
 
                 if (isMember) {
                     activityService.addParticipating(request.getActivityId(), authManager.getUserId());
@@ -205,8 +203,7 @@ public class ActivitiesController {
             if (activity != null) {
 
                 int associationId = activity.getAssociationId();
-                boolean isMember = associationService.getAssociationById(associationId).getMemberUserIds()
-                        .contains(authManager.getUserId());
+                boolean isMember = associationService.hasMember(associationId, authManager.getUserId());
 
                 if (isMember) {
                     activityService.removeInterested(request.getActivityId(), authManager.getUserId());
@@ -241,8 +238,7 @@ public class ActivitiesController {
             if (activity != null) {
 
                 int associationId = activity.getAssociationId();
-                boolean isMember = associationService.getAssociationById(associationId).getMemberUserIds()
-                        .contains(authManager.getUserId());
+                boolean isMember = associationService.hasMember(associationId, authManager.getUserId());
 
                 if (isMember) {
                     activityService.removeParticipating(request.getActivityId(), authManager.getUserId());
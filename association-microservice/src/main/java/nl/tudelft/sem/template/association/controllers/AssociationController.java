@@ -3,12 +3,14 @@ package nl.tudelft.sem.template.association.controllers;
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import nl.tudelft.sem.template.association.authentication.AuthManager;
 import nl.tudelft.sem.template.association.domain.association.AssociationRepository;
 import nl.tudelft.sem.template.association.domain.association.AssociationService;
 import nl.tudelft.sem.template.association.domain.history.Event;
 import nl.tudelft.sem.template.association.domain.history.HistoryService;
 import nl.tudelft.sem.template.association.domain.history.Notification;
+import nl.tudelft.sem.template.association.domain.history.ResultDeduplicator;
 import nl.tudelft.sem.template.association.domain.location.Address;
 import nl.tudelft.sem.template.association.domain.location.Location;
 import nl.tudelft.sem.template.association.domain.membership.FieldNoNullException;
@@ -17,6 +19,7 @@ import nl.tudelft.sem.template.association.domain.report.NoSuchRuleException;
 import nl.tudelft.sem.template.association.domain.report.ReportInconsistentException;
 import nl.tudelft.sem.template.association.domain.report.ReportService;
 import nl.tudelft.sem.template.association.models.*;
+import nl.tudelft.sem.template.commons.utils.HttpClientMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +34,8 @@ public class AssociationController {
     private final transient ReportService reportService;
     private final transient HistoryService historyService;
     private final transient MembershipService membershipService;
+    private final transient ResultDeduplicator resultDeduplicator;
+    private final transient HttpClientMetrics httpClientMetrics;
 
     /**
      * Instantiates a new controller.
@@ -40,16 +45,21 @@ public class AssociationController {
      * @param reportService      report service
      * @param historyService     The history service.
      * @param membershipService  The membership service.
+     * @param resultDeduplicator Makes sure a delivered rule vote result is applied once.
+     * @param httpClientMetrics  The metrics of the calls to the other microservices.
      */
     @Autowired
     public AssociationController(AuthManager authManager, AssociationService associationService,
                                  ReportService reportService, HistoryService historyService,
-                                 MembershipService membershipService) {
+                                 MembershipService membershipService, ResultDeduplicator resultDeduplicator,
+                                 HttpClientMetrics httpClientMetrics) {
         this.authManager = authManager;
         this.associationService = associationService;
         this.reportService = reportService;
         this.historyService = historyService;
         this.membershipService = membershipService;
+        this.resultDeduplicator = resultDeduplicator;
+        this.httpClientMetrics = httpClientMetrics;
     }
 
     /**
@@ -66,13 +76,63 @@ public class AssociationController {
     }
 
     /**
-     * Gets the existing association IDs.
+     * Gets the existing association IDs, all of them or one page when a limit is given.
      *
+     * @param afterId   Only ids greater than this one, for the next page.
+     * @param limit     The page size, without it all ids are returned.
      * @return          A response message with the ids.
      */
     @GetMapping("/get-association-ids")
-    public ResponseEntity<List<Integer>> getAssociationIds() {
-        return ResponseEntity.ok(associationService.getAssociationIds());
+    public ResponseEntity<List<Integer>> getAssociationIds(@RequestParam(defaultValue = "0") int afterId,
+                                                           @RequestParam(required = false) Integer limit) {
+        try {
+            if (limit == null && afterId == 0) {
+                return ResponseEntity.ok(associationService.getAssociationIds());
+            }
+            return ResponseEntity.ok(associationService.getAssociationIds(afterId,
+                    limit == null ? AssociationService.MAX_PAGE_SIZE : limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the associations page by page, in id order.
+     *
+     * @param afterId   The nextAfterId of the previous page, 0 for the first page.
+     * @param limit     The page size.
+     * @return          A response message with the page of associations.
+     */
+    @GetMapping("/list-associations")
+    public ResponseEntity<AssociationPageModel> listAssociations(@RequestParam(defaultValue = "0") int afterId,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(associationService.listAssociations(afterId, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Finds associations by location, page by page in id order.
+     * Matches the associations whose country and city start with the given ones.
+     *
+     * @param country   The start of the country, can be left out when a city is given.
+     * @param city      The start of the city, can be left out when a country is given.
+     * @param afterId   The nextAfterId of the previous page, 0 for the first page.
+     * @param limit     The page size.
+     * @return          A response message with the page of associations.
+     */
+    @GetMapping("/search-associations")
+    public ResponseEntity<AssociationPageModel> searchAssociations(@RequestParam(required = false) String country,
+                                                                   @RequestParam(required = false) String city,
+                                                                   @RequestParam(defaultValue = "0") int afterId,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(associationService.searchAssociations(country, city, afterId, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     /**
@@ -174,12 +234,21 @@ public class AssociationController {
     /**
      * SCHEDULER related. Endpoint for updating the rules.
      * Also updates the history log for association and send a notification to all members of the association
+     * A result that is delivered again with the same idempotency key is not applied again.
      *
+     * @param idempotencyKey the key of the result, the same for every delivery of it
      * @param request request body containing all the info regarding the rule vote
      * @return 200 if OK
      */
     @PostMapping("/update-rules")
-    public ResponseEntity<String> updateRules(@RequestBody RuleVoteResultRequestModel request) {
+    public ResponseEntity<String> updateRules(@RequestHeader(value = "Idempotency-Key", required = false)
+                                                      String idempotencyKey,
+                                              @RequestBody RuleVoteResultRequestModel request) {
+        return resultDeduplicator.applyOnce(idempotencyKey, () -> applyRuleVoteResult(request),
+                response -> response.getStatusCode().is2xxSuccessful(), ResponseEntity.ok("Rules already updated!"));
+    }
+
+    private ResponseEntity<String> applyRuleVoteResult(RuleVoteResultRequestModel request) {
         try {
             Event event = new Event(request.getResult(), request.getDate());
             historyService.addEvent(request.getAssociationId(), event);
@@ -253,4 +322,15 @@ public class AssociationController {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
+
+    /**
+     * Returns the request and error counts and the latency of the calls to the other microservices,
+     * per destination.
+     *
+     * @return The metrics of the HTTP client.
+     */
+    @GetMapping("/http-client/metrics")
+    public ResponseEntity<Map<String, HttpClientMetrics.DestinationMetrics>> getHttpClientMetrics() {
+        return ResponseEntity.ok(httpClientMetrics.snapshot());
+    }
 }
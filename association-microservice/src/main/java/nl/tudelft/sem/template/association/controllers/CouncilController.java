@@ -7,13 +7,17 @@ import nl.tudelft.sem.template.association.authentication.AuthManager;
 import nl.tudelft.sem.template.association.domain.association.AssociationService;
 import nl.tudelft.sem.template.association.domain.history.Event;
 import nl.tudelft.sem.template.association.domain.history.HistoryService;
+import nl.tudelft.sem.template.association.domain.history.ResultDeduplicator;
 import nl.tudelft.sem.template.association.models.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -22,21 +26,37 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/association")
 public class CouncilController {
 
+    private final transient String votingServiceAccount = "VotingService";
     private final transient AuthManager authManager;
     private final transient AssociationService associationService;
     private final transient HistoryService historyService;
+    private final transient ResultDeduplicator resultDeduplicator;
 
     /**
      * Instantiates a new controller.
      *
      * @param authManager        Spring Security component used to authenticate and authorize the user
      * @param associationService association service
+     * @param resultDeduplicator makes sure a delivered election result is applied once
      */
     @Autowired
-    public CouncilController(AuthManager authManager, AssociationService associationService, HistoryService historyService) {
+    public CouncilController(AuthManager authManager, AssociationService associationService, HistoryService historyService,
+                             ResultDeduplicator resultDeduplicator) {
         this.authManager = authManager;
         this.associationService = associationService;
         this.historyService = historyService;
+        this.resultDeduplicator = resultDeduplicator;
+    }
+
+    /**
+     * Checks that the request comes from the voting service account.
+     *
+     * @throws ResponseStatusException if the caller is not the voting service
+     */
+    private void validateVotingService() throws ResponseStatusException {
+        if (!authManager.validateRequestUser(votingServiceAccount)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "INVALID_CREDENTIALS");
+        }
     }
 
     /**
@@ -76,15 +96,66 @@ public class CouncilController {
         }
     }
 
+    /**
+     * Returns which of the provided users are members of the provided association.
+     * Only the voting service account may call it.
+     *
+     * @param request   The request body containing the association's id and the users' ids.
+     * @return          The ids of the users that are members.
+     */
+    @PostMapping("/filter-members")
+    public ResponseEntity<Set<String>> filterMembers(@RequestBody MembersRequestModel request)
+            throws ResponseStatusException {
+        validateVotingService();
+        if (request.getAssociationId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The association id is missing.");
+        }
+        try {
+            return ResponseEntity.ok(associationService.filterMembers(request.getAssociationId(),
+                    request.getUserIds()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the rule fingerprints of a page of associations, for the voting microservice to seed its
+     * copy of the adopted rules. Only the voting service account may call it.
+     *
+     * @param afterId   The nextAfterId of the previous page, 0 for the first page.
+     * @param limit     The number of associations in the page.
+     * @return          The fingerprints of the associations in the page that have rules.
+     */
+    @GetMapping("/rule-fingerprints")
+    public ResponseEntity<RuleFingerprintsPageModel> getRuleFingerprints(@RequestParam(defaultValue = "0") int afterId,
+                                                                         @RequestParam(defaultValue = "1000") int limit)
+            throws ResponseStatusException {
+        validateVotingService();
+        try {
+            return ResponseEntity.ok(associationService.getRuleFingerprints(afterId, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * SCHEDULER related. Endpoint for updating the council.
      * Also updates the history log for association.
+     * A result that is delivered again with the same idempotency key is not applied again.
      *
+     * @param idempotencyKey the key of the result, the same for every delivery of it
      * @param request request body containing all the info regarding the election
      * @return 200 if OK
      */
     @PostMapping("/update-council")
-    public ResponseEntity<String> updateCouncil(@RequestBody ElectionResultRequestModel request) {
+    public ResponseEntity<String> updateCouncil(@RequestHeader(value = "Idempotency-Key", required = false)
+                                                        String idempotencyKey,
+                                                @RequestBody ElectionResultRequestModel request) {
+        return resultDeduplicator.applyOnce(idempotencyKey, () -> applyElectionResult(request),
+                response -> response.getStatusCode().is2xxSuccessful(), ResponseEntity.ok("Council already updated!"));
+    }
+
+    private ResponseEntity<String> applyElectionResult(ElectionResultRequestModel request) {
         Event event = new Event(request.getResult(), request.getDate());
 
         associationService.processElection(request);
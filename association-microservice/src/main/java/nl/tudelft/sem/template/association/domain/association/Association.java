@@ -4,11 +4,12 @@ import java.util.*;
 import javax.persistence.*;
 import lombok.NoArgsConstructor;
 import nl.tudelft.sem.template.association.domain.location.Location;
-import nl.tudelft.sem.template.association.domain.location.LocationConverter;
-import nl.tudelft.sem.template.association.domain.membership.UserIdsAttributeConverter;
 
 @Entity
-@Table(name = "associations")
+@Table(name = "associations", indexes = {
+    @Index(name = "idx_associations_country_city", columnList = "country, city"),
+    @Index(name = "idx_associations_city", columnList = "city")
+})
 @NoArgsConstructor
 public class Association {
 
@@ -29,10 +30,9 @@ public class Association {
 
 
     /*
-    location of the association
+    location of the association, as the country and city columns
      */
-    @Column(name = "location", nullable = false)
-    @Convert(converter = LocationConverter.class)
+    @Embedded
     private Location location;
 
     /*
@@ -55,17 +55,26 @@ public class Association {
     private int councilNumber;
 
     /*
-    User Ids of the council members
-     */
-    @Column(name = "council_user_ids")
-    @Convert(converter = UserIdsAttributeConverter.class)
+    User Ids of the council members, one row each
+    loaded with the association, the council is never larger than the council number
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "association_council", joinColumns = @JoinColumn(name = "association_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_association_council",
+                    columnNames = {"association_id", "user_id"}))
+    @Column(name = "user_id", nullable = false)
     private Set<String> councilUserIds;
 
     /*
-    User Ids of the members
-     */
-    @Column(name = "member_user_ids")
-    @Convert(converter = UserIdsAttributeConverter.class)
+    User Ids of the members, one row each
+    only loaded when used, membership checks and joins go through the AssociationRepository row by row
+     */
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "association_members", joinColumns = @JoinColumn(name = "association_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_association_member",
+                    columnNames = {"association_id", "user_id"}),
+            indexes = @Index(name = "idx_association_members_user", columnList = "user_id"))
+    @Column(name = "user_id", nullable = false)
     private Set<String> memberUserIds;
 
     /*
@@ -75,6 +84,16 @@ public class Association {
     @Convert(converter = RulesAttributeConverter.class)
     private List<String> rules;
 
+    /*
+    fingerprints of the rules, kept in step by setRules, so a duplicate rule is found with one index probe
+     */
+    @ElementCollection
+    @CollectionTable(name = "association_rule_fingerprints", joinColumns = @JoinColumn(name = "association_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_association_rule_fingerprint",
+                    columnNames = {"association_id", "fingerprint"}))
+    @Column(name = "fingerprint", length = RuleFingerprint.LENGTH, nullable = false)
+    private Set<String> ruleFingerprints;
+
     /**getter.
      *
      * @return rules
@@ -98,6 +117,7 @@ public class Association {
         this.councilUserIds = new HashSet<>();
         this.memberUserIds = new HashSet<>();
         this.rules = new ArrayList<>();
+        this.ruleFingerprints = new HashSet<>();
     }
 
     /**getter.
@@ -185,7 +205,31 @@ public class Association {
         return location;
     }
 
+    /**setter, also replaces the fingerprints of the rules.
+     *
+     * @param rules the new rules of the association
+     */
     public void setRules(List<String> rules) {
         this.rules = rules;
+        Set<String> fingerprints = new HashSet<>();
+        for (String rule : rules) {
+            if (!rule.isEmpty()) {
+                fingerprints.add(RuleFingerprint.of(rule));
+            }
+        }
+        if (this.ruleFingerprints == null) {
+            this.ruleFingerprints = fingerprints;
+        } else {
+            this.ruleFingerprints.retainAll(fingerprints);
+            this.ruleFingerprints.addAll(fingerprints);
+        }
+    }
+
+    /**getter.
+     *
+     * @return the fingerprints of the rules
+     */
+    public Set<String> getRuleFingerprints() {
+        return ruleFingerprints;
     }
 }
@@ -1,13 +1,25 @@
 package nl.tudelft.sem.template.association.domain.association;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @Repository
 public interface AssociationRepository extends JpaRepository<Association, Integer> {
+    /*
+    the columns of an AssociationSummary
+     */
+    String SUMMARY = "association.id as id, association.name as name, association.location.country as country, "
+            + "association.location.city as city, association.description as description, "
+            + "association.councilNumber as councilNumber";
 
     /*
     find association by id
@@ -24,4 +36,97 @@ public interface AssociationRepository extends JpaRepository<Association, Intege
      */
     List<Association> findBy();
 
+    /*
+    ids of the associations after afterId in id order, the page size of the pageable is the limit
+     */
+    @Query("SELECT association.id from Association association where association.id > :afterId "
+            + "order by association.id")
+    List<Integer> findIdsAfter(int afterId, Pageable pageable);
+
+    /*
+    summaries of the associations after afterId in id order, without members, council or rules
+     */
+    @Query("SELECT " + SUMMARY + " from Association association where association.id > :afterId "
+            + "order by association.id")
+    List<AssociationSummary> findSummariesAfter(int afterId, Pageable pageable);
+
+    /*
+    summaries of the associations after afterId in id order whose country and city start with the prefixes,
+    a range on the (country, city) index, or on the city index when any country matches
+    the prefixes end with % and escape their wildcards with !
+     */
+    @Query("SELECT " + SUMMARY + " from Association association "
+            + "where association.location.country like :countryPrefix escape '!' "
+            + "and association.location.city like :cityPrefix escape '!' and association.id > :afterId "
+            + "order by association.id")
+    List<AssociationSummary> findSummariesByLocation(String countryPrefix, String cityPrefix, int afterId,
+                                                     Pageable pageable);
+
+    /*
+    whether the association exists in this country and city, one probe on the primary key
+     */
+    boolean existsByIdAndLocationCountryAndLocationCity(int id, String country, String city);
+
+    /*
+    whether the association has a rule with this fingerprint, one probe on the unique fingerprint index
+     */
+    @Query("SELECT case when count(fingerprint) > 0 then true else false end from Association association "
+            + "join association.ruleFingerprints fingerprint "
+            + "where association.id = :associationId and fingerprint = :fingerprint")
+    boolean existsRuleFingerprint(int associationId, String fingerprint);
+
+    /*
+    the (association id, fingerprint) of every rule of the associations with afterId < id <= untilId, in id order
+     */
+    @Query("SELECT association.id, fingerprint from Association association "
+            + "join association.ruleFingerprints fingerprint "
+            + "where association.id > :afterId and association.id <= :untilId order by association.id")
+    List<Object[]> findRuleFingerprintsBetween(int afterId, int untilId);
+
+    /*
+    associations that have rules but no rule fingerprints yet, stored before the fingerprints existed
+     */
+    @Query("SELECT association from Association association where length(association.rules) > 0 "
+            + "and association.ruleFingerprints is empty")
+    List<Association> findAllWithoutRuleFingerprints();
+
+    /*
+    whether the user is a member of the association, one probe on the member table
+     */
+    @Query("SELECT case when count(member) > 0 then true else false end from Association association "
+            + "join association.memberUserIds member where association.id = :associationId and member = :userId")
+    boolean existsMember(int associationId, String userId);
+
+    /*
+    how many of the users are members of the association
+     */
+    @Query("SELECT count(member) from Association association "
+            + "join association.memberUserIds member where association.id = :associationId and member in :userIds")
+    long countMembers(int associationId, Collection<String> userIds);
+
+    /*
+    which of the users are members of the association
+     */
+    @Query("SELECT member from Association association "
+            + "join association.memberUserIds member where association.id = :associationId and member in :userIds")
+    Set<String> findMembers(int associationId, Collection<String> userIds);
+
+    /*
+    add a member with one row, without loading the other members
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO association_members (association_id, user_id) VALUES (:associationId, :userId)",
+            nativeQuery = true)
+    int addMember(int associationId, String userId);
+
+    /*
+    remove a member row
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM association_members WHERE association_id = :associationId AND user_id = :userId",
+            nativeQuery = true)
+    int removeMember(int associationId, String userId);
+
 }
@@ -2,27 +2,61 @@ package nl.tudelft.sem.template.association.domain.association;
 
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import nl.tudelft.sem.template.association.domain.location.Address;
 import nl.tudelft.sem.template.association.domain.location.Location;
+import nl.tudelft.sem.template.association.domain.membership.CandidateEligibility;
 import nl.tudelft.sem.template.association.domain.membership.Membership;
 import nl.tudelft.sem.template.association.domain.membership.MembershipRepository;
 import nl.tudelft.sem.template.association.models.*;
+import nl.tudelft.sem.template.commons.utils.ServiceTokenCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 @Service
 public class AssociationService {
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int ELIGIBILITY_BATCH = 1000;
+
     private final transient AssociationRepository associationRepository;
     private final transient MembershipRepository membershipRepository;
+    private final transient ServiceTokenCache serviceTokenCache;
+    private final transient EligibilityNotifier eligibilityNotifier;
+    private final transient TransactionTemplate transactionTemplate;
+    private final transient RestTemplate restTemplate;
+    private final transient String votingUrl;
 
-    public AssociationService(AssociationRepository associationRepository, MembershipRepository membershipRepository) {
+    /**
+     * Instantiates the association service.
+     *
+     * @param eligibilityNotifier Tells the voting microservice when a membership or council changes.
+     * @param transactionManager  Applies the result of an election in one transaction.
+     * @param restTemplate        The shared RestTemplate used for all calls to the voting microservice.
+     * @param votingUrl           The base URL of the voting microservice.
+     */
+    public AssociationService(AssociationRepository associationRepository, MembershipRepository membershipRepository,
+                              ServiceTokenCache serviceTokenCache, EligibilityNotifier eligibilityNotifier,
+                              PlatformTransactionManager transactionManager, RestTemplate restTemplate,
+                              @Value("${services.voting.url:http://localhost:8083}") String votingUrl) {
         this.associationRepository = associationRepository;
         this.membershipRepository = membershipRepository;
+        this.serviceTokenCache = serviceTokenCache;
+        this.eligibilityNotifier = eligibilityNotifier;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.restTemplate = restTemplate;
+        this.votingUrl = votingUrl;
     }
 
     /**
@@ -35,7 +69,7 @@ public class AssociationService {
         Association association = new Association(name, location, description, councilNumber);
         int associationId = associationRepository.save(association).getId();
 
-        String electionString = createElection(associationId);
+        String electionString = createElection(associationId, councilNumber);
 
         return "Association was created:" + System.lineSeparator()
                 + "ID: " + associationId + System.lineSeparator()
@@ -48,16 +82,118 @@ public class AssociationService {
 
 
     /**
-     * Gets the existing association IDs.
+     * Gets the existing association IDs, read page by page without loading the associations.
      *
      * @return  A list with the ids.
      */
     public List<Integer> getAssociationIds() {
-        List<Association> associationList = associationRepository.findAll();
-        List<Integer> ids = associationList.stream().map(Association::getId).collect(Collectors.toList());
+        List<Integer> ids = new ArrayList<>();
+        List<Integer> page = getAssociationIds(0, MAX_PAGE_SIZE);
+        ids.addAll(page);
+        while (page.size() == MAX_PAGE_SIZE) {
+            page = getAssociationIds(page.get(page.size() - 1), MAX_PAGE_SIZE);
+            ids.addAll(page);
+        }
         return ids;
     }
 
+    /**
+     * Gets a page of the existing association IDs in ascending order.
+     *
+     * @param afterId   Only ids greater than this one, the last id of the previous page or 0 for the first.
+     * @param limit     The page size, at most MAX_PAGE_SIZE.
+     * @return          A list with the ids.
+     */
+    public List<Integer> getAssociationIds(int afterId, int limit) {
+        validatePageSize(limit);
+        return associationRepository.findIdsAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Lists a page of associations in ascending id order.
+     * The page starts after the given id on the primary key, so its cost does not depend on how far the listing is.
+     *
+     * @param afterId   Only associations with a greater id, the nextAfterId of the previous page or 0 for the first.
+     * @param limit     The page size, at most MAX_PAGE_SIZE.
+     * @return          The associations and the afterId of the next page.
+     */
+    public AssociationPageModel listAssociations(int afterId, int limit) {
+        validatePageSize(limit);
+        // One more than asked tells whether there is a next page without counting
+        return toPage(associationRepository.findSummariesAfter(afterId, PageRequest.of(0, limit + 1)), limit);
+    }
+
+    /**
+     * Finds associations by location, a page at a time in ascending id order.
+     * The country and city match when they start with the given prefixes, case-sensitively.
+     *
+     * @param country   The start of the country, null or empty for any country.
+     * @param city      The start of the city, null or empty for any city.
+     * @param afterId   Only associations with a greater id, the nextAfterId of the previous page or 0 for the first.
+     * @param limit     The page size, at most MAX_PAGE_SIZE.
+     * @return          The associations and the afterId of the next page.
+     */
+    public AssociationPageModel searchAssociations(String country, String city, int afterId, int limit) {
+        validatePageSize(limit);
+        if ((country == null || country.isBlank()) && (city == null || city.isBlank())) {
+            throw new IllegalArgumentException("Give a country or a city to search for.");
+        }
+        return toPage(associationRepository.findSummariesByLocation(likePrefix(country), likePrefix(city), afterId,
+                PageRequest.of(0, limit + 1)), limit);
+    }
+
+    private static AssociationPageModel toPage(List<AssociationSummary> summaries, int limit) {
+        boolean more = summaries.size() > limit;
+        List<AssociationSummaryModel> associations = summaries.stream().limit(limit)
+                .map(a -> new AssociationSummaryModel(a.getId(), a.getName(), a.getCountry(), a.getCity(),
+                        a.getDescription(), a.getCouncilNumber()))
+                .collect(Collectors.toList());
+        Integer nextAfterId = more ? associations.get(associations.size() - 1).getId() : null;
+        return new AssociationPageModel(associations, nextAfterId);
+    }
+
+    /**
+     * Turns a prefix into a like pattern, escaping the wildcards in it with !.
+     */
+    private static String likePrefix(String prefix) {
+        if (prefix == null) {
+            return "%";
+        }
+        return prefix.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    /**
+     * Returns the rule fingerprints of a page of associations in ascending id order, so the voting
+     * microservice can seed its copy of the adopted rules.
+     *
+     * @param afterId   Only associations with a greater id, the nextAfterId of the previous page or 0 for the first.
+     * @param limit     The number of associations in the page, at most MAX_PAGE_SIZE.
+     * @return          The fingerprints of the associations in the page that have rules, and the afterId of the next page.
+     */
+    public RuleFingerprintsPageModel getRuleFingerprints(int afterId, int limit) {
+        validatePageSize(limit);
+        // One more than asked tells whether there is a next page without counting
+        List<Integer> ids = associationRepository.findIdsAfter(afterId, PageRequest.of(0, limit + 1));
+        if (ids.isEmpty()) {
+            return new RuleFingerprintsPageModel(List.of(), null);
+        }
+        int untilId = ids.get(Math.min(limit, ids.size()) - 1);
+        Map<Integer, List<String>> fingerprints = new LinkedHashMap<>();
+        for (Object[] row : associationRepository.findRuleFingerprintsBetween(afterId, untilId)) {
+            fingerprints.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        List<AssociationRulesModel> associations = fingerprints.entrySet().stream()
+                .map(e -> new AssociationRulesModel(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+        return new RuleFingerprintsPageModel(associations, ids.size() > limit ? untilId : null);
+    }
+
+    private static void validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("The page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
     /**getter.
      *
      * @param associationId the id of the association
@@ -90,26 +226,66 @@ public class AssociationService {
     }
 
     /**
-     * User joins an association.
+     * Whether a user is a member of an association, checked on the member table without loading the members.
      *
-     * @return a message confirming the join.
+     * @param associationId the id of the association
+     * @param userId the user id
+     * @return if the user is a member
+     * @throws IllegalArgumentException if the association does not exist
      */
-    public String joinAssociation(String userId, int associationId, Address address) {
-        Optional<Association> optionalAssociation = associationRepository.findById(associationId);
-        if (optionalAssociation.isEmpty()) {
+    public boolean hasMember(int associationId, String userId) {
+        if (associationRepository.existsMember(associationId, userId)) {
+            return true;
+        }
+        if (!associationRepository.existsById(associationId)) {
             throw new IllegalArgumentException("Association with ID " + associationId + " does not exist.");
         }
-        Association association = optionalAssociation.get();
+        return false;
+    }
 
-        //Check if user has an address in the right city and country
-        if (!address.getLocation().equals(association.getLocation())) {
+    /**
+     * Returns which of the users are members of an association, in a single query on the member table.
+     *
+     * @param associationId the id of the association
+     * @param userIds the user ids to check, at most MAX_PAGE_SIZE
+     * @return the user ids that are members
+     * @throws IllegalArgumentException if too many users are given or the association does not exist
+     */
+    public Set<String> filterMembers(int associationId, Set<String> userIds) {
+        if (userIds == null || userIds.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Between 0 and " + MAX_PAGE_SIZE + " users can be checked at once.");
+        }
+        if (!associationRepository.existsById(associationId)) {
+            throw new IllegalArgumentException("Association with ID " + associationId + " does not exist.");
+        }
+        if (userIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return associationRepository.findMembers(associationId, userIds);
+    }
+
+    /**
+     * User joins an association.
+     *
+     * @return a message confirming the join.
+     */
+    public String joinAssociation(String userId, int associationId, Address address) {
+        //Check if user has an address in the right city and country, with one lookup on the primary key
+        Location location = address.getLocation();
+        if (!associationRepository.existsByIdAndLocationCountryAndLocationCity(associationId,
+                location.getCountry(), location.getCity())) {
+            if (!associationRepository.existsById(associationId)) {
+                throw new IllegalArgumentException("Association with ID " + associationId + " does not exist.");
+            }
             throw new IllegalArgumentException("You don't live in the right city or country to join this association.");
         }
 
-        association.addMember(userId);
+        if (!associationRepository.existsMember(associationId, userId)) {
+            associationRepository.addMember(associationId, userId);
+        }
         Membership membership = new Membership(userId, associationId, address);
-        associationRepository.save(association);
         membershipRepository.save(membership);
+        eligibilityNotifier.usersChanged(List.of(userId));
 
         return "User " + userId + " successfully joined association " + associationId;
     }
@@ -128,18 +304,19 @@ public class AssociationService {
         }
 
         Association association = optionalAssociation.get();
-        association.removeMember(userId);
+        Set<String> changed = new HashSet<>(association.getCouncilUserIds());
+        associationRepository.removeMember(associationId, userId);
         Membership membership = optionalMembership.get();
         membership.leave();
 
-        if (association.getCouncilUserIds().contains(userId)) {
-            Set<String> council = association.getMemberUserIds();
-            council.remove(userId);
-            association.setCouncilUserIds(council);
+        if (association.getCouncilUserIds().remove(userId)) {
+            associationRepository.save(association);
         }
-
-        associationRepository.save(association);
         membershipRepository.save(membership);
+
+        changed.addAll(association.getCouncilUserIds());
+        changed.add(userId);
+        eligibilityNotifier.usersChanged(changed);
         return "User " + userId + " left association " + associationId;
     }
 
@@ -165,14 +342,29 @@ public class AssociationService {
             throw new IllegalArgumentException("Council is bigger than allowed");
         }
 
-        for (String councilMember : council) {
-            if (!association.getMemberUserIds().contains(councilMember)) {
-                throw new IllegalArgumentException("A Council member is not part of the association");
-            }
+        if (!council.isEmpty() && associationRepository.countMembers(associationId, council) != council.size()) {
+            throw new IllegalArgumentException("A Council member is not part of the association");
         }
 
+        Set<String> changed = new HashSet<>(association.getCouncilUserIds());
+        changed.addAll(council);
         association.setCouncilUserIds(council);
         associationRepository.save(association);
+        updateCouncilMemberships(associationId, council);
+        eligibilityNotifier.usersChanged(changed);
+    }
+
+    /**
+     * Marks the memberships of the council members of an association, and only those, as on the council.
+     *
+     * @param associationId the id of the association
+     * @param council the council of the association
+     */
+    private void updateCouncilMemberships(int associationId, Set<String> council) {
+        membershipRepository.clearCouncil(associationId);
+        if (!council.isEmpty()) {
+            membershipRepository.markCouncil(associationId, council);
+        }
     }
 
     /**
@@ -247,35 +439,95 @@ public class AssociationService {
     /**
      * Processes all the information received about a past election
      * and updates the association's council.
+     * The winners of the ranked count take the seats in the order they were elected,
+     * seats that are left because a winner can no longer join the council go by the standings.
+     *
+     * <p>The candidates are taken in that order until the seats are filled, looking up the eligibility
+     * of up to ELIGIBILITY_BATCH of them at a time in one query. The memberships of the new council
+     * and the association are then updated in bulk, in one transaction. When the election is processed
+     * as part of a larger transaction, the voting microservice is only notified once that one commits.</p>
      *
      * @param model     Model containing all important info pertaining
      *                  to a past election
      */
     public void processElection(ElectionResultRequestModel model) {
+        Set<String> changed = transactionTemplate.execute(status -> electCouncil(model));
+        if (changed != null) {
+            //Re-elected members served one more time, which also affects whether they may be candidates again
+            notifyAfterCommit(changed);
+        }
+    }
+
+    private void notifyAfterCommit(Set<String> changed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eligibilityNotifier.usersChanged(changed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                eligibilityNotifier.usersChanged(changed);
+            }
+        });
+    }
+
+    /**
+     * Seats the new council of an association.
+     *
+     * @return the users whose council membership changed, null if the association does not exist
+     */
+    private Set<String> electCouncil(ElectionResultRequestModel model) {
         Optional<Association> optionalAssociation = associationRepository.findById(model.getAssociationId());
-        if (optionalAssociation.isPresent()) {
-            Association association = optionalAssociation.get();
-            HashMap<String, Integer> hm = model.getStandings();
-            List<Map.Entry<String, Integer>> list = new LinkedList<>(hm.entrySet());
-            Collections.sort(list, (e1, e2) -> -(e1.getValue().compareTo(e2.getValue())));
-            Set<String> council = new HashSet<>();
-
-            int j = 0; //NOPMD
-
-            for (Map.Entry<String, Integer> pair : list) {
-                if (verifyAddingCandidateToCouncil(association, pair.getKey(), j)) {
-                    Membership membership =
-                            membershipRepository.findByUserIdAndAssociationId(pair.getKey(), association.getId()).get();
-                    membership.setTimesCouncil(membership.getTimesCouncil() + 1);
-                    membershipRepository.save(membership);
-                    council.add(pair.getKey());
-                    j++; //NOPMD
+        if (optionalAssociation.isEmpty()) {
+            return null;
+        }
+        Association association = optionalAssociation.get();
+        int seats = association.getCouncilNumber();
+        Iterator<String> ranked = rankCandidates(model);
+        Set<String> council = new HashSet<>();
+
+        while (council.size() < seats && ranked.hasNext()) {
+            List<String> batch = new ArrayList<>();
+            while (batch.size() < ELIGIBILITY_BATCH && ranked.hasNext()) {
+                batch.add(ranked.next());
+            }
+            Map<String, CandidateEligibility> eligibilities = membershipRepository
+                    .findCandidateEligibilities(batch, association.getId()).stream()
+                    .collect(Collectors.toMap(CandidateEligibility::getUserId, Function.identity(),
+                            (first, second) -> first));
+            for (String candidate : batch) {
+                CandidateEligibility eligibility = eligibilities.get(candidate);
+                if (council.size() < seats && eligibility != null && isEligible(eligibility)) {
+                    council.add(candidate);
                 }
             }
+        }
 
-            association.setCouncilUserIds(council);
-            associationRepository.save(association);
+        Set<String> changed = new HashSet<>(association.getCouncilUserIds());
+        changed.addAll(council);
+        membershipRepository.clearCouncil(association.getId());
+        if (!council.isEmpty()) {
+            membershipRepository.seatCouncil(association.getId(), council);
         }
+        association.setCouncilUserIds(council);
+        associationRepository.save(association);
+        return changed;
+    }
+
+    /**
+     * Orders the candidates of an election: the winners of the ranked count, then the others by
+     * descending standing. The standings are only ordered as far as the candidates are taken.
+     */
+    private static Iterator<String> rankCandidates(ElectionResultRequestModel model) {
+        Map<String, Integer> standings = model.getStandings() == null ? Map.of() : model.getStandings();
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(Math.max(1, standings.size()),
+                Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()));
+        heap.addAll(standings.entrySet());
+        List<String> winners = model.getWinners() == null ? List.of() : model.getWinners();
+        return Stream.concat(winners.stream(),
+                Stream.generate(heap::poll).takeWhile(Objects::nonNull).map(Map.Entry::getKey))
+                .distinct().iterator();
     }
 
 
@@ -364,56 +616,55 @@ public class AssociationService {
      * @return                  True if the user can be a candidate.
      */
     public boolean verifyCandidate(String userId, Integer associationId) {
-        // Check if the member is in the HOA (includes null checks)
-        if (!isMember(userId, associationId)) {
+        if (userId == null || associationId == null) {
             return false;
         }
 
-        Optional<Membership> optionalMembership = membershipRepository
-                .findByUserIdAndAssociationIdAndLeaveDate(userId, associationId, null);
-        List<Membership> memberships = membershipRepository.findAllByUserId(userId);
-        memberships.remove(optionalMembership.get());
+        // One query for the membership and the councils the user sits on, empty if the user is not a member
+        Optional<CandidateEligibility> optionalEligibility = membershipRepository
+                .findCandidateEligibility(userId, associationId);
+        return optionalEligibility.isPresent() && isEligible(optionalEligibility.get());
+    }
+
+    private boolean isEligible(CandidateEligibility eligibility) {
         // Check if the user is a councilman in any other association
-        for (Membership m : memberships) {
-            Association association = associationRepository.findById(m.getAssociationId()).get();
-            if (association.getCouncilUserIds().contains(userId)) {
-                return false;
-            }
+        if (eligibility.getOtherCouncils() > 0) {
+            return false;
         }
 
         //Check if the user has been in the association for at least 3 years
-
-        if (!verifyJoinDate(optionalMembership.get().getJoinDate())) {
+        if (!verifyJoinDate(eligibility.getJoinDate())) {
             return false;
         }
 
         //Check if the member has been a councilman 10 times
-        return optionalMembership.get().getTimesCouncil() < 10;
+        return eligibility.getTimesCouncil() == null || eligibility.getTimesCouncil() < 10;
     }
 
 
     /**
      * Creates the first election after association creation, and after each election.
      *
+     * @param seats the number of council seats the election fills.
      * @return a message confirming the creation.
      */
-    public String createElection(int associationId) {
-        final String url = "http://localhost:8083/election/create-election";
+    public String createElection(int associationId, int seats) {
+        final String url = votingUrl + "/election/create-election";
 
         AssociationRequestModel model = new AssociationRequestModel();
         model.setAssociationId(associationId);
-
-        String token = authenticateService("VotingService", "SuperSecretPassword");
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer "
-                + token);
-        HttpEntity<AssociationRequestModel> request = new HttpEntity<>(model, headers);
-
-        RestTemplate restTemplate = new RestTemplate();
+        model.setSeats(seats);
 
         try {
-            ResponseEntity<String> responseEntity = restTemplate.postForEntity(url, request, String.class);
+            ResponseEntity<String> responseEntity = serviceTokenCache
+                    .withToken("VotingService", "SuperSecretPassword", token -> {
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.set("Authorization", "Bearer "
+                                + token);
+                        HttpEntity<AssociationRequestModel> request = new HttpEntity<>(model, headers);
+
+                        return restTemplate.postForEntity(url, request, String.class);
+                    });
 
             if (responseEntity.getStatusCode().equals(HttpStatus.OK)) {
                 return "Board election was created and will be held in 1 year.";
@@ -426,34 +677,30 @@ public class AssociationService {
     }
 
     /**
-     * Generates the token for server to server communication.
+     * Returns the token for server to server communication.
+     * The token is cached and only regenerated through the authentication service shortly before it expires.
      *
      * @param serviceUsername   The username the service is registered with.
      * @param servicePassword   The password the service is registered with.
      * @return                  The bearer token generated through the authentication service.
      */
     public String authenticateService(String serviceUsername, String servicePassword) {
-        RegistrationRequestModel regModel = new RegistrationRequestModel();
-        regModel.setUserId(serviceUsername);
-        regModel.setPassword(servicePassword);
-        HttpEntity<RegistrationRequestModel> authRequest = new HttpEntity<>(regModel);
-
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<AuthenticationResponseModel> authenticationResponse = restTemplate
-                .postForEntity("http://localhost:8081/authenticate", authRequest, AuthenticationResponseModel.class);
-        return Objects.requireNonNull(authenticationResponse.getBody()).getToken();
+        return serviceTokenCache.getToken(serviceUsername, servicePassword);
     }
 
     /**
      * Returns whether the proposal does not exist in the existing rules.
+     * Rules that only differ in case or whitespace count as the same rule.
      *
      * @param associationId The association this proposal is for.
      * @param proposal      The proposal.
      * @return              True if the proposal is unique, otherwise false
      */
     public boolean verifyProposal(Integer associationId, String proposal) {
-        return associationRepository.findById(associationId).orElse(null)
-                .getRules().stream().noneMatch(x -> x.equals(proposal));
+        if (!associationRepository.existsById(associationId)) {
+            throw new IllegalArgumentException("Association with ID " + associationId + " does not exist.");
+        }
+        return !associationRepository.existsRuleFingerprint(associationId, RuleFingerprint.of(proposal));
     }
 
 }
@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+/**
+ * The columns of an association needed to list it, read without its members, council or rules.
+ */
+public interface AssociationSummary {
+
+    Integer getId();
+
+    String getName();
+
+    String getCountry();
+
+    String getCity();
+
+    String getDescription();
+
+    int getCouncilNumber();
+}
@@ -0,0 +1,64 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import nl.tudelft.sem.template.association.models.EligibilityInvalidationRequestModel;
+import nl.tudelft.sem.template.commons.utils.ServiceTokenCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Tells the voting microservice which users' candidate and council member checks changed,
+ * so it can drop the answers it cached for them.
+ *
+ * <p>A failed notification is only logged: the change itself has already been saved, and the
+ * voting microservice expires its cached answers after a short TTL anyway.</p>
+ */
+@Component
+public class EligibilityNotifier {
+    private final transient ServiceTokenCache serviceTokenCache;
+    private final transient RestTemplate restTemplate;
+    private final transient String votingUrl;
+
+    /**
+     * Instantiates the notifier.
+     *
+     * @param restTemplate  The shared RestTemplate used for all calls to the voting microservice.
+     * @param votingUrl     The base URL of the voting microservice.
+     */
+    public EligibilityNotifier(ServiceTokenCache serviceTokenCache, RestTemplate restTemplate,
+                               @Value("${services.voting.url:http://localhost:8083}") String votingUrl) {
+        this.serviceTokenCache = serviceTokenCache;
+        this.restTemplate = restTemplate;
+        this.votingUrl = votingUrl;
+    }
+
+    /**
+     * Notifies the voting microservice that the eligibility of these users changed. A council seat
+     * also affects whether the user may be a candidate in other associations, so the voting
+     * microservice forgets the users in all associations.
+     *
+     * @param userIds   The users whose membership or council seat changed.
+     */
+    public void usersChanged(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        final String url = votingUrl + "/eligibility/invalidate";
+
+        EligibilityInvalidationRequestModel model =
+                new EligibilityInvalidationRequestModel(new ArrayList<>(userIds), null);
+        try {
+            serviceTokenCache.withToken("AssociationService", "SuperSecretPassword", token -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set("Authorization", "Bearer " + token);
+                return restTemplate.postForEntity(url, new HttpEntity<>(model, headers), Void.class);
+            });
+        } catch (Exception e) {
+            System.out.println("Could not notify the voting service of changed eligibility: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The fingerprint of a rule text, used to find duplicate rules with one index probe instead of
+ * comparing the free text of every rule.
+ *
+ * <p>The text is normalized first: trimmed, runs of whitespace collapsed to one space and case-folded,
+ * so rules that only differ in spacing or case have the same fingerprint. The fingerprint is the hex
+ * SHA-256 of the normalized text, which has a fixed length of 64 characters whatever the length of
+ * the rule. The voting microservice computes the same fingerprint for its rule votes.</p>
+ */
+public final class RuleFingerprint {
+
+    /**
+     * The length of a fingerprint, in characters.
+     */
+    public static final int LENGTH = 64;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private RuleFingerprint() {
+    }
+
+    /**
+     * Returns the normalized form of a rule text: trimmed, whitespace collapsed and lower case.
+     */
+    public static String normalize(String rule) {
+        return WHITESPACE.matcher(rule.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the fingerprint of a rule text, null for a null text.
+     */
+    public static String of(String rule) {
+        if (rule == null) {
+            return null;
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(normalize(rule).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+        char[] hex = new char[LENGTH];
+        for (int i = 0; i < digest.length; i++) {
+            hex[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
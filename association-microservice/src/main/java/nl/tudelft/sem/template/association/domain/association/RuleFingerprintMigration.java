@@ -0,0 +1,48 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills in the rule fingerprints of associations whose rules were stored before the fingerprints existed,
+ * so verify-proposal also finds their rules. Runs once on startup and is a no-op when every association
+ * with rules has its fingerprints, so it is safe to keep around.
+ */
+@Component
+public class RuleFingerprintMigration implements ApplicationRunner {
+
+    private final transient AssociationRepository associationRepository;
+
+    /**
+     * Instantiates the migration.
+     */
+    public RuleFingerprintMigration(AssociationRepository associationRepository) {
+        this.associationRepository = associationRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Fingerprints the rules of all associations without fingerprints.
+     *
+     * @return the number of associations updated.
+     */
+    @Transactional
+    public int migrate() {
+        int migrated = 0;
+        for (Association association : associationRepository.findAllWithoutRuleFingerprints()) {
+            association.setRules(association.getRules());
+            if (!association.getRuleFingerprints().isEmpty()) {
+                associationRepository.save(association);
+                migrated++;
+            }
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,40 @@
+package nl.tudelft.sem.template.association.domain.history;
+
+import java.util.Date;
+import javax.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * The idempotency key of a voting result that was processed, so a result the voting microservice
+ * delivers again after a lost response is not applied twice.
+ */
+@Entity
+@Table(name = "processed_results")
+@NoArgsConstructor
+public class ProcessedResult {
+
+    @Id
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Column(name = "processed_at", nullable = false)
+    private Date processedAt;
+
+    /**
+     * Constructor for a processed result.
+     *
+     * @param idempotencyKey the key the voting microservice sent with the result
+     */
+    public ProcessedResult(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+        this.processedAt = new Date();
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public Date getProcessedAt() {
+        return processedAt;
+    }
+}
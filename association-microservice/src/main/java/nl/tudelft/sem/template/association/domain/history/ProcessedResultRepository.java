@@ -0,0 +1,8 @@
+package nl.tudelft.sem.template.association.domain.history;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository("processedResultRepository")
+public interface ProcessedResultRepository extends JpaRepository<ProcessedResult, String> {
+}
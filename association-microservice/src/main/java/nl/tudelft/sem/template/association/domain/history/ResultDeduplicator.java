@@ -0,0 +1,67 @@
+package nl.tudelft.sem.template.association.domain.history;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes sure every voting result is applied once, even though the voting microservice delivers a
+ * result again whenever it did not see the response of an earlier attempt.
+ *
+ * <p>The idempotency key of a result is inserted in the same transaction that applies the result.
+ * The key is the primary key, so of two concurrent deliveries only one insert succeeds, and the
+ * other waits until the first one committed or rolled back. When applying the result fails the key
+ * is rolled back together with the changes, so the next delivery applies it.</p>
+ */
+@Service
+public class ResultDeduplicator {
+
+    private final transient ProcessedResultRepository processedResultRepository;
+    private final transient TransactionTemplate transactionTemplate;
+
+    /**
+     * Instantiates the deduplicator.
+     *
+     * @param transactionManager applies a result and records its key in one transaction
+     */
+    public ResultDeduplicator(ProcessedResultRepository processedResultRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.processedResultRepository = processedResultRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applies a result unless a result with the same key was applied already.
+     *
+     * @param idempotencyKey the key sent with the result, results without a key are always applied
+     * @param apply          applies the result
+     * @param applied        whether the outcome of apply means the result was applied, if not the
+     *                       transaction is rolled back
+     * @param alreadyApplied the outcome to return when the result was applied already
+     * @param <T>            the type of the outcome
+     * @return the outcome of apply, or alreadyApplied
+     */
+    public <T> T applyOnce(String idempotencyKey, Supplier<T> apply, Predicate<T> applied, T alreadyApplied) {
+        if (idempotencyKey != null && processedResultRepository.existsById(idempotencyKey)) {
+            return alreadyApplied;
+        }
+        return transactionTemplate.execute(status -> {
+            if (idempotencyKey != null) {
+                try {
+                    processedResultRepository.saveAndFlush(new ProcessedResult(idempotencyKey));
+                } catch (DataIntegrityViolationException e) {
+                    status.setRollbackOnly();
+                    return alreadyApplied;
+                }
+            }
+            T outcome = apply.get();
+            if (!applied.test(outcome)) {
+                status.setRollbackOnly();
+            }
+            return outcome;
+        });
+    }
+}
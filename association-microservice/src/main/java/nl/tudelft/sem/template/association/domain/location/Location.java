@@ -1,53 +1,65 @@
-package nl.tudelft.sem.template.association.domain.location;
-
-import java.io.Serializable;
-import java.util.Objects;
-
-public class Location {
-
-    private String country;
-    private String city;
-
-    public String getCountry() {
-        return country;
-    }
-
-    public String getCity() {
-        return city;
-    }
-
-    public Location(String country, String city) {
-        this.country = country;
-        this.city = city;
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(country, city);
-    }
-
-    public Location(Location location) {
-        this.country = location.country;
-        this.city = location.city;
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        Location location = (Location) o;
-        return country.equals(location.country) && city.equals(location.city);
-    }
-
-    public void setCountry(String country) {
-        this.country = country;
-    }
-
-    public void setCity(String city) {
-        this.city = city;
-    }
-}
+package nl.tudelft.sem.template.association.domain.location;
+
+import java.io.Serializable;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/*
+country and city, stored as two indexed columns of the association
+ */
+@Embeddable
+public class Location {
+
+    @Column(name = "country", nullable = false)
+    private String country;
+
+    @Column(name = "city", nullable = false)
+    private String city;
+
+    protected Location() {
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public Location(String country, String city) {
+        this.country = country;
+        this.city = city;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(country, city);
+    }
+
+    public Location(Location location) {
+        this.country = location.country;
+        this.city = location.city;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Location location = (Location) o;
+        return country.equals(location.country) && city.equals(location.city);
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+}
@@ -0,0 +1,20 @@
+package nl.tudelft.sem.template.association.domain.membership;
+
+import java.util.Date;
+
+/**
+ * What decides whether a member may be a candidate for the council, read in one query.
+ */
+public interface CandidateEligibility {
+
+    String getUserId();
+
+    Date getJoinDate();
+
+    Integer getTimesCouncil();
+
+    /**
+     * Returns on how many councils of other associations the member currently sits.
+     */
+    long getOtherCouncils();
+}
@@ -10,7 +10,10 @@ import nl.tudelft.sem.template.association.domain.location.Address;
 import nl.tudelft.sem.template.association.domain.location.AddressConverter;
 
 @Entity
-@Table(name = "memberships")
+@Table(name = "memberships", indexes = {
+    @Index(name = "idx_memberships_user_association", columnList = "user_id, association_id"),
+    @Index(name = "idx_memberships_user_council", columnList = "user_id, council")
+})
 @NoArgsConstructor
 public class Membership {
     @Id
@@ -37,6 +40,13 @@ public class Membership {
     @Column(name = "times_council")
     private Integer timesCouncil;
 
+    /*
+    whether the member sits on the council of this association, kept in step with the council of the association
+    so eligibility can be checked on the memberships alone
+     */
+    @Column(name = "council", nullable = false)
+    private boolean council;
+
     @Column(name = "notifications")
     @Convert(converter = NotificationAttributeConverter.class)
     private List<Notification> notifications;
@@ -91,6 +101,7 @@ public class Membership {
 
     public void leave() {
         this.leaveDate = new Date(System.currentTimeMillis());
+        this.council = false;
     }
 
     public int getTimesCouncil() {
@@ -101,6 +112,14 @@ public class Membership {
         this.timesCouncil = timesCouncil;
     }
 
+    public boolean isCouncil() {
+        return council;
+    }
+
+    public void setCouncil(boolean council) {
+        this.council = council;
+    }
+
     public List<Notification> getNotifications() {
         return notifications;
     }
@@ -1,13 +1,24 @@
 package nl.tudelft.sem.template.association.domain.membership;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository("membershipRepository")
 public interface MembershipRepository extends JpaRepository<Membership, Integer> {
+    /*
+    the number of councils of other associations the member sits on, as a subquery on the (user_id, council) index
+     */
+    String OTHER_COUNCILS = "(SELECT count(other) from Membership other where other.userId = membership.userId "
+            + "and other.council = true and other.leaveDate is null and other.id <> membership.id)";
+
     /**existsByUserIdAndAssociationId.
      *
      * @param userId the user id
@@ -49,4 +60,68 @@ public interface MembershipRepository extends JpaRepository<Membership, Integer>
     Optional<Membership> findByUserIdAndAssociationIdAndLeaveDate(String userId, int associationId, Date leaveDate);
 
     List<Membership> findAllByAssociationId(int associationId);
+
+    /**findCandidateEligibility.
+     * One query on the membership indexes for the join date, the times in council
+     * and the number of councils of other associations the member sits on.
+     *
+     * @param userId the user id
+     * @param associationId the association id
+     * @return the eligibility, empty if the user is not a current member
+     */
+    @Query("SELECT membership.userId as userId, membership.joinDate as joinDate, "
+            + "membership.timesCouncil as timesCouncil, " + OTHER_COUNCILS + " as otherCouncils "
+            + "from Membership membership where membership.userId = :userId "
+            + "and membership.associationId = :associationId and membership.leaveDate is null")
+    Optional<CandidateEligibility> findCandidateEligibility(String userId, int associationId);
+
+    /**findCandidateEligibilities.
+     * The eligibility of many candidates of one association in one query.
+     *
+     * @param userIds the user ids of the candidates
+     * @param associationId the association id
+     * @return the eligibility of the candidates that are current members, in no particular order
+     */
+    @Query("SELECT membership.userId as userId, membership.joinDate as joinDate, "
+            + "membership.timesCouncil as timesCouncil, " + OTHER_COUNCILS + " as otherCouncils "
+            + "from Membership membership where membership.userId in :userIds "
+            + "and membership.associationId = :associationId and membership.leaveDate is null")
+    List<CandidateEligibility> findCandidateEligibilities(Collection<String> userIds, int associationId);
+
+    /**clearCouncil.
+     *
+     * @param associationId the association id
+     * @return the number of memberships that were on the council
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Membership membership set membership.council = false "
+            + "where membership.associationId = :associationId and membership.council = true")
+    int clearCouncil(int associationId);
+
+    /**markCouncil.
+     *
+     * @param associationId the association id
+     * @param userIds the members on the council
+     * @return the number of memberships marked
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Membership membership set membership.council = true where membership.associationId = :associationId "
+            + "and membership.leaveDate is null and membership.userId in :userIds")
+    int markCouncil(int associationId, Set<String> userIds);
+
+    /**seatCouncil.
+     * Marks the memberships of a newly elected council as on the council and counts one more term for each.
+     *
+     * @param associationId the association id
+     * @param userIds the members elected to the council
+     * @return the number of memberships updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Membership membership set membership.council = true, "
+            + "membership.timesCouncil = membership.timesCouncil + 1 where membership.associationId = :associationId "
+            + "and membership.leaveDate is null and membership.userId in :userIds")
+    int seatCouncil(int associationId, Set<String> userIds);
 }
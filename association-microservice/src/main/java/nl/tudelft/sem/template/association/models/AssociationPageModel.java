@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.association.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ one page of associations ordered by id, nextAfterId is the afterId of the next page, null on the last page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssociationPageModel {
+    private List<AssociationSummaryModel> associations;
+    private Integer nextAfterId;
+}
@@ -5,4 +5,5 @@ import lombok.Data;
 @Data
 public class AssociationRequestModel {
     private int associationId;
+    private int seats;
 }
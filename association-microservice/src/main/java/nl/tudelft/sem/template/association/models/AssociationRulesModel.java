@@ -1,15 +1,17 @@
 package nl.tudelft.sem.template.association.models;
 
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-/**
- * Model representing an authentication response.
+/*
+ the fingerprints of the rules of one association
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
-public class AuthenticationResponseModel {
-    private String token;
-}
\ No newline at end of file
+@AllArgsConstructor
+public class AssociationRulesModel {
+    private int associationId;
+    private List<String> ruleFingerprints;
+}
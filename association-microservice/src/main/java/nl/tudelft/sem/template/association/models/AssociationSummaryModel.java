@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.association.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssociationSummaryModel {
+    private int id;
+    private String name;
+    private String country;
+    private String city;
+    private String description;
+    private int councilNumber;
+}
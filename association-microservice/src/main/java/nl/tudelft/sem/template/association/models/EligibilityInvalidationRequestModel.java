@@ -0,0 +1,18 @@
+package nl.tudelft.sem.template.association.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing a change in the memberships or the council of an association,
+ * sent to the voting microservice so it forgets the eligibility it cached for these users.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EligibilityInvalidationRequestModel {
+    private List<String> userIds;
+    private Integer associationId;
+}
@@ -5,8 +5,6 @@ import java.io.IOException;
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.context.annotation.Bean;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
@@ -19,11 +17,6 @@ public class RequestUtil {
     @Autowired
     private transient RestTemplate restTemplate;
 
-    @Bean
-    public RestTemplate generateTestTemplate(RestTemplateBuilder builder) {
-        return builder.build();
-    }
-
     private static final String AUTH_HEADER = "Authorization";
 
     /**
@@ -0,0 +1,119 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import nl.tudelft.sem.template.association.domain.location.Location;
+import nl.tudelft.sem.template.association.models.AssociationPageModel;
+import nl.tudelft.sem.template.association.models.AssociationSummaryModel;
+import nl.tudelft.sem.template.association.models.RuleFingerprintsPageModel;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class AssociationListingTest {
+    @Autowired
+    private transient AssociationService associationService;
+    @Autowired
+    private transient AssociationRepository associationRepository;
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    private final List<Integer> ids = new ArrayList<>();
+
+    /**
+     * Create 25 associations, each with a few members and a council.
+     */
+    @BeforeEach
+    public void setup() {
+        for (int i = 0; i < 25; i++) {
+            Association association = new Association("association" + i, new Location("country", "city" + i),
+                    "description", 3);
+            for (int j = 0; j < 10; j++) {
+                association.addMember("member" + j);
+            }
+            association.getCouncilUserIds().add("member0");
+            ids.add(associationRepository.save(association).getId());
+        }
+    }
+
+    @Test
+    public void pagesCoverAllAssociationsOnceTest() {
+        List<AssociationSummaryModel> listed = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        AssociationPageModel page = associationService.listAssociations(0, 10);
+        listed.addAll(page.getAssociations());
+        pageSizes.add(page.getAssociations().size());
+        while (page.getNextAfterId() != null) {
+            page = associationService.listAssociations(page.getNextAfterId(), 10);
+            listed.addAll(page.getAssociations());
+            pageSizes.add(page.getAssociations().size());
+        }
+
+        assertThat(pageSizes).containsExactly(10, 10, 5);
+        assertThat(listed).extracting(AssociationSummaryModel::getId).containsExactlyElementsOf(ids);
+        AssociationSummaryModel first = listed.get(0);
+        assertThat(first.getName()).isEqualTo("association0");
+        assertThat(first.getCountry()).isEqualTo("country");
+        assertThat(first.getCity()).isEqualTo("city0");
+        assertThat(first.getCouncilNumber()).isEqualTo(3);
+    }
+
+    @Test
+    public void listingDoesNotLoadAssociationsTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        associationService.listAssociations(ids.get(4), 10);
+        associationService.getAssociationIds(ids.get(4), 10);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    public void idsTest() {
+        assertThat(associationService.getAssociationIds()).containsExactlyElementsOf(ids);
+        assertThat(associationService.getAssociationIds(ids.get(19), 10)).containsExactlyElementsOf(ids.subList(20, 25));
+    }
+
+    @Test
+    public void ruleFingerprintsPagesTest() {
+        Association withRules = new Association("with rules", new Location("country", "city"), "description", 3);
+        withRules.setRules(List.of("Be nice.", "No running."));
+        int withRulesId = associationRepository.save(withRules).getId();
+
+        RuleFingerprintsPageModel page = associationService.getRuleFingerprints(0, 25);
+        assertThat(page.getAssociations()).isEmpty();
+        assertThat(page.getNextAfterId()).isEqualTo(ids.get(24));
+
+        page = associationService.getRuleFingerprints(page.getNextAfterId(), 25);
+        assertThat(page.getAssociations()).hasSize(1);
+        assertThat(page.getAssociations().get(0).getAssociationId()).isEqualTo(withRulesId);
+        assertThat(page.getAssociations().get(0).getRuleFingerprints())
+                .containsExactlyInAnyOrder(RuleFingerprint.of("Be nice."), RuleFingerprint.of("No running."));
+        assertThat(page.getNextAfterId()).isNull();
+    }
+
+    @Test
+    public void invalidPageSizeTest() {
+        assertThatThrownBy(() -> associationService.listAssociations(0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> associationService.getAssociationIds(0, AssociationService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
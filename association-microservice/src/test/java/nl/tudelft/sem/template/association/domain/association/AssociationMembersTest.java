@@ -0,0 +1,126 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
+import javax.persistence.EntityManagerFactory;
+import nl.tudelft.sem.template.association.domain.location.Address;
+import nl.tudelft.sem.template.association.domain.location.Location;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class AssociationMembersTest {
+    @Autowired
+    private transient AssociationService associationService;
+    @Autowired
+    private transient AssociationRepository associationRepository;
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    private final Location location = new Location("test", "test");
+    private final Address address = new Address(location, "test", "test", "test");
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    private int association(int members) {
+        Association association = new Association("test", location, "test", 5);
+        for (int i = 0; i < members; i++) {
+            association.addMember("member" + i);
+        }
+        return associationRepository.save(association).getId();
+    }
+
+    @Test
+    public void joinAndLeaveTest() {
+        int associationId = association(3);
+
+        associationService.joinAssociation("a", associationId, address);
+
+        assertThat(associationService.hasMember(associationId, "a")).isTrue();
+        assertThat(associationService.hasMember(associationId, "member1")).isTrue();
+        assertThat(associationService.hasMember(associationId, "b")).isFalse();
+
+        associationService.leaveAssociation("a", associationId);
+
+        assertThat(associationService.hasMember(associationId, "a")).isFalse();
+        assertThat(associationRepository.countMembers(associationId, Set.of("a", "member0", "member2"))).isEqualTo(2);
+    }
+
+    @Test
+    public void leavingCouncilMemberLeavesTheRestOfTheCouncilTest() {
+        int associationId = association(0);
+        associationService.joinAssociation("a", associationId, address);
+        associationService.joinAssociation("b", associationId, address);
+        associationService.joinAssociation("c", associationId, address);
+        associationService.updateCouncil(Set.of("a", "b"), associationId);
+
+        associationService.leaveAssociation("a", associationId);
+
+        assertThat(associationService.getCouncil(associationId)).containsExactly("b");
+    }
+
+    @Test
+    public void councilMustBeMembersTest() {
+        int associationId = association(2);
+
+        assertThatThrownBy(() -> associationService.updateCouncil(Set.of("member0", "stranger"), associationId))
+                .isInstanceOf(IllegalArgumentException.class);
+        associationService.updateCouncil(Set.of("member0", "member1"), associationId);
+        assertThat(associationService.getCouncil(associationId)).containsExactlyInAnyOrder("member0", "member1");
+    }
+
+    @Test
+    public void unknownAssociationTest() {
+        assertThatThrownBy(() -> associationService.hasMember(12345, "a"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> associationService.filterMembers(12345, Set.of("a")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void filterMembersTest() {
+        int associationId = association(3);
+        int other = association(0);
+        associationService.joinAssociation("a", other, address);
+
+        assertThat(associationService.filterMembers(associationId, Set.of("member0", "member2", "a", "b")))
+                .containsExactlyInAnyOrder("member0", "member2");
+        assertThat(associationService.filterMembers(associationId, Set.of())).isEmpty();
+    }
+
+    @Test
+    public void joinCostDoesNotGrowWithTheMembersTest() {
+        int small = association(1);
+        int large = association(5000);
+
+        statistics.clear();
+        associationService.joinAssociation("a", small, address);
+        assertThat(associationService.hasMember(small, "a")).isTrue();
+        long smallStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        associationService.joinAssociation("a", large, address);
+        assertThat(associationService.hasMember(large, "a")).isTrue();
+        long largeStatements = statistics.getPrepareStatementCount();
+
+        assertThat(largeStatements).isEqualTo(smallStatements);
+        // Not a single member row was loaded, only the new one written
+        assertThat(statistics.getCollectionStatistics(Association.class.getName() + ".memberUserIds").getLoadCount())
+                .isZero();
+    }
+}
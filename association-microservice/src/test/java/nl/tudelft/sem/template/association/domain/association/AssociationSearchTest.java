@@ -0,0 +1,85 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.association.domain.location.Location;
+import nl.tudelft.sem.template.association.models.AssociationPageModel;
+import nl.tudelft.sem.template.association.models.AssociationSummaryModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class AssociationSearchTest {
+    @Autowired
+    private transient AssociationService associationService;
+    @Autowired
+    private transient AssociationRepository associationRepository;
+
+    /**
+     * Create associations in a few cities.
+     */
+    @BeforeEach
+    public void setup() {
+        for (String[] location : List.of(new String[] {"NL", "Delft"}, new String[] {"NL", "Den Haag"},
+                new String[] {"NL", "Delfgauw"}, new String[] {"BE", "Brussel"}, new String[] {"NL", "Delft"})) {
+            associationRepository.save(new Association(location[1] + " HOA", new Location(location[0], location[1]),
+                    "description", 5));
+        }
+    }
+
+    private List<String> cities(AssociationPageModel page) {
+        return page.getAssociations().stream().map(AssociationSummaryModel::getCity)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void countryAndCityPrefixTest() {
+        assertThat(cities(associationService.searchAssociations("NL", "Del", 0, 20)))
+                .containsExactly("Delft", "Delfgauw", "Delft");
+        assertThat(cities(associationService.searchAssociations("NL", "Delft", 0, 20)))
+                .containsExactly("Delft", "Delft");
+        assertThat(cities(associationService.searchAssociations("BE", "Del", 0, 20))).isEmpty();
+    }
+
+    @Test
+    public void countryOrCityOnlyTest() {
+        assertThat(cities(associationService.searchAssociations("B", null, 0, 20))).containsExactly("Brussel");
+        assertThat(cities(associationService.searchAssociations(null, "Den", 0, 20))).containsExactly("Den Haag");
+        assertThat(cities(associationService.searchAssociations("", "Br", 0, 20))).containsExactly("Brussel");
+    }
+
+    @Test
+    public void wildcardsAreMatchedLiterallyTest() {
+        assertThat(cities(associationService.searchAssociations("NL", "D_l", 0, 20))).isEmpty();
+        assertThat(cities(associationService.searchAssociations("NL", "%", 0, 20))).isEmpty();
+    }
+
+    @Test
+    public void paginationTest() {
+        AssociationPageModel first = associationService.searchAssociations("NL", "Del", 0, 2);
+        assertThat(cities(first)).containsExactly("Delft", "Delfgauw");
+        assertThat(first.getNextAfterId()).isNotNull();
+
+        AssociationPageModel second = associationService.searchAssociations("NL", "Del", first.getNextAfterId(), 2);
+        assertThat(cities(second)).containsExactly("Delft");
+        assertThat(second.getNextAfterId()).isNull();
+    }
+
+    @Test
+    public void invalidSearchTest() {
+        assertThatThrownBy(() -> associationService.searchAssociations(null, " ", 0, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> associationService.searchAssociations("NL", null, 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+import javax.persistence.EntityManagerFactory;
+import nl.tudelft.sem.template.association.domain.location.Address;
+import nl.tudelft.sem.template.association.domain.location.Location;
+import nl.tudelft.sem.template.association.domain.membership.Membership;
+import nl.tudelft.sem.template.association.domain.membership.MembershipRepository;
+import nl.tudelft.sem.template.association.models.ElectionResultRequestModel;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ProcessElectionTest {
+    @Autowired
+    private transient AssociationService associationService;
+    @Autowired
+    private transient AssociationRepository associationRepository;
+    @Autowired
+    private transient MembershipRepository membershipRepository;
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    private final Location location = new Location("test", "test");
+    private final Address address = new Address(location, "test", "test", "test");
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    /**
+     * Creates an association with a council of 5 and candidates "prefix0" up to the given number,
+     * all members for long enough, where a higher number got more votes.
+     */
+    private ElectionResultRequestModel election(String prefix, int candidates) {
+        Association association = associationRepository.save(new Association(prefix, location, prefix, 5));
+        List<Membership> memberships = new ArrayList<>();
+        HashMap<String, Integer> standings = new HashMap<>();
+        for (int i = 0; i < candidates; i++) {
+            Membership membership = new Membership(prefix + i, association.getId(), address);
+            membership.setJoinDate(new Date(0));
+            memberships.add(membership);
+            standings.put(prefix + i, i);
+        }
+        membershipRepository.saveAll(memberships);
+
+        ElectionResultRequestModel model = new ElectionResultRequestModel();
+        model.setStandings(standings);
+        model.setAssociationId(association.getId());
+        model.setDate(new Date());
+        model.setResult("-TestResult-");
+        return model;
+    }
+
+    private Membership membership(String userId, int associationId) {
+        return membershipRepository.findByUserIdAndAssociationIdAndLeaveDate(userId, associationId, null).get();
+    }
+
+    @Test
+    public void topEligibleCandidatesTakeTheSeatsTest() {
+        ElectionResultRequestModel model = election("user", 2000);
+        int associationId = model.getAssociationId();
+
+        Membership recent = membership("user1999", associationId);
+        recent.setJoinDate(new Date());
+        membershipRepository.save(recent);
+        Membership veteran = membership("user1997", associationId);
+        veteran.setTimesCouncil(10);
+        membershipRepository.save(veteran);
+        Association other = associationRepository.save(new Association("other", location, "other", 5));
+        associationService.joinAssociation("user1998", other.getId(), address);
+        associationService.updateCouncil(new HashSet<>(List.of("user1998")), other.getId());
+
+        associationService.processElection(model);
+
+        Set<String> council = associationRepository.findById(associationId).get().getCouncilUserIds();
+        assertThat(council).containsExactlyInAnyOrder("user1996", "user1995", "user1994", "user1993", "user1992");
+        assertThat(membership("user1996", associationId).getTimesCouncil()).isEqualTo(1);
+        assertThat(membership("user1996", associationId).isCouncil()).isTrue();
+        assertThat(membership("user1999", associationId).getTimesCouncil()).isZero();
+        assertThat(membership("user1998", associationId).isCouncil()).isFalse();
+    }
+
+    @Test
+    public void reElectedCouncilServesAnotherTermTest() {
+        ElectionResultRequestModel model = election("user", 10);
+        int associationId = model.getAssociationId();
+
+        associationService.processElection(model);
+        model.getStandings().put("user0", 100);
+        associationService.processElection(model);
+
+        assertThat(associationRepository.findById(associationId).get().getCouncilUserIds())
+                .containsExactlyInAnyOrder("user0", "user9", "user8", "user7", "user6");
+        assertThat(membership("user9", associationId).getTimesCouncil()).isEqualTo(2);
+        assertThat(membership("user0", associationId).getTimesCouncil()).isEqualTo(1);
+        // user5 lost the seat
+        assertThat(membership("user5", associationId).isCouncil()).isFalse();
+        assertThat(membership("user5", associationId).getTimesCouncil()).isEqualTo(1);
+    }
+
+    @Test
+    public void constantNumberOfStatementsTest() {
+        ElectionResultRequestModel small = election("small", 10);
+        ElectionResultRequestModel large = election("large", 2000);
+
+        statistics.clear();
+        associationService.processElection(small);
+        long smallStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        associationService.processElection(large);
+        long largeStatements = statistics.getPrepareStatementCount();
+
+        assertThat(largeStatements).isEqualTo(smallStatements);
+        assertThat(associationRepository.findById(large.getAssociationId()).get().getCouncilUserIds()).hasSize(5);
+    }
+}
@@ -0,0 +1,56 @@
+package nl.tudelft.sem.template.association.domain.association;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import nl.tudelft.sem.template.association.domain.location.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RuleFingerprintMigrationTest {
+    @Autowired
+    private transient RuleFingerprintMigration migration;
+    @Autowired
+    private transient AssociationRepository associationRepository;
+
+    /**
+     * Saves an association with the rules, without their fingerprints, like one stored before the
+     * fingerprints existed.
+     */
+    private int saveLegacyAssociation(String name, List<String> rules) {
+        Association association = new Association(name, new Location("country", "city"), "description", 3);
+        association.setRules(rules);
+        association = associationRepository.save(association);
+        association.getRuleFingerprints().clear();
+        return associationRepository.save(association).getId();
+    }
+
+    @Test
+    public void migrateFingerprintsLegacyRulesTest() {
+        int legacy = saveLegacyAssociation("legacy", List.of("Be nice.", "No running."));
+        saveLegacyAssociation("without rules", List.of());
+        assertThat(associationRepository.existsRuleFingerprint(legacy, RuleFingerprint.of("be nice."))).isFalse();
+
+        assertThat(migration.migrate()).isEqualTo(1);
+
+        assertThat(associationRepository.existsRuleFingerprint(legacy, RuleFingerprint.of("be nice."))).isTrue();
+        assertThat(associationRepository.existsRuleFingerprint(legacy, RuleFingerprint.of("No running."))).isTrue();
+        assertThat(associationRepository.findAllWithoutRuleFingerprints()).isEmpty();
+    }
+
+    @Test
+    public void migrateIsNoOpWhenFingerprintedTest() {
+        Association association = new Association("current", new Location("country", "city"), "description", 3);
+        association.setRules(List.of("Be nice."));
+        associationRepository.save(association);
+
+        assertThat(migration.migrate()).isZero();
+    }
+}
@@ -9,21 +9,24 @@ import static org.mockito.Mockito.*;
 import java.util.*;
 import nl.tudelft.sem.template.association.domain.location.Address;
 import nl.tudelft.sem.template.association.domain.location.Location;
-import nl.tudelft.sem.template.association.models.AuthenticationResponseModel;
+import nl.tudelft.sem.template.association.models.EligibilityInvalidationRequestModel;
+import nl.tudelft.sem.template.commons.models.AuthenticationResponseModel;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
-import org.mockito.MockedConstruction;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.client.RestTemplate;
 
 @ExtendWith({SpringExtension.class})
 @SpringBootTest
+@ActiveProfiles({"mockRestTemplate"})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 public class VerifyAssociationServiceTest {
     @Autowired
@@ -33,42 +36,27 @@ public class VerifyAssociationServiceTest {
     @Autowired
     private transient AssociationRepository mockAssociationRepository;
 
-    private static MockedConstruction<RestTemplate> restTemplateConstruction;
+    @Autowired
+    private transient RestTemplate mockRestTemplate;
 
     private HashSet<String> councilMembers;
     private Association association;
     private String userId;
 
     /**
-     * Setup for the static mocking.
+     * Initialize the councilMembers and userId variables before each test.
      */
-    @BeforeAll
-    public static void setUpAll() {
+    @BeforeEach
+    public void setup() {
         AuthenticationResponseModel model = new AuthenticationResponseModel();
         model.setToken("mockedToken");
 
         ResponseEntity response = mock(ResponseEntity.class);
         when(response.getBody()).thenReturn(model);
 
-        setUpRestTemplateConstruction((mock, context) -> {
-            when(mock.postForEntity(eq("http://localhost:8081/authenticate"), any(HttpEntity.class), eq(AuthenticationResponseModel.class))).thenReturn(response);
-            when(mock.postForEntity(eq("http://localhost:8083/election/create-election"), any(HttpEntity.class), eq(String.class))).thenReturn(ResponseEntity.ok("Some return string"));
-        });
-    }
-
-    /**
-     * Break down of the static mocks.
-     */
-    @AfterAll
-    public static void tearDownAll() {
-        tearDown();
-    }
+        when(mockRestTemplate.postForEntity(eq("http://localhost:8081/authenticate"), any(HttpEntity.class), eq(AuthenticationResponseModel.class))).thenReturn(response);
+        when(mockRestTemplate.postForEntity(eq("http://localhost:8083/election/create-election"), any(HttpEntity.class), eq(String.class))).thenReturn(ResponseEntity.ok("Some return string"));
 
-    /**
-     * Initialize the councilMembers and userId variables before each test.
-     */
-    @BeforeEach
-    public void setup() {
         this.councilMembers = new HashSet<>();
         this.councilMembers.add("a");
         this.councilMembers.add("b");
@@ -81,21 +69,6 @@ public class VerifyAssociationServiceTest {
         mockAssociationRepository.save(this.association);
     }
 
-    /**
-     * Closes the construction of restTemplate if it was initialized in the tests.
-     */
-    public static void tearDown() {
-        if (restTemplateConstruction != null) {
-            restTemplateConstruction.close();
-            restTemplateConstruction = null;
-        }
-    }
-
-    public static void setUpRestTemplateConstruction(MockedConstruction.MockInitializer<RestTemplate>
-                                                             restTemplateInitializer) {
-        restTemplateConstruction = mockConstruction(RestTemplate.class, restTemplateInitializer);
-    }
-
     @Test
     public void verifyTrueTest() {
         this.userId = "a";
@@ -195,6 +168,22 @@ public class VerifyAssociationServiceTest {
         associationService.updateCouncil(Set.of("someUser"), association.getId());
     }
 
+    @Test
+    public void testUpdateCouncilInvalidatesEligibility() {
+        associationService.joinAssociation("someUser", association.getId(),
+                new Address(new Location("test", "test"), "test", "test", "test"));
+        associationService.updateCouncil(Set.of("someUser"), association.getId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<HttpEntity<EligibilityInvalidationRequestModel>> captor =
+                ArgumentCaptor.forClass((Class) HttpEntity.class);
+        verify(mockRestTemplate, times(2)).postForEntity(eq("http://localhost:8083/eligibility/invalidate"),
+                captor.capture(), eq(Void.class));
+        assertThat(captor.getAllValues().get(0).getBody().getUserIds()).containsExactly("someUser");
+        assertThat(captor.getAllValues().get(1).getBody().getUserIds())
+                .containsExactlyInAnyOrder("a", "b", "c", "someUser");
+    }
+
     @Test
     public void testUpdateCouncilWrongAssociationId() {
         associationService.joinAssociation("someUser", association.getId(),
@@ -1,9 +1,11 @@
 package nl.tudelft.sem.template.association.domain.association;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.*;
+import javax.persistence.EntityManagerFactory;
 import nl.tudelft.sem.template.association.domain.association.Association;
 import nl.tudelft.sem.template.association.domain.association.AssociationRepository;
 import nl.tudelft.sem.template.association.domain.association.AssociationService;
@@ -11,6 +13,8 @@ import nl.tudelft.sem.template.association.domain.location.Address;
 import nl.tudelft.sem.template.association.domain.location.Location;
 import nl.tudelft.sem.template.association.domain.membership.Membership;
 import nl.tudelft.sem.template.association.domain.membership.MembershipRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,6 +34,8 @@ public class VerifyCandidateAssociationServiceTest {
     private transient AssociationRepository associationRepository;
     @Autowired
     private transient MembershipRepository membershipRepository;
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
     private Association association;
     private String userId;
 
@@ -47,22 +53,77 @@ public class VerifyCandidateAssociationServiceTest {
 
     }
 
-    @Test
-    public void eligibleTest() {
+    private void joinedYearsAgo(int associationId, int years) {
         Optional<Membership> optionalMembership = membershipRepository
-                .findByUserIdAndAssociationIdAndLeaveDate(userId, association.getId(), null);
+                .findByUserIdAndAssociationIdAndLeaveDate(userId, associationId, null);
         assert optionalMembership.isPresent();
         Membership membership = optionalMembership.get();
 
         Calendar c = Calendar.getInstance();
         c.setTime(new Date(System.currentTimeMillis()));
-        c.add(Calendar.YEAR, -4);
+        c.add(Calendar.YEAR, -years);
         membership.setJoinDate(new Date(c.getTime().getTime()));
         membershipRepository.save(membership);
+    }
+
+    private Association joinOtherAssociation(String name) {
+        Location location = new Location(name, name);
+        Association other = associationRepository.save(new Association(name, location, name, 10));
+        associationService.joinAssociation(userId, other.getId(), new Address(location, name, name, name));
+        return other;
+    }
+
+    @Test
+    public void eligibleTest() {
+        joinedYearsAgo(association.getId(), 4);
 
         assertTrue(associationService.verifyCandidate(userId, association.getId()));
     }
 
+    @Test
+    public void councilOfOtherAssociationTest() {
+        joinedYearsAgo(association.getId(), 4);
+        Association other = joinOtherAssociation("other");
+        associationService.updateCouncil(new HashSet<>(List.of(userId)), other.getId());
+
+        assertFalse(associationService.verifyCandidate(userId, association.getId()));
+
+        // Once off the other council the user may be a candidate again
+        associationService.updateCouncil(new HashSet<>(), other.getId());
+        assertTrue(associationService.verifyCandidate(userId, association.getId()));
+    }
+
+    @Test
+    public void tooManyTimesInCouncilTest() {
+        joinedYearsAgo(association.getId(), 4);
+        Membership membership = membershipRepository
+                .findByUserIdAndAssociationIdAndLeaveDate(userId, association.getId(), null).get();
+        membership.setTimesCouncil(10);
+        membershipRepository.save(membership);
+
+        assertFalse(associationService.verifyCandidate(userId, association.getId()));
+    }
+
+    @Test
+    public void constantNumberOfQueriesTest() {
+        joinedYearsAgo(association.getId(), 4);
+        for (int i = 0; i < 20; i++) {
+            Association other = joinOtherAssociation("other" + i);
+            if (i % 5 == 0) {
+                associationService.updateCouncil(new HashSet<>(List.of(userId)), other.getId());
+            }
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        boolean eligible = associationService.verifyCandidate(userId, association.getId());
+
+        // A single statement, however many associations the user is a member of
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(eligible);
+    }
+
     @Test
     public void userNullTest() {
         assertFalse(associationService.verifyCandidate(null, association.getId()));
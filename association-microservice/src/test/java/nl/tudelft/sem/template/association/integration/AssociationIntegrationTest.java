@@ -6,6 +6,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.*;
@@ -16,18 +17,17 @@ import nl.tudelft.sem.template.association.domain.association.AssociationReposit
 import nl.tudelft.sem.template.association.domain.history.Event;
 import nl.tudelft.sem.template.association.domain.history.History;
 import nl.tudelft.sem.template.association.domain.history.HistoryRepository;
+import nl.tudelft.sem.template.association.domain.history.ProcessedResultRepository;
 import nl.tudelft.sem.template.association.domain.location.Address;
 import nl.tudelft.sem.template.association.domain.location.Location;
 import nl.tudelft.sem.template.association.domain.membership.Membership;
 import nl.tudelft.sem.template.association.domain.membership.MembershipRepository;
 import nl.tudelft.sem.template.association.integration.utils.JsonUtil;
 import nl.tudelft.sem.template.association.models.*;
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
+import nl.tudelft.sem.template.commons.models.AuthenticationResponseModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.MockedConstruction;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -43,7 +43,7 @@ import org.springframework.web.client.RestTemplate;
 
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
-@ActiveProfiles({"test", "mockTokenVerifier", "mockAuthenticationManager"})
+@ActiveProfiles({"test", "mockTokenVerifier", "mockAuthenticationManager", "mockRestTemplate"})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
 public class AssociationIntegrationTest {
@@ -59,8 +59,11 @@ public class AssociationIntegrationTest {
     private transient MembershipRepository membershipRepository;
     @Autowired
     private transient HistoryRepository mockHistoryRepository;
+    @Autowired
+    private transient ProcessedResultRepository processedResultRepository;
 
-    private static MockedConstruction<RestTemplate> restTemplateConstruction;
+    @Autowired
+    private transient RestTemplate mockRestTemplate;
 
     private HashSet<String> councilMembers;
     private Association association;
@@ -68,38 +71,19 @@ public class AssociationIntegrationTest {
     private String userId;
 
     /**
-     * Setup for the static mocking.
+     * Initialize the councilMembers and userId variables before each test.
      */
-    @BeforeAll
-    public static void setUpAll() {
+    @BeforeEach
+    public void setup() {
         AuthenticationResponseModel authModel = new AuthenticationResponseModel();
         authModel.setToken("mockedToken");
 
         ResponseEntity authResponse = mock(ResponseEntity.class);
         when(authResponse.getBody()).thenReturn(authModel);
 
-        setUpRestTemplateConstruction((mock, context) -> {
-            when(mock.postForEntity(eq("http://localhost:8081/authenticate"), any(HttpEntity.class), eq(AuthenticationResponseModel.class))).thenReturn(authResponse);
-            when(mock.postForEntity(eq("http://localhost:8083/election/create-election"), any(HttpEntity.class), eq(String.class))).thenReturn(ResponseEntity.ok("Some return string"));
-        });
-    }
-
-    /**
-     * Break down of the static mocks.
-     */
-    @AfterAll
-    public static void tearDownAll() {
-        if (restTemplateConstruction != null) {
-            restTemplateConstruction.close();
-            restTemplateConstruction = null;
-        }
-    }
+        when(mockRestTemplate.postForEntity(eq("http://localhost:8081/authenticate"), any(HttpEntity.class), eq(AuthenticationResponseModel.class))).thenReturn(authResponse);
+        when(mockRestTemplate.postForEntity(eq("http://localhost:8083/election/create-election"), any(HttpEntity.class), eq(String.class))).thenReturn(ResponseEntity.ok("Some return string"));
 
-    /**
-     * Initialize the councilMembers and userId variables before each test.
-     */
-    @BeforeEach
-    public void setup() {
         this.councilMembers = new HashSet<>();
         this.councilMembers.add("a");
         this.councilMembers.add("b");
@@ -146,11 +130,6 @@ public class AssociationIntegrationTest {
         when(authManager.validateRequestUser("d")).thenReturn(true);
     }
 
-    public static void setUpRestTemplateConstruction(MockedConstruction.MockInitializer<RestTemplate>
-                                                             restTemplateInitializer) {
-        restTemplateConstruction = mockConstruction(RestTemplate.class, restTemplateInitializer);
-    }
-
     @Test
     public void verifyTrueTest() throws Exception {
         this.userId = "a";
@@ -397,6 +376,37 @@ public class AssociationIntegrationTest {
         assertThat(response).isEqualTo("User cannot be a candidate for the council.");
     }
 
+    @Test
+    public void filterMembersTest() throws Exception {
+        when(authManager.validateRequestUser("VotingService")).thenReturn(true);
+        MembersRequestModel model = new MembersRequestModel();
+        model.setAssociationId(association.getId());
+        model.setUserIds(Set.of("a", "d", "x"));
+
+        ResultActions result = mockMvc.perform(post("/association/filter-members")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.serialize(model))
+                .header("Authorization", "Bearer MockedToken"));
+
+        result.andExpect(status().isOk());
+        String response = result.andReturn().getResponse().getContentAsString();
+        assertThat(response).contains("\"a\"", "\"d\"").doesNotContain("\"x\"");
+    }
+
+    @Test
+    public void filterMembersOnlyForVotingServiceTest() throws Exception {
+        MembersRequestModel model = new MembersRequestModel();
+        model.setAssociationId(association.getId());
+        model.setUserIds(Set.of("a", "d"));
+
+        ResultActions result = mockMvc.perform(post("/association/filter-members")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.serialize(model))
+                .header("Authorization", "Bearer MockedToken"));
+
+        result.andExpect(status().isUnauthorized());
+    }
+
     @Test
     public void verifyAuthenticationJoinAssociation() throws Exception {
         JoinAssociationRequestModel model = new JoinAssociationRequestModel();
@@ -552,6 +562,87 @@ public class AssociationIntegrationTest {
         assertThat(events.get(1).getDescription()).isEqualTo(resultString);
     }
 
+    @Test
+    public void updateCouncilWithRankedWinnersTest() throws Exception {
+        Membership member = new Membership("f", association.getId(),
+                new Address(new Location("test", "test"), "test", "test", "test"));
+        member.setJoinDate(new Date(0));
+        membershipRepository.save(member);
+        association.setCouncilNumber(2);
+        mockAssociationRepository.save(association);
+
+        HashMap<String, Integer> hm = new HashMap<>();
+        hm.put("a", 7);
+        hm.put("b", 5);
+        hm.put("d", 1);
+        hm.put("f", 20);
+
+        // The ranked count elected d, b and a, d can not join the council, so b and a take the seats
+        // even though f has the most first preferences
+        ElectionResultRequestModel model = new ElectionResultRequestModel();
+        model.setStandings(hm);
+        model.setWinners(List.of("d", "b", "a"));
+        model.setResult("-TestResult-");
+        model.setDate(new Date());
+        model.setAssociationId(association.getId());
+
+        mockMvc.perform(post("/association/update-council")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.serialize(model))
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        assertThat(mockAssociationRepository.findById(association.getId()).get().getCouncilUserIds())
+                .containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    public void updateCouncilDeliveredTwiceTest() throws Exception {
+        HashMap<String, Integer> hm = new HashMap<>();
+        hm.put("a", 7);
+
+        ElectionResultRequestModel model = new ElectionResultRequestModel();
+        model.setStandings(hm);
+        model.setResult("-TestResult-");
+        model.setDate(new Date());
+        model.setAssociationId(association.getId());
+
+        for (String expected : List.of("Council updated!", "Council already updated!")) {
+            ResultActions result = mockMvc.perform(post("/association/update-council")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(JsonUtil.serialize(model))
+                    .header("Authorization", "Bearer MockedToken")
+                    .header("Idempotency-Key", "result-1"));
+
+            result.andExpect(status().isOk());
+            assertThat(result.andReturn().getResponse().getContentAsString()).isEqualTo(expected);
+        }
+
+        List<Event> events = mockHistoryRepository.findByAssociationId(association.getId()).get().getEvents();
+        assertThat(events).hasSize(2);
+        assertThat(processedResultRepository.existsById("result-1")).isTrue();
+    }
+
+    @Test
+    public void failedUpdateCouncilIsAppliedOnRedeliveryTest() throws Exception {
+        ElectionResultRequestModel model = new ElectionResultRequestModel();
+        model.setStandings(new HashMap<>());
+        model.setResult("-TestResult-");
+        model.setDate(new Date());
+        model.setAssociationId(-53562);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/association/update-council")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(JsonUtil.serialize(model))
+                    .header("Authorization", "Bearer MockedToken")
+                    .header("Idempotency-Key", "result-2"))
+                    .andExpect(status().is4xxClientError());
+        }
+        // The key was rolled back together with the failed update
+        assertThat(processedResultRepository.existsById("result-2")).isFalse();
+    }
+
     @Test
     public void updateCouncilTestWrongAssociationId() throws Exception {
         Location location = new Location("test", "test");
@@ -774,6 +865,47 @@ public class AssociationIntegrationTest {
         assertThat(response).isEqualTo("[" + association.getId() + "]");
     }
 
+    @Test
+    public void listAssociations() throws Exception {
+        ResultActions result = mockMvc.perform(get("/association/list-associations?afterId=0&limit=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer MockedToken"));
+
+        result.andExpect(status().isOk());
+
+        String response = result.andReturn().getResponse().getContentAsString();
+
+        assertThat(response).isEqualTo("{\"associations\":[{\"id\":" + association.getId() + ",\"name\":\"test\","
+                + "\"country\":\"test\",\"city\":\"test\",\"description\":\"test\",\"councilNumber\":3}],"
+                + "\"nextAfterId\":null}");
+    }
+
+    @Test
+    public void searchAssociations() throws Exception {
+        ResultActions result = mockMvc.perform(get("/association/search-associations?country=te&city=te")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer MockedToken"));
+
+        result.andExpect(status().isOk());
+
+        String response = result.andReturn().getResponse().getContentAsString();
+
+        assertThat(response).contains("\"id\":" + association.getId()).contains("\"nextAfterId\":null");
+        mockMvc.perform(get("/association/search-associations?city=Elsewhere")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"associations\":[],\"nextAfterId\":null}"));
+    }
+
+    @Test
+    public void listAssociationsInvalidLimit() throws Exception {
+        mockMvc.perform(get("/association/list-associations?limit=0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void getAssociation() throws Exception {
         AssociationRequestModel model = new AssociationRequestModel();
@@ -832,6 +964,28 @@ public class AssociationIntegrationTest {
         assertThat(response).isEqualTo("true");
     }
 
+    @Test
+    public void verifyProposalExistingRule() throws Exception {
+        this.userId = "a";
+        association.setRules(new ArrayList<>(List.of("Epic rule. HAH!")));
+        mockAssociationRepository.save(association);
+
+        AssociationProposalRequestModel model = new AssociationProposalRequestModel();
+        model.setAssociationId(association.getId());
+        model.setProposal("  epic RULE.   hah! ");
+
+        ResultActions result = mockMvc.perform(post("/association/verify-proposal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.serialize(model))
+                .header("Authorization", "Bearer MockedToken"));
+
+        result.andExpect(status().isOk());
+
+        String response = result.andReturn().getResponse().getContentAsString();
+
+        assertThat(response).isEqualTo("false");
+    }
+
     @Test
     public void verifyProposalWrongAssociationId() throws Exception {
         this.userId = "a";
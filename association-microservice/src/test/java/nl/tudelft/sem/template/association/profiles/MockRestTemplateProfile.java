@@ -0,0 +1,29 @@
+package nl.tudelft.sem.template.association.profiles;
+
+import org.mockito.Mockito;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * A configuration profile to allow injection of a mock RestTemplate.
+ * All calls to the other microservices go through the shared RestTemplate,
+ * so with this profile active no request leaves the test.
+ */
+@Profile("mockRestTemplate")
+@Configuration
+public class MockRestTemplateProfile {
+
+    /**
+     * Mocks the RestTemplate.
+     *
+     * @return A mocked RestTemplate.
+     */
+    @Bean
+    @Primary  // marks this bean as the first bean to use when trying to inject a RestTemplate
+    public RestTemplate getMockRestTemplate() {
+        return Mockito.mock(RestTemplate.class);
+    }
+}
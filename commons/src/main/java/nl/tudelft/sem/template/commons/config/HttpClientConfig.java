@@ -0,0 +1,83 @@
+package nl.tudelft.sem.template.commons.config;
+
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.commons.utils.HttpClientMetrics;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The HTTP client used for all calls to the other microservices.
+ * Connections are pooled and kept alive, and every call has a connect and read timeout,
+ * so a slow peer cannot hang a scheduler thread.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${http-client.max-connections:50}")
+    private transient int maxConnections;
+
+    @Value("${http-client.max-connections-per-destination:20}")
+    private transient int maxConnectionsPerDestination;
+
+    @Value("${http-client.connect-timeout:2000}")
+    private transient int connectTimeout;
+
+    @Value("${http-client.read-timeout:5000}")
+    private transient int readTimeout;
+
+    @Value("${http-client.keep-alive:30000}")
+    private transient long keepAlive;
+
+    /**
+     * Creates the pooled HTTP client.
+     *
+     * @return The HTTP client.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient pooledHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(keepAlive, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerDestination);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Creates the RestTemplate shared by all calls to the other microservices.
+     *
+     * @return The RestTemplate.
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient pooledHttpClient,
+                                     HttpClientMetrics httpClientMetrics) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(pooledHttpClient))
+                .additionalInterceptors(httpClientMetrics)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package nl.tudelft.sem.template.commons.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the number of requests, errors and the latency of every call made through
+ * the shared RestTemplate, per destination (scheme, host and port).
+ * Connection failures, timeouts and 5xx responses count as errors.
+ */
+@Component
+public class HttpClientMetrics implements ClientHttpRequestInterceptor {
+
+    private final transient Map<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Destination destination = destinations.computeIfAbsent(destinationOf(request.getURI()),
+                d -> new Destination());
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            destination.record(System.nanoTime() - start, response.getRawStatusCode() >= 500);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            destination.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the metrics recorded so far, per destination.
+     *
+     * @return a map from destination (for example "http://localhost:8084") to its metrics.
+     */
+    public Map<String, DestinationMetrics> snapshot() {
+        Map<String, DestinationMetrics> res = new TreeMap<>();
+        destinations.forEach((name, destination) -> res.put(name, destination.snapshot()));
+        return res;
+    }
+
+    private static String destinationOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    private static class Destination {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        void record(long nanos, boolean error) {
+            requests.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        DestinationMetrics snapshot() {
+            long count = requests.sum();
+            long average = count == 0 ? 0 : totalNanos.sum() / count;
+            return new DestinationMetrics(count, errors.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(average), TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+        }
+    }
+
+    /**
+     * The metrics of a single destination.
+     */
+    public static class DestinationMetrics {
+        private final long requests;
+        private final long errors;
+        private final long averageLatencyMillis;
+        private final long maxLatencyMillis;
+
+        DestinationMetrics(long requests, long errors, long averageLatencyMillis, long maxLatencyMillis) {
+            this.requests = requests;
+            this.errors = errors;
+            this.averageLatencyMillis = averageLatencyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getAverageLatencyMillis() {
+            return averageLatencyMillis;
+        }
+
+        public long getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package nl.tudelft.sem.template.commons.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.commons.models.AuthenticationResponseModel;
+import nl.tudelft.sem.template.commons.models.RegistrationRequestModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Caches the JWT a microservice uses to authenticate itself to the other microservices.
+ *
+ * <p>Authenticating runs a full BCrypt verification in the authentication microservice,
+ * so the token is reused until shortly before it expires. It is refreshed in the background
+ * ahead of expiry, concurrent refreshes for the same service user are collapsed into one
+ * request, and the token is dropped as soon as another service answers with a 401.</p>
+ */
+@Component
+public class ServiceTokenCache {
+
+    private final transient ObjectMapper mapper = new ObjectMapper();
+    private final transient Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final transient Map<String, CompletableFuture<CachedToken>> refreshes = new ConcurrentHashMap<>();
+    private final transient ScheduledExecutorService refresher;
+    private final transient RestTemplate restTemplate;
+    private final transient String authenticationUrl;
+    private final transient Clock clock;
+    private final transient Duration refreshMargin;
+    private final transient Duration fallbackValidity;
+
+    /**
+     * Instantiates the token cache.
+     *
+     * @param restTemplate      The shared RestTemplate.
+     * @param authenticationUrl The base URL of the authentication microservice.
+     * @param refreshMargin     How long before expiry a token is refreshed, in milliseconds.
+     * @param fallbackValidity  How long a token is reused when its expiry cannot be read, in milliseconds.
+     */
+    @Autowired
+    public ServiceTokenCache(RestTemplate restTemplate,
+                             @Value("${services.authentication.url:http://localhost:8081}") String authenticationUrl,
+                             @Value("${service-token.refresh-margin:300000}") long refreshMargin,
+                             @Value("${service-token.fallback-validity:3600000}") long fallbackValidity) {
+        this(restTemplate, authenticationUrl, Clock.systemUTC(),
+                Duration.ofMillis(refreshMargin), Duration.ofMillis(fallbackValidity));
+    }
+
+    ServiceTokenCache(RestTemplate restTemplate, String authenticationUrl, Clock clock,
+                      Duration refreshMargin, Duration fallbackValidity) {
+        this.restTemplate = restTemplate;
+        this.authenticationUrl = authenticationUrl;
+        this.clock = clock;
+        this.refreshMargin = refreshMargin;
+        this.fallbackValidity = fallbackValidity;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "service-token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Returns a valid token for the service user, authenticating only if there is no cached
+     * token or it is about to expire.
+     *
+     * @param serviceUsername   The username the service is registered with.
+     * @param servicePassword   The password the service is registered with.
+     * @return                  The bearer token generated through the authentication service.
+     */
+    public String getToken(String serviceUsername, String servicePassword) {
+        CachedToken cached = tokens.get(serviceUsername);
+        if (cached != null && clock.instant().isBefore(cached.refreshAt)) {
+            return cached.token;
+        }
+        try {
+            return refresh(serviceUsername, servicePassword).join().token;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the cached token of the service user, if it is still the given token.
+     * A token that was already replaced by a refresh is left alone.
+     *
+     * @param serviceUsername   The username the service is registered with.
+     * @param token             The token that was rejected.
+     */
+    public void invalidate(String serviceUsername, String token) {
+        tokens.computeIfPresent(serviceUsername, (user, cached) -> cached.token.equals(token) ? null : cached);
+    }
+
+    /**
+     * Performs a call with the token of the service user. If the call is rejected with a 401,
+     * the token is invalidated and the call is retried once with a fresh token.
+     *
+     * @param serviceUsername   The username the service is registered with.
+     * @param servicePassword   The password the service is registered with.
+     * @param call              The call to perform, given the bearer token.
+     * @param <T>               The result of the call.
+     * @return                  The result of the call.
+     */
+    public <T> T withToken(String serviceUsername, String servicePassword, Function<String, T> call) {
+        String token = getToken(serviceUsername, servicePassword);
+        try {
+            return call.apply(token);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            invalidate(serviceUsername, token);
+            return call.apply(getToken(serviceUsername, servicePassword));
+        }
+    }
+
+    /**
+     * Starts a refresh for the service user, or joins the refresh that is already running.
+     */
+    private CompletableFuture<CachedToken> refresh(String serviceUsername, String servicePassword) {
+        CompletableFuture<CachedToken> created = new CompletableFuture<>();
+        CompletableFuture<CachedToken> running = refreshes.putIfAbsent(serviceUsername, created);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            String token = fetchToken(serviceUsername, servicePassword);
+            Instant expiresAt = readExpiry(token);
+            Instant refreshAt = expiresAt.minus(refreshMargin);
+            if (refreshAt.isBefore(clock.instant())) {
+                refreshAt = expiresAt;
+            }
+            CachedToken cached = new CachedToken(token, refreshAt);
+            tokens.put(serviceUsername, cached);
+            scheduleRefresh(serviceUsername, servicePassword, cached);
+            created.complete(cached);
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        } finally {
+            refreshes.remove(serviceUsername, created);
+        }
+        return created;
+    }
+
+    /**
+     * Refreshes the token in the background just before it would be refreshed on the request path.
+     * Skipped if the token was invalidated or replaced in the meantime.
+     */
+    private void scheduleRefresh(String serviceUsername, String servicePassword, CachedToken cached) {
+        long delay = Duration.between(clock.instant(), cached.refreshAt).toMillis();
+        if (delay <= 0 || refresher.isShutdown()) {
+            return;
+        }
+        refresher.schedule(() -> {
+            if (tokens.get(serviceUsername) == cached) {
+                try {
+                    refresh(serviceUsername, servicePassword);
+                } catch (RuntimeException e) {
+                    System.out.println("Refreshing the service token failed: " + e.getMessage());
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Authenticates the service user at the authentication microservice.
+     */
+    protected String fetchToken(String serviceUsername, String servicePassword) {
+        RegistrationRequestModel regModel = new RegistrationRequestModel();
+        regModel.setUserId(serviceUsername);
+        regModel.setPassword(servicePassword);
+        HttpEntity<RegistrationRequestModel> authRequest = new HttpEntity<>(regModel);
+
+        ResponseEntity<AuthenticationResponseModel> authenticationResponse = restTemplate
+                .postForEntity(authenticationUrl + "/authenticate", authRequest, AuthenticationResponseModel.class);
+        return Objects.requireNonNull(authenticationResponse.getBody()).getToken();
+    }
+
+    /**
+     * Reads the expiry from the payload of the JWT. The token comes straight from the
+     * authentication microservice, so its signature does not need to be verified here.
+     * Falls back to fallbackValidity if the token carries no readable expiry.
+     */
+    private Instant readExpiry(String token) {
+        try {
+            String[] parts = token.split("\\.");
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode exp = mapper.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+            if (exp != null && exp.canConvertToLong()) {
+                return Instant.ofEpochSecond(exp.asLong());
+            }
+        } catch (Exception e) {
+            // Not a readable JWT, use the fallback validity
+        }
+        return clock.instant().plus(fallbackValidity);
+    }
+
+    private static class CachedToken {
+        private final String token;
+        private final Instant refreshAt;
+
+        CachedToken(String token, Instant refreshAt) {
+            this.token = token;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package nl.tudelft.sem.template.commons.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+class HttpClientMetricsTest {
+
+    private final HttpClientMetrics metrics = new HttpClientMetrics();
+
+    private HttpRequest request(String uri) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getURI()).thenReturn(URI.create(uri));
+        return request;
+    }
+
+    private ClientHttpRequestExecution respondWith(int status) throws IOException {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getRawStatusCode()).thenReturn(status);
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any())).thenReturn(response);
+        return execution;
+    }
+
+    @Test
+    public void recordPerDestinationTest() throws IOException {
+        metrics.intercept(request("http://localhost:8084/association/update-council"), new byte[0],
+                respondWith(200));
+        metrics.intercept(request("http://localhost:8084/association/update-rules"), new byte[0],
+                respondWith(500));
+        metrics.intercept(request("http://localhost:8081/authenticate"), new byte[0],
+                respondWith(200));
+
+        assertThat(metrics.snapshot()).containsOnlyKeys("http://localhost:8084", "http://localhost:8081");
+        assertThat(metrics.snapshot().get("http://localhost:8084").getRequests()).isEqualTo(2);
+        assertThat(metrics.snapshot().get("http://localhost:8084").getErrors()).isEqualTo(1);
+        assertThat(metrics.snapshot().get("http://localhost:8081").getErrors()).isEqualTo(0);
+    }
+
+    @Test
+    public void recordTimeoutAsErrorTest() throws IOException {
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any())).thenThrow(new SocketTimeoutException("Read timed out"));
+
+        assertThatThrownBy(() -> metrics.intercept(request("http://localhost:8084/association/verify-candidate"),
+                new byte[0], execution)).isInstanceOf(SocketTimeoutException.class);
+
+        assertThat(metrics.snapshot().get("http://localhost:8084").getRequests()).isEqualTo(1);
+        assertThat(metrics.snapshot().get("http://localhost:8084").getErrors()).isEqualTo(1);
+    }
+}
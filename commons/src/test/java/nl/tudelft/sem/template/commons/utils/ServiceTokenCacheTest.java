@@ -0,0 +1,196 @@
+package nl.tudelft.sem.template.commons.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+class ServiceTokenCacheTest {
+
+    private MutableClock clock;
+    private CountingTokenCache cache;
+
+    /**
+     * Set up a cache with a controllable clock and a fake authentication service.
+     */
+    @BeforeEach
+    public void setup() {
+        clock = new MutableClock(Instant.parse("2022-01-01T00:00:00Z"));
+        cache = new CountingTokenCache(clock);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void reuseTokenUntilRefreshMarginTest() {
+        String token = cache.getToken("VotingService", "pass");
+
+        clock.advance(Duration.ofMinutes(50));
+
+        assertThat(cache.getToken("VotingService", "pass")).isEqualTo(token);
+        assertThat(cache.fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void refreshTokenCloseToExpiryTest() {
+        String token = cache.getToken("VotingService", "pass");
+
+        clock.advance(Duration.ofMinutes(56));
+
+        assertThat(cache.getToken("VotingService", "pass")).isNotEqualTo(token);
+        assertThat(cache.fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void readExpiryFromJwtTest() {
+        cache.jwtExpiry = Date.from(clock.instant().plus(Duration.ofHours(24)));
+        String token = cache.getToken("VotingService", "pass");
+
+        clock.advance(Duration.ofHours(23));
+        assertThat(cache.getToken("VotingService", "pass")).isEqualTo(token);
+
+        clock.advance(Duration.ofMinutes(56));
+        cache.getToken("VotingService", "pass");
+        assertThat(cache.fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void collapseConcurrentRefreshesTest() throws Exception {
+        cache.started = new CountDownLatch(1);
+        cache.release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.getToken("VotingService", "pass")));
+        }
+
+        assertThat(cache.started.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("token-1");
+        }
+        executor.shutdown();
+        assertThat(cache.fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void retryWithNewTokenOnUnauthorizedTest() {
+        List<String> usedTokens = new ArrayList<>();
+
+        String result = cache.withToken("VotingService", "pass", token -> {
+            usedTokens.add(token);
+            if (usedTokens.size() == 1) {
+                throw HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized",
+                        new HttpHeaders(), new byte[0], null);
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(usedTokens).containsExactly("token-1", "token-2");
+        assertThat(cache.getToken("VotingService", "pass")).isEqualTo("token-2");
+    }
+
+    @Test
+    public void invalidateOnlyRejectedTokenTest() {
+        cache.getToken("VotingService", "pass");
+
+        cache.invalidate("VotingService", "someOtherToken");
+
+        assertThat(cache.getToken("VotingService", "pass")).isEqualTo("token-1");
+        assertThat(cache.fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void failedAuthenticationIsNotCachedTest() {
+        cache.fail = true;
+        assertThatThrownBy(() -> cache.getToken("VotingService", "pass"))
+                .isInstanceOf(IllegalStateException.class);
+
+        cache.fail = false;
+        assertThat(cache.getToken("VotingService", "pass")).isEqualTo("token-2");
+    }
+
+    private static class CountingTokenCache extends ServiceTokenCache {
+        private final AtomicInteger fetches = new AtomicInteger();
+        private volatile CountDownLatch started;
+        private volatile CountDownLatch release;
+        private volatile Date jwtExpiry;
+        private volatile boolean fail;
+
+        CountingTokenCache(Clock clock) {
+            super(null, null, clock, Duration.ofMinutes(5), Duration.ofHours(1));
+        }
+
+        @Override
+        protected String fetchToken(String serviceUsername, String servicePassword) {
+            int fetch = fetches.incrementAndGet();
+            if (started != null) {
+                started.countDown();
+            }
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                throw new IllegalStateException("Authentication service unavailable");
+            }
+            if (jwtExpiry != null) {
+                return Jwts.builder().setSubject(serviceUsername + fetch).setExpiration(jwtExpiry)
+                        .signWith(SignatureAlgorithm.HS512, "exampleSecret").compact();
+            }
+            return "token-" + fetch;
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
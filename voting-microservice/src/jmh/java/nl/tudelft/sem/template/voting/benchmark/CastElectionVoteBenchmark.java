@@ -0,0 +1,94 @@
+package nl.tudelft.sem.template.voting.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import nl.tudelft.sem.template.voting.VotingApplication;
+import nl.tudelft.sem.template.voting.domain.VotingService;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Casts single election votes through the VotingService against an in-memory H2 database that already
+ * holds the ballots of the whole electorate, so the cost of a cast can be compared across electorate sizes.
+ *
+ * <p>Every cast changes the vote of an existing voter, so the electorate keeps its size during the run.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CastElectionVoteBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int electorate;
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    private final int associationId = 1;
+    private final AtomicLong casts = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private VotingService votingService;
+
+    /**
+     * Starts the voting microservice on a fresh in-memory database and casts a ballot for every voter.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(VotingApplication.class).run(
+                "--server.port=0",
+                "--jdbc.url=jdbc:h2:mem:benchmark" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "--voting.forwarding.enabled=false",
+                "--voting.write-behind.enabled=" + writeBehind);
+        votingService = context.getBean(VotingService.class);
+
+        Election election = new Election(associationId);
+        election.setEndDate(new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000));
+        election.addCandidate("a");
+        election.addCandidate("b");
+        context.getBean(ElectionRepository.class).save(election);
+
+        int chunk = 10000;
+        for (int start = 0; start < electorate; start += chunk) {
+            List<BallotModel> ballots = new ArrayList<>(chunk);
+            Set<String> members = new HashSet<>();
+            for (int i = start; i < Math.min(electorate, start + chunk); i++) {
+                ballots.add(new BallotModel("voter" + i, "a"));
+                members.add("voter" + i);
+            }
+            votingService.castElectionVotes(associationId, ballots, members);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Changes the vote of the next voter, cycling through the electorate.
+     */
+    @Benchmark
+    public String castElectionVote() {
+        long cast = casts.getAndIncrement();
+        String candidate = (cast / electorate) % 2 == 0 ? "b" : "a";
+        return votingService.castElectionVote("voter" + cast % electorate, associationId, candidate);
+    }
+}
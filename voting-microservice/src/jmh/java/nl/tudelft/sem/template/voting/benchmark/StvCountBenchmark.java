@@ -0,0 +1,73 @@
+package nl.tudelft.sem.template.voting.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallot;
+import nl.tudelft.sem.template.voting.domain.election.StvCount;
+import nl.tudelft.sem.template.voting.domain.election.StvResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the seats of an election from ranked ballots, from the rankings and from their stored form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StvCountBenchmark {
+
+    @Param({"1000", "100000"})
+    private int electorate;
+
+    @Param({"20"})
+    private int candidateCount;
+
+    private final int seats = 5;
+    private final int preferences = 5;
+    private List<String> candidates;
+    private List<List<String>> rankings;
+    private List<String> encodedRankings;
+
+    /**
+     * Creates one ranking of five random candidates per voter of the electorate.
+     */
+    @Setup
+    public void setup() {
+        candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            candidates.add("candidate" + i);
+        }
+        Random random = new Random(42);
+        rankings = new ArrayList<>(electorate);
+        encodedRankings = new ArrayList<>(electorate);
+        for (int i = 0; i < electorate; i++) {
+            List<String> ranking = new ArrayList<>(candidates);
+            Collections.shuffle(ranking, random);
+            rankings.add(List.copyOf(ranking.subList(0, preferences)));
+            encodedRankings.add(ElectionBallot.encodeRanking(rankings.get(i)));
+        }
+    }
+
+    @Benchmark
+    public StvResult count() {
+        StvCount count = new StvCount(candidates, seats);
+        rankings.forEach(count::addBallot);
+        return count.count();
+    }
+
+    @Benchmark
+    public StvResult decodeAndCount() {
+        StvCount count = new StvCount(candidates, seats);
+        encodedRankings.forEach(ranking -> count.addBallot(ElectionBallot.decodeRanking(ranking)));
+        return count.count();
+    }
+}
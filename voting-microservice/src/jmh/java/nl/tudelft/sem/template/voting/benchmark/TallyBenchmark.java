@@ -0,0 +1,69 @@
+package nl.tudelft.sem.template.voting.benchmark;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.voting.domain.VotingType;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.util.Pair;
+
+/**
+ * Tallies an election and a rule vote in memory, from the running tally and by recounting every ballot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TallyBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int electorate;
+
+    private Election election;
+    private RuleVoting ruleVoting;
+
+    /**
+     * Fills an election with five candidates and a rule vote with the ballots of the whole electorate.
+     */
+    @Setup
+    public void setup() {
+        String[] candidates = {"a", "b", "c", "d", "e"};
+        String[] votes = {"for", "against", "abstain"};
+        election = new Election(1);
+        for (String candidate : candidates) {
+            election.addCandidate(candidate);
+        }
+        ruleVoting = new RuleVoting(1, "proposer", "Bleep", null, VotingType.PROPOSAL);
+        for (int i = 0; i < electorate; i++) {
+            election.addVote(Pair.of("voter" + i, candidates[i % candidates.length]));
+            ruleVoting.addVote(Pair.of("voter" + i, votes[i % votes.length]));
+        }
+    }
+
+    @Benchmark
+    public HashMap<String, Integer> electionTallyVotes() {
+        return election.tallyVotes();
+    }
+
+    @Benchmark
+    public HashMap<String, Integer> electionRecountVotes() {
+        return election.recountVotes();
+    }
+
+    @Benchmark
+    public boolean ruleVotingPassedMotion() {
+        return ruleVoting.passedMotion();
+    }
+
+    @Benchmark
+    public HashMap<String, Integer> ruleVotingRecountVotes() {
+        return ruleVoting.recountVotes();
+    }
+}
@@ -0,0 +1,57 @@
+package nl.tudelft.sem.template.voting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.voting.domain.election.ElectionVotesAttributeConverter;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingVotesAttributeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.util.Pair;
+
+/**
+ * Round trips the serialized votes columns of the previous schema, which the ballot migrations still read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VotesConverterBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int electorate;
+
+    private final ElectionVotesAttributeConverter electionConverter = new ElectionVotesAttributeConverter();
+    private final RuleVotingVotesAttributeConverter ruleVotingConverter = new RuleVotingVotesAttributeConverter();
+    private List<Pair<String, String>> electionVotes;
+    private List<Pair<String, String>> ruleVotes;
+
+    /**
+     * Creates one vote per voter of the electorate.
+     */
+    @Setup
+    public void setup() {
+        String[] votes = {"for", "against", "abstain"};
+        electionVotes = new ArrayList<>(electorate);
+        ruleVotes = new ArrayList<>(electorate);
+        for (int i = 0; i < electorate; i++) {
+            electionVotes.add(Pair.of("voter" + i, "candidate" + i % 5));
+            ruleVotes.add(Pair.of("voter" + i, votes[i % votes.length]));
+        }
+    }
+
+    @Benchmark
+    public List<Pair<String, String>> electionVotesRoundTrip() {
+        return electionConverter.convertToEntityAttribute(electionConverter.convertToDatabaseColumn(electionVotes));
+    }
+
+    @Benchmark
+    public List<Pair<String, String>> ruleVotingVotesRoundTrip() {
+        return ruleVotingConverter.convertToEntityAttribute(ruleVotingConverter.convertToDatabaseColumn(ruleVotes));
+    }
+}
@@ -5,8 +5,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 /**
  * Example microservice application.
+ * Also picks up the components shared with the other microservices.
  */
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"nl.tudelft.sem.template.voting", "nl.tudelft.sem.template.commons"})
 public class VotingApplication {
     public static void main(String[] args) {
         SpringApplication.run(VotingApplication.class, args);
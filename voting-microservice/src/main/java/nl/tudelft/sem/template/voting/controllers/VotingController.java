@@ -1,32 +1,73 @@
 package nl.tudelft.sem.template.voting.controllers;
 
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import nl.tudelft.sem.template.commons.utils.HttpClientMetrics;
+import nl.tudelft.sem.template.voting.domain.EligibilityCache;
+import nl.tudelft.sem.template.voting.domain.ResultOutbox;
+import nl.tudelft.sem.template.voting.domain.StandingsBroadcaster;
+import nl.tudelft.sem.template.voting.domain.TallyConsistencyChecker;
+import nl.tudelft.sem.template.voting.domain.TallyDrift;
 import nl.tudelft.sem.template.voting.domain.VotingService;
 import nl.tudelft.sem.template.voting.domain.VotingType;
+import nl.tudelft.sem.template.voting.domain.analytics.ParticipationAnalytics;
+import nl.tudelft.sem.template.voting.domain.analytics.ParticipationReport;
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
 import nl.tudelft.sem.template.voting.models.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 public class VotingController {
 
+    private final transient String associationServiceAccount = "AssociationService";
     private final transient VotingService votingService;
+    private final transient EligibilityCache eligibilityCache;
+    private final transient ResultOutbox resultOutbox;
+    private final transient StandingsBroadcaster standingsBroadcaster;
+    private final transient VotingArchive votingArchive;
+    private final transient ParticipationAnalytics participationAnalytics;
+    private final transient TallyConsistencyChecker tallyConsistencyChecker;
+    private final transient HttpClientMetrics httpClientMetrics;
 
     /**
      * Instantiates new voting controller.
      *
-     * @param votingService The voting service.
+     * @param votingService         The voting service.
+     * @param eligibilityCache      The cache of the candidate and council member checks.
+     * @param resultOutbox          The outbox delivering the results of closed votings.
+     * @param standingsBroadcaster  Pushes the standings of open votings to their subscribers.
+     * @param votingArchive         The archive of the closed votings.
+     * @param participationAnalytics Computes the participation across all associations.
+     * @param tallyConsistencyChecker Checks the running tallies against the ballots.
+     * @param httpClientMetrics     The metrics of the calls to the other microservices.
      */
     @Autowired
-    public VotingController(VotingService votingService) {
+    public VotingController(VotingService votingService, EligibilityCache eligibilityCache,
+                            ResultOutbox resultOutbox, StandingsBroadcaster standingsBroadcaster,
+                            VotingArchive votingArchive, ParticipationAnalytics participationAnalytics,
+                            TallyConsistencyChecker tallyConsistencyChecker, HttpClientMetrics httpClientMetrics) {
         this.votingService = votingService;
+        this.eligibilityCache = eligibilityCache;
+        this.resultOutbox = resultOutbox;
+        this.standingsBroadcaster = standingsBroadcaster;
+        this.votingArchive = votingArchive;
+        this.participationAnalytics = participationAnalytics;
+        this.tallyConsistencyChecker = tallyConsistencyChecker;
+        this.httpClientMetrics = httpClientMetrics;
     }
 
     /**
@@ -42,6 +83,21 @@ public class VotingController {
         }
     }
 
+    /**
+     * Checks that the submitter of a bulk submission is who they claim to be and may submit ballots
+     * on behalf of others: a council member of the association or the association service account.
+     *
+     * @param userId        The id of the submitter from the request.
+     * @param associationId The association the ballots are for.
+     * @throws ResponseStatusException if the submitter is not authenticated or not authorized
+     */
+    private void validateBulkSubmitter(String userId, int associationId) throws ResponseStatusException {
+        validateAuthentication(userId);
+        if (!associationServiceAccount.equals(userId) && !votingService.isCouncilMember(userId, associationId)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Only the council can submit ballots in bulk.");
+        }
+    }
+
     /**
      * Creates a board election for an association with a given ID.
      *
@@ -51,6 +107,9 @@ public class VotingController {
     public ResponseEntity<String> createElection(@RequestBody AssociationRequestModel request)
             throws ResponseStatusException {
         int associationId = request.getAssociationId();
+        if (request.getSeats() > 0) {
+            return ResponseEntity.ok(votingService.createElection(associationId, request.getSeats()));
+        }
         return ResponseEntity.ok(votingService
                 .createElection(VotingType.ELECTION, associationId, null, null, null));
 
@@ -149,6 +208,7 @@ public class VotingController {
 
     /**
      * Casts a vote for a candidate in the upcoming election, if the date is less than 2 days before the election end.
+     * A request with a ranking casts a ranked vote instead.
      *
      * @return a confirmation message.
      */
@@ -159,6 +219,10 @@ public class VotingController {
             validateAuthentication(request.getVoterId());
             String voterId = request.getVoterId();
             int associationId = request.getAssociationId();
+            if (request.getRanking() != null) {
+                return ResponseEntity.ok(votingService.castRankedElectionVote(voterId, associationId,
+                        request.getRanking()));
+            }
             String candidateId = request.getCandidateId();
             return ResponseEntity.ok(votingService.castElectionVote(voterId, associationId, candidateId));
         } catch (ResponseStatusException r) {
@@ -168,6 +232,27 @@ public class VotingController {
         }
     }
 
+    /**
+     * Casts many ballots in the election of an association at once, e.g. ballots collected on paper.
+     * The last valid ballot of every voter wins and all ballots are committed together.
+     * Only a council member or the association service may submit, and only ballots of members count.
+     *
+     * @param request   The request body containing the submitter's id, the association's id and the ballots.
+     * @return          The outcome of every ballot, in the order of the ballots.
+     */
+    @PostMapping("/election/cast-votes")
+    public ResponseEntity<List<BallotResultModel>> castElectionVotes(@RequestBody BulkElectionVoteRequestModel request)
+            throws ResponseStatusException {
+        try {
+            validateBulkSubmitter(request.getUserId(), request.getAssociationId());
+            return ResponseEntity.ok(votingService.castElectionVotes(request.getAssociationId(), request.getBallots()));
+        } catch (ResponseStatusException r) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, r.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Casts a vote for a rule in a rule vote, if the reviewing period has passed.
      *
@@ -187,6 +272,27 @@ public class VotingController {
         }
     }
 
+    /**
+     * Casts many ballots in a rule vote at once, e.g. ballots collected on paper.
+     * The last valid ballot of every voter wins and all ballots are committed together.
+     * Only a council member or the association service may submit, and only ballots of members count.
+     *
+     * @param request   The request body containing the submitter's id, the rule vote's id and the ballots.
+     * @return          The outcome of every ballot, in the order of the ballots.
+     */
+    @PostMapping("/rule-voting/cast-votes")
+    public ResponseEntity<List<BallotResultModel>> castRuleVotingVotes(@RequestBody BulkRuleVoteRequestModel request) {
+        try {
+            validateBulkSubmitter(request.getUserId(), request.getAssociationId());
+            return ResponseEntity.ok(votingService
+                    .castRuleVotes(request.getRuleVoteId(), request.getAssociationId(), request.getBallots()));
+        } catch (ResponseStatusException r) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, r.getMessage());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Returns a string representing the ongoing rule votes from the
      * user's association and their current status for that user.
@@ -206,4 +312,209 @@ public class VotingController {
         }
     }
 
+    /**
+     * Returns one page of the ongoing rule votes from the user's association, with the status
+     * of every rule vote and the vote of the user, oldest first.
+     *
+     * @param request   The request body containing the user's id and the association in which they are a board member.
+     * @param page      The number of the page, starting at 0.
+     * @param size      The number of rule votes per page, at most 100.
+     * @return          The page of ongoing rule votes.
+     */
+    @GetMapping("/rule-voting/pending-votes")
+    public ResponseEntity<PendingVotesPageModel> getPendingVotesPage(@RequestBody UserAssociationRequestModel request,
+                                                                     @RequestParam(defaultValue = "0") int page,
+                                                                     @RequestParam(defaultValue = "20") int size) {
+        try {
+            validateAuthentication(request.getUserId());
+            return ResponseEntity.ok(votingService
+                    .getPendingVotes(request.getAssociationId(), request.getUserId(), page, size));
+        } catch (ResponseStatusException r) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, r.getMessage());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Forgets the cached eligibility of users, called by the association microservice
+     * whenever a membership or a council changes. Only the association service account may call it.
+     *
+     * @param request   The request body containing the users and optionally the association that changed.
+     * @return          An empty response.
+     */
+    @PostMapping("/eligibility/invalidate")
+    public ResponseEntity<Void> invalidateEligibility(@RequestBody EligibilityInvalidationRequestModel request)
+            throws ResponseStatusException {
+        validateAuthentication(associationServiceAccount);
+        eligibilityCache.invalidate(request.getUserIds(), request.getAssociationId());
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Returns the hit and miss counts of the eligibility cache.
+     *
+     * @return The metrics of the cache.
+     */
+    @GetMapping("/eligibility/metrics")
+    public ResponseEntity<EligibilityCache.Metrics> getEligibilityMetrics() {
+        return ResponseEntity.ok(eligibilityCache.snapshot());
+    }
+
+    /**
+     * Returns how many results are waiting to be delivered to the association microservice,
+     * how long the oldest one has been waiting and the delivery and retry counts.
+     *
+     * @return The metrics of the outbox.
+     */
+    @GetMapping("/outbox/metrics")
+    public ResponseEntity<ResultOutbox.Metrics> getOutboxMetrics() {
+        return ResponseEntity.ok(resultOutbox.snapshot());
+    }
+
+    /**
+     * Returns the request and error counts and the latency of the calls to the other microservices,
+     * per destination.
+     *
+     * @return The metrics of the HTTP client.
+     */
+    @GetMapping("/http-client/metrics")
+    public ResponseEntity<Map<String, HttpClientMetrics.DestinationMetrics>> getHttpClientMetrics() {
+        return ResponseEntity.ok(httpClientMetrics.snapshot());
+    }
+
+    /**
+     * Recounts the ballots of every open voting and returns the options whose running tally differs.
+     *
+     * @return The drift of every option that is out of step, empty if all tallies are consistent.
+     */
+    @GetMapping("/tallies/drift")
+    public ResponseEntity<List<TallyDrift>> getTallyDrift() {
+        return ResponseEntity.ok(tallyConsistencyChecker.check());
+    }
+
+    /**
+     * Overwrites the running tallies that drifted with a recount of the ballots.
+     * Only the association service account may call it.
+     *
+     * @return The drift that was repaired.
+     */
+    @PostMapping("/tallies/repair")
+    public ResponseEntity<List<TallyDrift>> repairTallies() throws ResponseStatusException {
+        validateAuthentication(associationServiceAccount);
+        return ResponseEntity.ok(tallyConsistencyChecker.repair());
+    }
+
+    /**
+     * Streams the standings of the election of an association as Server-Sent Events.
+     * A "standings" event is pushed whenever the standings changed, at most once per interval,
+     * and a "closed" event once the election has ended.
+     *
+     * @param associationId The association whose election to follow.
+     * @return              The event stream.
+     */
+    @GetMapping(value = "/election/standings", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamElectionStandings(@RequestParam int associationId) {
+        try {
+            return standingsBroadcaster.subscribeElection(associationId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the standings of a rule vote as Server-Sent Events.
+     * A "standings" event is pushed whenever the standings changed, at most once per interval,
+     * and a "closed" event once the rule vote has ended.
+     *
+     * @param ruleVotingId  The rule vote to follow.
+     * @return              The event stream.
+     */
+    @GetMapping(value = "/rule-voting/standings", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRuleVotingStandings(@RequestParam long ruleVotingId) {
+        try {
+            return standingsBroadcaster.subscribeRuleVoting(ruleVotingId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of standings subscribers and how many tallies and snapshots were pushed.
+     *
+     * @return The metrics of the standings streams.
+     */
+    @GetMapping("/standings/metrics")
+    public ResponseEntity<StandingsBroadcaster.Metrics> getStandingsMetrics() {
+        return ResponseEntity.ok(standingsBroadcaster.snapshot());
+    }
+
+    /**
+     * Returns one page of the closed votings of an association that ended between two dates, oldest first,
+     * with their outcome and final tally but without their ballots.
+     *
+     * @param associationId The association.
+     * @param from          The earliest end date, inclusive, as an ISO date-time.
+     * @param to            The latest end date, inclusive, as an ISO date-time.
+     * @param page          The number of the page, starting at 0.
+     * @param size          The number of votings per page, at most 100.
+     * @return              The page of archived votings.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<ArchivedVotingsPageModel> getArchivedVotings(
+            @RequestParam int associationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(votingArchive.find(associationId, from, to, page, size));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the ballots of a closed voting from the archive. The ballots show who voted what, so only
+     * the council of the association and the association service account may read them.
+     *
+     * @param userId            The id of the user requesting the ballots.
+     * @param archivedVotingId  The id of the archived voting.
+     * @return                  The ballots, for a ranked election ballot the vote is the ranking as JSON array.
+     */
+    @GetMapping("/archive/ballots")
+    public ResponseEntity<List<BallotModel>> getArchivedBallots(@RequestParam String userId,
+                                                                @RequestParam long archivedVotingId) {
+        validateAuthentication(userId);
+        try {
+            int associationId = votingArchive.getAssociationId(archivedVotingId);
+            if (!associationServiceAccount.equals(userId) && !votingService.isCouncilMember(userId, associationId)) {
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Only the council can read the ballots.");
+            }
+            return ResponseEntity.ok(votingArchive.getBallots(archivedVotingId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the participation in the votings of every association and in total: ballots per voting,
+     * the abstention rate and the share of rule votes that passed. The report is reused for the rest of
+     * its time bucket, so repeated requests do not scan the votings again.
+     *
+     * @param days  How many days back closed votings are counted, by end date.
+     * @return      The participation report.
+     */
+    @GetMapping("/analytics/participation")
+    public ResponseEntity<ParticipationReport> getParticipation(@RequestParam(defaultValue = "365") int days) {
+        try {
+            return ResponseEntity.ok(participationAnalytics.report(days));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,117 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRule;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRuleRepository;
+import nl.tudelft.sem.template.voting.models.AssociationRulesModel;
+import nl.tudelft.sem.template.voting.models.RuleFingerprintsPageModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the adopted rules with the rules every association already has, so proposals are checked
+ * for duplicates locally, also against rules adopted before the adopted rules were kept.
+ *
+ * <p>On startup the rule fingerprints are read from the association microservice a page of associations
+ * at a time, and the missing ones are added, one transaction per association. Several replicas may seed
+ * at the same time, an association another replica seeded first is simply read again. When the association
+ * microservice cannot be reached, the sync is retried after the retry delay until it succeeds.</p>
+ */
+@Component
+public class AdoptedRuleSync {
+
+    private final transient VotingAssociationCommunication votingAssociationCommunication;
+    private final transient AdoptedRuleRepository adoptedRuleRepository;
+    private final transient TransactionRetry transactionRetry;
+    private final transient boolean enabled;
+    private final transient long retryDelay;
+    private final transient ScheduledExecutorService syncer;
+
+    /**
+     * Instantiates the sync.
+     *
+     * @param enabled       Whether the adopted rules are seeded on startup.
+     * @param retryDelay    How long to wait before a failed sync is tried again, in ms.
+     */
+    public AdoptedRuleSync(VotingAssociationCommunication votingAssociationCommunication,
+                           AdoptedRuleRepository adoptedRuleRepository, TransactionRetry transactionRetry,
+                           @Value("${voting.adopted-rules.sync-on-startup:true}") boolean enabled,
+                           @Value("${voting.adopted-rules.sync-retry-delay:60000}") long retryDelay) {
+        this.votingAssociationCommunication = votingAssociationCommunication;
+        this.adoptedRuleRepository = adoptedRuleRepository;
+        this.transactionRetry = transactionRetry;
+        this.enabled = enabled;
+        this.retryDelay = retryDelay;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "adopted-rule-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts seeding the adopted rules in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            syncer.execute(this::syncQuietly);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncer.shutdownNow();
+    }
+
+    private void syncQuietly() {
+        try {
+            System.out.println("Seeded " + sync() + " adopted rules from the association microservice.");
+        } catch (RuntimeException e) {
+            System.out.println("Seeding the adopted rules failed, retrying in " + retryDelay + " ms: "
+                    + e.getMessage());
+            if (!syncer.isShutdown()) {
+                syncer.schedule(this::syncQuietly, retryDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Adds the rules of every association that are missing from the adopted rules.
+     *
+     * @return the number of adopted rules added.
+     */
+    public int sync() {
+        int added = 0;
+        Integer afterId = 0;
+        while (afterId != null) {
+            RuleFingerprintsPageModel page = votingAssociationCommunication.getRuleFingerprints(afterId);
+            for (AssociationRulesModel association : page.getAssociations()) {
+                added += transactionRetry.run(() -> seed(association));
+            }
+            afterId = page.getNextAfterId();
+        }
+        return added;
+    }
+
+    private int seed(AssociationRulesModel association) {
+        Set<String> adopted = new HashSet<>(adoptedRuleRepository
+                .findFingerprintsByAssociationId(association.getAssociationId()));
+        int added = 0;
+        for (String fingerprint : association.getRuleFingerprints()) {
+            if (adopted.add(fingerprint)) {
+                adoptedRuleRepository.save(new AdoptedRule(association.getAssociationId(), fingerprint));
+                added++;
+            }
+        }
+        adoptedRuleRepository.flush();
+        return added;
+    }
+}
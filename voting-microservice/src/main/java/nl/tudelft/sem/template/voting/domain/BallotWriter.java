@@ -0,0 +1,378 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallot;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallot;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallotRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes ballots to the database, either directly or through the write-behind buffer.
+ *
+ * <p>In write-behind mode a cast is acknowledged as soon as it is appended to the ballot_buffer
+ * journal, which never contends with other voters. A flusher thread applies the journal every
+ * flush-interval ms, or as soon as max-ballots are waiting, with one transaction per voting, so a
+ * peak of thousands of casts turns into a handful of group commits. The journal is a table, so
+ * acknowledged ballots survive a restart and are applied on startup.</p>
+ *
+ * <p>Everything that reads a tally or closes a voting flushes the voting first, so no acknowledged
+ * ballot is ever missing from a result.</p>
+ */
+@Component
+public class BallotWriter {
+
+    private final transient ElectionRepository electionRepository;
+    private final transient ElectionBallotRepository electionBallotRepository;
+    private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient RuleVoteBallotRepository ruleVoteBallotRepository;
+    private final transient BufferedBallotRepository bufferedBallotRepository;
+    private final transient TransactionRetry transactionRetry;
+
+    private final transient boolean writeBehind;
+    private final transient long flushInterval;
+    private final transient int maxBallots;
+    private final transient ScheduledExecutorService flusher;
+    private final transient AtomicInteger buffered = new AtomicInteger();
+    private final transient AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /**
+     * Instantiates the ballot writer.
+     *
+     * @param writeBehind   Whether casts are acknowledged into the buffer instead of written directly.
+     * @param flushInterval How often the buffer is flushed, in ms.
+     * @param maxBallots    How many ballots may wait in the buffer before it is flushed early.
+     */
+    public BallotWriter(ElectionRepository electionRepository, ElectionBallotRepository electionBallotRepository,
+                        RuleVotingRepository ruleVotingRepository, RuleVoteBallotRepository ruleVoteBallotRepository,
+                        BufferedBallotRepository bufferedBallotRepository, TransactionRetry transactionRetry,
+                        @Value("${voting.write-behind.enabled:false}") boolean writeBehind,
+                        @Value("${voting.write-behind.flush-interval:50}") long flushInterval,
+                        @Value("${voting.write-behind.max-ballots:500}") int maxBallots) {
+        this.electionRepository = electionRepository;
+        this.electionBallotRepository = electionBallotRepository;
+        this.ruleVotingRepository = ruleVotingRepository;
+        this.ruleVoteBallotRepository = ruleVoteBallotRepository;
+        this.bufferedBallotRepository = bufferedBallotRepository;
+        this.transactionRetry = transactionRetry;
+        this.writeBehind = writeBehind;
+        this.flushInterval = flushInterval;
+        this.maxBallots = maxBallots;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ballot-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Applies the ballots that were acknowledged before the last shutdown and starts the flusher.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        buffered.set((int) bufferedBallotRepository.count());
+        flushQuietly();
+        if (writeBehind) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the flusher and applies whatever is still buffered.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Returns the number of ballots this replica acknowledged that are not applied yet, which triggers an
+     * early flush. The journal itself decides what is flushed, it also holds the ballots of other replicas.
+     */
+    public int getBuffered() {
+        return buffered.get();
+    }
+
+    /**
+     * Saves the vote, replacing the previous vote of the voter if necessary.
+     * Only the voter's own ballot row is read and written, the other ballots are never loaded.
+     * Must run inside a transaction.
+     */
+    public void writeElectionVote(Election election, String voterId, String candidateId) {
+        writeElectionVote(election, voterId, List.of(candidateId));
+    }
+
+    /**
+     * Saves a ranked vote, replacing the previous vote of the voter if necessary.
+     * The running tally follows the first preference. Must run inside a transaction.
+     *
+     * @param ranking   The ids of the candidates in order of preference, at least one.
+     */
+    public void writeElectionVote(Election election, String voterId, List<String> ranking) {
+        String candidateId = ranking.get(0);
+        Optional<ElectionBallot> optBallot = electionBallotRepository
+                .findByElectionIdAndVoterId(election.getId(), voterId);
+        if (optBallot.isPresent()) {
+            String previousCandidateId = optBallot.get().getCandidateId();
+            if (optBallot.get().getRanking().equals(ranking)) {
+                return;
+            }
+            optBallot.get().setRanking(ranking);
+            electionBallotRepository.save(optBallot.get());
+            if (previousCandidateId.equals(candidateId)) {
+                return;
+            }
+            electionRepository.addToTally(election.getId(), previousCandidateId, -1);
+        } else {
+            electionBallotRepository.save(new ElectionBallot(election, voterId, ranking));
+        }
+        incrementTally(election, candidateId, 1);
+    }
+
+    /**
+     * Saves many votes at once, replacing the previous votes of these voters.
+     * The ballots already in the database for these voters are read in one query, all ballots are
+     * written in one batch and the tally is updated once per candidate. Must run inside a transaction.
+     *
+     * @param election  The election the votes are for.
+     * @param votes     The ranking of every voter, by voter id. A single choice is a ranking of one.
+     */
+    public void writeElectionVotes(Election election, Map<String, List<String>> votes) {
+        Map<String, List<String>> remaining = new LinkedHashMap<>(votes);
+        Map<String, Integer> deltas = new HashMap<>();
+        List<ElectionBallot> changed = new ArrayList<>();
+        for (ElectionBallot ballot : electionBallotRepository
+                .findAllByElectionIdAndVoterIdIn(election.getId(), new ArrayList<>(remaining.keySet()))) {
+            List<String> ranking = remaining.remove(ballot.getVoterId());
+            if (!ballot.getRanking().equals(ranking)) {
+                deltas.merge(ballot.getCandidateId(), -1, Integer::sum);
+                deltas.merge(ranking.get(0), 1, Integer::sum);
+                ballot.setRanking(ranking);
+                changed.add(ballot);
+            }
+        }
+        remaining.forEach((voterId, ranking) -> {
+            changed.add(new ElectionBallot(election, voterId, ranking));
+            deltas.merge(ranking.get(0), 1, Integer::sum);
+        });
+        electionBallotRepository.saveAll(changed);
+
+        deltas.forEach((candidateId, delta) -> {
+            if (delta != 0) {
+                incrementTally(election, candidateId, delta);
+            }
+        });
+    }
+
+    /**
+     * Saves many rule votes at once, replacing the previous votes of these voters.
+     * Only the ballots of these voters are read, in one query, and all ballots are written in one batch.
+     * The rule vote must be locked, since its running tally is updated. Must run inside a transaction.
+     *
+     * @param ruleVoting    The locked rule vote the votes are for.
+     * @param votes         The vote (for/against/abstain) of every voter, by voter id.
+     */
+    public void writeRuleVotes(RuleVoting ruleVoting, Map<String, String> votes) {
+        Map<String, String> remaining = new LinkedHashMap<>(votes);
+        List<RuleVoteBallot> changed = new ArrayList<>();
+        for (RuleVoteBallot ballot : ruleVoteBallotRepository
+                .findAllByRuleVotingIdAndVoterIdIn(ruleVoting.getId(), new ArrayList<>(remaining.keySet()))) {
+            String vote = remaining.remove(ballot.getVoterId());
+            if (!ballot.getVote().equals(vote)) {
+                ruleVoting.updateTally(ballot.getVote(), vote);
+                ballot.setVote(vote);
+                changed.add(ballot);
+            }
+        }
+        remaining.forEach((voterId, vote) -> {
+            changed.add(new RuleVoteBallot(ruleVoting, voterId, vote));
+            ruleVoting.updateTally(null, vote);
+        });
+        ruleVoteBallotRepository.saveAll(changed);
+        ruleVotingRepository.save(ruleVoting);
+    }
+
+    /**
+     * Atomically increments the running tally of a candidate. Every candidate gets a tally row when
+     * it is added, and ElectionBallotMigration creates the tally of older elections, so the row exists.
+     */
+    private void incrementTally(Election election, String candidateId, int delta) {
+        if (electionRepository.addToTally(election.getId(), candidateId, delta) == 0) {
+            throw new IllegalStateException("Election " + election.getId() + " has no tally for candidate "
+                    + candidateId + ".");
+        }
+    }
+
+    /**
+     * Acknowledges an election vote into the buffer. The vote must already be validated.
+     */
+    public void bufferElectionVote(long electionId, String voterId, String candidateId) {
+        bufferElectionVote(electionId, voterId, List.of(candidateId));
+    }
+
+    /**
+     * Acknowledges a ranked election vote into the buffer. The vote must already be validated.
+     */
+    public void bufferElectionVote(long electionId, String voterId, List<String> ranking) {
+        buffer(new BufferedBallot(true, electionId, voterId, ElectionBallot.encodeRanking(ranking)));
+    }
+
+    /**
+     * Acknowledges a rule vote into the buffer. The vote must already be validated.
+     */
+    public void bufferRuleVote(long ruleVotingId, String userId, String vote) {
+        buffer(new BufferedBallot(false, ruleVotingId, userId, vote));
+    }
+
+    private void buffer(BufferedBallot ballot) {
+        bufferedBallotRepository.save(ballot);
+        if (buffered.incrementAndGet() >= maxBallots && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * Applies every buffered ballot, in one transaction per voting.
+     * The journal is always read, since other replicas journal ballots too.
+     */
+    public synchronized void flushAll() {
+        Map<Long, List<BufferedBallot>> elections = new LinkedHashMap<>();
+        Map<Long, List<BufferedBallot>> ruleVotings = new LinkedHashMap<>();
+        for (BufferedBallot ballot : bufferedBallotRepository.findAllByOrderByIdAsc()) {
+            (ballot.isElection() ? elections : ruleVotings)
+                    .computeIfAbsent(ballot.getVotingId(), id -> new ArrayList<>()).add(ballot);
+        }
+        elections.forEach((id, ballots) -> apply(true, id, ballots));
+        ruleVotings.forEach((id, ballots) -> apply(false, id, ballots));
+    }
+
+    /**
+     * Applies the buffered ballots of the given rule votes, in one transaction per rule vote.
+     * The journal is read once for all of them.
+     *
+     * @return the number of ballots that were applied.
+     */
+    public synchronized int flushRuleVotings(Collection<Long> ruleVotingIds) {
+        if (ruleVotingIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<BufferedBallot>> ruleVotings = new LinkedHashMap<>();
+        for (BufferedBallot ballot : bufferedBallotRepository
+                .findAllByElectionAndVotingIdInOrderByIdAsc(false, ruleVotingIds)) {
+            ruleVotings.computeIfAbsent(ballot.getVotingId(), id -> new ArrayList<>()).add(ballot);
+        }
+        int applied = 0;
+        for (Map.Entry<Long, List<BufferedBallot>> ruleVoting : ruleVotings.entrySet()) {
+            applied += apply(false, ruleVoting.getKey(), ruleVoting.getValue());
+        }
+        return applied;
+    }
+
+    /**
+     * Applies the buffered ballots of one election.
+     *
+     * @return the number of ballots that were applied.
+     */
+    public synchronized int flushElection(long electionId) {
+        return apply(true, electionId, bufferedBallotRepository.findAllByElectionAndVotingIdOrderByIdAsc(true, electionId));
+    }
+
+    /**
+     * Applies the buffered ballots of one rule vote.
+     *
+     * @return the number of ballots that were applied.
+     */
+    public synchronized int flushRuleVoting(long ruleVotingId) {
+        return apply(false, ruleVotingId,
+                bufferedBallotRepository.findAllByElectionAndVotingIdOrderByIdAsc(false, ruleVotingId));
+    }
+
+    private void flushQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            System.out.println("Flushing the ballot buffer failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the ballots of one voting in one group commit and removes them from the journal in the
+     * same transaction. The journal is in cast order, so the last ballot of every voter wins.
+     * The journal rows are locked first, so when another replica flushes the same voting at the same
+     * time, the ballots it already applied are skipped instead of counted twice.
+     * Ballots for a voting that no longer exists are dropped.
+     */
+    private int apply(boolean election, long votingId, List<BufferedBallot> journaled) {
+        if (journaled.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>();
+        journaled.forEach(ballot -> ids.add(ballot.getId()));
+
+        List<BufferedBallot> ballots = new ArrayList<>();
+        boolean applied = transactionRetry.run(() -> {
+            ballots.clear();
+            ballots.addAll(bufferedBallotRepository.lockAllByIdIn(ids));
+            if (ballots.isEmpty()) {
+                return true;
+            }
+            Map<String, String> votes = new LinkedHashMap<>();
+            for (BufferedBallot ballot : ballots) {
+                votes.put(ballot.getVoterId(), ballot.getVote());
+            }
+            boolean found;
+            if (election) {
+                Map<String, List<String>> rankings = new LinkedHashMap<>();
+                votes.forEach((voterId, vote) -> rankings.put(voterId, ElectionBallot.decodeRanking(vote)));
+                Optional<Election> optElection = electionRepository.findById(votingId);
+                optElection.ifPresent(e -> writeElectionVotes(e, rankings));
+                found = optElection.isPresent();
+            } else {
+                Optional<RuleVoting> optRuleVoting = ruleVotingRepository.findForUpdateById(votingId);
+                optRuleVoting.ifPresent(r -> writeRuleVotes(r, votes));
+                found = optRuleVoting.isPresent();
+            }
+            bufferedBallotRepository.deleteInBatch(ballots);
+            return found;
+        });
+        buffered.updateAndGet(count -> Math.max(0, count - ballots.size()));
+        if (!applied) {
+            System.out.println("Dropped " + ballots.size() + " buffered ballots of voting " + votingId
+                    + ", which no longer exists.");
+            return 0;
+        }
+        return ballots.size();
+    }
+}
@@ -0,0 +1,69 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import javax.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * A ballot that was acknowledged in write-behind mode but not yet applied to its voting.
+ * The rows form an append-only journal: inserting one never touches the voting, its ballots
+ * or its tally, so acknowledging a cast does not contend with other voters. The BallotWriter
+ * applies the journal in group commits and deletes the applied rows in the same transaction.
+ */
+@Entity
+@Table(name = "ballot_buffer", indexes = @Index(name = "idx_ballot_buffer_voting", columnList = "voting_id"))
+@NoArgsConstructor
+public class BufferedBallot {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", nullable = false, unique = true)
+    private long id;
+
+    @Column(name = "election", nullable = false)
+    private boolean election;
+
+    @Column(name = "voting_id", nullable = false)
+    private long votingId;
+
+    @Column(name = "voter_id", nullable = false)
+    private String voterId;
+
+    @Lob
+    @Column(name = "vote", nullable = false)
+    private String vote;
+
+    /**
+     * Constructor for the buffered ballot object.
+     *
+     * @param election  True if the ballot is for an election, false if it is for a rule vote.
+     * @param votingId  The id of the election or rule vote.
+     * @param voterId   The id of the voter.
+     * @param vote      The encoded ranking for an election, for/against/abstain for a rule vote.
+     */
+    public BufferedBallot(boolean election, long votingId, String voterId, String vote) {
+        this.election = election;
+        this.votingId = votingId;
+        this.voterId = voterId;
+        this.vote = vote;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isElection() {
+        return election;
+    }
+
+    public long getVotingId() {
+        return votingId;
+    }
+
+    public String getVoterId() {
+        return voterId;
+    }
+
+    public String getVote() {
+        return vote;
+    }
+}
@@ -0,0 +1,27 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BufferedBallotRepository extends JpaRepository<BufferedBallot, Long> {
+
+    List<BufferedBallot> findAllByOrderByIdAsc();
+
+    List<BufferedBallot> findAllByElectionAndVotingIdOrderByIdAsc(boolean election, long votingId);
+
+    List<BufferedBallot> findAllByElectionAndVotingIdInOrderByIdAsc(boolean election, Collection<Long> votingIds);
+
+    /**
+     * Lock the journal rows that are still there, in cast order. A replica applying the same rows
+     * at the same time is waited for, after which the rows it applied are gone.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ballot from BufferedBallot ballot where ballot.id in :ids order by ballot.id")
+    List<BufferedBallot> lockAllByIdIn(List<Long> ids);
+}
@@ -0,0 +1,407 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.util.Pair;
+
+/**
+ * The ballots of one voting, dictionary-encoded for a small heap footprint.
+ *
+ * <p>Every voter id is interned once into an ordinal: its UTF-8 bytes, prefixed with their length, are
+ * appended to one shared byte array. The choices (candidate ids, or for/against/abstain) are interned
+ * into a dictionary, and the choice of every voter is one byte in an array indexed by voter ordinal.
+ * Once a voting has more than 255 choices, the array is widened to two bytes per voter. No object is
+ * allocated per ballot, and a tally is a single loop over the choice array.</p>
+ *
+ * <p>Finding a voter by id needs an index of the voter offsets and an open-addressing table of
+ * ordinals. The index is only built on the first lookup and dropped again by trim, so a store that is
+ * only tallied or persisted takes little more than its binary form: about 1.2 MB for 100k voters,
+ * against about 10 MB for the same ballots as a list of Pairs.</p>
+ *
+ * <p>Not thread-safe, a store belongs to the one thread that fills or reads it.</p>
+ */
+public class CompactBallots {
+
+    /**
+     * The most choices a voting can have, choice ordinals are stored as unsigned chars and 0 means no vote.
+     */
+    public static final int MAX_CHOICES = 65535;
+
+    private static final int MAX_NARROW_CHOICES = 255;
+    private static final int FORMAT_VERSION = 2;
+    private static final int NO_CHOICE = 0;
+
+    private final transient List<String> choices = new ArrayList<>();
+    private final transient Map<String, Integer> choiceOrdinals = new HashMap<>();
+
+    private transient byte[] idBytes = new byte[0];
+    private transient int idBytesLength;
+    // One byte per voter until there are more than MAX_NARROW_CHOICES choices, then one char per voter
+    private transient byte[] voterChoices = new byte[0];
+    private transient char[] wideVoterChoices;
+    private transient int voters;
+
+    // The lookup index, null until the first lookup
+    private transient int[] idOffsets;
+    private transient int[] table;
+
+    /**
+     * Creates the store from ballots given as Pairs of voterId, choice. A later ballot of a voter replaces
+     * the earlier one.
+     */
+    public static CompactBallots of(List<Pair<String, String>> ballots) {
+        CompactBallots compact = new CompactBallots();
+        for (Pair<String, String> ballot : ballots) {
+            compact.cast(ballot.getFirst(), ballot.getSecond());
+        }
+        compact.trim();
+        return compact;
+    }
+
+    /**
+     * Gives back the spare room of the arrays and drops the lookup index, for a store that is done growing.
+     * The next lookup builds the index again.
+     */
+    public void trim() {
+        idBytes = Arrays.copyOf(idBytes, idBytesLength);
+        if (wideVoterChoices == null) {
+            voterChoices = Arrays.copyOf(voterChoices, voters);
+        } else {
+            wideVoterChoices = Arrays.copyOf(wideVoterChoices, voters);
+        }
+        idOffsets = null;
+        table = null;
+    }
+
+    /**
+     * Records the choice of a voter, replacing the previous one.
+     *
+     * @param voterId   The id of the voter.
+     * @param choice    The candidate id or rule vote option.
+     * @return          The previous choice of the voter, null if this is the first ballot of the voter.
+     */
+    public String cast(String voterId, String choice) {
+        int choiceOrdinal = internChoice(choice);
+        byte[] id = voterId.getBytes(StandardCharsets.UTF_8);
+        buildIndex();
+        int slot = findSlot(id);
+        int ordinal = table[slot] - 1;
+        if (ordinal < 0) {
+            ordinal = addVoter(id);
+            table[slot] = ordinal + 1;
+            setChoice(ordinal, choiceOrdinal);
+            if (voters * 4 > table.length * 3) {
+                rehash(table.length * 2);
+            }
+            return null;
+        }
+        String previous = choiceOf(ordinal);
+        setChoice(ordinal, choiceOrdinal);
+        return previous;
+    }
+
+    /**
+     * Returns the choice of a voter, null if the voter did not vote.
+     */
+    public String getChoice(String voterId) {
+        buildIndex();
+        int ordinal = table[findSlot(voterId.getBytes(StandardCharsets.UTF_8))] - 1;
+        return ordinal < 0 ? null : choiceOf(ordinal);
+    }
+
+    /**
+     * Returns the number of voters that cast a ballot.
+     */
+    public int size() {
+        return voters;
+    }
+
+    /**
+     * Counts the ballots per choice in one pass over the choice array.
+     *
+     * @return the number of ballots of every choice that was seen, including choices without ballots left.
+     */
+    public HashMap<String, Integer> tally() {
+        int[] counts = new int[choices.size() + 1];
+        if (wideVoterChoices == null) {
+            for (int i = 0; i < voters; i++) {
+                counts[voterChoices[i] & 0xFF]++;
+            }
+        } else {
+            for (int i = 0; i < voters; i++) {
+                counts[wideVoterChoices[i]]++;
+            }
+        }
+        HashMap<String, Integer> tally = new HashMap<>();
+        for (int i = 0; i < choices.size(); i++) {
+            tally.put(choices.get(i), counts[i + 1]);
+        }
+        return tally;
+    }
+
+    /**
+     * Returns the ballots as Pairs of voterId, choice, in the order the voters first voted.
+     */
+    public List<Pair<String, String>> toPairs() {
+        List<Pair<String, String>> pairs = new ArrayList<>(voters);
+        int offset = 0;
+        for (int i = 0; i < voters; i++) {
+            int length = lengthAt(offset);
+            int start = offset + lengthSize(length);
+            pairs.add(Pair.of(new String(idBytes, start, length, StandardCharsets.UTF_8), choiceOf(i)));
+            offset = start + length;
+        }
+        return pairs;
+    }
+
+    /**
+     * Returns the approximate number of bytes this store takes on the heap, arrays and index included.
+     */
+    public long estimatedHeapBytes() {
+        long bytes = 64 + 16 + idBytes.length + 16 + 64
+                + (wideVoterChoices == null ? voterChoices.length : 2L * wideVoterChoices.length);
+        if (table != null) {
+            bytes += 16 + 4L * idOffsets.length + 16 + 4L * table.length;
+        }
+        for (String choice : choices) {
+            bytes += 2L * 56 + choice.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the ballots in the compact binary form: the choice dictionary, then the length-prefixed
+     * UTF-8 voter ids and per voter its choice ordinal, in one byte, or in two with more than 255 choices.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + idBytesLength + 2 * voters);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(choices.size());
+            for (String choice : choices) {
+                out.writeUTF(choice);
+            }
+            out.writeInt(voters);
+            out.writeInt(idBytesLength);
+            out.write(idBytes, 0, idBytesLength);
+            if (wideVoterChoices == null) {
+                out.write(voterChoices, 0, voters);
+            } else {
+                for (int i = 0; i < voters; i++) {
+                    out.writeChar(wideVoterChoices[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write the ballots.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads ballots written by toBytes. The voter ids are taken over as they are, the lookup index is
+     * only built when a voter is looked up.
+     *
+     * @throws IllegalArgumentException if the bytes are not in the compact binary form.
+     */
+    public static CompactBallots fromBytes(byte[] data) {
+        CompactBallots compact = new CompactBallots();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown ballot format version " + version + ".");
+            }
+            int choiceCount = in.readUnsignedShort();
+            for (int i = 0; i < choiceCount; i++) {
+                compact.internChoice(in.readUTF());
+            }
+            int count = in.readInt();
+            int length = in.readInt();
+            int width = compact.wideVoterChoices == null ? 1 : 2;
+            if (count < 0 || length < 0 || length + (long) width * count != in.available()) {
+                throw new IllegalArgumentException("The ballots are not in the compact binary form.");
+            }
+            compact.idBytes = new byte[length];
+            in.readFully(compact.idBytes);
+            if (width == 1) {
+                compact.voterChoices = new byte[count];
+                in.readFully(compact.voterChoices);
+            } else {
+                compact.wideVoterChoices = new char[count];
+                for (int i = 0; i < count; i++) {
+                    compact.wideVoterChoices[i] = in.readChar();
+                }
+            }
+            compact.idBytesLength = length;
+            compact.voters = count;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The ballots are not in the compact binary form.", e);
+        }
+        return compact;
+    }
+
+    private int internChoice(String choice) {
+        Integer ordinal = choiceOrdinals.get(choice);
+        if (ordinal == null) {
+            if (choices.size() >= MAX_CHOICES) {
+                throw new IllegalStateException("A voting can not have more than " + MAX_CHOICES + " choices.");
+            }
+            if (choices.size() == MAX_NARROW_CHOICES) {
+                widen();
+            }
+            choices.add(choice);
+            ordinal = choices.size();
+            choiceOrdinals.put(choice, ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Moves the choices of the voters to an array of two bytes per voter, for a voting with more than
+     * MAX_NARROW_CHOICES choices.
+     */
+    private void widen() {
+        wideVoterChoices = new char[voterChoices.length];
+        for (int i = 0; i < voters; i++) {
+            wideVoterChoices[i] = (char) (voterChoices[i] & 0xFF);
+        }
+        voterChoices = new byte[0];
+    }
+
+    private void setChoice(int voterOrdinal, int choiceOrdinal) {
+        if (wideVoterChoices == null) {
+            voterChoices[voterOrdinal] = (byte) choiceOrdinal;
+        } else {
+            wideVoterChoices[voterOrdinal] = (char) choiceOrdinal;
+        }
+    }
+
+    private String choiceOf(int voterOrdinal) {
+        int choice = wideVoterChoices == null ? voterChoices[voterOrdinal] & 0xFF : wideVoterChoices[voterOrdinal];
+        return choice == NO_CHOICE ? null : choices.get(choice - 1);
+    }
+
+    /**
+     * Appends the voter id with its length prefix to the id bytes.
+     *
+     * @return the ordinal of the new voter.
+     */
+    private int addVoter(byte[] id) {
+        int needed = idBytesLength + lengthSize(id.length) + id.length;
+        if (needed > idBytes.length) {
+            idBytes = Arrays.copyOf(idBytes, Math.max(idBytes.length * 2, needed + 256));
+        }
+        if (wideVoterChoices != null) {
+            if (voters + 1 > wideVoterChoices.length) {
+                wideVoterChoices = Arrays.copyOf(wideVoterChoices, wideVoterChoices.length * 2 + 16);
+            }
+        } else if (voters + 1 > voterChoices.length) {
+            voterChoices = Arrays.copyOf(voterChoices, voterChoices.length * 2 + 16);
+        }
+        if (voters + 1 > idOffsets.length) {
+            idOffsets = Arrays.copyOf(idOffsets, idOffsets.length * 2 + 16);
+        }
+        idOffsets[voters] = idBytesLength;
+        int remaining = id.length;
+        while ((remaining & ~0x7F) != 0) {
+            idBytes[idBytesLength++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        idBytes[idBytesLength++] = (byte) remaining;
+        System.arraycopy(id, 0, idBytes, idBytesLength, id.length);
+        idBytesLength += id.length;
+        return voters++;
+    }
+
+    /**
+     * Returns the length of the voter id stored at the offset, read from its prefix.
+     */
+    private int lengthAt(int offset) {
+        int length = 0;
+        int position = offset;
+        for (int shift = 0; ; shift += 7) {
+            int b = idBytes[position++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return length;
+            }
+        }
+    }
+
+    private static int lengthSize(int length) {
+        int size = 1;
+        for (int remaining = length >>> 7; remaining != 0; remaining >>>= 7) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Builds the offsets of the voter ids and the table of ordinals, unless they are there already.
+     */
+    private void buildIndex() {
+        if (table != null) {
+            return;
+        }
+        idOffsets = new int[voters + 16];
+        int offset = 0;
+        for (int i = 0; i < voters; i++) {
+            idOffsets[i] = offset;
+            int length = lengthAt(offset);
+            offset += lengthSize(length) + length;
+        }
+        int size = 32;
+        while (voters * 4 > size * 3) {
+            size *= 2;
+        }
+        rehash(size);
+    }
+
+    /**
+     * Returns the slot of the voter id in the table, or the empty slot where it would go.
+     */
+    private int findSlot(byte[] id) {
+        int mask = table.length - 1;
+        int slot = hash(id, 0, id.length) & mask;
+        while (table[slot] != 0 && !idEquals(table[slot] - 1, id)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean idEquals(int ordinal, byte[] id) {
+        int length = lengthAt(idOffsets[ordinal]);
+        int start = idOffsets[ordinal] + lengthSize(length);
+        return length == id.length && Arrays.equals(idBytes, start, start + length, id, 0, length);
+    }
+
+    private void rehash(int size) {
+        table = new int[size];
+        int mask = size - 1;
+        for (int ordinal = 0; ordinal < voters; ordinal++) {
+            int length = lengthAt(idOffsets[ordinal]);
+            int start = idOffsets[ordinal] + lengthSize(length);
+            int slot = hash(idBytes, start, length) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = ordinal + 1;
+        }
+    }
+
+    private static int hash(byte[] bytes, int start, int length) {
+        int hash = 1;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,212 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the answers of the association microservice to "may this user be a candidate" and
+ * "is this user on the council" for a short time, per user and association.
+ *
+ * <p>The association microservice pushes an invalidation whenever a membership or a council changes,
+ * so the TTL only bounds how long a missed invalidation can go unnoticed. An answer that was being
+ * loaded while an invalidation arrived is not stored, so it can not overwrite the invalidation.</p>
+ */
+@Component
+public class EligibilityCache {
+
+    /**
+     * The kinds of eligibility that are cached.
+     */
+    public enum Check {
+        CANDIDATE,
+        COUNCIL_MEMBER
+    }
+
+    private final transient long ttl;
+    private final transient int maxUsers;
+    private final transient Map<String, Map<Key, Entry>> users = new ConcurrentHashMap<>();
+    private final transient AtomicLong generation = new AtomicLong();
+    private final transient LongAdder hits = new LongAdder();
+    private final transient LongAdder misses = new LongAdder();
+    private final transient LongAdder invalidations = new LongAdder();
+
+    /**
+     * Instantiates the cache.
+     *
+     * @param ttl       How long an answer is used, in ms.
+     * @param maxUsers  The number of users whose answers are kept before the cache is emptied.
+     */
+    public EligibilityCache(@Value("${voting.eligibility.ttl:60000}") long ttl,
+                            @Value("${voting.eligibility.max-users:10000}") int maxUsers) {
+        this.ttl = ttl;
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Returns the cached answer, or asks the loader and caches its answer.
+     *
+     * @param check         The kind of eligibility.
+     * @param userId        The id of the user.
+     * @param associationId The id of the association.
+     * @param loader        Asks the association microservice, only called on a miss.
+     * @return              Whether the user is eligible.
+     */
+    public boolean get(Check check, String userId, int associationId, Supplier<Boolean> loader) {
+        Key key = new Key(check, associationId);
+        long now = System.currentTimeMillis();
+        Map<Key, Entry> entries = users.get(userId);
+        Entry entry = entries == null ? null : entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            hits.increment();
+            return entry.eligible;
+        }
+
+        misses.increment();
+        long loadedAt = generation.get();
+        boolean eligible = loader.get();
+        if (generation.get() == loadedAt) {
+            if (users.size() >= maxUsers) {
+                users.clear();
+            }
+            users.computeIfAbsent(userId, u -> new ConcurrentHashMap<>())
+                    .put(key, new Entry(eligible, now + ttl));
+        }
+        return eligible;
+    }
+
+    /**
+     * Forgets the answers about the given users and the given association.
+     * When neither is given every answer is forgotten.
+     *
+     * @param userIds       The users whose memberships or council seats changed, may be null.
+     * @param associationId The association whose council changed, may be null.
+     */
+    public void invalidate(Collection<String> userIds, Integer associationId) {
+        if ((userIds == null || userIds.isEmpty()) && associationId == null) {
+            invalidateAll();
+            return;
+        }
+        if (userIds != null) {
+            userIds.forEach(this::invalidateUser);
+        }
+        if (associationId != null) {
+            invalidateAssociation(associationId);
+        }
+    }
+
+    /**
+     * Forgets every answer about a user, in all associations.
+     */
+    public void invalidateUser(String userId) {
+        generation.incrementAndGet();
+        invalidations.increment();
+        users.remove(userId);
+    }
+
+    /**
+     * Forgets every answer about an association.
+     */
+    public void invalidateAssociation(int associationId) {
+        generation.incrementAndGet();
+        invalidations.increment();
+        users.values().forEach(entries -> entries.keySet().removeIf(key -> key.associationId == associationId));
+    }
+
+    /**
+     * Forgets every answer.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.increment();
+        users.clear();
+    }
+
+    /**
+     * Returns the hit and miss counts so far and the current number of cached answers.
+     */
+    public Metrics snapshot() {
+        int size = users.values().stream().mapToInt(Map::size).sum();
+        return new Metrics(hits.sum(), misses.sum(), invalidations.sum(), size);
+    }
+
+    private static class Key {
+        private final Check check;
+        private final int associationId;
+
+        Key(Check check, int associationId) {
+            this.check = check;
+            this.associationId = associationId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return check == other.check && associationId == other.associationId;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * check.hashCode() + associationId;
+        }
+    }
+
+    private static class Entry {
+        private final boolean eligible;
+        private final long expiresAt;
+
+        Entry(boolean eligible, long expiresAt) {
+            this.eligible = eligible;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The hit and miss counts of the cache.
+     */
+    public static class Metrics {
+        private final long hits;
+        private final long misses;
+        private final long invalidations;
+        private final int size;
+
+        Metrics(long hits, long misses, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the fraction of lookups that were answered from the cache.
+         */
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.Date;
+import java.util.UUID;
+import javax.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * A result of a closed voting that still has to be delivered to the association microservice.
+ * It is written in the same transaction that closes the voting, so a result can neither be lost
+ * nor be sent for a voting that is still open. The idempotency key stays the same for every
+ * delivery attempt, so the association can recognise a result it already processed.
+ */
+@Entity
+@Table(name = "result_outbox", indexes = @Index(name = "idx_result_outbox_next_attempt", columnList = "next_attempt_at"))
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", nullable = false, unique = true)
+    private long id;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Column(name = "path", nullable = false)
+    private String path;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Date nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /**
+     * Constructor for the outbox message object, due immediately.
+     *
+     * @param path      The path of the association endpoint, for example /association/update-council.
+     * @param payload   The JSON body to send.
+     */
+    public OutboxMessage(String path, String payload) {
+        this.idempotencyKey = UUID.randomUUID().toString();
+        this.path = path;
+        this.payload = payload;
+        this.createdAt = new Date(System.currentTimeMillis());
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Records a failed delivery attempt.
+     *
+     * @param error         What went wrong, truncated to fit the column.
+     * @param nextAttemptAt When the message is due again.
+     */
+    public void failed(String error, Date nextAttemptAt) {
+        this.attempts++;
+        this.lastError = truncate(error);
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    /**
+     * Truncates an error to fit the last_error column.
+     */
+    public static String truncate(String error) {
+        return error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
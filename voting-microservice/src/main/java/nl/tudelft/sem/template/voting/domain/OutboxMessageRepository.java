@@ -0,0 +1,60 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Find the messages that are due, oldest first, backed by the next_attempt_at index.
+     */
+    List<OutboxMessage> findAllByNextAttemptAtLessThanEqualOrderByIdAsc(Date date, Pageable pageable);
+
+    Optional<OutboxMessage> findFirstByOrderByNextAttemptAtAsc();
+
+    Optional<OutboxMessage> findFirstByOrderByCreatedAtAsc();
+
+    @Query("SELECT coalesce(max(message.attempts), 0) from OutboxMessage message")
+    int findMaxAttempts();
+
+    /**
+     * Takes a due message for delivery by moving its next attempt to the end of the lease, only if no
+     * other replica took it since it was read. The check and the update are one statement, so of several
+     * replicas claiming the same message exactly one succeeds.
+     *
+     * @return 1 if the message was claimed, 0 if another replica took or delivered it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage message SET message.nextAttemptAt = :until "
+            + "where message.id = :id and message.nextAttemptAt = :due")
+    int claim(long id, Date due, Date until);
+
+    /**
+     * Records a failed attempt on a message this replica still holds. A message that was delivered and
+     * deleted in the meantime is left deleted.
+     *
+     * @return 1 if the attempt was recorded, 0 if the message is gone or held by another replica.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage message SET message.attempts = message.attempts + 1, message.lastError = :error, "
+            + "message.nextAttemptAt = :nextAttemptAt where message.id = :id and message.nextAttemptAt = :until")
+    int recordFailure(long id, Date until, String error, Date nextAttemptAt);
+
+    /**
+     * Deletes a delivered message, if it is still there.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxMessage message where message.id = :id")
+    int deleteDelivered(long id);
+}
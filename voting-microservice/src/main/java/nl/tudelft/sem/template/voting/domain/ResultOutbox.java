@@ -0,0 +1,286 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.voting.utils.RequestUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Delivers the results of closed votings to the association microservice.
+ *
+ * <p>Closing a voting only writes an OutboxMessage, in the same transaction that deletes the voting.
+ * A dispatcher thread then posts every due message with its idempotency key and deletes it once the
+ * association accepted it. A failed message is retried with exponential backoff, from base-backoff
+ * up to max-backoff ms, without holding up the messages behind it. The dispatcher sleeps until the
+ * earliest retry is due, so it does not poll the database while nothing is waiting.</p>
+ *
+ * <p>Every replica runs a dispatcher over the same table, so a message is claimed before it is posted,
+ * by a conditional update that pushes its next attempt lease-duration ms ahead. Only the replica that
+ * claimed it records the outcome, with statements that leave a message another replica delivered and
+ * deleted in the meantime deleted. A message of a replica that dies while posting it is due again once
+ * the lease ran out.</p>
+ */
+@Component
+public class ResultOutbox {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final transient String username = "VotingService";
+    private final transient String password = "SuperSecretPassword";
+    private final transient OutboxMessageRepository outboxMessageRepository;
+    private final transient RequestUtil requestUtil;
+    private final transient RestTemplate restTemplate;
+    private final transient ObjectMapper objectMapper;
+    private final transient String associationUrl;
+
+    private final transient boolean enabled;
+    private final transient long baseBackoff;
+    private final transient long maxBackoff;
+    private final transient int batchSize;
+    private final transient long leaseDuration;
+    private final transient ScheduledExecutorService dispatcher;
+    private transient ScheduledFuture<?> nextRun;
+    private final transient LongAdder delivered = new LongAdder();
+    private final transient LongAdder retries = new LongAdder();
+
+    /**
+     * Instantiates the outbox.
+     *
+     * @param restTemplate      The shared RestTemplate used for all calls to the association microservice.
+     * @param associationUrl    The base URL of the association microservice.
+     * @param enabled           Whether results are delivered, disabled together with the forwarding.
+     * @param baseBackoff       How long to wait before the first retry, in ms. Doubled on every further retry.
+     * @param maxBackoff        The longest wait between two retries, in ms.
+     * @param batchSize         How many due messages are read from the database at once.
+     * @param leaseDuration     How long a claimed message is left to this replica, in ms.
+     */
+    public ResultOutbox(OutboxMessageRepository outboxMessageRepository, RequestUtil requestUtil,
+                        RestTemplate restTemplate, ObjectMapper objectMapper,
+                        @Value("${services.association.url:http://localhost:8084}") String associationUrl,
+                        @Value("${voting.forwarding.enabled:true}") boolean enabled,
+                        @Value("${voting.outbox.base-backoff:1000}") long baseBackoff,
+                        @Value("${voting.outbox.max-backoff:300000}") long maxBackoff,
+                        @Value("${voting.outbox.batch-size:50}") int batchSize,
+                        @Value("${voting.outbox.lease-duration:60000}") long leaseDuration) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.requestUtil = requestUtil;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.associationUrl = associationUrl;
+        this.enabled = enabled;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "result-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Delivers the messages that were left over from before the last shutdown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wake();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Adds a result to the outbox. Must run inside the transaction that closes the voting.
+     *
+     * @param path      The path of the association endpoint, for example /association/update-council.
+     * @param payload   The request model, sent as JSON.
+     */
+    public void enqueue(String path, Object payload) {
+        try {
+            outboxMessageRepository.save(new OutboxMessage(path, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("The result could not be serialized: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lets the dispatcher deliver the due messages right away, call after the closing transaction committed.
+     */
+    public void wake() {
+        schedule(0);
+    }
+
+    /**
+     * Runs the dispatcher no later than after the delay.
+     */
+    private synchronized void schedule(long delay) {
+        if (!enabled || dispatcher.isShutdown()) {
+            return;
+        }
+        if (nextRun != null && !nextRun.isDone()) {
+            if (nextRun.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+                return;
+            }
+            nextRun.cancel(false);
+        }
+        nextRun = dispatcher.schedule(this::dispatchQuietly, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void dispatchQuietly() {
+        synchronized (this) {
+            nextRun = null;
+        }
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            System.out.println("Dispatching the result outbox failed: " + e.getMessage());
+            schedule(baseBackoff);
+        }
+    }
+
+    /**
+     * Delivers every message that is due, then schedules the next run for the earliest retry.
+     *
+     * @return the number of messages that were delivered.
+     */
+    public int dispatch() {
+        int count = 0;
+        List<OutboxMessage> due;
+        do {
+            due = outboxMessageRepository.findAllByNextAttemptAtLessThanEqualOrderByIdAsc(
+                    new Date(System.currentTimeMillis()), PageRequest.of(0, batchSize));
+            for (OutboxMessage message : due) {
+                Date until = new Date(System.currentTimeMillis() + leaseDuration);
+                if (outboxMessageRepository.claim(message.getId(), message.getNextAttemptAt(), until) == 1
+                        && deliver(message, until)) {
+                    count++;
+                }
+            }
+        } while (due.size() == batchSize);
+
+        outboxMessageRepository.findFirstByOrderByNextAttemptAtAsc().ifPresent(next ->
+                schedule(Math.max(0, next.getNextAttemptAt().getTime() - System.currentTimeMillis())));
+        return count;
+    }
+
+    /**
+     * Posts one claimed message. It is deleted when the association accepted it, otherwise its next attempt
+     * is pushed back by the backoff, unless the lease ran out and another replica took it over.
+     */
+    private boolean deliver(OutboxMessage message, Date until) {
+        String error;
+        try {
+            ResponseEntity<String> response = requestUtil.withServiceToken(username, password, token -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set("Authorization", "Bearer " + token);
+                headers.set(IDEMPOTENCY_KEY, message.getIdempotencyKey());
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                return restTemplate.postForEntity(associationUrl + message.getPath(),
+                        new HttpEntity<>(message.getPayload(), headers), String.class);
+            });
+            if (response != null && response.getStatusCode().is2xxSuccessful()) {
+                outboxMessageRepository.deleteDelivered(message.getId());
+                delivered.increment();
+                return true;
+            }
+            error = response == null ? "No response" : "Status " + response.getStatusCode();
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+        }
+
+        long delay = backoff(message.getAttempts() + 1);
+        message.failed(error, new Date(System.currentTimeMillis() + delay));
+        outboxMessageRepository.recordFailure(message.getId(), until, OutboxMessage.truncate(error),
+                message.getNextAttemptAt());
+        retries.increment();
+        System.out.println("Delivering result " + message.getIdempotencyKey() + " failed (attempt "
+                + message.getAttempts() + "), retrying in " + delay + " ms: " + error);
+        return false;
+    }
+
+    /**
+     * Returns how long to wait after the given number of failed attempts.
+     */
+    long backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(maxBackoff, baseBackoff << doublings);
+    }
+
+    /**
+     * Returns the number of messages waiting, the age of the oldest one and the delivery and retry counts.
+     */
+    public Metrics snapshot() {
+        long lag = outboxMessageRepository.findFirstByOrderByCreatedAtAsc()
+                .map(oldest -> System.currentTimeMillis() - oldest.getCreatedAt().getTime()).orElse(0L);
+        return new Metrics(outboxMessageRepository.count(), lag, delivered.sum(), retries.sum(),
+                outboxMessageRepository.findMaxAttempts());
+    }
+
+    /**
+     * The state of the outbox.
+     */
+    public static class Metrics {
+        private final long pending;
+        private final long lagMillis;
+        private final long delivered;
+        private final long retries;
+        private final int maxAttempts;
+
+        Metrics(long pending, long lagMillis, long delivered, long retries, int maxAttempts) {
+            this.pending = pending;
+            this.lagMillis = lagMillis;
+            this.delivered = delivered;
+            this.retries = retries;
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getPending() {
+            return pending;
+        }
+
+        /**
+         * Returns how long the oldest waiting result has been waiting, 0 when none is waiting.
+         */
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * Returns the number of failed delivery attempts since startup.
+         */
+        public long getRetries() {
+            return retries;
+        }
+
+        /**
+         * Returns the highest number of failed attempts of a waiting result.
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.models.StandingsModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the standings of open votings to subscribers over Server-Sent Events.
+ *
+ * <p>Subscribers of the same voting share one channel. Every interval ms the broadcaster reads the
+ * running tally of every voting that has subscribers once, serializes it once and hands the same
+ * snapshot to all subscribers of that voting, so thousands of watchers cost one tally per interval.
+ * A snapshot that did not change is not sent again. The write-behind buffer of a voting is flushed
+ * before its tally is read, so acknowledged ballots show up in the standings, and the tally is read
+ * with one projection query instead of loading the voting.</p>
+ *
+ * <p>Election channels are keyed by the election, not the association: closing an election creates
+ * the next one of the association right away, and its subscribers are told that theirs closed.</p>
+ *
+ * <p>Snapshots are written by a small pool of sender threads, never by request threads or by the
+ * ticker. A subscriber only ever holds the latest snapshot it has not received yet, so a slow
+ * consumer skips snapshots instead of building up a backlog, and a consumer whose write is stuck for
+ * longer than stall-timeout ms is dropped.</p>
+ */
+@Component
+public class StandingsBroadcaster {
+
+    private final transient ElectionRepository electionRepository;
+    private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient BallotWriter ballotWriter;
+    private final transient ObjectMapper objectMapper;
+    private final transient long interval;
+    private final transient long timeout;
+    private final transient long stallTimeout;
+    private final transient int maxSubscribers;
+
+    private final transient Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final transient AtomicInteger subscribers = new AtomicInteger();
+    private final transient LongAdder tallies = new LongAdder();
+    private final transient LongAdder sent = new LongAdder();
+    private final transient LongAdder dropped = new LongAdder();
+    private final transient ScheduledExecutorService ticker;
+    private final transient ExecutorService senders;
+
+    /**
+     * Instantiates the broadcaster.
+     *
+     * @param ballotWriter      Flushes the write-behind buffer of a voting before its tally is read.
+     * @param interval          How often the standings of a voting are read and pushed at most, in ms.
+     * @param timeout           How long a subscription lasts before the client has to reconnect, in ms.
+     * @param stallTimeout      How long a write to a subscriber may take before it is dropped, in ms.
+     * @param maxSubscribers    The most subscribers over all votings.
+     * @param senderThreads     The number of threads that write snapshots to subscribers.
+     */
+    public StandingsBroadcaster(ElectionRepository electionRepository, RuleVotingRepository ruleVotingRepository,
+                                BallotWriter ballotWriter, ObjectMapper objectMapper,
+                                @Value("${voting.standings.interval:1000}") long interval,
+                                @Value("${voting.standings.timeout:1800000}") long timeout,
+                                @Value("${voting.standings.stall-timeout:10000}") long stallTimeout,
+                                @Value("${voting.standings.max-subscribers:10000}") int maxSubscribers,
+                                @Value("${voting.standings.sender-threads:4}") int senderThreads) {
+        this.electionRepository = electionRepository;
+        this.ruleVotingRepository = ruleVotingRepository;
+        this.ballotWriter = ballotWriter;
+        this.objectMapper = objectMapper;
+        this.interval = interval;
+        this.timeout = timeout;
+        this.stallTimeout = stallTimeout;
+        this.maxSubscribers = maxSubscribers;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "standings-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "standings-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts pushing the standings every interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticker.scheduleWithFixedDelay(this::tickQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops pushing and closes all subscriptions.
+     */
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(s -> s.emitter.complete()));
+        channels.clear();
+    }
+
+    /**
+     * Subscribes to the standings of the election of an association.
+     *
+     * @throws IllegalArgumentException if the association has no election.
+     * @throws IllegalStateException if there are too many subscribers already.
+     */
+    public SseEmitter subscribeElection(int associationId) {
+        Election election = electionRepository.findByAssociationId(associationId)
+                .orElseThrow(() -> new IllegalArgumentException("Association with ID "
+                        + associationId + " does not have an active election."));
+        return subscribe(VotingType.ELECTION, election.getId());
+    }
+
+    /**
+     * Subscribes to the standings of a rule vote.
+     *
+     * @throws IllegalArgumentException if the rule vote does not exist.
+     * @throws IllegalStateException if there are too many subscribers already.
+     */
+    public SseEmitter subscribeRuleVoting(long ruleVotingId) {
+        if (!ruleVotingRepository.existsById(ruleVotingId)) {
+            throw new IllegalArgumentException("Rule voting with ID " + ruleVotingId + " does not exist.");
+        }
+        return subscribe(VotingType.PROPOSAL, ruleVotingId);
+    }
+
+    private SseEmitter subscribe(VotingType type, long id) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Too many standings subscribers, try again later.");
+        }
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter);
+        // Added under the lock of the key, so the ticker can not drop the channel as empty in between
+        Channel channel = channels.compute(key(type, id), (key, existing) -> {
+            Channel joined = existing == null ? new Channel(type, id) : existing;
+            joined.subscribers.add(subscriber);
+            return joined;
+        });
+        emitter.onCompletion(() -> remove(channel, subscriber));
+        emitter.onTimeout(() -> remove(channel, subscriber));
+        emitter.onError(e -> remove(channel, subscriber));
+
+        // A late subscriber gets the last snapshot right away instead of waiting for the next change
+        String last = channel.lastSnapshot;
+        if (last != null) {
+            subscriber.offer(last);
+        }
+        return emitter;
+    }
+
+    private void remove(Channel channel, Subscriber subscriber) {
+        if (channel.subscribers.remove(subscriber)) {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            System.out.println("Pushing the standings failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the standings of every voting with subscribers once and offers changed snapshots to its
+     * subscribers. Channels without subscribers are dropped, stalled subscribers are closed.
+     */
+    void tick() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            if (channels.computeIfPresent(entry.getKey(), (key, c) -> c.subscribers.isEmpty() ? null : c) == null) {
+                continue;
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.stalledSince(now) > stallTimeout) {
+                    dropped.increment();
+                    remove(channel, subscriber);
+                    subscriber.emitter.complete();
+                }
+            }
+            Optional<StandingsModel> standings = read(channel);
+            if (standings.isEmpty()) {
+                close(entry.getKey(), channel);
+                continue;
+            }
+            String snapshot = serialize(standings.get());
+            if (snapshot.equals(channel.lastSnapshot)) {
+                continue;
+            }
+            channel.lastSnapshot = snapshot;
+            channel.subscribers.forEach(subscriber -> subscriber.offer(snapshot));
+        }
+    }
+
+    /**
+     * Reads the running tally of the voting, empty when the voting is closed.
+     */
+    private Optional<StandingsModel> read(Channel channel) {
+        tallies.increment();
+        StandingsModel model = new StandingsModel();
+        model.setId(channel.id);
+        Map<String, Integer> standings = new HashMap<>();
+        if (channel.type == VotingType.ELECTION) {
+            ballotWriter.flushElection(channel.id);
+            List<Object[]> rows = electionRepository.findStandingsById(channel.id);
+            if (rows.isEmpty()) {
+                return Optional.empty();
+            }
+            model.setType(VotingType.ELECTION.toString());
+            model.setEndDate((Date) rows.get(0)[0]);
+            rows.forEach(row -> putVotes(standings, row[1], row[2]));
+        } else {
+            ballotWriter.flushRuleVoting(channel.id);
+            List<Object[]> rows = ruleVotingRepository.findStandingsById(channel.id);
+            if (rows.isEmpty()) {
+                return Optional.empty();
+            }
+            model.setType(rows.get(0)[0].toString());
+            model.setEndDate((Date) rows.get(0)[1]);
+            standings.put("for", 0);
+            standings.put("against", 0);
+            standings.put("abstain", 0);
+            rows.forEach(row -> putVotes(standings, row[2], row[3]));
+        }
+        model.setStandings(standings);
+        return Optional.of(model);
+    }
+
+    private static void putVotes(Map<String, Integer> standings, Object option, Object votes) {
+        if (option != null) {
+            standings.put((String) option, (Integer) votes);
+        }
+    }
+
+    /**
+     * Tells the subscribers of a voting that has closed, its result went to the association.
+     */
+    private void close(String key, Channel channel) {
+        channels.remove(key, channel);
+        for (Subscriber subscriber : channel.subscribers) {
+            remove(channel, subscriber);
+            senders.execute(() -> {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().name("closed").data(""));
+                    subscriber.emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    subscriber.emitter.complete();
+                }
+            });
+        }
+    }
+
+    private String serialize(StandingsModel model) {
+        try {
+            return objectMapper.writeValueAsString(model);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the standings.", e);
+        }
+    }
+
+    private static String key(VotingType type, long id) {
+        return (type == VotingType.ELECTION ? "election-" : "rule-voting-") + id;
+    }
+
+    /**
+     * Returns the number of subscribers, the number of tallies read and the snapshots sent and dropped.
+     */
+    public Metrics snapshot() {
+        return new Metrics(subscribers.get(), channels.size(), tallies.sum(), sent.sum(), dropped.sum());
+    }
+
+    /**
+     * The subscribers of one voting and the last snapshot they were offered.
+     */
+    private static class Channel {
+        private final VotingType type;
+        private final long id;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private volatile String lastSnapshot;
+
+        Channel(VotingType type, long id) {
+            this.type = type;
+            this.id = id;
+        }
+    }
+
+    /**
+     * One subscription. Holds at most one snapshot that was not sent yet, a newer snapshot replaces it.
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicLong sendingSince = new AtomicLong();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(String snapshot) {
+            pending.set(snapshot);
+            if (sending.compareAndSet(false, true)) {
+                sendingSince.set(System.currentTimeMillis());
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        /**
+         * Sends the pending snapshot until there is none left. Runs on a sender thread.
+         */
+        private void drain() {
+            String snapshot;
+            while ((snapshot = pending.getAndSet(null)) != null) {
+                sendingSince.set(System.currentTimeMillis());
+                try {
+                    emitter.send(SseEmitter.event().name("standings").data(snapshot, MediaType.APPLICATION_JSON));
+                    sent.increment();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                    sending.set(false);
+                    return;
+                }
+            }
+            sending.set(false);
+            // A snapshot offered after the last getAndSet but before sending was cleared is sent now
+            if (pending.get() != null && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        /**
+         * Returns how long the current write has been going on, 0 when nothing is being written.
+         */
+        long stalledSince(long now) {
+            return sending.get() ? now - sendingSince.get() : 0;
+        }
+    }
+
+    /**
+     * The state of the broadcaster.
+     */
+    public static class Metrics {
+        private final int subscribers;
+        private final int votings;
+        private final long tallies;
+        private final long sent;
+        private final long dropped;
+
+        Metrics(int subscribers, int votings, long tallies, long sent, long dropped) {
+            this.subscribers = subscribers;
+            this.votings = votings;
+            this.tallies = tallies;
+            this.sent = sent;
+            this.dropped = dropped;
+        }
+
+        public int getSubscribers() {
+            return subscribers;
+        }
+
+        public int getVotings() {
+            return votings;
+        }
+
+        /**
+         * Returns how often the standings of a voting were read, once per voting per interval.
+         */
+        public long getTallies() {
+            return tallies;
+        }
+
+        public long getSent() {
+            return sent;
+        }
+
+        /**
+         * Returns the number of subscribers that were dropped because a write to them stalled.
+         */
+        public long getDropped() {
+            return dropped;
+        }
+    }
+}
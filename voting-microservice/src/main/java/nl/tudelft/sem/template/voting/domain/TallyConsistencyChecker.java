@@ -0,0 +1,230 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallotRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verifies the running tallies of elections and rule votings against a full recount of their ballots.
+ *
+ * <p>The recount streams only the (voter, choice) columns of the ballots into CompactBallots, instead
+ * of loading every ballot entity into the persistence context, so recounting a voting with 100k
+ * ballots keeps about 1 MB of them on the heap.</p>
+ *
+ * <p>Every check-interval ms the tallies are checked and any drift is logged. A repair recounts one
+ * voting at a time with its tally locked, so casts landing during the repair wait for it instead of
+ * being overwritten.</p>
+ */
+@Component
+public class TallyConsistencyChecker {
+
+    private final transient ElectionRepository electionRepository;
+    private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient ElectionBallotRepository electionBallotRepository;
+    private final transient RuleVoteBallotRepository ruleVoteBallotRepository;
+    private final transient BallotWriter ballotWriter;
+    private final transient TransactionRetry transactionRetry;
+    private final transient long checkInterval;
+    private final transient ScheduledExecutorService checker;
+
+    /**
+     * Instantiates the checker.
+     *
+     * @param ballotWriter      Flushes the write-behind buffer of a voting before it is repaired.
+     * @param transactionRetry  Runs the check, and the repair of every voting, in its own transaction.
+     * @param checkInterval     How often the tallies are checked and drift is logged, in ms, 0 to disable.
+     */
+    public TallyConsistencyChecker(ElectionRepository electionRepository,
+                                   RuleVotingRepository ruleVotingRepository,
+                                   ElectionBallotRepository electionBallotRepository,
+                                   RuleVoteBallotRepository ruleVoteBallotRepository,
+                                   BallotWriter ballotWriter, TransactionRetry transactionRetry,
+                                   @Value("${voting.tally-check.interval:3600000}") long checkInterval) {
+        this.electionRepository = electionRepository;
+        this.ruleVotingRepository = ruleVotingRepository;
+        this.electionBallotRepository = electionBallotRepository;
+        this.ruleVoteBallotRepository = ruleVoteBallotRepository;
+        this.ballotWriter = ballotWriter;
+        this.transactionRetry = transactionRetry;
+        this.checkInterval = checkInterval;
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tally-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the periodic check.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (checkInterval > 0) {
+            checker.scheduleWithFixedDelay(this::checkQuietly, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checker.shutdownNow();
+    }
+
+    /**
+     * Checks the tallies and logs every option that drifted.
+     */
+    private void checkQuietly() {
+        try {
+            List<TallyDrift> drift = transactionRetry.run(this::check);
+            for (TallyDrift option : drift) {
+                System.out.println("Tally drift in " + option.getType() + " " + option.getVotingId() + ": option "
+                        + option.getOption() + " has " + option.getTallied() + " votes, the ballots count "
+                        + option.getCounted() + ".");
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Checking the tallies failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recounts every open voting and reports the options whose running tally differs from the recount.
+     * Nothing is locked, so a cast committing during the check can show up as drift that is gone
+     * on the next check.
+     *
+     * @return the drift of every option that is out of step, empty if all tallies are consistent.
+     */
+    @Transactional(readOnly = true)
+    public List<TallyDrift> check() {
+        List<TallyDrift> drift = new ArrayList<>();
+        for (Election election : electionRepository.findAll()) {
+            drift.addAll(compare(election.getId(), VotingType.ELECTION,
+                    election.tallyVotes(), recount(election)));
+        }
+        for (RuleVoting ruleVoting : ruleVotingRepository.findAll()) {
+            drift.addAll(compare(ruleVoting.getId(), ruleVoting.getType(),
+                    ruleVoting.tallyVotes(), recount(ruleVoting)));
+        }
+        return drift;
+    }
+
+    /**
+     * Recounts every open voting and overwrites the running tallies that drifted. Every voting is
+     * flushed from the write-behind buffer first and repaired in its own transaction, with its tally
+     * locked from before the recount until the repaired tally is saved.
+     *
+     * @return the drift that was repaired.
+     */
+    public List<TallyDrift> repair() {
+        List<TallyDrift> drift = new ArrayList<>();
+        for (long electionId : electionRepository.findAllIds()) {
+            ballotWriter.flushElection(electionId);
+            drift.addAll(transactionRetry.run(() -> repairElection(electionId)));
+        }
+        for (long ruleVotingId : ruleVotingRepository.findAllIds()) {
+            ballotWriter.flushRuleVoting(ruleVotingId);
+            drift.addAll(transactionRetry.run(() -> repairRuleVoting(ruleVotingId)));
+        }
+        return drift;
+    }
+
+    /**
+     * Repairs the tally of one election. Casts change the tally rows directly, so those are locked
+     * before the election and its tally are read.
+     */
+    private List<TallyDrift> repairElection(long electionId) {
+        electionRepository.lockTally(electionId);
+        Optional<Election> optElection = electionRepository.findForUpdateById(electionId);
+        if (optElection.isEmpty()) {
+            return List.of();
+        }
+        Election election = optElection.get();
+        Map<String, Integer> counted = recount(election);
+        List<TallyDrift> drift = compare(electionId, VotingType.ELECTION, election.tallyVotes(), counted);
+        if (!drift.isEmpty()) {
+            election.getTally().clear();
+            election.getTally().putAll(counted);
+            electionRepository.save(election);
+        }
+        return drift;
+    }
+
+    /**
+     * Repairs the tally of one rule vote. Casts lock the rule vote to change its tally.
+     */
+    private List<TallyDrift> repairRuleVoting(long ruleVotingId) {
+        Optional<RuleVoting> optRuleVoting = ruleVotingRepository.findForUpdateById(ruleVotingId);
+        if (optRuleVoting.isEmpty()) {
+            return List.of();
+        }
+        RuleVoting ruleVoting = optRuleVoting.get();
+        Map<String, Integer> counted = recount(ruleVoting);
+        List<TallyDrift> drift = compare(ruleVotingId, ruleVoting.getType(), ruleVoting.tallyVotes(), counted);
+        if (!drift.isEmpty()) {
+            ruleVoting.getTally().clear();
+            ruleVoting.getTally().putAll(counted);
+            ruleVotingRepository.save(ruleVoting);
+        }
+        return drift;
+    }
+
+    /**
+     * Recounts the ballots of an election, every candidate starts at 0 votes.
+     */
+    private Map<String, Integer> recount(Election election) {
+        Map<String, Integer> counted = new HashMap<>();
+        for (String candidateId : election.getCandidateIds()) {
+            counted.put(candidateId, 0);
+        }
+        counted.putAll(collect(electionBallotRepository.streamVotesByElectionId(election.getId())).tally());
+        return counted;
+    }
+
+    /**
+     * Recounts the ballots of a rule vote, every option starts at 0 votes.
+     */
+    private Map<String, Integer> recount(RuleVoting ruleVoting) {
+        Map<String, Integer> counted = new HashMap<>();
+        counted.put("for", 0);
+        counted.put("against", 0);
+        counted.put("abstain", 0);
+        counted.putAll(collect(ruleVoteBallotRepository.streamVotesByRuleVotingId(ruleVoting.getId())).tally());
+        return counted;
+    }
+
+    private CompactBallots collect(Stream<Object[]> votes) {
+        CompactBallots ballots = new CompactBallots();
+        try (Stream<Object[]> rows = votes) {
+            rows.forEach(row -> ballots.cast((String) row[0], (String) row[1]));
+        }
+        return ballots;
+    }
+
+    private List<TallyDrift> compare(long votingId, VotingType type,
+                                     Map<String, Integer> tallied, Map<String, Integer> counted) {
+        Set<String> options = new TreeSet<>(tallied.keySet());
+        options.addAll(counted.keySet());
+
+        List<TallyDrift> drift = new ArrayList<>();
+        for (String option : options) {
+            int talliedVotes = tallied.getOrDefault(option, 0);
+            int countedVotes = counted.getOrDefault(option, 0);
+            if (talliedVotes != countedVotes) {
+                drift.add(new TallyDrift(votingId, type, option, talliedVotes, countedVotes));
+            }
+        }
+        return drift;
+    }
+}
@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A difference between the running tally of a voting option and the count recomputed from the ballots.
+ */
+@Data
+@AllArgsConstructor
+public class TallyDrift {
+    private long votingId;
+    private VotingType type;
+    private String option;
+    private int tallied;
+    private int counted;
+}
@@ -0,0 +1,108 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Runs a unit of work in its own transaction and retries it when it loses a race with a concurrent writer.
+ *
+ * <p>Votings and ballots carry a version column, so two transactions that change the same row can no
+ * longer overwrite each other: the one that commits last fails with an optimistic locking failure.
+ * Two first ballots of the same voter are caught by the unique (election_id, voter_id) constraint,
+ * and a rule vote whose row lock could not be acquired in time fails the same way.
+ * In all cases the work is simply run again on the fresh state, after a short random pause.
+ * Only the votings that are actually contended are retried, nothing else is serialized.</p>
+ */
+@Component
+public class TransactionRetry {
+
+    private final transient PlatformTransactionManager transactionManager;
+    private final transient int maxAttempts;
+    private final transient long backoff;
+
+    /**
+     * Instantiates the retrying transaction runner.
+     *
+     * @param transactionManager    The transaction manager of the voting database.
+     * @param maxAttempts           How often the work is attempted before the conflict is given up on.
+     * @param backoff               The maximum pause before the first retry in ms, growing with every attempt.
+     */
+    public TransactionRetry(PlatformTransactionManager transactionManager,
+                           @Value("${voting.cast.max-attempts:10}") int maxAttempts,
+                           @Value("${voting.cast.backoff:5}") long backoff) {
+        this.transactionManager = transactionManager;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    /**
+     * A unit of work that may throw a checked exception of its own.
+     *
+     * @param <T> The result of the work.
+     * @param <E> The checked exception the work may throw.
+     */
+    @FunctionalInterface
+    public interface Attempt<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Runs the work in a new transaction and commits it. If the work or the commit loses a race
+     * with a concurrent transaction, the work is rolled back and run again, up to maxAttempts times.
+     * Any other exception rolls the transaction back and is thrown as is.
+     *
+     * @param attempt   The work to run.
+     * @param <T>       The result of the work.
+     * @param <E>       The checked exception the work may throw.
+     * @return          The result of the attempt that committed.
+     * @throws E        When the work itself fails.
+     */
+    public <T, E extends Exception> T run(Attempt<T, E> attempt) throws E {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 1; ; i++) {
+            TransactionStatus status = transactionManager.getTransaction(definition);
+            try {
+                T result = attempt.run();
+                transactionManager.commit(status);
+                return result;
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                rollback(status);
+                if (i >= maxAttempts) {
+                    throw e;
+                }
+                pause(i);
+            } catch (Exception e) {
+                rollback(status);
+                throw e;
+            }
+        }
+    }
+
+    private void rollback(TransactionStatus status) {
+        if (!status.isCompleted()) {
+            transactionManager.rollback(status);
+        }
+    }
+
+    /**
+     * Waits a random time that grows with the attempt, so that the conflicting writers spread out.
+     */
+    private void pause(int attempt) {
+        if (backoff <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,6 +17,24 @@ public abstract class Voting {
     @Column(name = "endDate", nullable = false)
     private Date endDate;
 
+    /**
+     * Incremented on every update, so that a concurrent update of the same voting fails instead of
+     * silently overwriting the other one.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * The replica that is closing this voting, and until when. While the lease runs, the other
+     * replicas leave the voting alone, so every result is forwarded by one replica only.
+     */
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private Date leaseUntil;
+
     public Voting() {
         this.creationDate = new Date(System.currentTimeMillis());
     }
@@ -45,4 +63,16 @@ public abstract class Voting {
         this.endDate = date;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public Date getLeaseUntil() {
+        return leaseUntil;
+    }
+
 }
@@ -1,150 +1,452 @@
 package nl.tudelft.sem.template.voting.domain;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
 import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallot;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
 import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.election.StvCount;
+import nl.tudelft.sem.template.voting.domain.election.StvResult;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRule;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRuleRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleFingerprint;
 import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
 import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
 import nl.tudelft.sem.template.voting.models.AssociationProposalRequestModel;
 import nl.tudelft.sem.template.voting.models.ElectionResultRequestModel;
+import nl.tudelft.sem.template.voting.models.MembersRequestModel;
+import nl.tudelft.sem.template.voting.models.RuleFingerprintsPageModel;
 import nl.tudelft.sem.template.voting.models.RuleVoteResultRequestModel;
 import nl.tudelft.sem.template.voting.models.UserAssociationRequestModel;
 import nl.tudelft.sem.template.voting.utils.RequestUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+@Component
 public class VotingAssociationCommunication {
 
     private final transient String username = "VotingService";
     private final transient String password = "SuperSecretPassword";
     private final transient String auth = "Authorization";
-    private final transient String bearer = "Bearer";
+    private final transient String bearer = "Bearer ";
+    private final transient int membersBatch = 1000;
     public final transient VotingFactory votingFactory;
     private final transient RequestUtil requestUtil;
+    private final transient RestTemplate restTemplate;
+    private final transient String associationUrl;
 
     private final transient ElectionRepository electionRepository;
+    private final transient ElectionBallotRepository electionBallotRepository;
     private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient AdoptedRuleRepository adoptedRuleRepository;
+    private final transient BallotWriter ballotWriter;
+    private final transient EligibilityCache eligibilityCache;
+    private final transient TransactionRetry transactionRetry;
+    private final transient ResultOutbox resultOutbox;
+    private final transient VotingLeases votingLeases;
+    private final transient VotingArchive votingArchive;
+
+    private final transient boolean forwardingEnabled;
+    private final transient long retryDelay;
+    private final transient long sweepInterval;
+    private final transient boolean verifyAdoptedRules;
+    private final transient VotingDeadlineQueue deadlineQueue = new VotingDeadlineQueue();
+    private final transient ExecutorService forwardingExecutor;
+    private final transient AtomicInteger electionResultsWaiting = new AtomicInteger();
+    private final transient AtomicInteger ruleVoteResultsWaiting = new AtomicInteger();
 
     /**
      * Instantiates a VotingAssociationCommunication object which provides methods to the VotingService.
+     *
+     * @param electionBallotRepository Reads the rankings when the seats of an election are counted.
+     * @param adoptedRuleRepository Keeps the fingerprints of the rules adopted through passed rule votes.
+     * @param ballotWriter          Flushes the write-behind buffer of a voting before its result is sent.
+     * @param eligibilityCache      Caches the candidate and council member checks.
+     * @param transactionRetry      Runs the closing of a voting in its own transaction.
+     * @param resultOutbox          Delivers the results of closed votings.
+     * @param votingLeases          Claims the finished votings this replica forwards.
+     * @param votingArchive         Keeps the closed votings with their ballots, out of the live tables.
+     * @param restTemplate          The shared RestTemplate used for all calls to the association microservice.
+     * @param associationUrl        The base URL of the association microservice.
+     * @param forwardingEnabled     Whether finished votings are forwarded to the association.
+     * @param retryDelay            How long to wait before retrying votings that could not be forwarded, in ms.
+     * @param forwardingParallelism The maximum number of results forwarded at the same time.
+     * @param sweepInterval         How often all finished votings are claimed when no deadline of this
+     *                              replica became due, in ms, so votings of other replicas are not left behind.
+     * @param verifyAdoptedRules    Whether a rule missing from the adopted rules is also checked with the
+     *                              association, off by default since AdoptedRuleSync seeds the adopted rules.
      */
     public VotingAssociationCommunication(ElectionRepository electionRepository,
-                                          RuleVotingRepository ruleVotingRepository, RequestUtil requestUtil) {
+                                          ElectionBallotRepository electionBallotRepository,
+                                          RuleVotingRepository ruleVotingRepository,
+                                          AdoptedRuleRepository adoptedRuleRepository, BallotWriter ballotWriter,
+                                          EligibilityCache eligibilityCache, TransactionRetry transactionRetry,
+                                          ResultOutbox resultOutbox, VotingLeases votingLeases,
+                                          VotingArchive votingArchive, RequestUtil requestUtil,
+                                          RestTemplate restTemplate,
+                                          @Value("${services.association.url:http://localhost:8084}")
+                                                  String associationUrl,
+                                          @Value("${voting.forwarding.enabled:true}") boolean forwardingEnabled,
+                                          @Value("${voting.forwarding.retry-delay:2000}") long retryDelay,
+                                          @Value("${voting.forwarding.parallelism:4}") int forwardingParallelism,
+                                          @Value("${voting.forwarding.sweep-interval:30000}") long sweepInterval,
+                                          @Value("${voting.adopted-rules.verify-on-miss:false}")
+                                                  boolean verifyAdoptedRules) {
         this.electionRepository = electionRepository;
+        this.electionBallotRepository = electionBallotRepository;
         this.ruleVotingRepository = ruleVotingRepository;
-        this.votingFactory = new VotingFactory(electionRepository, ruleVotingRepository);
+        this.adoptedRuleRepository = adoptedRuleRepository;
+        this.ballotWriter = ballotWriter;
+        this.eligibilityCache = eligibilityCache;
+        this.transactionRetry = transactionRetry;
+        this.resultOutbox = resultOutbox;
+        this.votingLeases = votingLeases;
+        this.votingArchive = votingArchive;
+        this.votingFactory = new VotingFactory(electionRepository, ruleVotingRepository, deadlineQueue);
         this.requestUtil = requestUtil;
+        this.restTemplate = restTemplate;
+        this.associationUrl = associationUrl;
+        this.forwardingEnabled = forwardingEnabled;
+        this.retryDelay = retryDelay;
+        this.sweepInterval = sweepInterval;
+        this.verifyAdoptedRules = verifyAdoptedRules;
+        this.forwardingExecutor = Executors.newFixedThreadPool(forwardingParallelism);
     }
 
-
     /**
-     * This is the scheduler to update an association's council.
-     * The method checks for the first entry in the election repository.
-     * If it exists, it checks if the election's end date is past due.
-     * If it is, then the election results are parsed and sent over
-     * to the association microservice which then also updates its history.
-     * If an OK response status is received then the election entry is deleted.
+     * Fills the deadline queue with the end dates of all votings in the database and starts waiting
+     * for the first one. From then on the database is only queried when a voting has ended, or once
+     * per sweep interval to pick up the votings that other replicas created.
      */
-    @Async
-    @Scheduled(fixedRate = 2000, initialDelay = 0)
-    public void forwardElectionResultsScheduler() {
-        System.out.println("Executed at : " + new Date());
-        Optional<Election> optElection = electionRepository.findFirstByOrderByEndDateAsc();
+    @EventListener(ApplicationReadyEvent.class)
+    public void startForwarding() {
+        if (!forwardingEnabled) {
+            return;
+        }
+        electionRepository.findAllEndDates().forEach(deadlineQueue::scheduleElection);
+        ruleVotingRepository.findAllEndDates().forEach(deadlineQueue::scheduleRuleVoting);
+        deadlineQueue.start(this::forwardDue, sweepInterval);
+    }
 
-        if (optElection.isPresent()) {
-            Election election = optElection.get();
+    @PreDestroy
+    public void shutdown() {
+        deadlineQueue.stop();
+        forwardingExecutor.shutdown();
+    }
 
-            if (Instant.now().isAfter(election.getEndDate().toInstant())) {
-                final String url = "http://localhost:8084/association/update-council";
+    /**
+     * Returns the queue with the end dates of the open votings.
+     */
+    public VotingDeadlineQueue getDeadlineQueue() {
+        return deadlineQueue;
+    }
 
-                ElectionResultRequestModel model = new ElectionResultRequestModel();
-                model.setDate(election.getEndDate());
-                model.setAssociationId(election.getAssociationId());
-                model.setStandings(election.tallyVotes());
-                model.setResult(election.getResults());
+    /**
+     * Returns the number of finished elections that were not forwarded in the last run.
+     */
+    public int getElectionResultsWaiting() {
+        return electionResultsWaiting.get();
+    }
 
-                String token = requestUtil.authenticateService(username,
-                        password);
+    /**
+     * Returns the number of finished rule votings that were not forwarded in the last run.
+     */
+    public int getRuleVoteResultsWaiting() {
+        return ruleVoteResultsWaiting.get();
+    }
 
-                HttpHeaders headers = new HttpHeaders();
-                headers.set(auth, bearer
-                        + token);
-                HttpEntity<ElectionResultRequestModel> request = new HttpEntity<>(model, headers);
+    /**
+     * Called by the deadline queue when votings have ended. Forwards the finished elections and/or
+     * rule votings, including every voting that ended up to the latest of the due deadlines.
+     */
+    private void forwardDue(List<VotingDeadlineQueue.Deadline> due) {
+        long latest = System.currentTimeMillis();
+        boolean elections = false;
+        boolean ruleVotings = false;
+        for (VotingDeadlineQueue.Deadline deadline : due) {
+            latest = Math.max(latest, deadline.getDueAt().getTime() + 1);
+            elections |= deadline.isElection();
+            ruleVotings |= !deadline.isElection();
+        }
+        if (elections) {
+            forwardElectionResults(new Date(latest));
+        }
+        if (ruleVotings) {
+            forwardRuleVoteResults(new Date(latest));
+        }
+    }
 
-                RestTemplate restTemplate = new RestTemplate();
+    /**
+     * Updates the councils of the associations whose election has ended.
+     */
+    public void forwardElectionResultsScheduler() {
+        forwardElectionResults(new Date());
+    }
 
-                try {
-                    ResponseEntity<String> responseEntity = restTemplate.postForEntity(url, request, String.class);
+    /**
+     * Updates the rule sets of the associations whose rule voting has ended.
+     */
+    public void forwardRuleVoteResultsScheduler() {
+        forwardRuleVoteResults(new Date());
+    }
 
-                    if (responseEntity.getStatusCode().equals(HttpStatus.OK)) {
-                        electionRepository.delete(election);
-                        createElection(VotingType.ELECTION, election.getAssociationId(), null, null,
-                                null);
-                    }
-                } catch (Exception e) {
-                    System.out.println(e.getMessage());
-                }
-            }
+    /**
+     * All elections whose end date is before the given date are forwarded,
+     * at most forwardingParallelism at the same time.
+     * The elections are claimed in batches through the voting leases, so several replicas split
+     * them between each other instead of all closing the same ones.
+     * Every election is closed and its results are handed to the outbox, which sends them
+     * to the association microservice which then also updates its history.
+     * A failing election does not stop the others, it is retried after the retry delay.
+     */
+    private void forwardElectionResults(Date date) {
+        if (!forwardingEnabled) {
+            return;
+        }
+        int claimed = 0;
+        int failed = 0;
+        List<Election> batch;
+        while (!(batch = votingLeases.claimElections(date)).isEmpty()) {
+            Date retryAt = new Date(System.currentTimeMillis() + retryDelay);
+            List<Election> notForwarded = drain(batch, this::forwardElectionResult);
+            notForwarded.forEach(election -> votingLeases.postponeElection(election.getId(), retryAt));
+            claimed += batch.size();
+            failed += notForwarded.size();
+        }
+        electionResultsWaiting.set(failed);
+        if (failed > 0) {
+            deadlineQueue.scheduleElection(new Date(System.currentTimeMillis() + retryDelay));
+        }
+        if (claimed > 0) {
+            System.out.println("Forwarded " + (claimed - failed) + " of " + claimed + " claimed elections, "
+                    + failed + " waiting.");
         }
     }
 
     /**
-     * This is the scheduler to update an association's rule set.
-     * The method checks for the first entry in the rulevote repository.
-     * If it exists, it checks if the rulevote's end date is past due.
-     * If it is, then the rulevote results are parsed and sent over
+     * All rule votings whose end date is before the given date are forwarded,
+     * at most forwardingParallelism at the same time.
+     * The rule votings are claimed in batches through the voting leases, so several replicas split
+     * them between each other instead of all closing the same ones.
+     * Every rulevote is closed and its results are handed to the outbox, which sends them
      * to the association microservice which then also updates its history.
-     * If an OK response status is received then the rulevote entry is deleted.
+     * A failing rulevote does not stop the others, it is retried after the retry delay.
      */
-    @Async
-    @Scheduled(fixedRate = 2000, initialDelay = 0)
-    public void forwardRuleVoteResultsScheduler() {
-        Optional<RuleVoting> optRuleVoting = ruleVotingRepository.findFirstByOrderByEndDateAsc();
-
-        if (optRuleVoting.isPresent()) {
-            RuleVoting ruleVoting = optRuleVoting.get();
+    private void forwardRuleVoteResults(Date date) {
+        if (!forwardingEnabled) {
+            return;
+        }
+        int claimed = 0;
+        int failed = 0;
+        List<RuleVoting> batch;
+        while (!(batch = votingLeases.claimRuleVotings(date)).isEmpty()) {
+            Date retryAt = new Date(System.currentTimeMillis() + retryDelay);
+            List<RuleVoting> notForwarded = drain(batch, this::forwardRuleVoteResult);
+            notForwarded.forEach(ruleVoting -> votingLeases.postponeRuleVoting(ruleVoting.getId(), retryAt));
+            claimed += batch.size();
+            failed += notForwarded.size();
+        }
+        ruleVoteResultsWaiting.set(failed);
+        if (failed > 0) {
+            deadlineQueue.scheduleRuleVoting(new Date(System.currentTimeMillis() + retryDelay));
+        }
+        if (claimed > 0) {
+            System.out.println("Forwarded " + (claimed - failed) + " of " + claimed + " claimed rule votes, "
+                    + failed + " waiting.");
+        }
+    }
 
-            if (Instant.now().isAfter(ruleVoting.getEndDate().toInstant())) {
-                final String url = "http://localhost:8084/association/update-rules";
+    /**
+     * Forwards every voting on the forwarding executor and waits for all of them.
+     * Exceptions are caught per voting, so one failing voting cannot block the rest.
+     *
+     * @return the votings that were not forwarded.
+     */
+    private <V extends Voting> List<V> drain(List<V> votings, Predicate<V> forwarder) {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (V voting : votings) {
+            tasks.add(() -> {
+                try {
+                    return forwarder.test(voting);
+                } catch (Exception e) {
+                    System.out.println("Forwarding voting " + voting.getId() + " failed: " + e.getMessage());
+                    return false;
+                }
+            });
+        }
 
-                RuleVoteResultRequestModel model = new RuleVoteResultRequestModel();
-                model.setDate(ruleVoting.getEndDate());
-                model.setType(ruleVoting.getType().toString());
-                model.setPassed(ruleVoting.passedMotion());
-                model.setResult(ruleVoting.getResults());
-                model.setAssociationId(ruleVoting.getAssociationId());
-                model.setAmendment(ruleVoting.getAmendment());
-                model.setAnAmendment(ruleVoting.getType() == VotingType.AMENDMENT);
+        List<V> notForwarded = new ArrayList<>();
+        try {
+            List<Future<Boolean>> results = forwardingExecutor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                if (!results.get(i).get()) {
+                    notForwarded.add(votings.get(i));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return votings;
+        } catch (ExecutionException e) {
+            System.out.println(e.getMessage());
+        }
+        return notForwarded;
+    }
 
-                String token = requestUtil.authenticateService(username, password);
+    /**
+     * Closes a finished election and hands its results to the outbox, which sends them to the association
+     * microservice. Ballots still in the write-behind buffer are applied first, so they are part of the result.
+     * The seats are counted with the single transferable vote over the rankings, the winners are sent
+     * in the order they were elected next to the first preference standings.
+     * The result is written, the election moved to the archive and the next election created in one
+     * transaction, so a result is never lost and never sent for an election that is still open.
+     *
+     * @return true if the election was closed, false if it had already been closed or another replica holds it.
+     */
+    public boolean forwardElectionResult(Election finished) {
+        ballotWriter.flushElection(finished.getId());
 
-                HttpHeaders headers = new HttpHeaders();
-                headers.set(auth, bearer
-                        + token);
-                HttpEntity<RuleVoteResultRequestModel> request = new HttpEntity<>(model, headers);
+        boolean closed = transactionRetry.run(() -> {
+            Optional<Election> optElection = electionRepository.findById(finished.getId());
+            if (optElection.isEmpty() || votingLeases.isLeasedByOther(optElection.get())) {
+                return false;
+            }
+            Election election = optElection.get();
+            ElectionResultRequestModel model = new ElectionResultRequestModel();
+            model.setDate(election.getEndDate());
+            model.setAssociationId(election.getAssociationId());
+            model.setStandings(election.tallyVotes());
+            model.setResult(election.getResults());
+            model.setWinners(countSeats(election).getWinners());
+
+            resultOutbox.enqueue("/association/update-council", model);
+            votingArchive.archive(election, model.getWinners());
+            electionRepository.delete(election);
+            createElection(election.getAssociationId(), election.getSeats());
+            return true;
+        });
+        resultOutbox.wake();
+        return closed;
+    }
 
-                RestTemplate restTemplate = new RestTemplate();
+    /**
+     * Counts the seats of an election from the rankings of its ballots, which are streamed without
+     * loading the ballot entities. Must run inside a transaction.
+     */
+    private StvResult countSeats(Election election) {
+        StvCount count = new StvCount(new TreeSet<>(election.getCandidateIds()), election.getSeats());
+        try (Stream<Object[]> rows = electionBallotRepository.streamRankingsByElectionId(election.getId())) {
+            rows.forEach(row -> count.addBallot(row[1] == null
+                    ? List.of((String) row[0]) : ElectionBallot.decodeRanking((String) row[1])));
+        }
+        return count.count();
+    }
 
-                try {
-                    ResponseEntity<String> responseEntity = restTemplate.postForEntity(url, request, String.class);
+    /**
+     * Closes a finished rule vote and hands its results to the outbox, which sends them to the association
+     * microservice. Ballots still in the write-behind buffer are applied first, so they are part of the result.
+     * The result is written, the adopted rules updated and the rule vote moved to the archive in one transaction.
+     *
+     * @return true if the rule vote was closed, false if it had already been closed or another replica holds it.
+     */
+    public boolean forwardRuleVoteResult(RuleVoting finished) {
+        ballotWriter.flushRuleVoting(finished.getId());
 
-                    if (responseEntity.getStatusCode().equals(HttpStatus.OK)) {
-                        ruleVotingRepository.delete(ruleVoting);
-                    }
-                } catch (Exception e) {
-                    System.out.println(e.getMessage());
-                }
+        boolean closed = transactionRetry.run(() -> {
+            Optional<RuleVoting> optRuleVoting = ruleVotingRepository.findById(finished.getId());
+            if (optRuleVoting.isEmpty() || votingLeases.isLeasedByOther(optRuleVoting.get())) {
+                return false;
+            }
+            RuleVoting ruleVoting = optRuleVoting.get();
+            RuleVoteResultRequestModel model = new RuleVoteResultRequestModel();
+            model.setDate(ruleVoting.getEndDate());
+            model.setType(ruleVoting.getType().toString());
+            model.setPassed(ruleVoting.passedMotion());
+            model.setResult(ruleVoting.getResults());
+            model.setAssociationId(ruleVoting.getAssociationId());
+            model.setRule(ruleVoting.getRule());
+            model.setAmendment(ruleVoting.getAmendment());
+            model.setAnAmendment(ruleVoting.getType() == VotingType.AMENDMENT);
+
+            if (model.isPassed()) {
+                adoptRule(ruleVoting);
             }
+            resultOutbox.enqueue("/association/update-rules", model);
+            votingArchive.archive(ruleVoting, model.isPassed());
+            ruleVotingRepository.delete(ruleVoting);
+            return true;
+        });
+        resultOutbox.wake();
+        return closed;
+    }
+
+    /**
+     * Applies a passed rule vote to the adopted rules, the same way the association applies it to its rules:
+     * a proposal adds the rule, an amendment replaces the rule by the amendment or removes it if it is empty.
+     */
+    private void adoptRule(RuleVoting ruleVoting) {
+        String adopted = ruleVoting.getRuleFingerprint();
+        if (ruleVoting.getType() == VotingType.AMENDMENT) {
+            adoptedRuleRepository.deleteByFingerprint(ruleVoting.getAssociationId(), adopted);
+            adopted = ruleVoting.getAmendment() == null || ruleVoting.getAmendment().isBlank()
+                    ? null : ruleVoting.getAmendmentFingerprint();
+        }
+        if (adopted != null && !adoptedRuleRepository.existsByAssociationIdAndFingerprint(
+                ruleVoting.getAssociationId(), adopted)) {
+            adoptedRuleRepository.save(new AdoptedRule(ruleVoting.getAssociationId(), adopted));
         }
     }
 
+    /**
+     * Returns whether the association already adopted the rule, checked against the fingerprints of the
+     * adopted rules, which AdoptedRuleSync seeds from the association microservice on startup and passed
+     * rule votes keep up to date. Only when verify-on-miss is on, a miss is also checked with the association
+     * microservice, and a rule it already has is added to the adopted rules.
+     *
+     * @param associationId The association the rule is proposed in.
+     * @param rule          The text of the rule.
+     * @return              True if a rule with the same normalized text was adopted.
+     */
+    public boolean isAdoptedRule(int associationId, String rule) {
+        String fingerprint = RuleFingerprint.of(rule);
+        if (adoptedRuleRepository.existsByAssociationIdAndFingerprint(associationId, fingerprint)) {
+            return true;
+        }
+        if (!verifyAdoptedRules || verifyProposal(associationId, rule)) {
+            return false;
+        }
+        try {
+            adoptedRuleRepository.save(new AdoptedRule(associationId, fingerprint));
+        } catch (DataIntegrityViolationException expected) {
+            // another proposal added the same rule in the meantime
+        }
+        return true;
+    }
 
     /**
      * Creates a board election for an association with a given ID.
@@ -157,64 +459,84 @@ public class VotingAssociationCommunication {
                 + " and will be held on " + voting.getEndDate().toString() + ".";
     }
 
+    /**
+     * Creates a board election for the given number of council seats.
+     *
+     * @return a message confirming the creation.
+     */
+    public String createElection(int associationId, int seats) {
+        Voting voting = votingFactory.createElection(associationId, seats);
+        return "Voting was created for association " + associationId
+                + " and will be held on " + voting.getEndDate().toString() + ".";
+    }
+
     /**
      * Verify whether the provided user can be a candidate for the board.
+     * The answer is cached until the association reports a change or the TTL expires.
      *
      * @param userId            The user's id.
      * @param associationId     The association id.
      * @return                  True if the user can be a candidate.
      */
     public boolean verifyCandidate(String userId, Integer associationId) {
-        final String url = "http://localhost:8084/association/verify-candidate";
-
-        UserAssociationRequestModel model = new UserAssociationRequestModel();
-        model.setAssociationId(associationId);
-        model.setUserId(userId);
-
-        String token = requestUtil.authenticateService(username,
-                password);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(auth, bearer
-                + token);
-        HttpEntity<UserAssociationRequestModel> request = new HttpEntity<>(model, headers);
-
-        RestTemplate restTemplate = new RestTemplate();
-
-        ResponseEntity<Boolean> responseEntity = restTemplate.postForEntity(url, request, Boolean.class);
-
-        if (responseEntity.getStatusCode().equals(HttpStatus.OK)) {
-            return responseEntity.getBody();
-        } else {
-            throw new IllegalArgumentException();
+        if (userId == null || associationId == null) {
+            return askAssociation("/association/verify-candidate", userId, associationId);
         }
+        return eligibilityCache.get(EligibilityCache.Check.CANDIDATE, userId, associationId,
+                () -> askAssociation("/association/verify-candidate", userId, associationId));
     }
 
     /**
      * Checks whether a certain user is part of the association's council.
+     * The answer is cached until the association reports a change or the TTL expires.
      *
      * @param userId            The user's id.
      * @param associationId     The association id.
      * @return                  True if the user is part of the association's council.
      */
     public boolean verifyCouncilMember(String userId, Integer associationId) {
-        final String url = "http://localhost:8084/association/verify-council-member";
+        if (userId == null || associationId == null) {
+            return askAssociation("/association/verify-council-member", userId, associationId);
+        }
+        return eligibilityCache.get(EligibilityCache.Check.COUNCIL_MEMBER, userId, associationId,
+                () -> askAssociation("/association/verify-council-member", userId, associationId));
+    }
+
+    /**
+     * Returns which of the users are members of the association, asked in batches of at most 1000 users.
+     *
+     * @param associationId     The association id.
+     * @param userIds           The ids of the users to check.
+     * @return                  The ids of the users that are members.
+     */
+    public Set<String> findMembers(int associationId, Collection<String> userIds) {
+        final String url = associationUrl + "/association/filter-members";
+
+        Set<String> members = new HashSet<>();
+        List<String> remaining = new ArrayList<>(userIds);
+        for (int from = 0; from < remaining.size(); from += membersBatch) {
+            MembersRequestModel model = new MembersRequestModel();
+            model.setAssociationId(associationId);
+            model.setUserIds(new HashSet<>(remaining.subList(from, Math.min(from + membersBatch, remaining.size()))));
+
+            ResponseEntity<String[]> responseEntity = postAsService(url, model, String[].class);
+            if (!responseEntity.getStatusCode().equals(HttpStatus.OK) || responseEntity.getBody() == null) {
+                throw new IllegalArgumentException("The members of association " + associationId
+                        + " could not be checked.");
+            }
+            members.addAll(List.of(responseEntity.getBody()));
+        }
+        return members;
+    }
+
+    private boolean askAssociation(String path, String userId, Integer associationId) {
+        final String url = associationUrl + path;
 
         UserAssociationRequestModel model = new UserAssociationRequestModel();
         model.setAssociationId(associationId);
         model.setUserId(userId);
 
-        String token = requestUtil.authenticateService(username,
-                password);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(auth, bearer
-                + token);
-        HttpEntity<UserAssociationRequestModel> request = new HttpEntity<>(model, headers);
-
-        RestTemplate restTemplate = new RestTemplate();
-
-        ResponseEntity<Boolean> responseEntity = restTemplate.postForEntity(url, request, Boolean.class);
+        ResponseEntity<Boolean> responseEntity = postAsService(url, model, Boolean.class);
 
         if (responseEntity.getStatusCode().equals(HttpStatus.OK)) {
             return responseEntity.getBody();
@@ -231,23 +553,37 @@ public class VotingAssociationCommunication {
      * @return              True if the proposal is unique, otherwise false
      */
     public boolean verifyProposal(Integer associationId, String proposal) {
-        final String url = "http://localhost:8084/association/verify-proposal";
+        final String url = associationUrl + "/association/verify-proposal";
 
         AssociationProposalRequestModel model = new AssociationProposalRequestModel();
         model.setAssociationId(associationId);
         model.setProposal(proposal);
 
-        String token = requestUtil.authenticateService(username,
-                password);
+        ResponseEntity<Boolean> responseEntity = postAsService(url, model, Boolean.class);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(auth, bearer
-                + token);
-        HttpEntity<AssociationProposalRequestModel> request = new HttpEntity<>(model, headers);
+        if (responseEntity.getStatusCode().equals(HttpStatus.OK)) {
+            return responseEntity.getBody();
+        } else {
+            throw new IllegalArgumentException();
+        }
+    }
 
-        RestTemplate restTemplate = new RestTemplate();
+    /**
+     * Gets the rule fingerprints of a page of associations from the association microservice.
+     *
+     * @param afterId   The nextAfterId of the previous page, 0 for the first page.
+     * @return          The fingerprints of the associations in the page that have rules.
+     */
+    public RuleFingerprintsPageModel getRuleFingerprints(int afterId) {
+        final String url = associationUrl + "/association/rule-fingerprints?afterId=" + afterId;
 
-        ResponseEntity<Boolean> responseEntity = restTemplate.postForEntity(url, request, Boolean.class);
+        ResponseEntity<RuleFingerprintsPageModel> responseEntity = requestUtil.withServiceToken(username, password,
+                token -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.set(auth, bearer + token);
+                    return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                            RuleFingerprintsPageModel.class);
+                });
 
         if (responseEntity.getStatusCode().equals(HttpStatus.OK)) {
             return responseEntity.getBody();
@@ -255,4 +591,19 @@ public class VotingAssociationCommunication {
             throw new IllegalArgumentException();
         }
     }
+
+    /**
+     * Posts a request to another microservice, authenticated as the voting service.
+     * Goes through the shared pooled RestTemplate and uses the cached service token,
+     * which is renewed once if the other service rejects it.
+     */
+    private <M, R> ResponseEntity<R> postAsService(String url, M model, Class<R> responseClass) {
+        return requestUtil.withServiceToken(username, password, token -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(auth, bearer + token);
+            HttpEntity<M> request = new HttpEntity<>(model, headers);
+
+            return restTemplate.postForEntity(url, request, responseClass);
+        });
+    }
 }
@@ -0,0 +1,165 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+
+/**
+ * In-memory queue of the end dates of all open votings.
+ *
+ * <p>A single worker thread sleeps until the earliest end date has passed and then hands
+ * every deadline that is due to the handler. Adding an earlier deadline wakes the worker up,
+ * so nothing needs to poll the database while no voting is about to end.</p>
+ *
+ * <p>The queue only knows the votings this replica created or loaded at startup. With a sweep
+ * interval, the worker also hands an election and a rule voting deadline that are due right away
+ * to the handler whenever no deadline became due for that long, so votings created by other
+ * replicas are still claimed through the leases when the replica that created them is gone.</p>
+ */
+public class VotingDeadlineQueue {
+
+    private final transient DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private transient Thread worker;
+
+    /**
+     * Adds the end date of a voting to the queue.
+     *
+     * @param voting The voting that ends at its end date.
+     */
+    public void schedule(Voting voting) {
+        deadlines.add(new Deadline(voting instanceof Election, voting.getEndDate().getTime()));
+    }
+
+    /**
+     * Adds a moment at which finished elections have to be forwarded.
+     *
+     * @param dueAt The moment the deadline is due.
+     */
+    public void scheduleElection(Date dueAt) {
+        deadlines.add(new Deadline(true, dueAt.getTime()));
+    }
+
+    /**
+     * Adds a moment at which finished rule votings have to be forwarded.
+     *
+     * @param dueAt The moment the deadline is due.
+     */
+    public void scheduleRuleVoting(Date dueAt) {
+        deadlines.add(new Deadline(false, dueAt.getTime()));
+    }
+
+    /**
+     * Starts the worker thread, which calls the handler with every batch of deadlines that are due.
+     * Deadlines that become due together are handed over in one batch.
+     *
+     * @param handler   Called on the worker thread with the deadlines that are due.
+     */
+    public void start(Consumer<List<Deadline>> handler) {
+        start(handler, 0);
+    }
+
+    /**
+     * Starts the worker thread, which calls the handler with every batch of deadlines that are due.
+     * Deadlines that become due together are handed over in one batch.
+     *
+     * @param handler       Called on the worker thread with the deadlines that are due.
+     * @param sweepInterval How long to wait for a deadline before sweeping all votings, in ms, 0 to never sweep.
+     */
+    public synchronized void start(Consumer<List<Deadline>> handler, long sweepInterval) {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    handler.accept(nextDue(sweepInterval));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    System.out.println("Handling due votings failed: " + e.getMessage());
+                }
+            }
+        }, "voting-deadlines");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Waits for the next deadlines that are due, or for the sweep interval to pass.
+     */
+    private List<Deadline> nextDue(long sweepInterval) throws InterruptedException {
+        List<Deadline> due = new ArrayList<>();
+        Deadline first = sweepInterval > 0 ? deadlines.poll(sweepInterval, TimeUnit.MILLISECONDS) : deadlines.take();
+        if (first == null) {
+            long now = System.currentTimeMillis();
+            due.add(new Deadline(true, now));
+            due.add(new Deadline(false, now));
+            return due;
+        }
+        due.add(first);
+        deadlines.drainTo(due);
+        return due;
+    }
+
+    /**
+     * Stops the worker thread. Deadlines stay in the queue.
+     */
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Returns the earliest deadline in the queue, if there is any.
+     */
+    public Optional<Date> nextDeadline() {
+        Deadline next = deadlines.peek();
+        return next == null ? Optional.empty() : Optional.of(new Date(next.dueAt));
+    }
+
+    /**
+     * The end date of an election or of a rule voting.
+     */
+    public static class Deadline implements Delayed {
+        private final boolean election;
+        private final long dueAt;
+
+        Deadline(boolean election, long dueAt) {
+            this.election = election;
+            this.dueAt = dueAt;
+        }
+
+        public boolean isElection() {
+            return election;
+        }
+
+        public Date getDueAt() {
+            return new Date(dueAt);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Deadline) {
+                return Long.compare(dueAt, ((Deadline) other).dueAt);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
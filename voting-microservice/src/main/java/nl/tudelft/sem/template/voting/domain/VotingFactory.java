@@ -8,27 +8,46 @@ import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
 public class VotingFactory {
     private final transient ElectionRepository electionRepository;
     private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient VotingDeadlineQueue deadlineQueue;
 
-    public VotingFactory(ElectionRepository electionRepository, RuleVotingRepository ruleVotingRepository) {
+    /**
+     * Instantiates a VotingFactory which saves the votings it creates
+     * and adds their end dates to the deadline queue.
+     */
+    public VotingFactory(ElectionRepository electionRepository, RuleVotingRepository ruleVotingRepository,
+                         VotingDeadlineQueue deadlineQueue) {
         this.electionRepository = electionRepository;
         this.ruleVotingRepository = ruleVotingRepository;
+        this.deadlineQueue = deadlineQueue;
     }
 
     /**
      * Creates an Election or a Rule Voting for an association based on the parameters.
-     * Saves the Voting to the database.
+     * Saves the Voting to the database and adds its end date to the deadline queue.
      *
      * @return the created Voting object.
      */
     public Voting createVoting(VotingType type, int associationId, String userId, String rule, String amendment) {
         if (type == VotingType.ELECTION) {
-            Election election = new Election(associationId);
-            electionRepository.save(election);
-            return election;
+            return createElection(associationId, 1);
         } else {
             RuleVoting ruleVoting = new RuleVoting(associationId, userId, rule, amendment, type);
             ruleVotingRepository.save(ruleVoting);
+            deadlineQueue.schedule(ruleVoting);
             return ruleVoting;
         }
     }
+
+    /**
+     * Creates an Election for the given number of council seats.
+     * Saves it to the database and adds its end date to the deadline queue.
+     *
+     * @return the created Election.
+     */
+    public Election createElection(int associationId, int seats) {
+        Election election = new Election(associationId, seats);
+        electionRepository.save(election);
+        deadlineQueue.schedule(election);
+        return election;
+    }
 }
@@ -0,0 +1,115 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits the finished votings between the replicas of the voting microservice.
+ *
+ * <p>Every replica wakes up when a voting ends, so without coordination all of them would close
+ * the same voting. Instead a replica first takes a lease on a batch of finished votings, with a
+ * conditional update of the lease columns that only one replica can win per row. The other
+ * replicas skip leased rows and claim the next ones. A replica that dies while holding a lease
+ * only delays its votings until the lease runs out, then another replica claims them.</p>
+ */
+@Component
+public class VotingLeases {
+
+    private final transient ElectionRepository electionRepository;
+    private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient String owner;
+    private final transient long leaseDuration;
+    private final transient int batchSize;
+
+    /**
+     * Instantiates the leases of this replica.
+     *
+     * @param instanceId    The name of this replica, a random one is used when it is empty.
+     * @param leaseDuration How long a claimed voting is left to this replica, in ms.
+     * @param batchSize     How many finished votings are claimed at once.
+     */
+    public VotingLeases(ElectionRepository electionRepository, RuleVotingRepository ruleVotingRepository,
+                        @Value("${voting.instance-id:}") String instanceId,
+                        @Value("${voting.forwarding.lease-duration:60000}") long leaseDuration,
+                        @Value("${voting.forwarding.claim-batch:20}") int batchSize) {
+        this.electionRepository = electionRepository;
+        this.ruleVotingRepository = ruleVotingRepository;
+        this.owner = instanceId == null || instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.leaseDuration = leaseDuration;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the name this replica takes leases under.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Claims up to claim-batch elections that ended before the given date and that no other replica holds.
+     *
+     * @return the claimed elections, empty when there is nothing left to claim.
+     */
+    public List<Election> claimElections(Date finishedBefore) {
+        Date now = new Date(System.currentTimeMillis());
+        Date until = new Date(now.getTime() + leaseDuration);
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : electionRepository.findClaimableIds(finishedBefore, now, PageRequest.of(0, batchSize))) {
+            if (electionRepository.claimLease(id, owner, now, until) == 1) {
+                claimed.add(id);
+            }
+        }
+        return claimed.isEmpty() ? List.of() : electionRepository.findAllById(claimed);
+    }
+
+    /**
+     * Claims up to claim-batch rule votes that ended before the given date and that no other replica holds.
+     *
+     * @return the claimed rule votes, empty when there is nothing left to claim.
+     */
+    public List<RuleVoting> claimRuleVotings(Date finishedBefore) {
+        Date now = new Date(System.currentTimeMillis());
+        Date until = new Date(now.getTime() + leaseDuration);
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : ruleVotingRepository.findClaimableIds(finishedBefore, now, PageRequest.of(0, batchSize))) {
+            if (ruleVotingRepository.claimLease(id, owner, now, until) == 1) {
+                claimed.add(id);
+            }
+        }
+        return claimed.isEmpty() ? List.of() : ruleVotingRepository.findAllById(claimed);
+    }
+
+    /**
+     * Keeps an election this replica could not close away from every replica until the given date,
+     * after which any replica may claim it again.
+     */
+    public void postponeElection(long id, Date until) {
+        electionRepository.extendLease(id, owner, until);
+    }
+
+    /**
+     * Keeps a rule vote this replica could not close away from every replica until the given date,
+     * after which any replica may claim it again.
+     */
+    public void postponeRuleVoting(long id, Date until) {
+        ruleVotingRepository.extendLease(id, owner, until);
+    }
+
+    /**
+     * Returns whether another replica holds a running lease on the voting.
+     */
+    public boolean isLeasedByOther(Voting voting) {
+        return voting.getLeaseOwner() != null && !owner.equals(voting.getLeaseOwner())
+                && voting.getLeaseUntil() != null && voting.getLeaseUntil().getTime() > System.currentTimeMillis();
+    }
+}
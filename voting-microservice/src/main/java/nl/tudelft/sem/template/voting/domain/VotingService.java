@@ -3,43 +3,50 @@ package nl.tudelft.sem.template.voting.domain;
 import java.rmi.NoSuchObjectException;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 import nl.tudelft.sem.template.voting.domain.election.Election;
 import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
 import nl.tudelft.sem.template.voting.domain.rulevoting.*;
-import nl.tudelft.sem.template.voting.utils.RequestUtil;
-import org.springframework.data.util.Pair;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+import nl.tudelft.sem.template.voting.models.BallotResultModel;
+import nl.tudelft.sem.template.voting.models.PendingVoteModel;
+import nl.tudelft.sem.template.voting.models.PendingVotesPageModel;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-/**
- * "@EnableScheduling" enables the methods annotated with "@Scheduled".
- * They automatically send election and rule voting results to
- * the Association and then delete them from their respective repos.
- * The annotation should be disabled if one opts for manual updates
- * or if scheduling is implemented on the association's side.
- */
-@EnableScheduling
 @Service
 public class VotingService {
 
     private final transient ElectionRepository electionRepository;
     private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient RuleVoteBallotRepository ruleVoteBallotRepository;
     private final transient VotingAssociationCommunication votingAssociationCommunication;
+    private final transient TransactionRetry transactionRetry;
+    private final transient BallotWriter ballotWriter;
     private final transient int maxRuleLength = 100;
+    private final transient List<String> validVotes = List.of("for", "against", "abstain");
+    private final transient int daysForVoting = 2;
+    private final transient int maxPageSize = 100;
 
 
 
     /**
      * Instantiates a VotingService object which provides methods to the Voting endpoints,
-     * while handling the databases.
+     * while handling the databases. Everything that changes a voting runs through the
+     * TransactionRetry, so concurrent voters can not overwrite each other's ballots.
      */
     public VotingService(ElectionRepository electionRepository, RuleVotingRepository ruleVotingRepository,
-                         RequestUtil requestUtil) {
+                         RuleVoteBallotRepository ruleVoteBallotRepository,
+                         VotingAssociationCommunication votingAssociationCommunication,
+                         TransactionRetry transactionRetry, BallotWriter ballotWriter) {
         this.electionRepository = electionRepository;
         this.ruleVotingRepository = ruleVotingRepository;
-        this.votingAssociationCommunication = new VotingAssociationCommunication(electionRepository,
-                ruleVotingRepository, requestUtil);
+        this.ruleVoteBallotRepository = ruleVoteBallotRepository;
+        this.votingAssociationCommunication = votingAssociationCommunication;
+        this.transactionRetry = transactionRetry;
+        this.ballotWriter = ballotWriter;
     }
 
     /**
@@ -51,6 +58,18 @@ public class VotingService {
         return votingAssociationCommunication.createElection(type, associationId, userId, rule, amendment);
     }
 
+    /**
+     * Creates a board election for the given number of council seats.
+     *
+     * @return a message confirming the creation.
+     */
+    public String createElection(int associationId, int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("An election needs at least one seat.");
+        }
+        return votingAssociationCommunication.createElection(associationId, seats);
+    }
+
 
     /**
      * Returns the candidates of an active board election in a given association.
@@ -73,6 +92,10 @@ public class VotingService {
      * @return a confirmation message.
      */
     public String applyForCandidate(String userId, int associationId) throws IllegalArgumentException {
+        return transactionRetry.run(() -> applyForCandidateOnce(userId, associationId));
+    }
+
+    private String applyForCandidateOnce(String userId, int associationId) {
         Optional<Election> optElection = electionRepository.findByAssociationId(associationId);
         if (optElection.isPresent()) {
             Election election = optElection.get();
@@ -108,6 +131,62 @@ public class VotingService {
      * @return a confirmation message.
      */
     public String castElectionVote(String voterId, int associationId, String candidateId) {
+        if (ballotWriter.isWriteBehind()) {
+            Election election = findOpenElection(associationId, candidateId);
+            ballotWriter.bufferElectionVote(election.getId(), voterId, candidateId);
+        } else {
+            transactionRetry.run(() -> {
+                Election election = findOpenElection(associationId, candidateId);
+                ballotWriter.writeElectionVote(election, voterId, candidateId);
+                return null;
+            });
+        }
+        return "The voter with ID " + voterId + " voted for the candidate with ID " + candidateId + ".";
+    }
+
+    /**
+     * Casts a ranked vote in the upcoming election, if the date is less than 2 days before the election end.
+     * The first preference counts towards the running tally, the whole ranking is used when the seats are
+     * counted with the single transferable vote.
+     *
+     * @param ranking   The ids of the candidates in order of preference, every candidate at most once.
+     * @return a confirmation message.
+     */
+    public String castRankedElectionVote(String voterId, int associationId, List<String> ranking) {
+        if (ranking == null || ranking.isEmpty()) {
+            throw new IllegalArgumentException("The ranking is empty.");
+        }
+        if (new HashSet<>(ranking).size() != ranking.size()) {
+            throw new IllegalArgumentException("The ranking contains a candidate more than once.");
+        }
+        if (ballotWriter.isWriteBehind()) {
+            Election election = findOpenElection(associationId, ranking);
+            ballotWriter.bufferElectionVote(election.getId(), voterId, ranking);
+        } else {
+            transactionRetry.run(() -> {
+                Election election = findOpenElection(associationId, ranking);
+                ballotWriter.writeElectionVote(election, voterId, ranking);
+                return null;
+            });
+        }
+        return "The voter with ID " + voterId + " ranked the candidates " + String.join(", ", ranking) + ".";
+    }
+
+    /**
+     * Finds the election of the association and checks that the voter can rank all these candidates now.
+     */
+    private Election findOpenElection(int associationId, List<String> ranking) {
+        Election election = findOpenElection(associationId, ranking.get(0));
+        for (String candidateId : ranking) {
+            candidateExistsCheck(election, candidateId);
+        }
+        return election;
+    }
+
+    /**
+     * Finds the election of the association and checks that the voter can vote for the candidate now.
+     */
+    private Election findOpenElection(int associationId, String candidateId) {
         Optional<Election> optElection = electionRepository.findByAssociationId(associationId);
         if (optElection.isPresent()) {
             Election election = optElection.get();
@@ -118,9 +197,7 @@ public class VotingService {
             //Checks if the candidate exists
             candidateExistsCheck(election, candidateId);
 
-            saveElectionVote(election, voterId, candidateId);
-
-            return "The voter with ID " + voterId + " voted for the candidate with ID " + candidateId + ".";
+            return election;
 
         } else {
             throw new IllegalArgumentException("Association with ID "
@@ -157,20 +234,130 @@ public class VotingService {
     }
 
     /**
-     * Saves the vote, and removes the previous vote if necessary.
+     * Casts many ballots in the election of an association at once, e.g. collected on paper or at a kiosk.
+     * The ballots are validated in a single pass and the last valid ballot of every voter wins.
+     * The ballots already in the database for these voters are read in one query, all ballots are
+     * written in one batch and the tally is updated once per candidate, all in one transaction.
+     * If a concurrent vote conflicts with the batch, the whole batch is run again.
+     * Ballots still in the write-behind buffer are applied first, so the batch wins over them.
+     * Ballots of voters that are not members of the association are rejected, the members are
+     * asked from the association microservice before anything is written.
+     *
+     * @param associationId The association whose election the ballots are for.
+     * @param ballots       The ballots, each holding a voter id and a candidate id.
+     * @return              The outcome of every ballot, in the order of the ballots.
+     */
+    public List<BallotResultModel> castElectionVotes(int associationId, List<BallotModel> ballots) {
+        return castElectionVotes(associationId, ballots, findMembers(associationId, ballots));
+    }
+
+    /**
+     * Casts many ballots in the election of an association at once, given the voters that are members.
+     *
+     * @param associationId The association whose election the ballots are for.
+     * @param ballots       The ballots, each holding a voter id and a candidate id.
+     * @param members       The voters of the ballots that are members of the association.
+     * @return              The outcome of every ballot, in the order of the ballots.
+     */
+    public List<BallotResultModel> castElectionVotes(int associationId, List<BallotModel> ballots,
+                                                     Set<String> members) {
+        if (ballots == null) {
+            throw new IllegalArgumentException("No ballots were provided.");
+        }
+        electionRepository.findByAssociationId(associationId)
+                .ifPresent(election -> ballotWriter.flushElection(election.getId()));
+        return transactionRetry.run(() -> castElectionVotesOnce(associationId, ballots, members));
+    }
+
+    private List<BallotResultModel> castElectionVotesOnce(int associationId, List<BallotModel> ballots,
+                                                          Set<String> members) {
+        Election election = electionRepository.findByAssociationId(associationId)
+                .orElseThrow(() -> new IllegalArgumentException("Association with ID "
+                        + associationId + " does not have an active election."));
+        votingDaysCheck(election);
+
+        Set<String> candidateIds = election.getCandidateIds();
+        List<BallotResultModel> results = new ArrayList<>(ballots.size());
+        Map<String, String> votes = collectBallots(ballots, members, results,
+                candidateId -> candidateIds.contains(candidateId)
+                        ? null : "Candidate with ID " + candidateId + " does not exist.");
+        if (!votes.isEmpty()) {
+            Map<String, List<String>> rankings = new LinkedHashMap<>();
+            votes.forEach((voterId, candidateId) -> rankings.put(voterId, List.of(candidateId)));
+            ballotWriter.writeElectionVotes(election, rankings);
+        }
+        return results;
+    }
+
+    /**
+     * Validates the ballots of a bulk submission in a single pass and fills in the result of each ballot.
+     * A valid ballot replaces an earlier ballot of the same voter in the same submission,
+     * which is then marked as superseded.
+     *
+     * @param ballots       The submitted ballots.
+     * @param members       The voters that are members of the association, the ballots of others are rejected.
+     * @param results       The list the result of every ballot is added to, in the order of the ballots.
+     * @param checkVote     Returns why a vote is invalid, or null if it is valid.
+     * @return              The vote of every voter with a valid ballot, by voter id.
      */
-    private void saveElectionVote(Election election, String voterId, String candidateId) {
-        //If the voter already voted, remove previous vote
-        for (Pair vote : election.getVotes()) {
-            if (vote.getFirst().equals(voterId)) {
-                election.getVotes().remove(vote);
-                break;
+    private Map<String, String> collectBallots(List<BallotModel> ballots, Set<String> members,
+                                               List<BallotResultModel> results, Function<String, String> checkVote) {
+        Map<String, String> votes = new LinkedHashMap<>();
+        Map<String, Integer> lastIndex = new HashMap<>();
+        for (int i = 0; i < ballots.size(); i++) {
+            BallotModel ballot = ballots.get(i);
+            String voterId = ballot == null ? null : ballot.getVoterId();
+            if (voterId == null || voterId.isEmpty()) {
+                results.add(new BallotResultModel(i, voterId, BallotResultModel.REJECTED, "The voter ID is missing."));
+                continue;
             }
+            if (!members.contains(voterId)) {
+                results.add(new BallotResultModel(i, voterId, BallotResultModel.REJECTED,
+                        "The voter is not a member of the association."));
+                continue;
+            }
+            String error = checkVote.apply(ballot.getVote());
+            if (error != null) {
+                results.add(new BallotResultModel(i, voterId, BallotResultModel.REJECTED, error));
+                continue;
+            }
+
+            Integer previous = lastIndex.put(voterId, i);
+            if (previous != null) {
+                results.get(previous).setStatus(BallotResultModel.SUPERSEDED);
+                results.get(previous).setMessage("Replaced by the ballot at index " + i + ".");
+            }
+            votes.put(voterId, ballot.getVote());
+            results.add(new BallotResultModel(i, voterId, BallotResultModel.ACCEPTED, "The vote was counted."));
         }
+        return votes;
+    }
 
-        Pair<String, String> vote = Pair.of(voterId, candidateId);
-        election.addVote(vote);
-        electionRepository.save(election);
+    /**
+     * Returns which of the voters of the ballots are members of the association.
+     */
+    private Set<String> findMembers(int associationId, List<BallotModel> ballots) {
+        if (ballots == null) {
+            throw new IllegalArgumentException("No ballots were provided.");
+        }
+        Set<String> voterIds = new HashSet<>();
+        for (BallotModel ballot : ballots) {
+            if (ballot != null && ballot.getVoterId() != null && !ballot.getVoterId().isEmpty()) {
+                voterIds.add(ballot.getVoterId());
+            }
+        }
+        return votingAssociationCommunication.findMembers(associationId, voterIds);
+    }
+
+    /**
+     * Checks whether a user is on the council of an association.
+     *
+     * @param userId        The id of the user.
+     * @param associationId The id of the association.
+     * @return              True if the user is a council member.
+     */
+    public boolean isCouncilMember(String userId, int associationId) {
+        return votingAssociationCommunication.verifyCouncilMember(userId, associationId);
     }
 
     /**
@@ -191,8 +378,11 @@ public class VotingService {
         } else if (rule.length() > this.maxRuleLength) {
             throw new RuleTooLongException("The rule description exceeds the maximum length of "
                     + this.maxRuleLength + " characters.");
-        } else if (ruleVotingRepository.existsByAssociationIdAndRuleAndType(associationId, rule, type)) {
+        } else if (ruleVotingRepository.existsByAssociationIdAndRuleFingerprintAndType(associationId,
+                RuleFingerprint.of(rule), type)) {
             throw new InvalidRuleException("The rule is already under evaluation.");
+        } else if (votingAssociationCommunication.isAdoptedRule(associationId, rule)) {
+            throw new InvalidRuleException("This rule already exists.");
         }
 
         // //Checks if user is member of council
@@ -200,11 +390,6 @@ public class VotingService {
         //     throw new IllegalArgumentException("Not a member of the council.");
         // }
 
-        // //Checks if the proposal is unique
-        // if (!votingAssociationCommunication.verifyProposal(associationId, rule)) {
-        //     throw new IllegalArgumentException("This rule already exists.");
-        // }
-
         Voting voting = votingAssociationCommunication.votingFactory.createVoting(type, associationId, userId, rule, null);
         Calendar cal = Calendar.getInstance();
         cal.setTime(voting.getEndDate());
@@ -230,10 +415,14 @@ public class VotingService {
         } else if (amendment.length() > this.maxRuleLength) {
             throw new RuleTooLongException("The amendment's description exceeds the maximum length of "
                     + this.maxRuleLength + " characters.");
-        } else if (ruleVotingRepository.existsByAssociationIdAndRuleAndType(associationId, rule, type)) {
+        } else if (ruleVotingRepository.existsByAssociationIdAndRuleFingerprintAndType(associationId,
+                RuleFingerprint.of(rule), type)) {
             throw new InvalidRuleException("The rule is already under evaluation.");
-        } else if (ruleVotingRepository.existsByAssociationIdAndAmendment(associationId, amendment)) {
+        } else if (ruleVotingRepository.existsByAssociationIdAndAmendmentFingerprint(associationId,
+                RuleFingerprint.of(amendment))) {
             throw new InvalidRuleException("The amendment already exists in another vote.");
+        } else if (!amendment.isBlank() && votingAssociationCommunication.isAdoptedRule(associationId, amendment)) {
+            throw new InvalidRuleException("The amendment already exists as a rule.");
         }
 
         // //Checks if user is member of council
@@ -306,47 +495,43 @@ public class VotingService {
      * @throws InvalidIdException   Thrown when the rule vote id is invalid.
      */
     public String castRuleVote(Long ruleVoteId, String userId, String vote, int associationId) throws InvalidIdException {
-        List<String> validVotes = List.of("for", "against", "abstain");
         if (vote == null || !(validVotes.contains(vote))) {
             throw new IllegalArgumentException("The vote is not valid, please pick from: for/against/abstain.");
         } else if (ruleVoteId == null) {
             throw new InvalidIdException("The rule vote id is null.");
         }
+        if (ballotWriter.isWriteBehind()) {
+            RuleVoting ruleVoting = ruleVotingRepository.findById(ruleVoteId)
+                    .orElseThrow(() -> new InvalidIdException("There is no rule vote ongoing with the id: "
+                            + ruleVoteId));
+            ruleVotingDaysCheck(ruleVoting);
+            ballotWriter.bufferRuleVote(ruleVoteId, userId, vote);
+            return ruleVoteMessage(ruleVoteId, userId, vote);
+        }
+        return transactionRetry.run(() -> castRuleVoteOnce(ruleVoteId, userId, vote, associationId));
+    }
 
+    private String castRuleVoteOnce(Long ruleVoteId, String userId, String vote, int associationId)
+            throws InvalidIdException {
         // //Checks if user is member of council
         // if (!votingAssociationCommunication.verifyCouncilMember(userId, associationId)) {
         //     throw new IllegalArgumentException("Not a member of the council.");
         // }
 
-        Optional<RuleVoting> optionalRuleVoting = ruleVotingRepository.findById(ruleVoteId);
+        //Locks the rule vote, since every vote updates its running tally
+        Optional<RuleVoting> optionalRuleVoting = ruleVotingRepository.findForUpdateById(ruleVoteId);
         RuleVoting ruleVoting = optionalRuleVoting
                 .orElseThrow(() -> new InvalidIdException("There is no rule vote ongoing with the id: " + ruleVoteId));
 
-        Date currentDate = new Date(System.currentTimeMillis());
-        Date ruleVoteEndDate = ruleVoting.getEndDate();
-        int daysForVoting = 2;
+        ruleVotingDaysCheck(ruleVoting);
 
-        if (ChronoUnit.DAYS.between(currentDate.toInstant(), ruleVoteEndDate.toInstant()) >= daysForVoting) {
-            throw new IllegalArgumentException("The rule vote is still in reviewing. It is too early to cast a vote.");
-        }
+        //Replaces the previous vote of the user, if any, and updates the running tally
+        ballotWriter.writeRuleVotes(ruleVoting, Collections.singletonMap(userId, vote));
 
-        //Checks if rule vote has ended
-        if (currentDate.compareTo(ruleVoteEndDate) > 0) {
-            throw new IllegalArgumentException("The rule vote has ended.");
-        }
-
-        //If the voter already voted, remove previous vote
-        for (Pair v : ruleVoting.getVotes()) {
-            if (v.getFirst().equals(userId)) {
-                ruleVoting.getVotes().remove(v);
-                break;
-            }
-        }
-
-        Pair<String, String> submission = Pair.of(userId, vote);
-        ruleVoting.addVote(submission);
-        ruleVotingRepository.save(ruleVoting);
+        return ruleVoteMessage(ruleVoteId, userId, vote);
+    }
 
+    private String ruleVoteMessage(Long ruleVoteId, String userId, String vote) {
         if (vote.equals("for")) {
             return "The user with ID " + userId + " voted in favour of the "
                     + "proposal under consideration in rule vote: " + ruleVoteId;
@@ -359,6 +544,78 @@ public class VotingService {
         }
     }
 
+    /**
+     * Casts many ballots in a rule vote at once, e.g. collected on paper or at a kiosk.
+     * The ballots are validated in a single pass, the last valid ballot of every voter wins,
+     * and the rule vote is written once. Ballots still in the write-behind buffer are applied first.
+     * Ballots of voters that are not members of the association are rejected.
+     *
+     * @param ruleVoteId            The id of the rule voting object to vote for.
+     * @param associationId         The association the rule vote belongs to.
+     * @param ballots               The ballots, each holding a voter id and for/against/abstain.
+     * @return                      The outcome of every ballot, in the order of the ballots.
+     * @throws InvalidIdException   Thrown when the rule vote id is invalid.
+     */
+    public List<BallotResultModel> castRuleVotes(Long ruleVoteId, int associationId, List<BallotModel> ballots)
+            throws InvalidIdException {
+        return castRuleVotes(ruleVoteId, associationId, ballots, findMembers(associationId, ballots));
+    }
+
+    /**
+     * Casts many ballots in a rule vote at once, given the voters that are members of the association.
+     *
+     * @param ruleVoteId            The id of the rule voting object to vote for.
+     * @param associationId         The association the rule vote belongs to.
+     * @param ballots               The ballots, each holding a voter id and for/against/abstain.
+     * @param members               The voters of the ballots that are members of the association.
+     * @return                      The outcome of every ballot, in the order of the ballots.
+     * @throws InvalidIdException   Thrown when the rule vote id is invalid or belongs to another association.
+     */
+    public List<BallotResultModel> castRuleVotes(Long ruleVoteId, int associationId, List<BallotModel> ballots,
+                                                 Set<String> members) throws InvalidIdException {
+        if (ballots == null) {
+            throw new IllegalArgumentException("No ballots were provided.");
+        } else if (ruleVoteId == null) {
+            throw new InvalidIdException("The rule vote id is null.");
+        }
+        ballotWriter.flushRuleVoting(ruleVoteId);
+        return transactionRetry.run(() -> castRuleVotesOnce(ruleVoteId, associationId, ballots, members));
+    }
+
+    private List<BallotResultModel> castRuleVotesOnce(Long ruleVoteId, int associationId, List<BallotModel> ballots,
+                                                      Set<String> members) throws InvalidIdException {
+        RuleVoting ruleVoting = ruleVotingRepository.findForUpdateById(ruleVoteId)
+                .filter(found -> found.getAssociationId() == associationId)
+                .orElseThrow(() -> new InvalidIdException("There is no rule vote ongoing with the id: " + ruleVoteId));
+        ruleVotingDaysCheck(ruleVoting);
+
+        List<BallotResultModel> results = new ArrayList<>(ballots.size());
+        Map<String, String> votes = collectBallots(ballots, members, results,
+                vote -> vote != null && validVotes.contains(vote)
+                        ? null : "The vote is not valid, please pick from: for/against/abstain.");
+        if (!votes.isEmpty()) {
+            ballotWriter.writeRuleVotes(ruleVoting, votes);
+        }
+        return results;
+    }
+
+    /**
+     * Checks if the rule vote is out of its reviewing period and has not ended yet.
+     */
+    private void ruleVotingDaysCheck(RuleVoting ruleVoting) {
+        Date currentDate = new Date(System.currentTimeMillis());
+        Date ruleVoteEndDate = ruleVoting.getEndDate();
+
+        if (ChronoUnit.DAYS.between(currentDate.toInstant(), ruleVoteEndDate.toInstant()) >= daysForVoting) {
+            throw new IllegalArgumentException("The rule vote is still in reviewing. It is too early to cast a vote.");
+        }
+
+        //Checks if rule vote has ended
+        if (currentDate.compareTo(ruleVoteEndDate) > 0) {
+            throw new IllegalArgumentException("The rule vote has ended.");
+        }
+    }
+
     /**
      * Returns a string representing the ongoing rule votes from the
      * user's association and their current status for that user.
@@ -369,6 +626,56 @@ public class VotingService {
      * @throws InvalidIdException   Thrown when the association's id is null.
      */
     public String getPendingVotes(Integer associationId, String userId) throws InvalidIdException {
+        List<PendingVoteModel> pendingVotes = getPendingVotes(associationId, userId, Pageable.unpaged()).getContent();
+
+        if (pendingVotes.isEmpty()) {
+            return "There are no ongoing rule votes corresponding to the association ID: " + associationId + ".";
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (PendingVoteModel pendingVote : pendingVotes) {
+            result.append("ID: ").append(pendingVote.getId()).append(", ");
+            result.append("Type: ").append(pendingVote.getType().equals(VotingType.PROPOSAL.toString())
+                    ? "Proposal" : "Amendment").append(", ");
+            if (pendingVote.getStatus().equals(PendingVoteModel.REVIEWING)) {
+                result.append("Status: Reviewing");
+            } else {
+                result.append(pendingVote.getStatus().equals(PendingVoteModel.ENDED)
+                        ? "Status: Ended, " : "Status: Voting, ");
+                result.append("Your vote: ").append(pendingVote.getVote() == null
+                        ? "No vote (abstain)" : pendingVote.getVote());
+            }
+            result.append(System.lineSeparator());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns one page of the ongoing rule votes of an association, together with the status of every
+     * rule vote and the vote of the user. Only the rule votes of the page are read, without their ballots,
+     * and the votes of the user are looked up in one indexed query.
+     *
+     * @param associationId         The id of the association in which the user is a council member.
+     * @param userId                The id of the user.
+     * @param page                  The number of the page, starting at 0.
+     * @param size                  The number of rule votes per page.
+     * @return                      The page of ongoing rule votes, oldest first.
+     * @throws InvalidIdException   Thrown when the association's id is null.
+     */
+    public PendingVotesPageModel getPendingVotes(Integer associationId, String userId, int page, int size)
+            throws InvalidIdException {
+        if (page < 0) {
+            throw new IllegalArgumentException("The page number can not be negative.");
+        } else if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("The page size must be between 1 and " + maxPageSize + ".");
+        }
+        Page<PendingVoteModel> pendingVotes = getPendingVotes(associationId, userId, PageRequest.of(page, size));
+        return new PendingVotesPageModel(page, size, pendingVotes.getTotalElements(), pendingVotes.getTotalPages(),
+                pendingVotes.getContent());
+    }
+
+    private Page<PendingVoteModel> getPendingVotes(Integer associationId, String userId, Pageable pageable)
+            throws InvalidIdException {
         if (associationId == null) {
             throw new InvalidIdException("The association ID is null.");
         }
@@ -378,48 +685,31 @@ public class VotingService {
         //     throw new IllegalArgumentException("Not a member of the council.");
         // }
 
-        List<RuleVoting> pendingVotes = ruleVotingRepository.findAllByAssociationId(associationId);
-
-        if (pendingVotes.isEmpty()) {
-            return "There are no ongoing rule votes corresponding to the association ID: " + associationId + ".";
+        Page<RuleVotingSummary> summaries = ruleVotingRepository
+                .findSummariesByAssociationIdOrderByIdAsc(associationId, pageable);
+        Map<Long, String> votes = new HashMap<>();
+        if (summaries.hasContent()) {
+            List<Long> ids = summaries.map(RuleVotingSummary::getId).getContent();
+            //Applies the ballots of this page still in the write-behind buffer, so the user sees their latest vote
+            ballotWriter.flushRuleVotings(ids);
+            for (RuleVoteBallot ballot : ruleVoteBallotRepository
+                    .findAllByAssociationIdAndVoterIdAndRuleVotingIdIn(associationId, userId, ids)) {
+                votes.put(ballot.getRuleVotingId(), ballot.getVote());
+            }
         }
 
-        StringBuilder result = new StringBuilder();
-
-        while (!pendingVotes.isEmpty()) {
-            String id = "ID: " + pendingVotes.get(0).getId() + ", ";
-            String type = "Type: " + (pendingVotes.get(0).getType() == VotingType.PROPOSAL ? "Proposal" : "Amendment")
-                    + ", ";
-
-            String status = "Status: ";
-            Date currentDate = new Date(System.currentTimeMillis());
-            Date ruleVoteEndDate = pendingVotes.get(0).getEndDate();
-            int daysForVoting = 2;
-
-            if (ChronoUnit.DAYS.between(currentDate.toInstant(), ruleVoteEndDate.toInstant()) >= daysForVoting) {
-                status += "Reviewing";
-                result.append(id);
-                result.append(type);
-                result.append(status);
-                result.append(System.lineSeparator());
-            } else {
-                if (currentDate.compareTo(ruleVoteEndDate) > 0) {
-                    status += "Ended, ";
-                } else {
-                    status += "Voting, ";
-                }
-                List<Pair<String, String>> votes = pendingVotes.get(0).getVotes().stream()
-                        .filter(x -> x.getFirst().equals(userId))
-                        .collect(Collectors.toList());
-                String vote = "Your vote: " + (votes.isEmpty() ? "No vote (abstain)" : votes.get(0).getSecond());
-                result.append(id);
-                result.append(type);
-                result.append(status);
-                result.append(vote);
-                result.append(System.lineSeparator());
+        //The phase boundaries are the same for the whole page, rule votes ending after reviewingFrom
+        //are still being reviewed
+        Date now = new Date(System.currentTimeMillis());
+        Date reviewingFrom = new Date(now.getTime() + ChronoUnit.DAYS.getDuration().toMillis() * daysForVoting);
+        return summaries.map(summary -> {
+            if (!summary.getEndDate().before(reviewingFrom)) {
+                return new PendingVoteModel(summary.getId(), summary.getType().toString(),
+                        PendingVoteModel.REVIEWING, null);
             }
-            pendingVotes.remove(0);
-        }
-        return result.toString();
+            String status = summary.getEndDate().before(now) ? PendingVoteModel.ENDED : PendingVoteModel.VOTING;
+            return new PendingVoteModel(summary.getId(), summary.getType().toString(), status,
+                    votes.get(summary.getId()));
+        });
     }
 }
@@ -0,0 +1,278 @@
+package nl.tudelft.sem.template.voting.domain.analytics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.voting.domain.BallotWriter;
+import nl.tudelft.sem.template.voting.domain.archive.ArchivedVotingRepository;
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Computes the participation in the votings of all associations: ballots per voting, abstention rates
+ * and the share of rule votes that passed.
+ *
+ * <p>The open votings and the archived votings of the last days are streamed from the database in one
+ * read-only transaction, as projections without ballots, and split into one partition per association.
+ * The partitions are then aggregated on a fork/join pool: a task splits its range of partitions in two
+ * until it holds at most partition-size associations, which it aggregates itself. Parsing the archived
+ * tallies is the expensive part, and it happens in these leaf tasks. The write-behind buffer is flushed
+ * before the scan, so acknowledged ballots are counted.</p>
+ *
+ * <p>A report is computed at most once per time bucket and days, later requests in the same bucket get
+ * the same report. Concurrent requests for a report that is being computed wait for it instead of
+ * scanning again. Reports of earlier buckets are dropped.</p>
+ */
+@Component
+public class ParticipationAnalytics {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String ABSTAIN = "abstain";
+
+    private final transient ElectionRepository electionRepository;
+    private final transient RuleVotingRepository ruleVotingRepository;
+    private final transient ArchivedVotingRepository archivedVotingRepository;
+    private final transient BallotWriter ballotWriter;
+    private final transient ObjectMapper objectMapper;
+    private final transient TransactionTemplate readOnly;
+    private final transient long bucketMillis;
+    private final transient int partitionSize;
+    private final transient int maxDays = 3650;
+    private final transient ForkJoinPool pool;
+    private final transient Map<String, CompletableFuture<ParticipationReport>> reports = new ConcurrentHashMap<>();
+    private final transient LongAdder scans = new LongAdder();
+
+    /**
+     * Instantiates the analytics.
+     *
+     * @param ballotWriter          Flushes the write-behind buffer before the votings are scanned.
+     * @param transactionManager    The transaction manager of the voting database.
+     * @param bucketMillis          How long a computed report is reused, in ms.
+     * @param parallelism           The number of threads aggregating the partitions.
+     * @param partitionSize         The most associations a task aggregates without splitting.
+     */
+    public ParticipationAnalytics(ElectionRepository electionRepository, RuleVotingRepository ruleVotingRepository,
+                                  ArchivedVotingRepository archivedVotingRepository, BallotWriter ballotWriter,
+                                  ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                  @Value("${voting.analytics.bucket:60000}") long bucketMillis,
+                                  @Value("${voting.analytics.parallelism:4}") int parallelism,
+                                  @Value("${voting.analytics.partition-size:16}") int partitionSize) {
+        this.electionRepository = electionRepository;
+        this.ruleVotingRepository = ruleVotingRepository;
+        this.archivedVotingRepository = archivedVotingRepository;
+        this.ballotWriter = ballotWriter;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.bucketMillis = bucketMillis;
+        this.partitionSize = Math.max(1, partitionSize);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Returns the participation of all associations, from the report of the current time bucket.
+     *
+     * @param days  How many days back closed votings are counted, by end date. Open votings always count.
+     * @return      The participation per association and in total.
+     */
+    public ParticipationReport report(int days) {
+        if (days < 1 || days > maxDays) {
+            throw new IllegalArgumentException("The number of days must be between 1 and " + maxDays + ".");
+        }
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        String key = days + "@" + bucket;
+        CompletableFuture<ParticipationReport> computing = new CompletableFuture<>();
+        CompletableFuture<ParticipationReport> existing = reports.putIfAbsent(key, computing);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        reports.keySet().removeIf(k -> !k.endsWith("@" + bucket));
+        try {
+            computing.complete(compute(days, bucket * bucketMillis));
+        } catch (RuntimeException e) {
+            reports.remove(key, computing);
+            computing.completeExceptionally(e);
+            throw e;
+        }
+        return computing.join();
+    }
+
+    /**
+     * Returns how often the votings were scanned, once per computed report.
+     */
+    public long getScans() {
+        return scans.sum();
+    }
+
+    private ParticipationReport compute(int days, long bucketStart) {
+        ballotWriter.flushAll();
+        List<Partition> partitions = readPartitions(new Date(bucketStart - days * DAY));
+        List<ParticipationStats> associations = pool.invoke(new AggregateTask(partitions, 0, partitions.size()));
+        ParticipationStats totals = new ParticipationStats(null);
+        associations.forEach(totals::merge);
+        scans.increment();
+        return new ParticipationReport(new Date(bucketStart), new Date(), days, totals, associations);
+    }
+
+    /**
+     * Streams the open and archived votings and sorts them into one partition per association.
+     */
+    private List<Partition> readPartitions(Date since) {
+        return readOnly.execute(status -> {
+            Map<Integer, Partition> partitions = new TreeMap<>();
+            try (Stream<Object[]> rows = electionRepository.streamBallotCounts()) {
+                rows.forEach(row -> partition(partitions, row[0]).rows
+                        .add(new VotingRow(true, true, row[1] == null ? 0 : ((Number) row[1]).longValue())));
+            }
+            Map<Long, VotingRow> openRuleVotes = new HashMap<>();
+            try (Stream<Object[]> rows = ruleVotingRepository.streamTallies()) {
+                rows.forEach(row -> {
+                    VotingRow ruleVote = openRuleVotes.computeIfAbsent((Long) row[1], id -> {
+                        VotingRow added = new VotingRow(false, true, 0);
+                        partition(partitions, row[0]).rows.add(added);
+                        return added;
+                    });
+                    long votes = ((Number) row[3]).longValue();
+                    ruleVote.ballots += votes;
+                    if (ABSTAIN.equals(row[2])) {
+                        ruleVote.abstentions += votes;
+                    }
+                });
+            }
+            try (Stream<Object[]> rows = archivedVotingRepository.streamOutcomesSince(since)) {
+                rows.forEach(row -> {
+                    VotingRow archived = new VotingRow(VotingArchive.ELECTION.equals(row[1]), false,
+                            ((Number) row[4]).longValue());
+                    archived.outcome = (String) row[2];
+                    archived.tally = (String) row[3];
+                    partition(partitions, row[0]).rows.add(archived);
+                });
+            }
+            return new ArrayList<>(partitions.values());
+        });
+    }
+
+    private static Partition partition(Map<Integer, Partition> partitions, Object associationId) {
+        return partitions.computeIfAbsent((Integer) associationId, Partition::new);
+    }
+
+    /**
+     * Aggregates the votings of one association.
+     */
+    private ParticipationStats aggregate(Partition partition) {
+        ParticipationStats stats = new ParticipationStats(partition.associationId);
+        for (VotingRow row : partition.rows) {
+            if (row.election) {
+                stats.addElection(row.open, row.ballots);
+            } else if (row.open) {
+                stats.addRuleVote(true, row.ballots, row.abstentions, null);
+            } else {
+                stats.addRuleVote(false, row.ballots, abstentions(row.tally), "passed".equals(row.outcome));
+            }
+        }
+        return stats;
+    }
+
+    private long abstentions(String tally) {
+        try {
+            JsonNode abstained = objectMapper.readTree(tally).get(ABSTAIN);
+            return abstained == null ? 0 : abstained.asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The archived tally could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aggregates a range of partitions, split in halves until a range holds at most partitionSize of them.
+     */
+    private class AggregateTask extends RecursiveTask<List<ParticipationStats>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Partition> partitions;
+        private final transient int from;
+        private final transient int to;
+
+        AggregateTask(List<Partition> partitions, int from, int to) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<ParticipationStats> compute() {
+            if (to - from <= partitionSize) {
+                List<ParticipationStats> stats = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    stats.add(aggregate(partitions.get(i)));
+                }
+                return stats;
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(partitions, from, middle);
+            left.fork();
+            List<ParticipationStats> right = new AggregateTask(partitions, middle, to).compute();
+            List<ParticipationStats> stats = left.join();
+            stats.addAll(right);
+            return stats;
+        }
+    }
+
+    /**
+     * The votings of one association.
+     */
+    private static class Partition {
+        private final transient int associationId;
+        private final transient List<VotingRow> rows = new ArrayList<>();
+
+        Partition(int associationId) {
+            this.associationId = associationId;
+        }
+    }
+
+    /**
+     * One voting as read from the database. Open rule votes carry their abstentions, archived votings
+     * their outcome and tally as JSON.
+     */
+    private static class VotingRow {
+        private final transient boolean election;
+        private final transient boolean open;
+        private transient long ballots;
+        private transient long abstentions;
+        private transient String outcome;
+        private transient String tally;
+
+        VotingRow(boolean election, boolean open, long ballots) {
+            this.election = election;
+            this.open = open;
+            this.ballots = ballots;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package nl.tudelft.sem.template.voting.domain.analytics;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The participation across all associations, computed once per time bucket.
+ */
+public class ParticipationReport {
+    private final Date bucketStart;
+    private final Date generatedAt;
+    private final int days;
+    private final ParticipationStats totals;
+    private final List<ParticipationStats> associations;
+
+    ParticipationReport(Date bucketStart, Date generatedAt, int days, ParticipationStats totals,
+                        List<ParticipationStats> associations) {
+        this.bucketStart = bucketStart;
+        this.generatedAt = generatedAt;
+        this.days = days;
+        this.totals = totals;
+        this.associations = associations;
+    }
+
+    /**
+     * Returns the start of the time bucket the report was computed in, it is reused until the bucket ends.
+     */
+    public Date getBucketStart() {
+        return bucketStart;
+    }
+
+    public Date getGeneratedAt() {
+        return generatedAt;
+    }
+
+    /**
+     * Returns how many days back the closed votings are counted, by end date.
+     */
+    public int getDays() {
+        return days;
+    }
+
+    public ParticipationStats getTotals() {
+        return totals;
+    }
+
+    /**
+     * Returns the stats of every association that has votings, by association id.
+     */
+    public List<ParticipationStats> getAssociations() {
+        return associations;
+    }
+}
@@ -0,0 +1,143 @@
+package nl.tudelft.sem.template.voting.domain.analytics;
+
+/**
+ * The participation in the votings of one association, or of all associations together.
+ *
+ * <p>The voting microservice does not know how many members or council members an association has,
+ * so participation is measured as ballots per voting rather than as a share of the electorate.
+ * Counts are only added up, which makes merging the stats of two partitions a field-wise sum.</p>
+ */
+public class ParticipationStats {
+
+    private final Integer associationId;
+    private long openElections;
+    private long openRuleVotes;
+    private long closedElections;
+    private long closedRuleVotes;
+    private long electionBallots;
+    private long ruleVoteBallots;
+    private long abstentions;
+    private long rulesPassed;
+    private long rulesRejected;
+
+    /**
+     * Creates empty stats.
+     *
+     * @param associationId The association, null for the stats of all associations together.
+     */
+    public ParticipationStats(Integer associationId) {
+        this.associationId = associationId;
+    }
+
+    void addElection(boolean open, long ballots) {
+        if (open) {
+            openElections++;
+        } else {
+            closedElections++;
+        }
+        electionBallots += ballots;
+    }
+
+    void addRuleVote(boolean open, long ballots, long abstained, Boolean passed) {
+        if (open) {
+            openRuleVotes++;
+        } else {
+            closedRuleVotes++;
+        }
+        ruleVoteBallots += ballots;
+        abstentions += abstained;
+        if (passed != null) {
+            if (passed) {
+                rulesPassed++;
+            } else {
+                rulesRejected++;
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of other stats to these.
+     */
+    void merge(ParticipationStats other) {
+        openElections += other.openElections;
+        openRuleVotes += other.openRuleVotes;
+        closedElections += other.closedElections;
+        closedRuleVotes += other.closedRuleVotes;
+        electionBallots += other.electionBallots;
+        ruleVoteBallots += other.ruleVoteBallots;
+        abstentions += other.abstentions;
+        rulesPassed += other.rulesPassed;
+        rulesRejected += other.rulesRejected;
+    }
+
+    public Integer getAssociationId() {
+        return associationId;
+    }
+
+    public long getOpenElections() {
+        return openElections;
+    }
+
+    public long getOpenRuleVotes() {
+        return openRuleVotes;
+    }
+
+    public long getClosedElections() {
+        return closedElections;
+    }
+
+    public long getClosedRuleVotes() {
+        return closedRuleVotes;
+    }
+
+    public long getElectionBallots() {
+        return electionBallots;
+    }
+
+    public long getRuleVoteBallots() {
+        return ruleVoteBallots;
+    }
+
+    public long getAbstentions() {
+        return abstentions;
+    }
+
+    public long getRulesPassed() {
+        return rulesPassed;
+    }
+
+    public long getRulesRejected() {
+        return rulesRejected;
+    }
+
+    /**
+     * Returns the average number of ballots per election, 0 without elections.
+     */
+    public double getBallotsPerElection() {
+        long elections = openElections + closedElections;
+        return elections == 0 ? 0 : (double) electionBallots / elections;
+    }
+
+    /**
+     * Returns the average number of ballots per rule vote, 0 without rule votes.
+     */
+    public double getBallotsPerRuleVote() {
+        long ruleVotes = openRuleVotes + closedRuleVotes;
+        return ruleVotes == 0 ? 0 : (double) ruleVoteBallots / ruleVotes;
+    }
+
+    /**
+     * Returns the share of the rule vote ballots that abstained, 0 without ballots.
+     */
+    public double getAbstentionRate() {
+        return ruleVoteBallots == 0 ? 0 : (double) abstentions / ruleVoteBallots;
+    }
+
+    /**
+     * Returns the share of the closed rule votes that passed, 0 without closed rule votes.
+     */
+    public double getPassRate() {
+        long decided = rulesPassed + rulesRejected;
+        return decided == 0 ? 0 : (double) rulesPassed / decided;
+    }
+}
@@ -0,0 +1,153 @@
+package nl.tudelft.sem.template.voting.domain.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+
+/**
+ * Writes and reads the ballots of an archived voting as one deflate-compressed blob.
+ *
+ * <p>Every ballot is its voter id followed by the ordinal of its choice in a dictionary that grows as new
+ * choices are seen, so a choice (a candidate id, a ranking, or for/against/abstain) is written once, not
+ * once per ballot. Deflate then takes care of the shared prefixes of the voter ids. Ballots are written
+ * as they are streamed from the database, the blob is only read back when someone asks for them.</p>
+ */
+public class ArchivedBallots {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int END = 0;
+
+    private final transient ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final transient Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final transient DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater));
+    private final transient Map<String, Integer> choices = new HashMap<>();
+    private transient int size;
+    private transient byte[] written;
+
+    /**
+     * Starts an empty blob.
+     */
+    public ArchivedBallots() {
+        try {
+            out.writeByte(FORMAT_VERSION);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write the ballots.", e);
+        }
+    }
+
+    /**
+     * Adds a ballot.
+     *
+     * @param voterId   The id of the voter.
+     * @param choice    The candidate id, the ranking, or for/against/abstain.
+     */
+    public void add(String voterId, String choice) {
+        if (written != null) {
+            throw new IllegalStateException("The ballots were already written.");
+        }
+        try {
+            Integer ordinal = choices.get(choice);
+            if (ordinal == null) {
+                // A new choice takes the next ordinal and is written in full under an even tag,
+                // later ballots refer to it with an odd tag
+                choices.put(choice, choices.size() + 1);
+                writeVarInt(choices.size() * 2);
+                out.writeUTF(choice);
+            } else {
+                writeVarInt(ordinal * 2 + 1);
+            }
+            out.writeUTF(voterId);
+            size++;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write the ballots.", e);
+        }
+    }
+
+    /**
+     * Returns the number of ballots added.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finishes the blob and returns it. No ballots can be added afterwards.
+     */
+    public byte[] toBytes() {
+        if (written == null) {
+            try {
+                writeVarInt(END);
+                out.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write the ballots.", e);
+            } finally {
+                deflater.end();
+            }
+            written = bytes.toByteArray();
+        }
+        return written;
+    }
+
+    /**
+     * Reads a blob written by toBytes.
+     *
+     * @return the ballots, in the order they were added.
+     * @throws IllegalArgumentException if the bytes are not an archived ballots blob.
+     */
+    public static List<BallotModel> read(byte[] data) {
+        List<BallotModel> ballots = new ArrayList<>();
+        List<String> dictionary = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown archived ballot format version " + version + ".");
+            }
+            for (int tag = readVarInt(in); tag != END; tag = readVarInt(in)) {
+                int ordinal = tag / 2;
+                if (tag % 2 == 0 && ordinal == dictionary.size() + 1) {
+                    dictionary.add(in.readUTF());
+                } else if (tag % 2 == 0 || ordinal < 1 || ordinal > dictionary.size()) {
+                    throw new IllegalArgumentException("The archived ballots refer to an unknown choice.");
+                }
+                ballots.add(new BallotModel(in.readUTF(), dictionary.get(ordinal - 1)));
+            }
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("The archived ballots are truncated.", e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The archived ballots could not be read.", e);
+        }
+        return ballots;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("The archived ballots are not in the expected format.");
+    }
+}
@@ -0,0 +1,160 @@
+package nl.tudelft.sem.template.voting.domain.archive;
+
+import java.util.Date;
+import javax.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * A closed election or rule vote, moved out of the live tables once its result was handed to the outbox.
+ * The ballots are kept as one compressed blob (see ArchivedBallots) instead of a row per ballot, so the
+ * history of every voting is kept at a fraction of its live size and the live tables only hold open votings.
+ * Rows are only ever inserted, listing them by association and end date goes through one index.
+ */
+@Entity
+@Table(name = "voting_archive",
+        indexes = @Index(name = "idx_voting_archive_association_end", columnList = "association_id, end_date"))
+@NoArgsConstructor
+public class ArchivedVoting {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", nullable = false, unique = true)
+    private long id;
+
+    /**
+     * ELECTION, or the VotingType of a rule vote.
+     */
+    @Column(name = "kind", nullable = false)
+    private String kind;
+
+    @Column(name = "voting_id", nullable = false)
+    private long votingId;
+
+    @Column(name = "association_id", nullable = false)
+    private int associationId;
+
+    @Column(name = "creation_date", nullable = false)
+    private Date creationDate;
+
+    @Column(name = "end_date", nullable = false)
+    private Date endDate;
+
+    @Column(name = "archived_at", nullable = false)
+    private Date archivedAt;
+
+    /**
+     * The rule and amendment of a rule vote, null for an election.
+     */
+    @Column(name = "rule", length = 1000)
+    private String rule;
+
+    @Column(name = "amendment", length = 1000)
+    private String amendment;
+
+    /**
+     * The elected candidates in the order they were elected, or passed/rejected for a rule vote.
+     */
+    @Column(name = "outcome", length = 2000, nullable = false)
+    private String outcome;
+
+    /**
+     * The final tally as a JSON object of votes per option.
+     */
+    @Lob
+    @Column(name = "tally", nullable = false)
+    private String tally;
+
+    @Column(name = "ballot_count", nullable = false)
+    private int ballotCount;
+
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "ballots", nullable = false)
+    private byte[] ballots;
+
+    /**
+     * Constructor for the archived voting object, archived now.
+     *
+     * @param kind          ELECTION, PROPOSAL or AMENDMENT.
+     * @param votingId      The id the voting had while it was open.
+     * @param associationId The association of the voting.
+     * @param creationDate  When the voting was created.
+     * @param endDate       When the voting ended.
+     * @param outcome       The elected candidates, or passed/rejected.
+     * @param tally         The final tally as JSON.
+     * @param ballots       The ballots, written by ArchivedBallots.
+     */
+    public ArchivedVoting(String kind, long votingId, int associationId, Date creationDate, Date endDate,
+                          String outcome, String tally, ArchivedBallots ballots) {
+        this.kind = kind;
+        this.votingId = votingId;
+        this.associationId = associationId;
+        this.creationDate = creationDate;
+        this.endDate = endDate;
+        this.archivedAt = new Date();
+        this.outcome = outcome;
+        this.tally = tally;
+        this.ballotCount = ballots.size();
+        this.ballots = ballots.toBytes();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public long getVotingId() {
+        return votingId;
+    }
+
+    public int getAssociationId() {
+        return associationId;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public Date getEndDate() {
+        return endDate;
+    }
+
+    public Date getArchivedAt() {
+        return archivedAt;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public String getAmendment() {
+        return amendment;
+    }
+
+    public void setRule(String rule) {
+        this.rule = rule;
+    }
+
+    public void setAmendment(String amendment) {
+        this.amendment = amendment;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public String getTally() {
+        return tally;
+    }
+
+    public int getBallotCount() {
+        return ballotCount;
+    }
+
+    public byte[] getBallots() {
+        return ballots;
+    }
+}
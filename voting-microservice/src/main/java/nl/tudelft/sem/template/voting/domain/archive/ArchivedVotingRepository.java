@@ -0,0 +1,41 @@
+package nl.tudelft.sem.template.voting.domain.archive;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedVotingRepository extends JpaRepository<ArchivedVoting, Long> {
+
+    /**
+     * Find one page of the archived votings of an association that ended between from and to (inclusive),
+     * oldest first, through the (association_id, end_date) index and without reading their ballots.
+     */
+    Page<ArchivedVotingSummary> findSummariesByAssociationIdAndEndDateBetweenOrderByEndDateAsc(
+            int associationId, Date from, Date to, Pageable pageable);
+
+    /**
+     * Read only the compressed ballots of an archived voting.
+     */
+    @Query("SELECT archived.ballots from ArchivedVoting archived where archived.id = :id")
+    Optional<byte[]> findBallotsById(long id);
+
+    /**
+     * Read only the association of an archived voting.
+     */
+    @Query("SELECT archived.associationId from ArchivedVoting archived where archived.id = :id")
+    Optional<Integer> findAssociationIdById(long id);
+
+    /**
+     * Stream the (associationId, kind, outcome, tally, ballotCount) of the votings archived that ended
+     * on or after the date, without reading their ballots. Has to be read inside a transaction.
+     */
+    @Query("SELECT archived.associationId, archived.kind, archived.outcome, archived.tally, archived.ballotCount "
+            + "from ArchivedVoting archived where archived.endDate >= :since")
+    Stream<Object[]> streamOutcomesSince(Date since);
+}
@@ -0,0 +1,30 @@
+package nl.tudelft.sem.template.voting.domain.archive;
+
+import java.util.Date;
+
+/**
+ * The columns of an archived voting that are needed to list it, without its ballots.
+ */
+public interface ArchivedVotingSummary {
+    long getId();
+
+    String getKind();
+
+    long getVotingId();
+
+    Date getCreationDate();
+
+    Date getEndDate();
+
+    Date getArchivedAt();
+
+    String getRule();
+
+    String getAmendment();
+
+    String getOutcome();
+
+    String getTally();
+
+    int getBallotCount();
+}
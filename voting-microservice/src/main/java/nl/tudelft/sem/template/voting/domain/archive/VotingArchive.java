@@ -0,0 +1,160 @@
+package nl.tudelft.sem.template.voting.domain.archive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallotRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.models.ArchivedVotingModel;
+import nl.tudelft.sem.template.voting.models.ArchivedVotingsPageModel;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves closed votings into the append-only archive and reads them back.
+ *
+ * <p>Archiving runs in the transaction that closes the voting and deletes it from the live tables, so a
+ * voting is either open or archived, never both or neither. The ballots are streamed from the database
+ * straight into the compressed blob, without loading the ballot entities.</p>
+ */
+@Component
+public class VotingArchive {
+
+    public static final String ELECTION = "ELECTION";
+
+    private final transient ArchivedVotingRepository archivedVotingRepository;
+    private final transient ElectionBallotRepository electionBallotRepository;
+    private final transient RuleVoteBallotRepository ruleVoteBallotRepository;
+    private final transient ObjectMapper objectMapper;
+    private final transient int maxPageSize = 100;
+
+    /**
+     * Instantiates the archive.
+     *
+     * @param objectMapper  Writes and reads the final tallies as JSON.
+     */
+    public VotingArchive(ArchivedVotingRepository archivedVotingRepository,
+                         ElectionBallotRepository electionBallotRepository,
+                         RuleVoteBallotRepository ruleVoteBallotRepository, ObjectMapper objectMapper) {
+        this.archivedVotingRepository = archivedVotingRepository;
+        this.electionBallotRepository = electionBallotRepository;
+        this.ruleVoteBallotRepository = ruleVoteBallotRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Archives a closed election. Must run inside the transaction that deletes it.
+     *
+     * @param election  The election, still in the live tables.
+     * @param winners   The elected candidates, in the order they were elected.
+     */
+    public ArchivedVoting archive(Election election, List<String> winners) {
+        ArchivedBallots ballots = new ArchivedBallots();
+        try (Stream<Object[]> rows = electionBallotRepository.streamBallotsByElectionId(election.getId())) {
+            // A ranked ballot keeps its whole ranking, a single choice its candidate
+            rows.forEach(row -> ballots.add((String) row[0], (String) (row[2] == null ? row[1] : row[2])));
+        }
+        return archivedVotingRepository.save(new ArchivedVoting(ELECTION, election.getId(),
+                election.getAssociationId(), election.getCreationDate(), election.getEndDate(),
+                String.join(",", winners), toJson(election.tallyVotes()), ballots));
+    }
+
+    /**
+     * Archives a closed rule vote. Must run inside the transaction that deletes it.
+     *
+     * @param ruleVoting    The rule vote, still in the live tables.
+     * @param passed        Whether the motion passed.
+     */
+    public ArchivedVoting archive(RuleVoting ruleVoting, boolean passed) {
+        ArchivedBallots ballots = new ArchivedBallots();
+        try (Stream<Object[]> rows = ruleVoteBallotRepository.streamVotesByRuleVotingId(ruleVoting.getId())) {
+            rows.forEach(row -> ballots.add((String) row[0], (String) row[1]));
+        }
+        ArchivedVoting archived = new ArchivedVoting(ruleVoting.getType().toString(), ruleVoting.getId(),
+                ruleVoting.getAssociationId(), ruleVoting.getCreationDate(), ruleVoting.getEndDate(),
+                passed ? "passed" : "rejected", toJson(ruleVoting.tallyVotes()), ballots);
+        archived.setRule(ruleVoting.getRule());
+        archived.setAmendment(ruleVoting.getAmendment());
+        return archivedVotingRepository.save(archived);
+    }
+
+    /**
+     * Returns one page of the archived votings of an association that ended between two dates, oldest first.
+     *
+     * @param associationId The association.
+     * @param from          The earliest end date, inclusive.
+     * @param to            The latest end date, inclusive.
+     * @param page          The number of the page, starting at 0.
+     * @param size          The number of votings per page, at most 100.
+     * @return              The page of archived votings, without their ballots.
+     */
+    public ArchivedVotingsPageModel find(int associationId, Date from, Date to, int page, int size) {
+        if (from == null || to == null || from.after(to)) {
+            throw new IllegalArgumentException("The date range is not valid.");
+        } else if (page < 0) {
+            throw new IllegalArgumentException("The page number can not be negative.");
+        } else if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("The page size must be between 1 and " + maxPageSize + ".");
+        }
+        Page<ArchivedVotingSummary> votings = archivedVotingRepository
+                .findSummariesByAssociationIdAndEndDateBetweenOrderByEndDateAsc(associationId, from, to,
+                        PageRequest.of(page, size));
+        List<ArchivedVotingModel> models = votings.getContent().stream()
+                .map(v -> new ArchivedVotingModel(v.getId(), v.getKind(), v.getVotingId(), v.getCreationDate(),
+                        v.getEndDate(), v.getArchivedAt(), v.getRule(), v.getAmendment(), v.getOutcome(),
+                        fromJson(v.getTally()), v.getBallotCount()))
+                .collect(Collectors.toList());
+        return new ArchivedVotingsPageModel(page, size, votings.getTotalElements(), votings.getTotalPages(), models);
+    }
+
+    /**
+     * Returns the ballots of an archived voting. The vote of a ranked election ballot is its ranking,
+     * a JSON array of the candidate ids.
+     *
+     * @param archivedVotingId  The id of the archived voting.
+     * @return                  The ballots, in the order they were stored.
+     */
+    public List<BallotModel> getBallots(long archivedVotingId) {
+        byte[] ballots = archivedVotingRepository.findBallotsById(archivedVotingId)
+                .orElseThrow(() -> new IllegalArgumentException("There is no archived voting with ID "
+                        + archivedVotingId + "."));
+        return ArchivedBallots.read(ballots);
+    }
+
+    /**
+     * Returns the association of an archived voting.
+     *
+     * @param archivedVotingId  The id of the archived voting.
+     * @return                  The id of the association the voting was held in.
+     */
+    public int getAssociationId(long archivedVotingId) {
+        return archivedVotingRepository.findAssociationIdById(archivedVotingId)
+                .orElseThrow(() -> new IllegalArgumentException("There is no archived voting with ID "
+                        + archivedVotingId + "."));
+    }
+
+    private String toJson(Map<String, Integer> tally) {
+        try {
+            return objectMapper.writeValueAsString(tally);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("The tally could not be serialized: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Integer> fromJson(String tally) {
+        try {
+            return objectMapper.readValue(tally, new TypeReference<Map<String, Integer>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The archived tally could not be read: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.voting.domain.election;
 
 import java.util.*;
+import java.util.stream.Collectors;
 import javax.persistence.*;
 import lombok.NoArgsConstructor;
 import nl.tudelft.sem.template.voting.domain.Voting;
@@ -14,16 +15,40 @@ public class Election extends Voting {
     @Column(name = "association_id", nullable = false)
     private int associationId;
 
+    /**
+     * The number of council seats this election fills, counted with the single transferable vote.
+     */
+    @Column(name = "seats", nullable = false)
+    private int seats;
+
     @Column(name = "candidates")
     @Convert(converter = CandidateAttributeConverter.class)
     private Set<String> candidateIds;
 
     /**
-     * Vote is a Pair of voterId, candidateId in this order.
+     * One row per voter, unique on (election_id, voter_id).
+     * Loaded lazily so that casting a vote does not read the whole electorate.
+     */
+    @OneToMany(mappedBy = "election", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<ElectionBallot> ballots;
+
+    /**
+     * Running tally of votes per candidate, kept in step with the ballots when a vote is cast or changed.
+     * Reading it is O(candidates) and never touches the ballots.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "election_tallies", joinColumns = @JoinColumn(name = "election_id"))
+    @MapKeyColumn(name = "candidate_id")
+    @Column(name = "votes", nullable = false)
+    private Map<String, Integer> tally;
+
+    /**
+     * Ballots serialized by the previous schema, as Pairs of voterId, candidateId.
+     * Only read by the ElectionBallotMigration, which moves them into ElectionBallot rows.
      */
     @Column(name = "votes")
     @Convert(converter = ElectionVotesAttributeConverter.class)
-    private List<Pair<String, String>> votes;
+    private List<Pair<String, String>> legacyVotes;
 
     /**
      * Constructor for the election object.
@@ -31,10 +56,23 @@ public class Election extends Voting {
      * @param associationId The association id of the association the election is in.
      */
     public Election(int associationId) {
+        this(associationId, 1);
+    }
+
+    /**
+     * Constructor for an election of several council seats.
+     *
+     * @param associationId The association id of the association the election is in.
+     * @param seats         The number of council seats the election fills.
+     */
+    public Election(int associationId, int seats) {
         super();
         this.associationId = associationId;
+        this.seats = seats;
         this.candidateIds = new HashSet<>();
-        this.votes = new ArrayList<>();
+        this.ballots = new ArrayList<>();
+        this.tally = new HashMap<>();
+        this.legacyVotes = new ArrayList<>();
 
         Calendar c = Calendar.getInstance();
         c.setTime(this.getCreationDate());
@@ -46,20 +84,49 @@ public class Election extends Voting {
         return associationId;
     }
 
+    public int getSeats() {
+        return seats;
+    }
+
     public Set<String> getCandidateIds() {
         return candidateIds;
     }
 
     public void addCandidate(String userId) {
         this.candidateIds.add(userId);
+        this.tally.putIfAbsent(userId, 0);
+    }
+
+    public List<ElectionBallot> getBallots() {
+        return ballots;
     }
 
+    /**
+     * Returns the votes of this election.
+     *
+     * @return a list of Pairs of voterId, candidateId in this order.
+     */
     public List<Pair<String, String>> getVotes() {
-        return votes;
+        return ballots.stream()
+                .map(b -> Pair.of(b.getVoterId(), b.getCandidateId()))
+                .collect(Collectors.toList());
     }
 
     public void addVote(Pair<String, String> vote) {
-        votes.add(vote);
+        ballots.add(new ElectionBallot(this, vote.getFirst(), vote.getSecond()));
+        tally.merge(vote.getSecond(), 1, Integer::sum);
+    }
+
+    public Map<String, Integer> getTally() {
+        return tally;
+    }
+
+    public List<Pair<String, String>> getLegacyVotes() {
+        return legacyVotes;
+    }
+
+    public void clearLegacyVotes() {
+        legacyVotes = new ArrayList<>();
     }
 
     /**
@@ -75,21 +142,36 @@ public class Election extends Voting {
 
 
     /**
-     * Tallies the votes from this election.
+     * Tallies the votes from this election, using the running tally.
      *
      * @return HashMap containing each candidateId along with its respective number of votes
      */
     public HashMap<String, Integer> tallyVotes() {
         HashMap<String, Integer> res = new HashMap<>();
 
+        for (String candidateId : this.candidateIds) {
+            res.put(candidateId, 0);
+        }
+        res.putAll(this.tally);
+
+        return res;
+    }
+
+    /**
+     * Recounts the votes from the ballots of this election, ignoring the running tally.
+     * Used to verify the running tally, the ballots have to be loaded.
+     *
+     * @return HashMap containing each candidateId along with its respective number of votes
+     */
+    public HashMap<String, Integer> recountVotes() {
+        HashMap<String, Integer> res = new HashMap<>();
+
         for (String candidateId : this.candidateIds) {
             res.put(candidateId, 0);
         }
 
-        for (Pair pair : this.votes) {
-            String candidateId = (String) pair.getSecond();
-            int candidateTally = (Integer) res.get(candidateId);
-            res.put(candidateId, candidateTally + 1);
+        for (ElectionBallot ballot : this.ballots) {
+            res.merge(ballot.getCandidateId(), 1, Integer::sum);
         }
 
         return res;
@@ -0,0 +1,141 @@
+package nl.tudelft.sem.template.voting.domain.election;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import javax.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single ballot in an election, stored as its own row so that casting
+ * or changing a vote does not rewrite the ballots of the whole electorate.
+ * A ranked ballot keeps its first preference in candidate_id, which the running tally counts,
+ * and the whole ranking in the ranking column, as a JSON array so candidate ids may contain any character.
+ */
+@Entity
+@Table(name = "election_ballots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_election_ballot_voter",
+                columnNames = {"election_id", "voter_id"}))
+@NoArgsConstructor
+public class ElectionBallot {
+
+    private static final ObjectMapper RANKING_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> RANKING_TYPE = new TypeReference<List<String>>() {};
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", nullable = false, unique = true)
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "election_id", nullable = false)
+    private Election election;
+
+    @Column(name = "voter_id", nullable = false)
+    private String voterId;
+
+    @Column(name = "candidate_id", nullable = false)
+    private String candidateId;
+
+    /**
+     * The candidate ids in order of preference, as a JSON array. Null for a ballot with a single choice.
+     */
+    @Lob
+    @Column(name = "ranking")
+    private String ranking;
+
+    /**
+     * Two concurrent changes of the same ballot must not both adjust the tally of the old candidate.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Constructor for the election ballot object.
+     *
+     * @param election      The election this ballot is cast in.
+     * @param voterId       The id of the voter.
+     * @param candidateId   The id of the candidate the voter voted for.
+     */
+    public ElectionBallot(Election election, String voterId, String candidateId) {
+        this.election = election;
+        this.voterId = voterId;
+        this.candidateId = candidateId;
+    }
+
+    /**
+     * Constructor for a ranked election ballot.
+     *
+     * @param election      The election this ballot is cast in.
+     * @param voterId       The id of the voter.
+     * @param ranking       The ids of the candidates in order of preference, at least one.
+     */
+    public ElectionBallot(Election election, String voterId, List<String> ranking) {
+        this.election = election;
+        this.voterId = voterId;
+        setRanking(ranking);
+    }
+
+    /**
+     * Writes a ranking in the form it is stored and buffered in, a JSON array of the candidate ids.
+     */
+    public static String encodeRanking(List<String> ranking) {
+        try {
+            return RANKING_MAPPER.writeValueAsString(ranking);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("The ranking could not be serialized: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a stored ranking back into the candidate ids, in order of preference.
+     */
+    public static List<String> decodeRanking(String ranking) {
+        try {
+            return RANKING_MAPPER.readValue(ranking, RANKING_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The stored ranking could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Election getElection() {
+        return election;
+    }
+
+    public String getVoterId() {
+        return voterId;
+    }
+
+    public String getCandidateId() {
+        return candidateId;
+    }
+
+    /**
+     * Replaces the choice of this ballot with a single candidate, dropping any ranking.
+     */
+    public void setCandidateId(String candidateId) {
+        this.candidateId = candidateId;
+        this.ranking = null;
+    }
+
+    /**
+     * Returns the candidate ids of this ballot in order of preference.
+     */
+    public List<String> getRanking() {
+        return ranking == null ? List.of(candidateId) : decodeRanking(ranking);
+    }
+
+    /**
+     * Replaces the choice of this ballot with a ranking, the first preference becomes the candidate id.
+     */
+    public void setRanking(List<String> ranking) {
+        this.candidateId = ranking.get(0);
+        this.ranking = ranking.size() > 1 ? encodeRanking(ranking) : null;
+    }
+}
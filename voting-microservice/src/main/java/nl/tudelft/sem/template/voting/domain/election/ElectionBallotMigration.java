@@ -0,0 +1,105 @@
+package nl.tudelft.sem.template.voting.domain.election;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves ballots that were stored in the serialized "votes" column of the elections table
+ * into one ElectionBallot row per voter, and creates the running tally of elections stored before
+ * running tallies existed. Runs once on startup and is a no-op when no election has legacy ballots
+ * or a missing tally left, so it is safe to keep around.
+ */
+@Component
+public class ElectionBallotMigration implements ApplicationRunner {
+
+    private final transient ElectionRepository electionRepository;
+    private final transient ElectionBallotRepository electionBallotRepository;
+
+    /**
+     * Instantiates the migration.
+     */
+    public ElectionBallotMigration(ElectionRepository electionRepository,
+                                   ElectionBallotRepository electionBallotRepository) {
+        this.electionRepository = electionRepository;
+        this.electionBallotRepository = electionBallotRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        createTallies();
+        migrate();
+    }
+
+    /**
+     * Creates the running tally of every election without one from its ballot rows, with a row for
+     * every candidate, so casts only ever update existing tally rows. Runs before the legacy ballots
+     * are migrated, which add their votes to the tally themselves.
+     *
+     * @return the number of elections whose tally was created.
+     */
+    @Transactional
+    public int createTallies() {
+        int created = 0;
+        for (Election election : electionRepository.findAllWithoutTally()) {
+            Map<String, Integer> counted = new HashMap<>();
+            for (String candidateId : election.getCandidateIds()) {
+                counted.put(candidateId, 0);
+            }
+            try (Stream<Object[]> votes = electionBallotRepository.streamVotesByElectionId(election.getId())) {
+                votes.forEach(vote -> counted.merge((String) vote[1], 1, Integer::sum));
+            }
+            if (!counted.isEmpty()) {
+                election.getTally().putAll(counted);
+                electionRepository.save(election);
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Migrates all legacy ballots.
+     *
+     * @return the number of ballot rows written.
+     */
+    @Transactional
+    public int migrate() {
+        int migrated = 0;
+        for (Election election : electionRepository.findAllWithLegacyVotes()) {
+            migrated += migrate(election);
+        }
+        return migrated;
+    }
+
+    /**
+     * Migrates the legacy ballots of a single election. The serialized list was appended to,
+     * so when a voter occurs more than once the last occurrence wins.
+     */
+    private int migrate(Election election) {
+        Map<String, String> latest = new LinkedHashMap<>();
+        for (Pair<String, String> vote : election.getLegacyVotes()) {
+            latest.put(vote.getFirst(), vote.getSecond());
+        }
+
+        int migrated = 0;
+        for (Map.Entry<String, String> vote : latest.entrySet()) {
+            if (electionBallotRepository.findByElectionIdAndVoterId(election.getId(), vote.getKey()).isEmpty()) {
+                electionBallotRepository.save(new ElectionBallot(election, vote.getKey(), vote.getValue()));
+                election.getTally().merge(vote.getValue(), 1, Integer::sum);
+                migrated++;
+            }
+        }
+
+        election.clearLegacyVotes();
+        electionRepository.save(election);
+        return migrated;
+    }
+}
@@ -0,0 +1,48 @@
+package nl.tudelft.sem.template.voting.domain.election;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ElectionBallotRepository extends JpaRepository<ElectionBallot, Long> {
+    /**
+     * Find the ballot of a voter in an election, backed by the (election_id, voter_id) unique index.
+     */
+    Optional<ElectionBallot> findByElectionIdAndVoterId(long electionId, String voterId);
+
+    List<ElectionBallot> findAllByElectionId(long electionId);
+
+    /**
+     * Find the ballots of the given voters in an election in one query.
+     */
+    List<ElectionBallot> findAllByElectionIdAndVoterIdIn(long electionId, Collection<String> voterIds);
+
+    long countByElectionId(long electionId);
+
+    /**
+     * Stream the (voterId, candidateId) of every ballot in an election, without loading the ballot entities.
+     * Has to be read inside a transaction.
+     */
+    @Query("SELECT ballot.voterId, ballot.candidateId from ElectionBallot ballot where ballot.election.id = :electionId")
+    Stream<Object[]> streamVotesByElectionId(long electionId);
+
+    /**
+     * Stream the (candidateId, ranking) of every ballot in an election, for counting its seats.
+     * Has to be read inside a transaction.
+     */
+    @Query("SELECT ballot.candidateId, ballot.ranking from ElectionBallot ballot where ballot.election.id = :electionId")
+    Stream<Object[]> streamRankingsByElectionId(long electionId);
+
+    /**
+     * Stream the (voterId, candidateId, ranking) of every ballot in an election, for archiving it.
+     * Has to be read inside a transaction.
+     */
+    @Query("SELECT ballot.voterId, ballot.candidateId, ballot.ranking from ElectionBallot ballot "
+            + "where ballot.election.id = :electionId")
+    Stream<Object[]> streamBallotsByElectionId(long electionId);
+}
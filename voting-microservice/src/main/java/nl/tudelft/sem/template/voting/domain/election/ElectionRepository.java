@@ -2,10 +2,17 @@ package nl.tudelft.sem.template.voting.domain.election;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ElectionRepository extends JpaRepository<Election, Long> {
@@ -16,6 +23,99 @@ public interface ElectionRepository extends JpaRepository<Election, Long> {
 
     Optional<Election> findFirstByOrderByEndDateAsc();
 
-    @Query("SELECT election from Election election where election.endDate < :date")
+    /**
+     * Find election by ID together with all of its ballots, for tallying outside a transaction.
+     */
+    @Query("SELECT DISTINCT election from Election election LEFT JOIN FETCH election.ballots where election.id = :id")
+    Optional<Election> findWithBallotsById(long id);
+
+    /**
+     * Find elections that still hold ballots in the serialized votes column.
+     */
+    @Query("SELECT election from Election election where election.legacyVotes is not null")
+    List<Election> findAllWithLegacyVotes();
+
+    /**
+     * Find elections without a running tally, stored before running tallies existed.
+     */
+    @Query("SELECT election from Election election where election.tally is empty")
+    List<Election> findAllWithoutTally();
+
+    /**
+     * Atomically adds delta to the running tally of a candidate, without loading the election.
+     *
+     * @return the number of updated rows, 0 if the candidate is not in the tally.
+     */
+    @Modifying
+    @Query(value = "UPDATE election_tallies SET votes = votes + :delta "
+            + "WHERE election_id = :electionId AND candidate_id = :candidateId", nativeQuery = true)
+    int addToTally(long electionId, String candidateId, int delta);
+
+    /**
+     * Find an election and lock its row until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT election from Election election where election.id = :id")
+    Optional<Election> findForUpdateById(long id);
+
+    /**
+     * Lock the running tally rows of an election until the end of the transaction, so casts that
+     * update them with addToTally wait for the transaction instead of being overwritten by it.
+     */
+    @Query(value = "SELECT votes FROM election_tallies WHERE election_id = :electionId FOR UPDATE",
+            nativeQuery = true)
+    List<Integer> lockTally(long electionId);
+
+    @Query("SELECT election.id from Election election")
+    List<Long> findAllIds();
+
+    @Query("SELECT election from Election election where election.endDate < :date order by election.endDate")
     Optional<Collection<Election>> findAllFinishedElections(Date date);
+
+    @Query("SELECT election.endDate from Election election")
+    List<Date> findAllEndDates();
+
+    /**
+     * Find the ids of finished elections that no replica holds a lease on, oldest first.
+     */
+    @Query("SELECT election.id from Election election where election.endDate < :date "
+            + "and (election.leaseUntil is null or election.leaseUntil < :now) order by election.endDate")
+    List<Long> findClaimableIds(Date date, Date now, Pageable pageable);
+
+    /**
+     * Takes the lease on a election if no other replica holds it. The check and the update are one
+     * statement, so of several replicas claiming the same row exactly one succeeds.
+     *
+     * @return 1 if the lease was taken, 0 if another replica holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Election election SET election.leaseOwner = :owner, election.leaseUntil = :until "
+            + "where election.id = :id and (election.leaseUntil is null or election.leaseUntil < :now)")
+    int claimLease(long id, String owner, Date now, Date until);
+
+    /**
+     * Moves the end of a lease held by the given replica.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Election election SET election.leaseUntil = :until "
+            + "where election.id = :id and election.leaseOwner = :owner")
+    int extendLease(long id, String owner, Date until);
+
+    /**
+     * Stream the (associationId, ballots) of every open election, the ballots summed from the running tally.
+     * Has to be read inside a transaction.
+     */
+    @Query("SELECT election.associationId, sum(value(tally)) from Election election left join election.tally tally "
+            + "group by election.id, election.associationId")
+    Stream<Object[]> streamBallotCounts();
+
+    /**
+     * Find the (endDate, candidateId, votes) of every entry in the running tally of an election, for pushing
+     * its standings without loading the election. Empty when the election does not exist.
+     */
+    @Query("SELECT election.endDate, key(tally), value(tally) from Election election "
+            + "left join election.tally tally where election.id = :id")
+    List<Object[]> findStandingsById(long id);
 }
@@ -0,0 +1,227 @@
+package nl.tudelft.sem.template.voting.domain.election;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the seats of an election with the single transferable vote. With one seat this is instant-runoff.
+ *
+ * <p>Every ballot is a ranking of candidates and sits on the pile of the first candidate in its ranking
+ * that is still in the count. A candidate that reaches the Droop quota is elected and passes the
+ * surplus on: every ballot on its pile moves to its next preference with its weight scaled by
+ * surplus / votes. When nobody reaches the quota the candidate with the fewest votes is eliminated
+ * and its ballots move on with their weight. A round only touches the ballots on the pile of the
+ * elected or eliminated candidate, so a ballot is moved at most once per candidate in its ranking
+ * and the whole count is linear in the number of preferences, not in ballots times rounds.</p>
+ *
+ * <p>Ballots are kept as one array of candidate indexes with an offset per ballot, instead of an
+ * object per ballot. Ties for elimination go to the candidate with fewer first preferences, then
+ * to the candidate id that sorts last, so the count is deterministic.</p>
+ */
+public class StvCount {
+
+    private static final byte HOPEFUL = 0;
+    private static final byte ELECTED = 1;
+    private static final byte ELIMINATED = 2;
+    private static final double EPSILON = 1e-9;
+
+    private final transient List<String> candidates;
+    private final transient Map<String, Integer> indexes = new HashMap<>();
+    private final transient int seats;
+
+    private transient int[] preferences = new int[64];
+    private transient int preferenceCount;
+    private transient int[] offsets = new int[17];
+    private transient int ballots;
+
+    /**
+     * Starts a count of the given candidates.
+     *
+     * @param candidateIds  The candidates that can be elected.
+     * @param seats         The number of seats to fill.
+     */
+    public StvCount(Iterable<String> candidateIds, int seats) {
+        this.candidates = new ArrayList<>();
+        for (String candidateId : candidateIds) {
+            if (!indexes.containsKey(candidateId)) {
+                indexes.put(candidateId, candidates.size());
+                candidates.add(candidateId);
+            }
+        }
+        this.seats = seats;
+    }
+
+    /**
+     * Adds a ballot. Candidates that are not in the count are skipped, a ballot without any
+     * candidate in the count is ignored.
+     *
+     * @param ranking   The candidate ids in order of preference.
+     */
+    public void addBallot(List<String> ranking) {
+        int start = preferenceCount;
+        for (String candidateId : ranking) {
+            Integer index = indexes.get(candidateId);
+            if (index != null) {
+                if (preferenceCount == preferences.length) {
+                    preferences = Arrays.copyOf(preferences, preferences.length * 2);
+                }
+                preferences[preferenceCount++] = index;
+            }
+        }
+        if (preferenceCount == start) {
+            return;
+        }
+        if (ballots + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++ballots] = preferenceCount;
+    }
+
+    /**
+     * Returns the number of ballots in the count.
+     */
+    public int size() {
+        return ballots;
+    }
+
+    /**
+     * Counts the ballots.
+     *
+     * @return the elected candidates in the order they were elected, and the number of rounds.
+     */
+    public StvResult count() {
+        int candidateCount = candidates.size();
+        int seatsToFill = Math.min(seats, candidateCount);
+        byte[] state = new byte[candidateCount];
+        double[] votes = new double[candidateCount];
+        int[] firstPreferences = new int[candidateCount];
+        IntPile[] piles = new IntPile[candidateCount];
+        for (int c = 0; c < candidateCount; c++) {
+            piles[c] = new IntPile();
+        }
+        int[] position = new int[ballots];
+        double[] weight = new double[ballots];
+        for (int b = 0; b < ballots; b++) {
+            position[b] = offsets[b];
+            weight[b] = 1;
+            int first = preferences[offsets[b]];
+            piles[first].add(b);
+            votes[first]++;
+            firstPreferences[first]++;
+        }
+
+        double quota = Math.floor((double) ballots / (seatsToFill + 1)) + 1;
+        List<String> winners = new ArrayList<>(seatsToFill);
+        int hopeful = candidateCount;
+        int rounds = 0;
+        while (winners.size() < seatsToFill) {
+            rounds++;
+            if (hopeful + winners.size() <= seatsToFill) {
+                electRemaining(state, votes, winners);
+                break;
+            }
+            int leader = -1;
+            for (int c = 0; c < candidateCount; c++) {
+                if (state[c] == HOPEFUL && (leader < 0 || votes[c] > votes[leader])) {
+                    leader = c;
+                }
+            }
+            if (votes[leader] >= quota - EPSILON) {
+                state[leader] = ELECTED;
+                hopeful--;
+                winners.add(candidates.get(leader));
+                double factor = (votes[leader] - quota) / votes[leader];
+                if (factor > EPSILON) {
+                    transfer(piles[leader], factor, state, votes, piles, position, weight);
+                }
+                piles[leader] = null;
+                votes[leader] = quota;
+            } else {
+                int loser = lowest(state, votes, firstPreferences);
+                state[loser] = ELIMINATED;
+                hopeful--;
+                transfer(piles[loser], 1, state, votes, piles, position, weight);
+                piles[loser] = null;
+                votes[loser] = 0;
+            }
+        }
+        return new StvResult(winners, rounds, quota);
+    }
+
+    /**
+     * Moves every ballot of the pile to the next candidate in its ranking that is still hopeful,
+     * scaling its weight by the factor. Ballots without such a candidate are exhausted.
+     */
+    private void transfer(IntPile pile, double factor, byte[] state, double[] votes, IntPile[] piles,
+                          int[] position, double[] weight) {
+        for (int i = 0; i < pile.size; i++) {
+            int b = pile.items[i];
+            weight[b] *= factor;
+            int end = offsets[b + 1];
+            int p = position[b] + 1;
+            while (p < end && state[preferences[p]] != HOPEFUL) {
+                p++;
+            }
+            position[b] = p;
+            if (p < end) {
+                int next = preferences[p];
+                piles[next].add(b);
+                votes[next] += weight[b];
+            }
+        }
+    }
+
+    private int lowest(byte[] state, double[] votes, int[] firstPreferences) {
+        int loser = -1;
+        for (int c = 0; c < candidates.size(); c++) {
+            if (state[c] != HOPEFUL) {
+                continue;
+            }
+            if (loser < 0 || votes[c] < votes[loser] - EPSILON) {
+                loser = c;
+            } else if (Math.abs(votes[c] - votes[loser]) <= EPSILON
+                    && (firstPreferences[c] < firstPreferences[loser]
+                    || (firstPreferences[c] == firstPreferences[loser]
+                    && candidates.get(c).compareTo(candidates.get(loser)) > 0))) {
+                loser = c;
+            }
+        }
+        return loser;
+    }
+
+    /**
+     * Elects the hopeful candidates that are left, most votes first, once they fit in the open seats.
+     */
+    private void electRemaining(byte[] state, double[] votes, List<String> winners) {
+        List<Integer> remaining = new ArrayList<>();
+        for (int c = 0; c < candidates.size(); c++) {
+            if (state[c] == HOPEFUL) {
+                remaining.add(c);
+            }
+        }
+        remaining.sort((a, b) -> votes[a] != votes[b] ? Double.compare(votes[b], votes[a])
+                : candidates.get(a).compareTo(candidates.get(b)));
+        for (int c : remaining) {
+            state[c] = ELECTED;
+            winners.add(candidates.get(c));
+        }
+    }
+
+    /**
+     * The ballot indexes on the pile of one candidate.
+     */
+    private static class IntPile {
+        private transient int[] items = new int[16];
+        private transient int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+    }
+}
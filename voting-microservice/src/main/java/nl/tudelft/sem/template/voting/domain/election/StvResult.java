@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.voting.domain.election;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The outcome of a single transferable vote count.
+ */
+@Data
+@AllArgsConstructor
+public class StvResult {
+    /**
+     * The elected candidates, in the order they were elected.
+     */
+    private List<String> winners;
+    private int rounds;
+    private double quota;
+}
@@ -0,0 +1,47 @@
+package nl.tudelft.sem.template.voting.domain.rulevoting;
+
+import javax.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * The fingerprint of a rule an association adopted through a passed rule vote.
+ * Rules only change through rule votes, so these rows mirror the rules of the association and a
+ * proposal can be checked against them with one index probe, without asking the association microservice.
+ */
+@Entity
+@Table(name = "adopted_rules",
+        uniqueConstraints = @UniqueConstraint(name = "uk_adopted_rule_fingerprint",
+                columnNames = {"association_id", "fingerprint"}))
+@NoArgsConstructor
+public class AdoptedRule {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", nullable = false, unique = true)
+    private long id;
+
+    @Column(name = "association_id", nullable = false)
+    private int associationId;
+
+    @Column(name = "fingerprint", length = RuleFingerprint.LENGTH, nullable = false)
+    private String fingerprint;
+
+    /**
+     * Constructor for the adopted rule object.
+     *
+     * @param associationId The association that adopted the rule.
+     * @param fingerprint   The fingerprint of the rule text.
+     */
+    public AdoptedRule(int associationId, String fingerprint) {
+        this.associationId = associationId;
+        this.fingerprint = fingerprint;
+    }
+
+    public int getAssociationId() {
+        return associationId;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,29 @@
+package nl.tudelft.sem.template.voting.domain.rulevoting;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AdoptedRuleRepository extends JpaRepository<AdoptedRule, Long> {
+
+    /**
+     * Whether the association adopted a rule with this fingerprint, probed on the unique index.
+     */
+    boolean existsByAssociationIdAndFingerprint(int associationId, String fingerprint);
+
+    /**
+     * The fingerprints of the rules the association adopted.
+     */
+    @Query("SELECT rule.fingerprint from AdoptedRule rule where rule.associationId = :associationId")
+    List<String> findFingerprintsByAssociationId(int associationId);
+
+    /**
+     * Remove the rule with this fingerprint, when a passed amendment replaced or removed it.
+     */
+    @Modifying
+    @Query("DELETE from AdoptedRule rule where rule.associationId = :associationId and rule.fingerprint = :fingerprint")
+    int deleteByFingerprint(int associationId, String fingerprint);
+}
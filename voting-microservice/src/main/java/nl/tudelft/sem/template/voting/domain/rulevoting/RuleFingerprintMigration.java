@@ -0,0 +1,47 @@
+package nl.tudelft.sem.template.voting.domain.rulevoting;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills in the rule and amendment fingerprints of rule votes that were stored before the fingerprints
+ * existed, so the duplicate checks also find them. Runs once on startup and is a no-op when every
+ * rule vote has its fingerprints, so it is safe to keep around.
+ */
+@Component
+public class RuleFingerprintMigration implements ApplicationRunner {
+
+    private final transient RuleVotingRepository ruleVotingRepository;
+
+    /**
+     * Instantiates the migration.
+     */
+    public RuleFingerprintMigration(RuleVotingRepository ruleVotingRepository) {
+        this.ruleVotingRepository = ruleVotingRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Fingerprints all rule votes without fingerprints.
+     *
+     * @return the number of rule votes updated.
+     */
+    @Transactional
+    public int migrate() {
+        int migrated = 0;
+        for (RuleVoting ruleVoting : ruleVotingRepository.findAllWithoutFingerprints()) {
+            ruleVoting.setRule(ruleVoting.getRule());
+            ruleVoting.setAmendment(ruleVoting.getAmendment());
+            ruleVotingRepository.save(ruleVoting);
+            migrated++;
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,84 @@
+package nl.tudelft.sem.template.voting.domain.rulevoting;
+
+import javax.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single ballot in a rule vote, stored as its own row.
+ * The association id is copied from the rule vote, so that the ballots of a council member in all
+ * rule votes of an association are found through the (association_id, voter_id) index.
+ */
+@Entity
+@Table(name = "rule_vote_ballots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rule_vote_ballot_voter",
+                columnNames = {"rule_voting_id", "voter_id"}),
+        indexes = @Index(name = "idx_rule_vote_ballot_association_voter", columnList = "association_id, voter_id"))
+@NoArgsConstructor
+public class RuleVoteBallot {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", nullable = false, unique = true)
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "rule_voting_id", nullable = false)
+    private RuleVoting ruleVoting;
+
+    /**
+     * The id of the rule vote, readable without loading the rule vote.
+     */
+    @Column(name = "rule_voting_id", nullable = false, insertable = false, updatable = false)
+    private long ruleVotingId;
+
+    @Column(name = "association_id", nullable = false)
+    private int associationId;
+
+    @Column(name = "voter_id", nullable = false)
+    private String voterId;
+
+    @Column(name = "vote", nullable = false)
+    private String vote;
+
+    /**
+     * Constructor for the rule vote ballot object.
+     *
+     * @param ruleVoting    The rule vote this ballot is cast in.
+     * @param voterId       The id of the voter.
+     * @param vote          The vote of the voter (for/against/abstain).
+     */
+    public RuleVoteBallot(RuleVoting ruleVoting, String voterId, String vote) {
+        this.ruleVoting = ruleVoting;
+        this.associationId = ruleVoting.getAssociationId();
+        this.voterId = voterId;
+        this.vote = vote;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public RuleVoting getRuleVoting() {
+        return ruleVoting;
+    }
+
+    public long getRuleVotingId() {
+        return ruleVotingId;
+    }
+
+    public int getAssociationId() {
+        return associationId;
+    }
+
+    public String getVoterId() {
+        return voterId;
+    }
+
+    public String getVote() {
+        return vote;
+    }
+
+    public void setVote(String vote) {
+        this.vote = vote;
+    }
+}
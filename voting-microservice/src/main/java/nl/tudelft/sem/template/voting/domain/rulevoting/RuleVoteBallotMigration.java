@@ -0,0 +1,72 @@
+package nl.tudelft.sem.template.voting.domain.rulevoting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves ballots that were stored in the serialized "votes" column of the rule_votings table
+ * into one RuleVoteBallot row per voter. Runs once on startup and is a no-op when no
+ * rule vote has legacy ballots left, so it is safe to keep around.
+ */
+@Component
+public class RuleVoteBallotMigration implements ApplicationRunner {
+
+    private final transient RuleVotingRepository ruleVotingRepository;
+
+    /**
+     * Instantiates the migration.
+     */
+    public RuleVoteBallotMigration(RuleVotingRepository ruleVotingRepository) {
+        this.ruleVotingRepository = ruleVotingRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Migrates all legacy ballots.
+     *
+     * @return the number of ballot rows written.
+     */
+    @Transactional
+    public int migrate() {
+        int migrated = 0;
+        for (RuleVoting ruleVoting : ruleVotingRepository.findAllWithLegacyVotes()) {
+            migrated += migrate(ruleVoting);
+        }
+        return migrated;
+    }
+
+    /**
+     * Migrates the legacy ballots of a single rule vote. When a voter occurs more than once the last
+     * occurrence wins, and voters that already have a ballot row keep it. The running tally is
+     * recounted from the ballot rows afterwards.
+     */
+    private int migrate(RuleVoting ruleVoting) {
+        Map<String, String> latest = new LinkedHashMap<>();
+        for (Pair<String, String> vote : ruleVoting.getLegacyVotes()) {
+            latest.put(vote.getFirst(), vote.getSecond());
+        }
+        for (Pair<String, String> vote : ruleVoting.getVotes()) {
+            latest.remove(vote.getFirst());
+        }
+
+        for (Map.Entry<String, String> vote : latest.entrySet()) {
+            ruleVoting.getBallots().add(new RuleVoteBallot(ruleVoting, vote.getKey(), vote.getValue()));
+        }
+        ruleVoting.getTally().clear();
+        ruleVoting.getTally().putAll(ruleVoting.recountVotes());
+
+        ruleVoting.clearLegacyVotes();
+        ruleVotingRepository.save(ruleVoting);
+        return latest.size();
+    }
+}
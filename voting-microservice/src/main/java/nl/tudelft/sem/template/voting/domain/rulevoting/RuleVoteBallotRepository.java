@@ -0,0 +1,35 @@
+package nl.tudelft.sem.template.voting.domain.rulevoting;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RuleVoteBallotRepository extends JpaRepository<RuleVoteBallot, Long> {
+    /**
+     * Find the ballots of a voter in the given rule votes of an association in one query,
+     * backed by the (association_id, voter_id) index.
+     */
+    List<RuleVoteBallot> findAllByAssociationIdAndVoterIdAndRuleVotingIdIn(int associationId, String voterId,
+                                                                            Collection<Long> ruleVotingIds);
+
+    /**
+     * Find the ballots of the given voters in a rule vote in one query,
+     * backed by the (rule_voting_id, voter_id) unique index.
+     */
+    List<RuleVoteBallot> findAllByRuleVotingIdAndVoterIdIn(long ruleVotingId, Collection<String> voterIds);
+
+    List<RuleVoteBallot> findAllByRuleVotingIdOrderByIdAsc(long ruleVotingId);
+
+    long countByRuleVotingId(long ruleVotingId);
+
+    /**
+     * Stream the (voterId, vote) of every ballot in a rule vote, without loading the ballot entities.
+     * Has to be read inside a transaction.
+     */
+    @Query("SELECT ballot.voterId, ballot.vote from RuleVoteBallot ballot where ballot.ruleVotingId = :ruleVotingId")
+    Stream<Object[]> streamVotesByRuleVotingId(long ruleVotingId);
+}
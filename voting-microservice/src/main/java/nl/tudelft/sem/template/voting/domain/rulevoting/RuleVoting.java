@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.voting.domain.rulevoting;
 
 import java.util.*;
+import java.util.stream.Collectors;
 import javax.persistence.*;
 import lombok.NoArgsConstructor;
 import nl.tudelft.sem.template.voting.domain.Voting;
@@ -8,7 +9,12 @@ import nl.tudelft.sem.template.voting.domain.VotingType;
 import org.springframework.data.util.Pair;
 
 @Entity
-@Table(name = "rule_votings")
+@Table(name = "rule_votings",
+        indexes = {
+            @Index(name = "idx_rule_votings_association", columnList = "association_id"),
+            @Index(name = "idx_rule_votings_rule", columnList = "association_id, rule_fingerprint, type"),
+            @Index(name = "idx_rule_votings_amendment", columnList = "association_id, amendment_fingerprint")
+        })
 @NoArgsConstructor
 public class RuleVoting extends Voting {
     @Column(name = "association_id", nullable = false)
@@ -23,15 +29,45 @@ public class RuleVoting extends Voting {
     @Column(name = "amendment")
     private String amendment;
 
+    /**
+     * Fingerprints of the rule and amendment texts, kept in step by their setters.
+     * Duplicate proposals are found by probing these, the free text columns are not indexed.
+     * Rows stored before the fingerprints existed are filled in by RuleFingerprintMigration.
+     */
+    @Column(name = "rule_fingerprint", length = RuleFingerprint.LENGTH)
+    private String ruleFingerprint;
+
+    @Column(name = "amendment_fingerprint", length = RuleFingerprint.LENGTH)
+    private String amendmentFingerprint;
+
     @Column(name = "type", nullable = false)
     private VotingType type;
 
     /**
-     * Vote is a Pair of voterId, vote (for/against/abstain) in this order.
+     * One row per voter, unique on (rule_voting_id, voter_id).
+     * Loaded lazily so that casting a vote does not read every ballot of the rule vote.
+     */
+    @OneToMany(mappedBy = "ruleVoting", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<RuleVoteBallot> ballots;
+
+    /**
+     * Ballots serialized by the previous schema, as Pairs of voterId, vote.
+     * Only read by the RuleVoteBallotMigration, which moves them into RuleVoteBallot rows.
      */
+    @Lob
     @Column(name = "votes")
     @Convert(converter = RuleVotingVotesAttributeConverter.class)
-    private List<Pair<String, String>> votes;
+    private List<Pair<String, String>> legacyVotes;
+
+    /**
+     * Running tally of votes per option (for/against/abstain), kept in step with the ballots
+     * when a vote is cast or changed. Reading it is O(options) and never touches the ballots.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "rule_voting_tallies", joinColumns = @JoinColumn(name = "rule_voting_id"))
+    @MapKeyColumn(name = "vote")
+    @Column(name = "votes", nullable = false)
+    private Map<String, Integer> tally;
 
     /**
      * Constructor for the RuleVoting object.
@@ -43,9 +79,16 @@ public class RuleVoting extends Voting {
         this.associationId = associationId;
         this.userId = userId;
         this.rule = rule;
+        this.ruleFingerprint = RuleFingerprint.of(rule);
         this.amendment = amendment;
+        this.amendmentFingerprint = RuleFingerprint.of(amendment);
         this.type = type;
-        this.votes = new ArrayList<>();
+        this.ballots = new ArrayList<>();
+        this.legacyVotes = new ArrayList<>();
+        this.tally = new HashMap<>();
+        this.tally.put("for", 0);
+        this.tally.put("against", 0);
+        this.tally.put("abstain", 0);
 
         Calendar c = Calendar.getInstance();
         c.setTime(this.getCreationDate());
@@ -75,6 +118,7 @@ public class RuleVoting extends Voting {
 
     public void setRule(String rule) {
         this.rule = rule;
+        this.ruleFingerprint = RuleFingerprint.of(rule);
     }
 
     public String getAmendment() {
@@ -83,6 +127,15 @@ public class RuleVoting extends Voting {
 
     public void setAmendment(String amendment) {
         this.amendment = amendment;
+        this.amendmentFingerprint = RuleFingerprint.of(amendment);
+    }
+
+    public String getRuleFingerprint() {
+        return ruleFingerprint;
+    }
+
+    public String getAmendmentFingerprint() {
+        return amendmentFingerprint;
     }
 
     public VotingType getType() {
@@ -93,12 +146,68 @@ public class RuleVoting extends Voting {
         this.type = type;
     }
 
+    /**
+     * Returns the votes of this rule vote.
+     *
+     * @return a list of Pairs of voterId, vote in this order.
+     */
     public List<Pair<String, String>> getVotes() {
-        return votes;
+        return ballots.stream()
+                .map(b -> Pair.of(b.getVoterId(), b.getVote()))
+                .collect(Collectors.toList());
+    }
+
+    public List<RuleVoteBallot> getBallots() {
+        return ballots;
     }
 
     public void addVote(Pair<String, String> vote) {
-        votes.add(vote);
+        ballots.add(new RuleVoteBallot(this, vote.getFirst(), vote.getSecond()));
+        updateTally(null, vote.getSecond());
+    }
+
+    /**
+     * Casts a vote, replacing the previous vote of the user if there is one.
+     * Scans the ballots, so it is meant for a rule vote that is being built. Votes in a stored
+     * rule vote go through the BallotWriter, which only reads the ballots of the voters.
+     *
+     * @param userId    The id of the user voting.
+     * @param vote      The vote of the user (for/against/abstain).
+     */
+    public void castVote(String userId, String vote) {
+        for (RuleVoteBallot ballot : ballots) {
+            if (ballot.getVoterId().equals(userId)) {
+                updateTally(ballot.getVote(), vote);
+                ballot.setVote(vote);
+                return;
+            }
+        }
+        addVote(Pair.of(userId, vote));
+    }
+
+    /**
+     * Moves one vote in the running tally from the previous choice to the new one.
+     *
+     * @param previous  The previous vote of the voter, null if the voter had not voted yet.
+     * @param vote      The new vote of the voter.
+     */
+    public void updateTally(String previous, String vote) {
+        if (previous != null) {
+            tally.merge(previous, -1, Integer::sum);
+        }
+        tally.merge(vote, 1, Integer::sum);
+    }
+
+    public List<Pair<String, String>> getLegacyVotes() {
+        return legacyVotes;
+    }
+
+    public void clearLegacyVotes() {
+        legacyVotes = new ArrayList<>();
+    }
+
+    public Map<String, Integer> getTally() {
+        return tally;
     }
 
     /**
@@ -141,21 +250,36 @@ public class RuleVoting extends Voting {
     }
 
     /**
-     * Tallies the votes from this rulevoting.
+     * Tallies the votes from this rulevoting, using the running tally.
      *
      * @return HashMap containing yes and no along with its respective number of votes
      */
     public HashMap<String, Integer> tallyVotes() {
         HashMap<String, Integer> res = new HashMap<>();
 
+        res.put("for", 0);
+        res.put("against", 0);
+        res.put("abstain", 0);
+        res.putAll(this.tally);
+
+        return res;
+    }
+
+    /**
+     * Recounts the votes from this rulevoting, ignoring the running tally.
+     * Used to verify the running tally.
+     *
+     * @return HashMap containing yes and no along with its respective number of votes
+     */
+    public HashMap<String, Integer> recountVotes() {
+        HashMap<String, Integer> res = new HashMap<>();
+
         res.put("for", 0);
         res.put("against", 0);
         res.put("abstain", 0);
 
-        for (Pair pair : this.votes) {
-            String option = (String) pair.getSecond();
-            int optionTally = (Integer) res.get(option);
-            res.put(option, optionTally + 1);
+        for (RuleVoteBallot ballot : this.ballots) {
+            res.merge(ballot.getVote(), 1, Integer::sum);
         }
 
         return res;
@@ -4,22 +4,114 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
 import nl.tudelft.sem.template.voting.domain.VotingType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface RuleVotingRepository extends JpaRepository<RuleVoting, Long> {
 
     Optional<RuleVoting> findFirstByOrderByEndDateAsc();
 
-    @Query("SELECT ruleVoting from RuleVoting ruleVoting where ruleVoting.endDate < :date")
+    @Query("SELECT ruleVoting from RuleVoting ruleVoting where ruleVoting.endDate < :date "
+            + "order by ruleVoting.endDate")
     Optional<Collection<RuleVoting>> findAllFinishedRuleVotings(Date date);
 
+    @Query("SELECT ruleVoting.endDate from RuleVoting ruleVoting")
+    List<Date> findAllEndDates();
+
+    @Query("SELECT ruleVoting.id from RuleVoting ruleVoting")
+    List<Long> findAllIds();
+
     List<RuleVoting> findAllByAssociationId(int associationId);
 
-    boolean existsByAssociationIdAndRuleAndType(Integer associationId, String rule, VotingType type);
+    /**
+     * Find one page of the rule votes of an association, oldest first, without loading their ballots.
+     */
+    Page<RuleVotingSummary> findSummariesByAssociationIdOrderByIdAsc(int associationId, Pageable pageable);
+
+    /**
+     * Find rule votes that still hold ballots in the serialized votes column.
+     */
+    @Query("SELECT ruleVoting from RuleVoting ruleVoting where ruleVoting.legacyVotes is not null")
+    List<RuleVoting> findAllWithLegacyVotes();
+
+    /**
+     * Find rule votes stored before their rule or amendment was fingerprinted.
+     */
+    @Query("SELECT ruleVoting from RuleVoting ruleVoting where ruleVoting.ruleFingerprint is null "
+            + "or (ruleVoting.amendment is not null and ruleVoting.amendmentFingerprint is null)")
+    List<RuleVoting> findAllWithoutFingerprints();
+
+    /**
+     * Find a rule vote and lock its row until the end of the transaction. Every vote updates the
+     * running tally of the rule vote, so concurrent voters wait for each other instead of retrying
+     * endlessly. Other rule votes are not affected.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ruleVoting from RuleVoting ruleVoting where ruleVoting.id = :id")
+    Optional<RuleVoting> findForUpdateById(long id);
+
+    /**
+     * Whether a rule vote of this type on the rule is open, probed on the index of the rule fingerprint.
+     */
+    boolean existsByAssociationIdAndRuleFingerprintAndType(Integer associationId, String ruleFingerprint,
+                                                          VotingType type);
+
+    /**
+     * Whether a rule vote on the amendment is open, probed on the index of the amendment fingerprint.
+     */
+    boolean existsByAssociationIdAndAmendmentFingerprint(Integer associationId, String amendmentFingerprint);
+
+    /**
+     * Find the ids of finished ruleVotings that no replica holds a lease on, oldest first.
+     */
+    @Query("SELECT ruleVoting.id from RuleVoting ruleVoting where ruleVoting.endDate < :date "
+            + "and (ruleVoting.leaseUntil is null or ruleVoting.leaseUntil < :now) order by ruleVoting.endDate")
+    List<Long> findClaimableIds(Date date, Date now, Pageable pageable);
+
+    /**
+     * Takes the lease on a ruleVoting if no other replica holds it. The check and the update are one
+     * statement, so of several replicas claiming the same row exactly one succeeds.
+     *
+     * @return 1 if the lease was taken, 0 if another replica holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RuleVoting ruleVoting SET ruleVoting.leaseOwner = :owner, ruleVoting.leaseUntil = :until "
+            + "where ruleVoting.id = :id and (ruleVoting.leaseUntil is null or ruleVoting.leaseUntil < :now)")
+    int claimLease(long id, String owner, Date now, Date until);
+
+    /**
+     * Moves the end of a lease held by the given replica.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RuleVoting ruleVoting SET ruleVoting.leaseUntil = :until "
+            + "where ruleVoting.id = :id and ruleVoting.leaseOwner = :owner")
+    int extendLease(long id, String owner, Date until);
+
+    /**
+     * Stream the (associationId, ruleVotingId, option, votes) of every entry in the running tallies
+     * of the open rule votes. Has to be read inside a transaction.
+     */
+    @Query("SELECT ruleVoting.associationId, ruleVoting.id, key(tally), value(tally) from RuleVoting ruleVoting "
+            + "join ruleVoting.tally tally")
+    Stream<Object[]> streamTallies();
 
-    boolean existsByAssociationIdAndAmendment(Integer associationId, String amendment);
+    /**
+     * Find the (type, endDate, option, votes) of every entry in the running tally of a rule vote, for pushing
+     * its standings without loading the rule vote. Empty when the rule vote does not exist.
+     */
+    @Query("SELECT ruleVoting.type, ruleVoting.endDate, key(tally), value(tally) from RuleVoting ruleVoting "
+            + "left join ruleVoting.tally tally where ruleVoting.id = :id")
+    List<Object[]> findStandingsById(long id);
 }
@@ -0,0 +1,15 @@
+package nl.tudelft.sem.template.voting.domain.rulevoting;
+
+import java.util.Date;
+import nl.tudelft.sem.template.voting.domain.VotingType;
+
+/**
+ * The columns of a rule vote that are needed to list it, without its ballots.
+ */
+public interface RuleVotingSummary {
+    long getId();
+
+    VotingType getType();
+
+    Date getEndDate();
+}
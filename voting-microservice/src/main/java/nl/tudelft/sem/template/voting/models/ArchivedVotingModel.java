@@ -0,0 +1,28 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.Date;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing a closed voting in the archive, without its ballots.
+ * The outcome holds the elected candidates of an election, or passed/rejected for a rule vote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedVotingModel {
+    private long id;
+    private String kind;
+    private long votingId;
+    private Date creationDate;
+    private Date endDate;
+    private Date archivedAt;
+    private String rule;
+    private String amendment;
+    private String outcome;
+    private Map<String, Integer> tally;
+    private int ballotCount;
+}
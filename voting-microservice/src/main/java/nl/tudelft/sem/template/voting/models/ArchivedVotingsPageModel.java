@@ -0,0 +1,20 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing one page of the archived votings of an association, oldest first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedVotingsPageModel {
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private List<ArchivedVotingModel> votings;
+}
@@ -4,8 +4,10 @@ import lombok.Data;
 
 /**
  * Model representing a request with associationId.
+ * When it creates an election, seats is the number of council seats, 0 means a single seat.
  */
 @Data
 public class AssociationRequestModel {
     private int associationId;
+    private int seats;
 }
\ No newline at end of file
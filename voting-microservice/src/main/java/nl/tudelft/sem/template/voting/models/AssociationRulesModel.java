@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing the fingerprints of the rules of one association.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssociationRulesModel {
+    private int associationId;
+    private List<String> ruleFingerprints;
+}
@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.voting.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing a single ballot in a bulk submission.
+ * For an election the vote is the id of the candidate, for a rule vote it is for/against/abstain.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BallotModel {
+    private String voterId;
+    private String vote;
+}
@@ -0,0 +1,23 @@
+package nl.tudelft.sem.template.voting.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing the outcome of one ballot of a bulk submission, at the same index as the ballot.
+ * The status is ACCEPTED, SUPERSEDED when a later ballot of the same voter replaced it, or REJECTED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BallotResultModel {
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String SUPERSEDED = "SUPERSEDED";
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+    private String voterId;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Model representing a request to cast many ballots in the election of an association at once.
+ */
+@Data
+public class BulkElectionVoteRequestModel {
+    private String userId;
+    private int associationId;
+    private List<BallotModel> ballots;
+}
@@ -0,0 +1,15 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Model representing a request to cast many ballots in a rule vote at once.
+ */
+@Data
+public class BulkRuleVoteRequestModel {
+    private String userId;
+    private Long ruleVoteId;
+    private int associationId;
+    private List<BallotModel> ballots;
+}
@@ -2,12 +2,18 @@ package nl.tudelft.sem.template.voting.models;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import lombok.Data;
 
+/**
+ * The result of an election. The standings count first preferences,
+ * the winners are the elected candidates in the order they were elected.
+ */
 @Data
 public class ElectionResultRequestModel {
     private Date date;
     private String result;
     private HashMap<String, Integer> standings;
     private Integer associationId;
+    private List<String> winners;
 }
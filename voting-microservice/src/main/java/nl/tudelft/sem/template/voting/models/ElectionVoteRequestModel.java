@@ -1,13 +1,16 @@
 package nl.tudelft.sem.template.voting.models;
 
+import java.util.List;
 import lombok.Data;
 
 /**
  * Model representing a request to cast a vote in an election.
+ * A ranked vote lists the candidates in order of preference in ranking instead of giving a candidateId.
  */
 @Data
 public class ElectionVoteRequestModel {
     private String voterId;
     private int associationId;
     private String candidateId;
+    private List<String> ranking;
 }
\ No newline at end of file
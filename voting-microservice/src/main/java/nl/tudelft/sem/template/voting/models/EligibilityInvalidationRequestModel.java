@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing a change in the memberships or the council of an association.
+ * The cached eligibility of the given users is forgotten in all associations, and when
+ * an association id is given, all cached eligibility in that association as well.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EligibilityInvalidationRequestModel {
+    private List<String> userIds;
+    private Integer associationId;
+}
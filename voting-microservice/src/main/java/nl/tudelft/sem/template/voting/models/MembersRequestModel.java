@@ -0,0 +1,13 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.Set;
+import lombok.Data;
+
+/**
+ * Model representing a request to check which of the users are members of an association.
+ */
+@Data
+public class MembersRequestModel {
+    private Integer associationId;
+    private Set<String> userIds;
+}
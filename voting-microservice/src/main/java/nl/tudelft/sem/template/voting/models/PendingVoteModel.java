@@ -0,0 +1,24 @@
+package nl.tudelft.sem.template.voting.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing one ongoing rule vote of an association, as seen by a council member.
+ * The status is REVIEWING, VOTING or ENDED. The vote is the member's own vote, or null when
+ * they did not vote (yet) or the rule vote is still being reviewed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingVoteModel {
+    public static final String REVIEWING = "REVIEWING";
+    public static final String VOTING = "VOTING";
+    public static final String ENDED = "ENDED";
+
+    private long id;
+    private String type;
+    private String status;
+    private String vote;
+}
@@ -0,0 +1,18 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model representing the rule fingerprints of one page of associations, in id order.
+ * The nextAfterId is the afterId of the next page, null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleFingerprintsPageModel {
+    private List<AssociationRulesModel> associations;
+    private Integer nextAfterId;
+}
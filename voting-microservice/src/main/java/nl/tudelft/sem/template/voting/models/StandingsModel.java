@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.voting.models;
+
+import java.util.Date;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Model representing the current standings of an open voting, as pushed to the standings subscribers.
+ * The id is the election id for an election and the rule vote id for a rule vote.
+ */
+@Data
+public class StandingsModel {
+    private long id;
+    private String type;
+    private Date endDate;
+    private Map<String, Integer> standings;
+}
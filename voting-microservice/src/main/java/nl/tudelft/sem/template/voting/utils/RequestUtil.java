@@ -3,13 +3,10 @@ package nl.tudelft.sem.template.voting.utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.Function;
 import javax.servlet.http.HttpServletRequest;
-import nl.tudelft.sem.template.voting.models.AuthenticationResponseModel;
-import nl.tudelft.sem.template.voting.models.RegistrationRequestModel;
+import nl.tudelft.sem.template.commons.utils.ServiceTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.context.annotation.Bean;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
@@ -22,10 +19,8 @@ public class RequestUtil {
     @Autowired
     private transient RestTemplate restTemplate;
 
-    @Bean
-    public RestTemplate generateTestTemplate(RestTemplateBuilder builder) {
-        return builder.build();
-    }
+    @Autowired
+    private transient ServiceTokenCache serviceTokenCache;
 
     /**
      * Builds the server address for you.
@@ -120,22 +115,29 @@ public class RequestUtil {
     }
 
     /**
-     * Generates the token for server to server communication.
+     * Returns the token for server to server communication.
+     * The token is cached and only regenerated through the authentication service shortly before it expires.
      *
      * @param serviceUsername   The username the service is registered with.
      * @param servicePassword   The password the service is registered with
      * @return                  The bearer token generated through the authentication service.
      */
     public String authenticateService(String serviceUsername, String servicePassword) {
-        RegistrationRequestModel regModel = new RegistrationRequestModel();
-        regModel.setUserId(serviceUsername);
-        regModel.setPassword(servicePassword);
-        HttpEntity<RegistrationRequestModel> authRequest = new HttpEntity<>(regModel);
+        return serviceTokenCache.getToken(serviceUsername, servicePassword);
+    }
 
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<AuthenticationResponseModel> authenticationResponse = restTemplate
-                .postForEntity("http://localhost:8081/authenticate", authRequest, AuthenticationResponseModel.class);
-        return Objects.requireNonNull(authenticationResponse.getBody()).getToken();
+    /**
+     * Performs a server to server call with the cached token of the service.
+     * If the other service rejects the token with a 401, the call is retried once with a new token.
+     *
+     * @param serviceUsername   The username the service is registered with.
+     * @param servicePassword   The password the service is registered with
+     * @param call              The call to perform, given the bearer token.
+     * @param <T>               The result of the call.
+     * @return                  The result of the call.
+     */
+    public <T> T withServiceToken(String serviceUsername, String servicePassword, Function<String, T> call) {
+        return serviceTokenCache.withToken(serviceUsername, servicePassword, call);
     }
 
 }
@@ -0,0 +1,94 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRule;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRuleRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleFingerprint;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.utils.RequestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.web.client.RestTemplate;
+
+public class AdoptedRuleMirrorTest {
+
+    private final String rule = "Be nice.";
+    private AdoptedRuleRepository adoptedRuleRepository;
+    private VotingAssociationCommunication communication;
+
+    /**
+     * Set up a VotingAssociationCommunication with a mocked adopted rule repository.
+     */
+    @BeforeEach
+    public void setup() {
+        adoptedRuleRepository = mock(AdoptedRuleRepository.class);
+        communication = spy(communication(true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        communication.shutdown();
+    }
+
+    private VotingAssociationCommunication communication(boolean verifyAdoptedRules) {
+        return new VotingAssociationCommunication(mock(ElectionRepository.class),
+                mock(ElectionBallotRepository.class), mock(RuleVotingRepository.class), adoptedRuleRepository,
+                mock(BallotWriter.class), mock(EligibilityCache.class), mock(TransactionRetry.class),
+                mock(ResultOutbox.class), mock(VotingLeases.class), mock(VotingArchive.class),
+                mock(RequestUtil.class), mock(RestTemplate.class), "http://localhost:8084", false, 60000, 1, 0,
+                verifyAdoptedRules);
+    }
+
+    @Test
+    public void mirrorHitDoesNotAskAssociationTest() {
+        when(adoptedRuleRepository.existsByAssociationIdAndFingerprint(1, RuleFingerprint.of(rule)))
+                .thenReturn(true);
+
+        assertThat(communication.isAdoptedRule(1, rule)).isTrue();
+        verify(communication, never()).verifyProposal(anyInt(), anyString());
+    }
+
+    @Test
+    public void mirrorMissOfExistingRuleSeedsMirrorTest() {
+        doReturn(false).when(communication).verifyProposal(1, rule);
+
+        assertThat(communication.isAdoptedRule(1, rule)).isTrue();
+        verify(adoptedRuleRepository).save(argThat((AdoptedRule adopted) -> adopted.getAssociationId() == 1
+                && adopted.getFingerprint().equals(RuleFingerprint.of(rule))));
+    }
+
+    @Test
+    public void mirrorMissOfNewRuleTest() {
+        doReturn(true).when(communication).verifyProposal(1, rule);
+
+        assertThat(communication.isAdoptedRule(1, rule)).isFalse();
+        verify(adoptedRuleRepository, never()).save(any());
+    }
+
+    @Test
+    public void concurrentlySeededRuleTest() {
+        doReturn(false).when(communication).verifyProposal(1, rule);
+        when(adoptedRuleRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThat(communication.isAdoptedRule(1, rule)).isTrue();
+    }
+
+    @Test
+    public void mirrorOnlyTest() {
+        VotingAssociationCommunication mirrorOnly = spy(communication(false));
+
+        assertThat(mirrorOnly.isAdoptedRule(1, rule)).isFalse();
+        verify(mirrorOnly, never()).verifyProposal(anyInt(), anyString());
+        mirrorOnly.shutdown();
+    }
+}
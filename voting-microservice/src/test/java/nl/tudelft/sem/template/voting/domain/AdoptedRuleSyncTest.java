@@ -0,0 +1,66 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRule;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRuleRepository;
+import nl.tudelft.sem.template.voting.models.AssociationRulesModel;
+import nl.tudelft.sem.template.voting.models.RuleFingerprintsPageModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class AdoptedRuleSyncTest {
+
+    private VotingAssociationCommunication communication;
+    private AdoptedRuleRepository adoptedRuleRepository;
+    private AdoptedRuleSync sync;
+
+    /**
+     * Set up the sync with a mocked association microservice and adopted rule repository.
+     */
+    @BeforeEach
+    public void setup() {
+        communication = mock(VotingAssociationCommunication.class);
+        adoptedRuleRepository = mock(AdoptedRuleRepository.class);
+        sync = new AdoptedRuleSync(communication, adoptedRuleRepository,
+                new TransactionRetry(mock(PlatformTransactionManager.class), 1, 0), true, 60000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sync.shutdown();
+    }
+
+    @Test
+    public void seedsMissingRulesOfEveryPageTest() {
+        when(communication.getRuleFingerprints(0)).thenReturn(new RuleFingerprintsPageModel(
+                List.of(new AssociationRulesModel(1, List.of("f1", "f2"))), 1));
+        when(communication.getRuleFingerprints(1)).thenReturn(new RuleFingerprintsPageModel(
+                List.of(new AssociationRulesModel(2, List.of("f3"))), null));
+        when(adoptedRuleRepository.findFingerprintsByAssociationId(1)).thenReturn(List.of("f1"));
+        when(adoptedRuleRepository.findFingerprintsByAssociationId(2)).thenReturn(List.of());
+
+        assertThat(sync.sync()).isEqualTo(2);
+
+        verify(adoptedRuleRepository).save(argThat((AdoptedRule rule) -> rule.getAssociationId() == 1
+                && rule.getFingerprint().equals("f2")));
+        verify(adoptedRuleRepository).save(argThat((AdoptedRule rule) -> rule.getAssociationId() == 2
+                && rule.getFingerprint().equals("f3")));
+        verify(adoptedRuleRepository, times(2)).save(any());
+    }
+
+    @Test
+    public void seededRulesAreNotAddedAgainTest() {
+        when(communication.getRuleFingerprints(0)).thenReturn(new RuleFingerprintsPageModel(
+                List.of(new AssociationRulesModel(1, List.of("f1"))), null));
+        when(adoptedRuleRepository.findFingerprintsByAssociationId(1)).thenReturn(List.of("f1"));
+
+        assertThat(sync.sync()).isZero();
+        verify(adoptedRuleRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,65 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+import nl.tudelft.sem.template.voting.domain.archive.ArchivedBallots;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+import org.junit.jupiter.api.Test;
+
+public class ArchivedBallotsTest {
+
+    @Test
+    public void roundTripTest() {
+        ArchivedBallots ballots = new ArchivedBallots();
+        ballots.add("1", "for");
+        ballots.add("2", "against");
+        ballots.add("stemmer-ü", "for");
+        ballots.add("4", "a,b,c");
+
+        List<BallotModel> read = ArchivedBallots.read(ballots.toBytes());
+
+        assertThat(ballots.size()).isEqualTo(4);
+        assertThat(read).containsExactly(new BallotModel("1", "for"), new BallotModel("2", "against"),
+                new BallotModel("stemmer-ü", "for"), new BallotModel("4", "a,b,c"));
+        assertThatThrownBy(() -> ballots.add("5", "for")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void emptyTest() {
+        assertThat(ArchivedBallots.read(new ArchivedBallots().toBytes())).isEmpty();
+    }
+
+    @Test
+    public void corruptBlobIsRejectedTest() {
+        ArchivedBallots ballots = new ArchivedBallots();
+        for (int i = 0; i < 1000; i++) {
+            ballots.add("voter" + i, "candidate" + (i % 7));
+        }
+        byte[] bytes = ballots.toBytes();
+
+        assertThatThrownBy(() -> ArchivedBallots.read(new byte[] {1, 2, 3}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ArchivedBallots.read(Arrays.copyOf(bytes, bytes.length / 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void hundredThousandBallotsTest() {
+        int voters = 100000;
+        ArchivedBallots ballots = new ArchivedBallots();
+        for (int i = 0; i < voters; i++) {
+            ballots.add("voter" + i, i % 3 == 0 ? "for" : i % 3 == 1 ? "against" : "abstain");
+        }
+
+        byte[] bytes = ballots.toBytes();
+        List<BallotModel> read = ArchivedBallots.read(bytes);
+
+        assertThat(read).hasSize(voters);
+        assertThat(read.get(500)).isEqualTo(new BallotModel("voter500", "abstain"));
+        // The voter ids alone are about 1 MB uncompressed
+        assertThat(bytes.length).isLessThan(400 * 1024);
+    }
+}
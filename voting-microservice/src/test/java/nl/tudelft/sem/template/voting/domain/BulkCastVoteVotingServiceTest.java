@@ -0,0 +1,166 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallot;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.InvalidIdException;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallotRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+import nl.tudelft.sem.template.voting.models.BallotResultModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class BulkCastVoteVotingServiceTest {
+    @Autowired
+    private transient VotingService votingService;
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient ElectionBallotRepository electionBallotRepository;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient RuleVoteBallotRepository ruleVoteBallotRepository;
+    long dayInMs = 1000 * 60 * 60 * 24;
+    Set<String> members = Set.of("1", "2", "3");
+
+    private Election openElection(int associationId, String... candidates) {
+        Election election = new Election(associationId);
+        election.setEndDate(new Date(System.currentTimeMillis() + dayInMs));
+        for (String candidate : candidates) {
+            election.addCandidate(candidate);
+        }
+        return electionRepository.save(election);
+    }
+
+    private RuleVoting openRuleVoting(int associationId) {
+        RuleVoting ruleVoting = new RuleVoting(associationId, "1", "Bleep", null, VotingType.PROPOSAL);
+        ruleVoting.setEndDate(new Date(System.currentTimeMillis() + dayInMs));
+        return ruleVotingRepository.save(ruleVoting);
+    }
+
+    @Test
+    public void lastBallotOfVoterWinsTest() {
+        Election election = openElection(1, "a", "b");
+
+        List<BallotResultModel> results = votingService.castElectionVotes(1, List.of(
+                new BallotModel("1", "a"), new BallotModel("2", "a"), new BallotModel("1", "b")), members);
+
+        assertThat(results).extracting(BallotResultModel::getStatus).containsExactly(
+                BallotResultModel.SUPERSEDED, BallotResultModel.ACCEPTED, BallotResultModel.ACCEPTED);
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isEqualTo(2);
+        assertThat(electionRepository.findByAssociationId(1).get().tallyVotes())
+                .containsEntry("a", 1).containsEntry("b", 1);
+    }
+
+    @Test
+    public void invalidBallotsAreRejectedTest() {
+        Election election = openElection(1, "a");
+
+        List<BallotResultModel> results = votingService.castElectionVotes(1, Arrays.asList(
+                new BallotModel("1", "a"), new BallotModel("2", "nobody"), new BallotModel(null, "a"), null,
+                new BallotModel("stranger", "a")), members);
+
+        assertThat(results).extracting(BallotResultModel::getStatus).containsExactly(BallotResultModel.ACCEPTED,
+                BallotResultModel.REJECTED, BallotResultModel.REJECTED, BallotResultModel.REJECTED,
+                BallotResultModel.REJECTED);
+        assertThat(results.get(1).getMessage()).isEqualTo("Candidate with ID nobody does not exist.");
+        assertThat(results.get(4).getMessage()).isEqualTo("The voter is not a member of the association.");
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isEqualTo(1);
+    }
+
+    @Test
+    public void replaceStoredBallotsTest() {
+        Election election = openElection(1, "a", "b");
+        votingService.castElectionVote("1", 1, "a");
+        votingService.castElectionVote("2", 1, "a");
+
+        votingService.castElectionVotes(1, List.of(new BallotModel("1", "b"), new BallotModel("2", "a")), members);
+
+        ElectionBallot ballot = electionBallotRepository.findByElectionIdAndVoterId(election.getId(), "1").get();
+        assertThat(ballot.getCandidateId()).isEqualTo("b");
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isEqualTo(2);
+        Election stored = electionRepository.findByAssociationId(1).get();
+        assertThat(stored.tallyVotes()).containsEntry("a", 1).containsEntry("b", 1);
+    }
+
+    @Test
+    public void electionNotOpenTest() {
+        Election election = new Election(1);
+        electionRepository.save(election);
+
+        assertThatThrownBy(() -> votingService.castElectionVotes(1, List.of(new BallotModel("1", "a")), members))
+                .hasMessage("Too early to cast a vote.");
+    }
+
+    @Test
+    public void bulkRuleVotesTest() throws Exception {
+        RuleVoting ruleVoting = openRuleVoting(1);
+        votingService.castRuleVote(ruleVoting.getId(), "1", "for", 1);
+
+        List<BallotResultModel> results = votingService.castRuleVotes(ruleVoting.getId(), 1, List.of(
+                new BallotModel("1", "against"), new BallotModel("2", "for"), new BallotModel("3", "maybe"),
+                new BallotModel("2", "abstain")), members);
+
+        assertThat(results).extracting(BallotResultModel::getStatus).containsExactly(BallotResultModel.ACCEPTED,
+                BallotResultModel.SUPERSEDED, BallotResultModel.REJECTED, BallotResultModel.ACCEPTED);
+        RuleVoting stored = ruleVotingRepository.findById(ruleVoting.getId()).get();
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(ruleVoting.getId())).isEqualTo(2);
+        assertThat(stored.tallyVotes()).containsEntry("for", 0).containsEntry("against", 1)
+                .containsEntry("abstain", 1);
+    }
+
+    @Test
+    public void ruleVoteOfOtherAssociationTest() {
+        RuleVoting ruleVoting = openRuleVoting(1);
+
+        assertThatThrownBy(() -> votingService.castRuleVotes(ruleVoting.getId(), 2,
+                List.of(new BallotModel("1", "for")), members)).isInstanceOf(InvalidIdException.class);
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(ruleVoting.getId())).isZero();
+    }
+
+    /**
+     * Casting the ballots in bulk gives the same tally as casting them one by one.
+     */
+    @Test
+    public void bulkMatchesSingleVotesTest() {
+        int voters = 2000;
+        List<BallotModel> ballots = new ArrayList<>();
+        Set<String> voterIds = new HashSet<>();
+        for (int i = 0; i < voters; i++) {
+            ballots.add(new BallotModel("voter" + i, i % 3 == 0 ? "a" : "b"));
+            voterIds.add("voter" + i);
+        }
+        openElection(1, "a", "b");
+        openElection(2, "a", "b");
+
+        for (BallotModel ballot : ballots) {
+            votingService.castElectionVote(ballot.getVoterId(), 1, ballot.getVote());
+        }
+        votingService.castElectionVotes(2, ballots, voterIds);
+
+        assertThat(electionRepository.findByAssociationId(2).get().tallyVotes())
+                .isEqualTo(electionRepository.findByAssociationId(1).get().tallyVotes());
+    }
+}
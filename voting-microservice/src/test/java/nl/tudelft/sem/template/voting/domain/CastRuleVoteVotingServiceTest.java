@@ -7,9 +7,14 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
 import nl.tudelft.sem.template.voting.domain.rulevoting.InvalidIdException;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallotRepository;
 import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
 import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +34,10 @@ public class CastRuleVoteVotingServiceTest {
     private transient VotingService votingService;
     @Autowired
     private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient RuleVoteBallotRepository ruleVoteBallotRepository;
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
     private Long ruleVoteId;
     private String userId;
     private RuleVoting ruleVoting;
@@ -46,6 +55,11 @@ public class CastRuleVoteVotingServiceTest {
         this.ruleVotingRepository.save(this.ruleVoting);
     }
 
+    private List<Pair<String, String>> votes(long ruleVotingId) {
+        return ruleVoteBallotRepository.findAllByRuleVotingIdOrderByIdAsc(ruleVotingId).stream()
+                .map(ballot -> Pair.of(ballot.getVoterId(), ballot.getVote())).collect(Collectors.toList());
+    }
+
     @Test
     public void castRuleVoteInFavourTest() throws InvalidIdException {
         this.ruleVoting = ruleVotingRepository.findById(this.ruleVoteId).orElseGet(null);
@@ -61,7 +75,7 @@ public class CastRuleVoteVotingServiceTest {
         this.ruleVoting = ruleVotingRepository.findById(this.ruleVoteId).orElseGet(null);
         List<Pair<String, String>> expected = new ArrayList<>();
         expected.add(Pair.of(this.userId, "for"));
-        assertThat(this.ruleVoting.getVotes()).isEqualTo(expected);
+        assertThat(votes(this.ruleVoteId)).isEqualTo(expected);
 
     }
 
@@ -80,7 +94,7 @@ public class CastRuleVoteVotingServiceTest {
         this.ruleVoting = ruleVotingRepository.findById(this.ruleVoteId).orElseGet(null);
         List<Pair<String, String>> expected = new ArrayList<>();
         expected.add(Pair.of(this.userId, "abstain"));
-        assertThat(this.ruleVoting.getVotes()).isEqualTo(expected);
+        assertThat(votes(this.ruleVoteId)).isEqualTo(expected);
 
     }
 
@@ -99,7 +113,7 @@ public class CastRuleVoteVotingServiceTest {
         this.ruleVoting = ruleVotingRepository.findById(this.ruleVoteId).orElseGet(null);
         List<Pair<String, String>> expected = new ArrayList<>();
         expected.add(Pair.of(this.userId, "against"));
-        assertThat(this.ruleVoting.getVotes()).isEqualTo(expected);
+        assertThat(votes(this.ruleVoteId)).isEqualTo(expected);
     }
 
     @Test
@@ -162,6 +176,28 @@ public class CastRuleVoteVotingServiceTest {
         this.ruleVoting = ruleVotingRepository.findById(this.ruleVoteId).orElseGet(null);
         List<Pair<String, String>> expected = new ArrayList<>();
         expected.add(Pair.of(this.userId, "for"));
-        assertThat(this.ruleVoting.getVotes()).isEqualTo(expected);
+        assertThat(votes(this.ruleVoteId)).isEqualTo(expected);
+    }
+
+    @Test
+    public void castingDoesNotLoadTheOtherBallotsTest() throws InvalidIdException {
+        RuleVoting large = new RuleVoting(12, this.userId, "Bloop", null, VotingType.PROPOSAL);
+        large.setEndDate(new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000));
+        for (int i = 0; i < 1000; i++) {
+            large.addVote(Pair.of("voter" + i, "for"));
+        }
+        ruleVotingRepository.save(large);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        votingService.castRuleVote(large.getId(), "voter5", "against", this.associationId);
+        votingService.castRuleVote(large.getId(), "newcomer", "abstain", this.associationId);
+
+        assertThat(statistics.getCollectionStatistics(RuleVoting.class.getName() + ".ballots").getLoadCount())
+                .isZero();
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(large.getId())).isEqualTo(1001);
+        assertThat(ruleVotingRepository.findById(large.getId()).get().tallyVotes())
+                .containsEntry("for", 998).containsEntry("against", 1).containsEntry("abstain", 1);
     }
 }
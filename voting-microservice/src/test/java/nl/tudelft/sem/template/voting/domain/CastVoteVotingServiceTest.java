@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import nl.tudelft.sem.template.voting.domain.election.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,7 +12,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.util.Pair;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -26,6 +26,8 @@ public class CastVoteVotingServiceTest {
     private transient VotingService votingService;
     @Autowired
     private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient ElectionBallotRepository electionBallotRepository;
     private String voterId;
     private int associationId;
     public String candidateId;
@@ -106,10 +108,10 @@ public class CastVoteVotingServiceTest {
         Election res = electionRepository.findByAssociationId(associationId).get();
         String resCandidate = "";
         int count = 0;
-        for (Pair<String, String> vote : res.getVotes()) {
-            if (vote.getFirst().equals(voterId)) {
+        for (ElectionBallot ballot : electionBallotRepository.findAllByElectionId(res.getId())) {
+            if (ballot.getVoterId().equals(voterId)) {
                 count++;
-                resCandidate = vote.getSecond();
+                resCandidate = ballot.getCandidateId();
             }
         }
 
@@ -132,10 +134,10 @@ public class CastVoteVotingServiceTest {
         Election res = electionRepository.findByAssociationId(associationId).get();
         String resCandidate = "";
         int count = 0;
-        for (Pair<String, String> vote : res.getVotes()) {
-            if (vote.getFirst().equals(voterId)) {
+        for (ElectionBallot ballot : electionBallotRepository.findAllByElectionId(res.getId())) {
+            if (ballot.getVoterId().equals(voterId)) {
                 count++;
-                resCandidate = vote.getSecond();
+                resCandidate = ballot.getCandidateId();
             }
         }
 
@@ -143,6 +145,24 @@ public class CastVoteVotingServiceTest {
         assert resCandidate.equals("abc");
     }
 
+    @Test
+    public void changeVoteKeepsOtherBallotsTest() {
+        Election election = new Election(associationId);
+        election.setEndDate(new Date(System.currentTimeMillis() + (int) (0.5 * dayInMs)));
+        election.addCandidate(candidateId);
+        election.addCandidate("abc");
+        electionRepository.save(election);
+
+        votingService.castElectionVote(voterId, associationId, candidateId);
+        votingService.castElectionVote("a", associationId, "abc");
+        votingService.castElectionVote(voterId, associationId, "abc");
+
+        Election res = electionRepository.findWithBallotsById(election.getId()).get();
+        assertThat(electionBallotRepository.countByElectionId(res.getId())).isEqualTo(2);
+        assertThat(res.tallyVotes().get("abc")).isEqualTo(2);
+        assertThat(res.tallyVotes().get(candidateId)).isEqualTo(0);
+    }
+
     @Test
     public void associationMissingTest() {
         Election election = new Election(associationId + 1);
@@ -153,4 +173,65 @@ public class CastVoteVotingServiceTest {
             votingService.castElectionVote(voterId, associationId, candidateId);
         }).hasMessage("Association with ID " + associationId + " does not have an active election.");
     }
+
+    @Test
+    public void castRankedVoteTest() {
+        Election election = new Election(associationId, 2);
+        election.setEndDate(new Date(System.currentTimeMillis() + (int) (0.5 * dayInMs)));
+        election.addCandidate(candidateId);
+        election.addCandidate("abc");
+        election.addCandidate("xyz");
+        electionRepository.save(election);
+
+        String result = votingService.castRankedElectionVote(voterId, associationId, List.of("abc", candidateId));
+        // Changing only the lower preferences keeps the first preference tally
+        votingService.castRankedElectionVote(voterId, associationId, List.of("abc", "xyz", candidateId));
+
+        assertThat(result).isEqualTo("The voter with ID " + voterId + " ranked the candidates abc, " + candidateId + ".");
+        ElectionBallot ballot = electionBallotRepository.findByElectionIdAndVoterId(election.getId(), voterId).get();
+        assertThat(ballot.getCandidateId()).isEqualTo("abc");
+        assertThat(ballot.getRanking()).containsExactly("abc", "xyz", candidateId);
+        Election res = electionRepository.findById(election.getId()).get();
+        assertThat(res.getSeats()).isEqualTo(2);
+        assertThat(res.tallyVotes().get("abc")).isEqualTo(1);
+
+        // A single choice replaces the ranking
+        votingService.castElectionVote(voterId, associationId, candidateId);
+        ballot = electionBallotRepository.findByElectionIdAndVoterId(election.getId(), voterId).get();
+        assertThat(ballot.getRanking()).containsExactly(candidateId);
+        assertThat(electionRepository.findById(election.getId()).get().tallyVotes())
+                .containsEntry("abc", 0).containsEntry(candidateId, 1);
+    }
+
+    @Test
+    public void rankingWithCommaInCandidateIdTest() {
+        Election election = new Election(associationId, 2);
+        election.setEndDate(new Date(System.currentTimeMillis() + (int) (0.5 * dayInMs)));
+        election.addCandidate(candidateId);
+        election.addCandidate("a,b");
+        electionRepository.save(election);
+
+        votingService.castRankedElectionVote(voterId, associationId, List.of("a,b", candidateId));
+
+        ElectionBallot ballot = electionBallotRepository.findByElectionIdAndVoterId(election.getId(), voterId).get();
+        assertThat(ballot.getRanking()).containsExactly("a,b", candidateId);
+        assertThat(ElectionBallot.decodeRanking(ElectionBallot.encodeRanking(List.of("[\"", "a,b"))))
+                .containsExactly("[\"", "a,b");
+    }
+
+    @Test
+    public void invalidRankingTest() {
+        Election election = new Election(associationId);
+        election.setEndDate(new Date(System.currentTimeMillis() + (int) (0.5 * dayInMs)));
+        election.addCandidate(candidateId);
+        electionRepository.save(election);
+
+        assertThatThrownBy(() -> votingService.castRankedElectionVote(voterId, associationId, List.of()))
+                .hasMessage("The ranking is empty.");
+        assertThatThrownBy(() -> votingService.castRankedElectionVote(voterId, associationId,
+                List.of(candidateId, candidateId))).hasMessage("The ranking contains a candidate more than once.");
+        assertThatThrownBy(() -> votingService.castRankedElectionVote(voterId, associationId,
+                List.of(candidateId, "abc"))).hasMessage("Candidate with ID abc does not exist.");
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isZero();
+    }
 }
@@ -0,0 +1,122 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.util.Pair;
+
+public class CompactBallotsTest {
+
+    @Test
+    public void castAndRecastTest() {
+        CompactBallots ballots = new CompactBallots();
+
+        assertThat(ballots.cast("1", "a")).isNull();
+        assertThat(ballots.cast("2", "a")).isNull();
+        assertThat(ballots.cast("1", "b")).isEqualTo("a");
+
+        assertThat(ballots.size()).isEqualTo(2);
+        assertThat(ballots.getChoice("1")).isEqualTo("b");
+        assertThat(ballots.getChoice("2")).isEqualTo("a");
+        assertThat(ballots.getChoice("3")).isNull();
+        assertThat(ballots.tally()).isEqualTo(Map.of("a", 1, "b", 1));
+    }
+
+    @Test
+    public void emptyTest() {
+        CompactBallots ballots = new CompactBallots();
+
+        assertThat(ballots.size()).isZero();
+        assertThat(ballots.tally()).isEmpty();
+        assertThat(ballots.getChoice("1")).isNull();
+        assertThat(CompactBallots.fromBytes(ballots.toBytes()).toPairs()).isEmpty();
+    }
+
+    @Test
+    public void pairsRoundTripTest() {
+        List<Pair<String, String>> votes = List.of(Pair.of("1", "a"), Pair.of("2", "b"),
+                Pair.of("stemmer-ü", "a"), Pair.of("1", "c"));
+
+        CompactBallots ballots = CompactBallots.of(votes);
+
+        assertThat(ballots.toPairs()).containsExactly(Pair.of("1", "c"), Pair.of("2", "b"),
+                Pair.of("stemmer-ü", "a"));
+        // Lookups still work after trim dropped the index
+        assertThat(ballots.getChoice("stemmer-ü")).isEqualTo("a");
+        assertThat(ballots.cast("3", "b")).isNull();
+        assertThat(ballots.tally()).isEqualTo(Map.of("a", 1, "b", 2, "c", 1));
+    }
+
+    @Test
+    public void binaryRoundTripTest() {
+        CompactBallots ballots = new CompactBallots();
+        for (int i = 0; i < 1000; i++) {
+            ballots.cast("voter" + i, "candidate" + (i % 7));
+        }
+
+        CompactBallots read = CompactBallots.fromBytes(ballots.toBytes());
+
+        assertThat(read.size()).isEqualTo(1000);
+        assertThat(read.tally()).isEqualTo(ballots.tally());
+        assertThat(read.toPairs()).isEqualTo(ballots.toPairs());
+        assertThat(read.getChoice("voter500")).isEqualTo("candidate3");
+        assertThat(read.cast("voter500", "candidate0")).isEqualTo("candidate3");
+    }
+
+    @Test
+    public void unknownFormatIsRejectedTest() {
+        byte[] bytes = new CompactBallots().toBytes();
+        bytes[0] = 42;
+
+        assertThatThrownBy(() -> CompactBallots.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompactBallots.fromBytes(new byte[] {1, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void moreThanByteOfChoicesTest() {
+        CompactBallots ballots = new CompactBallots();
+        ballots.cast("early", "candidate0");
+        for (int i = 0; i < 300; i++) {
+            ballots.cast("voter" + i, "candidate" + i);
+        }
+        ballots.cast("early", "candidate299");
+
+        assertThat(ballots.getChoice("early")).isEqualTo("candidate299");
+        assertThat(ballots.getChoice("voter0")).isEqualTo("candidate0");
+        assertThat(ballots.tally()).hasSize(300).containsEntry("candidate299", 2).containsEntry("candidate0", 1);
+        CompactBallots read = CompactBallots.fromBytes(ballots.toBytes());
+        assertThat(read.toPairs()).isEqualTo(ballots.toPairs());
+        assertThat(read.tally()).isEqualTo(ballots.tally());
+    }
+
+    @Test
+    public void tooManyChoicesTest() {
+        CompactBallots ballots = new CompactBallots();
+        for (int i = 0; i < CompactBallots.MAX_CHOICES; i++) {
+            ballots.cast("voter" + i, "candidate" + i);
+        }
+
+        assertThatThrownBy(() -> ballots.cast("voter", "one too many")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void hundredThousandVotersTest() {
+        int voters = 100000;
+        List<Pair<String, String>> votes = new ArrayList<>(voters);
+        for (int i = 0; i < voters; i++) {
+            votes.add(Pair.of("voter" + i, "candidate" + (i % 5)));
+        }
+
+        CompactBallots ballots = CompactBallots.of(votes);
+        Map<String, Integer> tally = ballots.tally();
+
+        assertThat(tally).hasSize(5).allSatisfy((candidate, count) -> assertThat(count).isEqualTo(voters / 5));
+        // The voter ids take 1 MB on their own, a list of Pairs takes about 10 MB
+        assertThat(ballots.estimatedHeapBytes()).isLessThan(2L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,132 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Casts the votes of hundreds of voters at the same time and checks that not a single ballot is lost.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ConcurrentCastVoteStressTest {
+    @Autowired
+    private transient VotingService votingService;
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient ElectionBallotRepository electionBallotRepository;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient TransactionTemplate transactionTemplate;
+
+    private final int voters = 300;
+    private final long dayInMs = 1000 * 60 * 60 * 24;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(64);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs all tasks on the pool, releasing them at the same moment, and rethrows the first failure.
+     */
+    private void runConcurrently(List<Callable<String>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (Callable<String> task : tasks) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void noElectionBallotIsLostTest() throws Exception {
+        Election election = new Election(1);
+        election.setEndDate(new Date(System.currentTimeMillis() + dayInMs));
+        election.addCandidate("a");
+        election.addCandidate("b");
+        electionRepository.save(election);
+
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < voters; i++) {
+            String voterId = "voter" + i;
+            tasks.add(() -> votingService.castElectionVote(voterId, 1, "a"));
+            // Every other voter immediately changes their mind, racing their own first ballot
+            if (i % 2 == 0) {
+                tasks.add(() -> votingService.castElectionVote(voterId, 1, "b"));
+            }
+        }
+        runConcurrently(tasks);
+
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isEqualTo(voters);
+        transactionTemplate.execute(status -> {
+            Election stored = electionRepository.findWithBallotsById(election.getId()).get();
+            assertThat(stored.tallyVotes()).isEqualTo(stored.recountVotes());
+            assertThat(stored.tallyVotes().values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(voters);
+            return null;
+        });
+    }
+
+    @Test
+    public void noRuleVoteIsLostTest() throws Exception {
+        RuleVoting ruleVoting = new RuleVoting(1, "1", "Bleep", null, VotingType.PROPOSAL);
+        ruleVoting.setEndDate(new Date(System.currentTimeMillis() + dayInMs));
+        ruleVotingRepository.save(ruleVoting);
+
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < voters; i++) {
+            String userId = "voter" + i;
+            String vote = i % 3 == 0 ? "for" : i % 3 == 1 ? "against" : "abstain";
+            tasks.add(() -> votingService.castRuleVote(ruleVoting.getId(), userId, vote, 1));
+        }
+        runConcurrently(tasks);
+
+        transactionTemplate.execute(status -> {
+            RuleVoting stored = ruleVotingRepository.findById(ruleVoting.getId()).get();
+            assertThat(stored.getVotes()).hasSize(voters);
+            assertThat(stored.tallyVotes()).isEqualTo(stored.recountVotes());
+            assertThat(stored.tallyVotes()).containsEntry("for", voters / 3)
+                    .containsEntry("against", voters / 3).containsEntry("abstain", voters / 3);
+            return null;
+        });
+    }
+}
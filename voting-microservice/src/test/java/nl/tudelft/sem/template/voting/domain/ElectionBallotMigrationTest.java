@@ -0,0 +1,70 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import nl.tudelft.sem.template.voting.domain.election.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Pair;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ElectionBallotMigrationTest {
+    @Autowired
+    private transient ElectionBallotMigration electionBallotMigration;
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient ElectionBallotRepository electionBallotRepository;
+
+    @Test
+    public void migrateLegacyVotesTest() {
+        Election election = new Election(1);
+        election.addCandidate("2");
+        election.addCandidate("3");
+        election.getLegacyVotes().add(Pair.of("a", "2"));
+        election.getLegacyVotes().add(Pair.of("b", "3"));
+        election.getLegacyVotes().add(Pair.of("a", "3"));
+        electionRepository.save(election);
+
+        assertThat(electionBallotMigration.migrate()).isEqualTo(2);
+
+        List<ElectionBallot> ballots = electionBallotRepository.findAllByElectionId(election.getId());
+        assertThat(ballots).hasSize(2);
+        assertThat(electionBallotRepository.findByElectionIdAndVoterId(election.getId(), "a").get()
+                .getCandidateId()).isEqualTo("3");
+        assertThat(electionRepository.findAllWithLegacyVotes()).isEmpty();
+    }
+
+    @Test
+    public void createMissingTallyTest() {
+        Election election = new Election(1);
+        election.addCandidate("2");
+        election.addCandidate("3");
+        election.getTally().clear();
+        election = electionRepository.save(election);
+        electionBallotRepository.save(new ElectionBallot(election, "a", "2"));
+
+        assertThat(electionBallotMigration.createTallies()).isEqualTo(1);
+
+        assertThat(electionRepository.findById(election.getId()).get().getTally())
+                .containsEntry("2", 1).containsEntry("3", 0).hasSize(2);
+        assertThat(electionBallotMigration.createTallies()).isZero();
+    }
+
+    @Test
+    public void migrateNothingTest() {
+        Election election = new Election(1);
+        electionRepository.save(election);
+
+        assertThat(electionBallotMigration.migrate()).isEqualTo(0);
+    }
+}
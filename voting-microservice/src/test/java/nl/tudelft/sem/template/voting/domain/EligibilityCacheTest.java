@@ -0,0 +1,100 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import nl.tudelft.sem.template.voting.domain.EligibilityCache.Check;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EligibilityCacheTest {
+    private EligibilityCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setup() {
+        cache = new EligibilityCache(60000, 100);
+        loads = new AtomicInteger();
+    }
+
+    private boolean load(boolean eligible) {
+        loads.incrementAndGet();
+        return eligible;
+    }
+
+    @Test
+    public void repeatedCheckIsHitTest() {
+        assertThat(cache.get(Check.CANDIDATE, "a", 1, () -> load(true))).isTrue();
+        assertThat(cache.get(Check.CANDIDATE, "a", 1, () -> load(false))).isTrue();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.snapshot().getHits()).isEqualTo(1);
+        assertThat(cache.snapshot().getMisses()).isEqualTo(1);
+        assertThat(cache.snapshot().getHitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void checksAndAssociationsAreSeparateTest() {
+        cache.get(Check.CANDIDATE, "a", 1, () -> load(true));
+
+        assertThat(cache.get(Check.COUNCIL_MEMBER, "a", 1, () -> load(false))).isFalse();
+        assertThat(cache.get(Check.CANDIDATE, "a", 2, () -> load(false))).isFalse();
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(cache.snapshot().getSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void expiredAnswerIsLoadedAgainTest() {
+        cache = new EligibilityCache(0, 100);
+        cache.get(Check.CANDIDATE, "a", 1, () -> load(true));
+
+        assertThat(cache.get(Check.CANDIDATE, "a", 1, () -> load(false))).isFalse();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidateUserTest() {
+        cache.get(Check.CANDIDATE, "a", 1, () -> load(true));
+        cache.get(Check.CANDIDATE, "a", 2, () -> load(true));
+        cache.get(Check.CANDIDATE, "b", 1, () -> load(true));
+
+        cache.invalidate(List.of("a"), null);
+
+        assertThat(cache.get(Check.CANDIDATE, "a", 2, () -> load(false))).isFalse();
+        assertThat(cache.get(Check.CANDIDATE, "b", 1, () -> load(false))).isTrue();
+        assertThat(cache.snapshot().getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateAssociationTest() {
+        cache.get(Check.COUNCIL_MEMBER, "a", 1, () -> load(true));
+        cache.get(Check.COUNCIL_MEMBER, "a", 2, () -> load(true));
+
+        cache.invalidate(null, 1);
+
+        assertThat(cache.get(Check.COUNCIL_MEMBER, "a", 1, () -> load(false))).isFalse();
+        assertThat(cache.get(Check.COUNCIL_MEMBER, "a", 2, () -> load(false))).isTrue();
+    }
+
+    @Test
+    public void invalidationDuringLoadWinsTest() {
+        cache.get(Check.CANDIDATE, "a", 1, () -> {
+            cache.invalidateUser("a");
+            return load(true);
+        });
+
+        assertThat(cache.get(Check.CANDIDATE, "a", 1, () -> load(false))).isFalse();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void fullCacheIsEmptiedTest() {
+        cache = new EligibilityCache(60000, 2);
+        cache.get(Check.CANDIDATE, "a", 1, () -> load(true));
+        cache.get(Check.CANDIDATE, "b", 1, () -> load(true));
+        cache.get(Check.CANDIDATE, "c", 1, () -> load(true));
+
+        assertThat(cache.snapshot().getSize()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,150 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.List;
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRuleRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.utils.RequestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+public class ForwardResultsSchedulerTest {
+
+    private ElectionRepository electionRepository;
+    private RuleVotingRepository ruleVotingRepository;
+    private VotingLeases votingLeases;
+    private VotingAssociationCommunication communication;
+
+    /**
+     * Set up a VotingAssociationCommunication with mocked repositories and leases.
+     */
+    @BeforeEach
+    public void setup() {
+        electionRepository = mock(ElectionRepository.class);
+        ruleVotingRepository = mock(RuleVotingRepository.class);
+        votingLeases = mock(VotingLeases.class);
+        communication = spy(new VotingAssociationCommunication(electionRepository,
+                mock(ElectionBallotRepository.class), ruleVotingRepository, mock(AdoptedRuleRepository.class),
+                mock(BallotWriter.class), mock(EligibilityCache.class), mock(TransactionRetry.class),
+                mock(ResultOutbox.class), votingLeases, mock(VotingArchive.class), mock(RequestUtil.class),
+                mock(RestTemplate.class), "http://localhost:8084", true, 60000, 2, 0, true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        communication.shutdown();
+    }
+
+    private Election election(long id) {
+        Election election = new Election(1);
+        election.setId(id);
+        return election;
+    }
+
+    @Test
+    public void drainAllFinishedElectionsTest() {
+        List<Election> finished = List.of(election(1), election(2), election(3));
+        when(votingLeases.claimElections(any())).thenReturn(finished, List.of());
+        doReturn(true).when(communication).forwardElectionResult(any());
+
+        communication.forwardElectionResultsScheduler();
+
+        for (Election election : finished) {
+            verify(communication).forwardElectionResult(election);
+        }
+        assertThat(communication.getElectionResultsWaiting()).isEqualTo(0);
+    }
+
+    @Test
+    public void failingElectionDoesNotBlockOthersTest() {
+        Election failing = election(1);
+        List<Election> finished = List.of(failing, election(2), election(3));
+        when(votingLeases.claimElections(any())).thenReturn(finished, List.of());
+        doReturn(true).when(communication).forwardElectionResult(any());
+        doThrow(new IllegalStateException("Connection refused")).when(communication).forwardElectionResult(failing);
+
+        communication.forwardElectionResultsScheduler();
+
+        verify(communication, times(3)).forwardElectionResult(any());
+        assertThat(communication.getElectionResultsWaiting()).isEqualTo(1);
+    }
+
+    @Test
+    public void retryFailedElectionsLaterTest() {
+        Election failing = election(1);
+        when(votingLeases.claimElections(any())).thenReturn(List.of(failing), List.of());
+        doReturn(false).when(communication).forwardElectionResult(failing);
+
+        communication.forwardElectionResultsScheduler();
+
+        verify(votingLeases).postponeElection(eq(1L), any());
+        assertThat(communication.getDeadlineQueue().size()).isEqualTo(1);
+        assertThat(communication.getDeadlineQueue().nextDeadline()).hasValueSatisfying(next ->
+                assertThat(next).isAfter(new Date(System.currentTimeMillis() + 30000)));
+    }
+
+    @Test
+    public void rebuildDeadlinesOnStartupTest() {
+        Date later = new Date(System.currentTimeMillis() + 3600000);
+        Date soon = new Date(System.currentTimeMillis() + 60000);
+        when(electionRepository.findAllEndDates()).thenReturn(List.of(later));
+        when(ruleVotingRepository.findAllEndDates()).thenReturn(List.of(soon));
+
+        communication.startForwarding();
+
+        assertThat(communication.getDeadlineQueue().size()).isEqualTo(2);
+        assertThat(communication.getDeadlineQueue().nextDeadline()).contains(soon);
+        verify(votingLeases, never()).claimElections(any());
+        verify(votingLeases, never()).claimRuleVotings(any());
+    }
+
+    @Test
+    public void createdVotingIsScheduledTest() {
+        when(electionRepository.save(any())).then(invocation -> invocation.getArgument(0));
+
+        communication.createElection(VotingType.ELECTION, 1, null, null, null);
+
+        assertThat(communication.getDeadlineQueue().size()).isEqualTo(1);
+    }
+
+    @Test
+    public void drainRuleVotingsReportsWaitingTest() {
+        RuleVoting accepted = new RuleVoting(1, "1", "Bleep", null, VotingType.PROPOSAL);
+        RuleVoting rejected = new RuleVoting(1, "1", "Bloop", null, VotingType.PROPOSAL);
+        when(votingLeases.claimRuleVotings(any())).thenReturn(List.of(accepted, rejected), List.of());
+        doReturn(true).when(communication).forwardRuleVoteResult(accepted);
+        doReturn(false).when(communication).forwardRuleVoteResult(rejected);
+
+        communication.forwardRuleVoteResultsScheduler();
+
+        assertThat(communication.getRuleVoteResultsWaiting()).isEqualTo(1);
+    }
+
+    @Test
+    public void disabledForwardingTest() {
+        VotingAssociationCommunication disabled = new VotingAssociationCommunication(electionRepository,
+                mock(ElectionBallotRepository.class), ruleVotingRepository, mock(AdoptedRuleRepository.class),
+                mock(BallotWriter.class), mock(EligibilityCache.class), mock(TransactionRetry.class),
+                mock(ResultOutbox.class), votingLeases, mock(VotingArchive.class), mock(RequestUtil.class),
+                mock(RestTemplate.class), "http://localhost:8084", false, 60000, 1, 0, true);
+
+        disabled.forwardElectionResultsScheduler();
+        disabled.forwardRuleVoteResultsScheduler();
+        disabled.startForwarding();
+        disabled.shutdown();
+
+        verifyNoInteractions(electionRepository, ruleVotingRepository, votingLeases);
+    }
+}
@@ -0,0 +1,185 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.voting.domain.archive.ArchivedVotingRepository;
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.AdoptedRuleRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.utils.RequestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Runs the forwarding of several replicas against one database at the same time and checks that every
+ * finished voting is closed, and its result written to the outbox, exactly once.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class MultiReplicaForwardingTest {
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient ElectionBallotRepository electionBallotRepository;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient OutboxMessageRepository outboxMessageRepository;
+    @Autowired
+    private transient AdoptedRuleRepository adoptedRuleRepository;
+    @Autowired
+    private transient BallotWriter ballotWriter;
+    @Autowired
+    private transient EligibilityCache eligibilityCache;
+    @Autowired
+    private transient TransactionRetry transactionRetry;
+    @Autowired
+    private transient ResultOutbox resultOutbox;
+    @Autowired
+    private transient VotingArchive votingArchive;
+    @Autowired
+    private transient ArchivedVotingRepository archivedVotingRepository;
+    @Autowired
+    private transient RequestUtil requestUtil;
+    @Autowired
+    private transient RestTemplate restTemplate;
+
+    private final int replicas = 3;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private List<VotingAssociationCommunication> schedulers;
+    private ExecutorService executor;
+
+    /**
+     * Set up one scheduler per replica, each with its own leases, sharing the database.
+     */
+    @BeforeEach
+    public void setup() {
+        schedulers = new ArrayList<>();
+        for (int i = 0; i < replicas; i++) {
+            VotingLeases leases = new VotingLeases(electionRepository, ruleVotingRepository, "replica-" + i, 60000, 4);
+            schedulers.add(new VotingAssociationCommunication(electionRepository, electionBallotRepository,
+                    ruleVotingRepository, adoptedRuleRepository, ballotWriter, eligibilityCache, transactionRetry,
+                    resultOutbox, leases, votingArchive, requestUtil, restTemplate, "http://localhost:8084", true,
+                    60000, 2, 0, true));
+        }
+        executor = Executors.newFixedThreadPool(replicas);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        schedulers.forEach(VotingAssociationCommunication::shutdown);
+    }
+
+    private void runAllReplicas(boolean elections) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (VotingAssociationCommunication scheduler : schedulers) {
+            tasks.add(() -> {
+                start.await();
+                if (elections) {
+                    scheduler.forwardElectionResultsScheduler();
+                } else {
+                    scheduler.forwardRuleVoteResultsScheduler();
+                }
+                return null;
+            });
+        }
+        List<Future<Void>> results = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            results.add(executor.submit(task));
+        }
+        start.countDown();
+        for (Future<Void> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private Set<Integer> forwardedAssociations(String path) throws Exception {
+        Set<Integer> associations = new HashSet<>();
+        for (OutboxMessage message : outboxMessageRepository.findAll()) {
+            if (message.getPath().equals(path)) {
+                assertThat(associations.add(mapper.readTree(message.getPayload()).get("associationId").asInt()))
+                        .as("result of association forwarded twice").isTrue();
+            }
+        }
+        return associations;
+    }
+
+    @Test
+    public void everyElectionIsForwardedOnceTest() throws Exception {
+        int elections = 40;
+        for (int i = 1; i <= elections; i++) {
+            Election election = new Election(i);
+            election.setEndDate(new Date(System.currentTimeMillis() - 1000));
+            electionRepository.save(election);
+        }
+
+        runAllReplicas(true);
+
+        assertThat(forwardedAssociations("/association/update-council")).hasSize(elections);
+        assertThat(electionRepository.findAllFinishedElections(new Date()).orElse(List.of())).isEmpty();
+        // Every closed election was archived once and replaced by a new one
+        assertThat(archivedVotingRepository.count()).isEqualTo(elections);
+        assertThat(electionRepository.count()).isEqualTo(elections);
+    }
+
+    @Test
+    public void everyRuleVotingIsForwardedOnceTest() throws Exception {
+        int ruleVotings = 25;
+        for (int i = 1; i <= ruleVotings; i++) {
+            RuleVoting ruleVoting = new RuleVoting(i, "1", "Rule " + i, null, VotingType.PROPOSAL);
+            ruleVoting.setEndDate(new Date(System.currentTimeMillis() - 1000));
+            ruleVotingRepository.save(ruleVoting);
+        }
+
+        runAllReplicas(false);
+
+        assertThat(forwardedAssociations("/association/update-rules")).hasSize(ruleVotings);
+        assertThat(ruleVotingRepository.count()).isZero();
+        assertThat(archivedVotingRepository.count()).isEqualTo(ruleVotings);
+    }
+
+    @Test
+    public void leasedVotingIsSkippedByOtherReplicaTest() {
+        Election election = new Election(1);
+        election.setEndDate(new Date(System.currentTimeMillis() - 1000));
+        electionRepository.save(election);
+
+        VotingLeases first = new VotingLeases(electionRepository, ruleVotingRepository, "first", 60000, 4);
+        VotingLeases second = new VotingLeases(electionRepository, ruleVotingRepository, "second", 60000, 4);
+
+        assertThat(first.claimElections(new Date())).hasSize(1);
+        assertThat(second.claimElections(new Date())).isEmpty();
+
+        // Once the lease runs out the other replica may take over
+        first.postponeElection(election.getId(), new Date(System.currentTimeMillis() - 1));
+        assertThat(second.claimElections(new Date())).hasSize(1);
+    }
+}
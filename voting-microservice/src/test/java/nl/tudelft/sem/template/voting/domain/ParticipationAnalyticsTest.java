@@ -0,0 +1,162 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Date;
+import nl.tudelft.sem.template.voting.domain.analytics.ParticipationAnalytics;
+import nl.tudelft.sem.template.voting.domain.analytics.ParticipationReport;
+import nl.tudelft.sem.template.voting.domain.analytics.ParticipationStats;
+import nl.tudelft.sem.template.voting.domain.archive.ArchivedBallots;
+import nl.tudelft.sem.template.voting.domain.archive.ArchivedVoting;
+import nl.tudelft.sem.template.voting.domain.archive.ArchivedVotingRepository;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Pair;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ParticipationAnalyticsTest {
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient ArchivedVotingRepository archivedVotingRepository;
+    @Autowired
+    private transient BallotWriter ballotWriter;
+    @Autowired
+    private transient PlatformTransactionManager transactionManager;
+
+    private final long day = 24L * 60 * 60 * 1000;
+    private ParticipationAnalytics analytics;
+
+    /**
+     * Set up analytics that reuse a report for an hour and split down to two associations per task.
+     */
+    @BeforeEach
+    public void setup() {
+        analytics = new ParticipationAnalytics(electionRepository, ruleVotingRepository, archivedVotingRepository,
+                ballotWriter, new ObjectMapper(), transactionManager, 3600000, 4, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        analytics.shutdown();
+    }
+
+    private void archiveRuleVote(int associationId, boolean passed, int abstentions, long endDate) {
+        ArchivedBallots ballots = new ArchivedBallots();
+        ballots.add("1", passed ? "for" : "against");
+        for (int i = 0; i < abstentions; i++) {
+            ballots.add("abstainer" + i, "abstain");
+        }
+        String tally = "{\"for\":" + (passed ? 1 : 0) + ",\"against\":" + (passed ? 0 : 1)
+                + ",\"abstain\":" + abstentions + "}";
+        archivedVotingRepository.save(new ArchivedVoting("PROPOSAL", 1, associationId, new Date(endDate - day),
+                new Date(endDate), passed ? "passed" : "rejected", tally, ballots));
+    }
+
+    @Test
+    public void openAndArchivedVotingsTest() {
+        long now = System.currentTimeMillis();
+        Election election = new Election(1);
+        election.addCandidate("a");
+        election.addVote(Pair.of("1", "a"));
+        election.addVote(Pair.of("2", "a"));
+        electionRepository.save(election);
+        RuleVoting ruleVoting = new RuleVoting(1, "42", "Be nice.", null, VotingType.PROPOSAL);
+        ruleVoting.castVote("1", "for");
+        ruleVoting.castVote("2", "abstain");
+        ruleVotingRepository.save(ruleVoting);
+        archiveRuleVote(1, true, 2, now - day);
+        archiveRuleVote(1, false, 0, now - day);
+        archiveRuleVote(2, true, 0, now - day);
+        // Out of the window of 30 days
+        archiveRuleVote(2, false, 0, now - 60 * day);
+
+        ParticipationReport report = analytics.report(30);
+
+        assertThat(report.getAssociations()).extracting(ParticipationStats::getAssociationId).containsExactly(1, 2);
+        ParticipationStats first = report.getAssociations().get(0);
+        assertThat(first.getOpenElections()).isEqualTo(1);
+        assertThat(first.getElectionBallots()).isEqualTo(2);
+        assertThat(first.getOpenRuleVotes()).isEqualTo(1);
+        assertThat(first.getClosedRuleVotes()).isEqualTo(2);
+        // 2 open ballots, 3 + 1 archived ballots, 1 + 2 abstentions
+        assertThat(first.getRuleVoteBallots()).isEqualTo(6);
+        assertThat(first.getAbstentionRate()).isEqualTo(0.5);
+        assertThat(first.getPassRate()).isEqualTo(0.5);
+        assertThat(first.getBallotsPerRuleVote()).isEqualTo(2);
+        assertThat(report.getTotals().getClosedRuleVotes()).isEqualTo(3);
+        assertThat(report.getTotals().getPassRate()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    public void bufferedBallotsAreCountedTest() {
+        RuleVoting ruleVoting = ruleVotingRepository.save(new RuleVoting(1, "42", "Be nice.", null,
+                VotingType.PROPOSAL));
+        ballotWriter.bufferRuleVote(ruleVoting.getId(), "1", "for");
+        ballotWriter.bufferRuleVote(ruleVoting.getId(), "2", "abstain");
+
+        ParticipationStats stats = analytics.report(30).getAssociations().get(0);
+
+        assertThat(stats.getRuleVoteBallots()).isEqualTo(2);
+        assertThat(stats.getAbstentions()).isEqualTo(1);
+        assertThat(ballotWriter.getBuffered()).isZero();
+    }
+
+    @Test
+    public void reportIsReusedWithinBucketTest() {
+        archiveRuleVote(1, true, 0, System.currentTimeMillis() - day);
+
+        ParticipationReport first = analytics.report(30);
+        archiveRuleVote(2, true, 0, System.currentTimeMillis() - day);
+        ParticipationReport second = analytics.report(30);
+
+        assertThat(second).isSameAs(first);
+        assertThat(analytics.getScans()).isEqualTo(1);
+        // Another window is its own report
+        assertThat(analytics.report(7).getTotals().getClosedRuleVotes()).isEqualTo(2);
+        assertThat(analytics.getScans()).isEqualTo(2);
+    }
+
+    @Test
+    public void manyAssociationsAreAggregatedInParallelTest() {
+        int associations = 200;
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= associations; i++) {
+            archiveRuleVote(i, i % 4 == 0, i % 3, now - day);
+        }
+
+        ParticipationReport report = analytics.report(30);
+
+        assertThat(report.getAssociations()).hasSize(associations);
+        assertThat(report.getTotals().getClosedRuleVotes()).isEqualTo(associations);
+        assertThat(report.getTotals().getRulesPassed()).isEqualTo(associations / 4);
+        long abstentions = report.getAssociations().stream().mapToLong(ParticipationStats::getAbstentions).sum();
+        assertThat(report.getTotals().getAbstentions()).isEqualTo(abstentions);
+        assertThat(report.getAssociations().get(8).getAbstentions()).isEqualTo(9 % 3);
+    }
+
+    @Test
+    public void invalidDaysTest() {
+        assertThatThrownBy(() -> analytics.report(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analytics.report(100000)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,111 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import nl.tudelft.sem.template.voting.domain.rulevoting.InvalidIdException;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.models.PendingVoteModel;
+import nl.tudelft.sem.template.voting.models.PendingVotesPageModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Pair;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class PendingVotesPageVotingServiceTest {
+    @Autowired
+    private transient VotingService votingService;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+
+    private RuleVoting votingRuleVoting(int associationId) {
+        RuleVoting ruleVoting = new RuleVoting(associationId, "Jeff", "Bleep", null, VotingType.PROPOSAL);
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        ruleVoting.setEndDate(cal.getTime());
+        return ruleVoting;
+    }
+
+    @Test
+    public void pagesAreOldestFirstTest() throws InvalidIdException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(ruleVotingRepository.save(votingRuleVoting(1)).getId());
+        }
+        ruleVotingRepository.save(votingRuleVoting(2));
+
+        PendingVotesPageModel first = votingService.getPendingVotes(1, "Gerard", 0, 2);
+        PendingVotesPageModel last = votingService.getPendingVotes(1, "Gerard", 2, 2);
+
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(first.getVotes()).extracting(PendingVoteModel::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(last.getVotes()).extracting(PendingVoteModel::getId).containsExactly(ids.get(4));
+    }
+
+    @Test
+    public void statusAndVoteOfUserTest() throws InvalidIdException {
+        RuleVoting voting = votingRuleVoting(1);
+        voting.addVote(Pair.of("Gerard", "for"));
+        voting.addVote(Pair.of("Jeff", "against"));
+        ruleVotingRepository.save(voting);
+
+        RuleVoting ended = new RuleVoting(1, "Jeff", "Bleep", "Blop", VotingType.AMENDMENT);
+        ended.addVote(Pair.of("Jeff", "for"));
+        ended.setEndDate(new Date(System.currentTimeMillis() - 1000));
+        ruleVotingRepository.save(ended);
+
+        RuleVoting reviewing = new RuleVoting(1, "Jeff", "Scoop", null, VotingType.PROPOSAL);
+        ruleVotingRepository.save(reviewing);
+
+        List<PendingVoteModel> votes = votingService.getPendingVotes(1, "Gerard", 0, 20).getVotes();
+
+        assertThat(votes).containsExactly(
+                new PendingVoteModel(voting.getId(), "PROPOSAL", PendingVoteModel.VOTING, "for"),
+                new PendingVoteModel(ended.getId(), "AMENDMENT", PendingVoteModel.ENDED, null),
+                new PendingVoteModel(reviewing.getId(), "PROPOSAL", PendingVoteModel.REVIEWING, null));
+    }
+
+    @Test
+    public void changedVoteIsShownTest() throws InvalidIdException {
+        RuleVoting voting = ruleVotingRepository.save(votingRuleVoting(1));
+        votingService.castRuleVote(voting.getId(), "Gerard", "for", 1);
+        votingService.castRuleVote(voting.getId(), "Gerard", "abstain", 1);
+
+        assertThat(votingService.getPendingVotes(1, "Gerard", 0, 20).getVotes().get(0).getVote())
+                .isEqualTo("abstain");
+    }
+
+    @Test
+    public void pageOutOfRangeTest() throws InvalidIdException {
+        ruleVotingRepository.save(votingRuleVoting(1));
+
+        PendingVotesPageModel page = votingService.getPendingVotes(1, "Gerard", 3, 20);
+
+        assertThat(page.getVotes()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidPageTest() {
+        assertThatThrownBy(() -> votingService.getPendingVotes(1, "Gerard", -1, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> votingService.getPendingVotes(1, "Gerard", 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> votingService.getPendingVotes(null, "Gerard", 0, 20))
+                .isInstanceOf(InvalidIdException.class);
+    }
+}
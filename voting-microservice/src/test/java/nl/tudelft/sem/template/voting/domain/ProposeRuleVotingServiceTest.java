@@ -25,6 +25,8 @@ public class ProposeRuleVotingServiceTest {
     private transient VotingService votingService;
     @Autowired
     private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient VotingAssociationCommunication votingAssociationCommunication;
     private int associationId;
     private String userId;
     private String rule;
@@ -90,4 +92,43 @@ public class ProposeRuleVotingServiceTest {
         }).isInstanceOf(InvalidRuleException.class);
     }
 
+    @Test
+    public void ruleDifferingInCaseAndSpacingAlreadyInAnotherVote() throws RuleTooLongException, InvalidRuleException {
+        votingService.proposeRule(this.type, this.associationId, this.userId, this.rule);
+
+        assertThatThrownBy(() -> {
+            votingService.proposeRule(this.type, this.associationId, this.userId,
+                    "  one should NOT murder   the other members!");
+        }).isInstanceOf(InvalidRuleException.class).hasMessage("The rule is already under evaluation.");
+        // Another association can propose the same rule
+        votingService.proposeRule(this.type, 2, this.userId, this.rule);
+    }
+
+    @Test
+    public void ruleAlreadyAdopted() throws RuleTooLongException, InvalidRuleException {
+        RuleVoting passed = new RuleVoting(this.associationId, this.userId, this.rule, null, this.type);
+        passed.castVote("1", "for");
+        passed = ruleVotingRepository.save(passed);
+        assertThat(votingAssociationCommunication.forwardRuleVoteResult(passed)).isTrue();
+
+        assertThat(votingAssociationCommunication.isAdoptedRule(this.associationId, this.rule.toUpperCase())).isTrue();
+        assertThatThrownBy(() -> {
+            votingService.proposeRule(this.type, this.associationId, this.userId, this.rule);
+        }).isInstanceOf(InvalidRuleException.class).hasMessage("This rule already exists.");
+    }
+
+    @Test
+    public void amendedRuleNoLongerAdopted() throws RuleTooLongException, InvalidRuleException {
+        RuleVoting proposal = new RuleVoting(this.associationId, this.userId, this.rule, null, this.type);
+        proposal.castVote("1", "for");
+        votingAssociationCommunication.forwardRuleVoteResult(ruleVotingRepository.save(proposal));
+        RuleVoting amendment = new RuleVoting(this.associationId, this.userId, this.rule, "Be nice.",
+                VotingType.AMENDMENT);
+        amendment.castVote("1", "for");
+        votingAssociationCommunication.forwardRuleVoteResult(ruleVotingRepository.save(amendment));
+
+        assertThat(votingAssociationCommunication.isAdoptedRule(this.associationId, this.rule)).isFalse();
+        assertThat(votingAssociationCommunication.isAdoptedRule(this.associationId, "Be nice.")).isTrue();
+        votingService.proposeRule(this.type, this.associationId, this.userId, this.rule);
+    }
 }
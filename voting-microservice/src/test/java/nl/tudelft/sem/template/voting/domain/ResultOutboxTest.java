@@ -0,0 +1,173 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.voting.models.RuleVoteResultRequestModel;
+import nl.tudelft.sem.template.voting.utils.RequestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+public class ResultOutboxTest {
+
+    private OutboxMessageRepository repository;
+    private RestTemplate restTemplate;
+    private ResultOutbox outbox;
+    private List<OutboxMessage> messages;
+
+    /**
+     * Set up an outbox with a mocked repository that keeps the messages in a list,
+     * and a RequestUtil that hands out a fixed token.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        messages = new ArrayList<>();
+        repository = mock(OutboxMessageRepository.class);
+        when(repository.save(any())).then(invocation -> {
+            OutboxMessage message = invocation.getArgument(0);
+            if (!messages.contains(message)) {
+                messages.add(message);
+            }
+            return message;
+        });
+        when(repository.claim(anyLong(), any(), any())).then(invocation ->
+                messages.stream().anyMatch(m -> m.getId() == invocation.<Long>getArgument(0)) ? 1 : 0);
+        when(repository.deleteDelivered(anyLong())).then(invocation ->
+                messages.removeIf(m -> m.getId() == invocation.<Long>getArgument(0)) ? 1 : 0);
+        when(repository.recordFailure(anyLong(), any(), any(), any())).thenReturn(1);
+        when(repository.findAllByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any())).then(invocation ->
+                messages.stream().filter(m -> !m.getNextAttemptAt().after(invocation.getArgument(0)))
+                        .collect(Collectors.toList()));
+        when(repository.findFirstByOrderByNextAttemptAtAsc()).thenReturn(Optional.empty());
+        when(repository.findFirstByOrderByCreatedAtAsc()).then(invocation -> messages.stream().findFirst());
+        when(repository.count()).then(invocation -> (long) messages.size());
+
+        RequestUtil requestUtil = mock(RequestUtil.class);
+        when(requestUtil.withServiceToken(anyString(), anyString(), any())).then(invocation ->
+                invocation.<Function<String, Object>>getArgument(2).apply("token"));
+        restTemplate = mock(RestTemplate.class);
+        outbox = new ResultOutbox(repository, requestUtil, restTemplate, new ObjectMapper(),
+                "http://localhost:8084", false, 1000, 4000, 50, 60000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        outbox.shutdown();
+    }
+
+    private RuleVoteResultRequestModel result() {
+        RuleVoteResultRequestModel model = new RuleVoteResultRequestModel();
+        model.setAssociationId(1);
+        model.setPassed(true);
+        return model;
+    }
+
+    @Test
+    public void deliveredMessageIsDeletedTest() {
+        when(restTemplate.postForEntity(eq("http://localhost:8084/association/update-rules"), any(), eq(String.class)))
+                .thenReturn(new ResponseEntity<>("ok", HttpStatus.OK));
+        outbox.enqueue("/association/update-rules", result());
+
+        assertThat(outbox.dispatch()).isEqualTo(1);
+        assertThat(messages).isEmpty();
+        assertThat(outbox.snapshot().getDelivered()).isEqualTo(1);
+        assertThat(outbox.snapshot().getPending()).isZero();
+    }
+
+    @Test
+    public void failedMessageIsRetriedWithBackoffTest() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        outbox.enqueue("/association/update-rules", result());
+        OutboxMessage message = messages.get(0);
+
+        long before = System.currentTimeMillis();
+        assertThat(outbox.dispatch()).isZero();
+
+        assertThat(message.getAttempts()).isEqualTo(1);
+        assertThat(message.getLastError()).isEqualTo("Connection refused");
+        assertThat(message.getNextAttemptAt().getTime()).isGreaterThanOrEqualTo(before + 1000);
+        assertThat(outbox.snapshot().getRetries()).isEqualTo(1);
+
+        // Not due yet, so nothing is attempted
+        assertThat(outbox.dispatch()).isZero();
+        assertThat(message.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void backoffDoublesUpToMaximumTest() {
+        assertThat(outbox.backoff(1)).isEqualTo(1000);
+        assertThat(outbox.backoff(2)).isEqualTo(2000);
+        assertThat(outbox.backoff(3)).isEqualTo(4000);
+        assertThat(outbox.backoff(40)).isEqualTo(4000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void idempotencyKeyIsKeptAcrossAttemptsTest() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenReturn(new ResponseEntity<>("error", HttpStatus.INTERNAL_SERVER_ERROR))
+                .thenReturn(new ResponseEntity<>("ok", HttpStatus.OK));
+        outbox.enqueue("/association/update-rules", result());
+        OutboxMessage message = messages.get(0);
+
+        outbox.dispatch();
+        message.failed(message.getLastError(), new Date(0));
+        outbox.dispatch();
+
+        ArgumentCaptor<HttpEntity<String>> requests = ArgumentCaptor.forClass((Class) HttpEntity.class);
+        verify(restTemplate, times(2)).postForEntity(anyString(), requests.capture(), eq(String.class));
+        assertThat(requests.getAllValues()).allSatisfy(request -> {
+            assertThat(request.getHeaders().getFirst(ResultOutbox.IDEMPOTENCY_KEY))
+                    .isEqualTo(message.getIdempotencyKey());
+            assertThat(request.getHeaders().getFirst("Authorization")).isEqualTo("Bearer token");
+            assertThat(request.getBody()).contains("\"associationId\":1");
+        });
+        assertThat(messages).isEmpty();
+    }
+
+    @Test
+    public void messageClaimedByOtherReplicaIsSkippedTest() {
+        outbox.enqueue("/association/update-rules", result());
+        when(repository.claim(anyLong(), any(), any())).thenReturn(0);
+
+        assertThat(outbox.dispatch()).isZero();
+
+        verifyNoInteractions(restTemplate);
+        assertThat(messages).hasSize(1);
+    }
+
+    @Test
+    public void failedAttemptDoesNotWriteTheMessageBackTest() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        outbox.enqueue("/association/update-rules", result());
+        OutboxMessage message = messages.get(0);
+
+        outbox.dispatch();
+
+        // Only the enqueue saved the entity, the failure is a conditional update that cannot re-insert it
+        verify(repository, times(1)).save(any());
+        verify(repository).recordFailure(eq(message.getId()), any(), eq("Connection refused"),
+                eq(message.getNextAttemptAt()));
+    }
+}
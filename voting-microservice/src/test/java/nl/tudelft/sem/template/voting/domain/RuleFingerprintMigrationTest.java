@@ -0,0 +1,50 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import nl.tudelft.sem.template.voting.domain.rulevoting.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RuleFingerprintMigrationTest {
+    @Autowired
+    private transient RuleFingerprintMigration ruleFingerprintMigration;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void migrateLegacyRuleVotesTest() {
+        ruleVotingRepository.save(new RuleVoting(1, "1", "Be nice.", null, VotingType.PROPOSAL));
+        ruleVotingRepository.save(new RuleVoting(1, "1", "No running.", "No running inside.", VotingType.AMENDMENT));
+        jdbcTemplate.update("UPDATE rule_votings SET rule_fingerprint = NULL, amendment_fingerprint = NULL");
+        assertThat(ruleVotingRepository.existsByAssociationIdAndRuleFingerprintAndType(1,
+                RuleFingerprint.of("Be nice."), VotingType.PROPOSAL)).isFalse();
+
+        assertThat(ruleFingerprintMigration.migrate()).isEqualTo(2);
+
+        assertThat(ruleVotingRepository.existsByAssociationIdAndRuleFingerprintAndType(1,
+                RuleFingerprint.of("be  nice."), VotingType.PROPOSAL)).isTrue();
+        assertThat(ruleVotingRepository.existsByAssociationIdAndAmendmentFingerprint(1,
+                RuleFingerprint.of("No running inside."))).isTrue();
+        assertThat(ruleVotingRepository.findAllWithoutFingerprints()).isEmpty();
+    }
+
+    @Test
+    public void migrateNothingTest() {
+        ruleVotingRepository.save(new RuleVoting(1, "1", "Be nice.", null, VotingType.PROPOSAL));
+
+        assertThat(ruleFingerprintMigration.migrate()).isZero();
+    }
+}
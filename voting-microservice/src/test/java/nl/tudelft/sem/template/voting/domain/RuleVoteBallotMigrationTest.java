@@ -0,0 +1,56 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import nl.tudelft.sem.template.voting.domain.rulevoting.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Pair;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RuleVoteBallotMigrationTest {
+    @Autowired
+    private transient RuleVoteBallotMigration ruleVoteBallotMigration;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient RuleVoteBallotRepository ruleVoteBallotRepository;
+
+    @Test
+    public void migrateLegacyVotesTest() {
+        RuleVoting ruleVoting = new RuleVoting(1, "1", "Bleep", null, VotingType.PROPOSAL);
+        ruleVoting.getLegacyVotes().add(Pair.of("a", "for"));
+        ruleVoting.getLegacyVotes().add(Pair.of("b", "against"));
+        ruleVoting.getLegacyVotes().add(Pair.of("a", "against"));
+        ruleVotingRepository.save(ruleVoting);
+
+        assertThat(ruleVoteBallotMigration.migrate()).isEqualTo(2);
+
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(ruleVoting.getId())).isEqualTo(2);
+        RuleVoting stored = ruleVotingRepository.findById(ruleVoting.getId()).get();
+        assertThat(ruleVoteBallotRepository.findAllByRuleVotingIdOrderByIdAsc(ruleVoting.getId()))
+                .extracting(RuleVoteBallot::getVoterId, RuleVoteBallot::getVote)
+                .containsExactlyInAnyOrder(tuple("a", "against"), tuple("b", "against"));
+        assertThat(stored.tallyVotes()).containsEntry("for", 0).containsEntry("against", 2);
+        assertThat(ruleVotingRepository.findAllWithLegacyVotes()).isEmpty();
+    }
+
+    @Test
+    public void migrateNothingTest() {
+        RuleVoting ruleVoting = new RuleVoting(1, "1", "Bleep", null, VotingType.PROPOSAL);
+        ruleVoting.addVote(Pair.of("a", "for"));
+        ruleVotingRepository.save(ruleVoting);
+
+        assertThat(ruleVoteBallotMigration.migrate()).isEqualTo(0);
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(ruleVoting.getId())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,159 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StandingsBroadcasterTest {
+
+    private ElectionRepository electionRepository;
+    private RuleVotingRepository ruleVotingRepository;
+    private BallotWriter ballotWriter;
+    private Election election;
+    private StandingsBroadcaster broadcaster;
+
+    /**
+     * Set up a broadcaster for at most 2000 subscribers over a mocked election 7 of association 1,
+     * whose standings are read from the running tally of the election.
+     * The ticker is not started, the tests tick by hand.
+     */
+    @BeforeEach
+    public void setup() {
+        election = new Election(1);
+        election.setId(7);
+        election.setEndDate(new Date(System.currentTimeMillis() + 1000000));
+        election.addCandidate("a");
+        election.addCandidate("b");
+        electionRepository = mock(ElectionRepository.class);
+        ruleVotingRepository = mock(RuleVotingRepository.class);
+        ballotWriter = mock(BallotWriter.class);
+        when(electionRepository.findByAssociationId(1)).thenReturn(Optional.of(election));
+        when(electionRepository.findStandingsById(7)).then(invocation -> election.getTally().entrySet().stream()
+                .map(entry -> new Object[] {election.getEndDate(), entry.getKey(), entry.getValue()})
+                .collect(Collectors.toList()));
+        broadcaster = new StandingsBroadcaster(electionRepository, ruleVotingRepository,
+                ballotWriter, new ObjectMapper(), 1000, 60000, 10000, 2000, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    private void awaitSent(long expected) throws InterruptedException {
+        for (int i = 0; i < 500 && broadcaster.snapshot().getSent() < expected; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void oneTallyPerTickForAllSubscribersTest() throws InterruptedException {
+        int subscribers = 1000;
+        for (int i = 0; i < subscribers; i++) {
+            broadcaster.subscribeElection(1);
+        }
+        clearInvocations(electionRepository);
+
+        broadcaster.tick();
+        awaitSent(subscribers);
+
+        verify(electionRepository, times(1)).findStandingsById(7);
+        verify(ballotWriter, times(1)).flushElection(7);
+        verify(electionRepository, never()).findByAssociationId(anyInt());
+        assertThat(broadcaster.snapshot().getSent()).isEqualTo(subscribers);
+        assertThat(broadcaster.snapshot().getVotings()).isEqualTo(1);
+
+        // Unchanged standings are not sent again
+        broadcaster.tick();
+        assertThat(broadcaster.snapshot().getTallies()).isEqualTo(2);
+        assertThat(broadcaster.snapshot().getSent()).isEqualTo(subscribers);
+
+        election.getTally().put("a", 1);
+        broadcaster.tick();
+        awaitSent(2L * subscribers);
+        assertThat(broadcaster.snapshot().getSent()).isEqualTo(2L * subscribers);
+    }
+
+    @Test
+    public void lateSubscriberGetsLastSnapshotTest() throws InterruptedException {
+        broadcaster.subscribeElection(1);
+        broadcaster.tick();
+        awaitSent(1);
+
+        broadcaster.subscribeElection(1);
+        awaitSent(2);
+
+        assertThat(broadcaster.snapshot().getSent()).isEqualTo(2);
+        assertThat(broadcaster.snapshot().getTallies()).isEqualTo(1);
+    }
+
+    @Test
+    public void closedElectionEndsSubscriptionsTest() {
+        broadcaster.subscribeElection(1);
+        broadcaster.subscribeElection(1);
+        // The association already has its next election, the one that was followed is gone
+        Election next = new Election(1);
+        next.setId(8);
+        when(electionRepository.findByAssociationId(1)).thenReturn(Optional.of(next));
+        when(electionRepository.findStandingsById(7)).thenReturn(List.of());
+
+        broadcaster.tick();
+
+        assertThat(broadcaster.snapshot().getSubscribers()).isZero();
+        assertThat(broadcaster.snapshot().getVotings()).isZero();
+    }
+
+    @Test
+    public void ruleVotingStandingsTest() throws InterruptedException {
+        when(ruleVotingRepository.existsById(3L)).thenReturn(true);
+        when(ruleVotingRepository.findStandingsById(3)).thenReturn(List.of(
+                new Object[] {VotingType.AMENDMENT, election.getEndDate(), "for", 2},
+                new Object[] {VotingType.AMENDMENT, election.getEndDate(), "against", 1}));
+        broadcaster.subscribeRuleVoting(3);
+
+        broadcaster.tick();
+        awaitSent(1);
+
+        verify(ballotWriter).flushRuleVoting(3);
+        verify(ruleVotingRepository, never()).findById(anyLong());
+        assertThat(broadcaster.snapshot().getSent()).isEqualTo(1);
+
+        when(ruleVotingRepository.findStandingsById(3)).thenReturn(List.of());
+        broadcaster.tick();
+        assertThat(broadcaster.snapshot().getVotings()).isZero();
+    }
+
+    @Test
+    public void unknownElectionTest() {
+        assertThatThrownBy(() -> broadcaster.subscribeElection(2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Association with ID 2 does not have an active election.");
+    }
+
+    @Test
+    public void tooManySubscribersTest() {
+        StandingsBroadcaster small = new StandingsBroadcaster(electionRepository, ruleVotingRepository,
+                ballotWriter, new ObjectMapper(), 1000, 60000, 10000, 2, 1);
+        try {
+            small.subscribeElection(1);
+            small.subscribeElection(1);
+
+            assertThatThrownBy(() -> small.subscribeElection(1)).isInstanceOf(IllegalStateException.class);
+            assertThat(small.snapshot().getSubscribers()).isEqualTo(2);
+        } finally {
+            small.shutdown();
+        }
+    }
+}
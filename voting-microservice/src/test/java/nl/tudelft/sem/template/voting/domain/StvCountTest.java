@@ -0,0 +1,93 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import nl.tudelft.sem.template.voting.domain.election.StvCount;
+import nl.tudelft.sem.template.voting.domain.election.StvResult;
+import org.junit.jupiter.api.Test;
+
+public class StvCountTest {
+
+    private void add(StvCount count, int ballots, String... ranking) {
+        for (int i = 0; i < ballots; i++) {
+            count.addBallot(List.of(ranking));
+        }
+    }
+
+    @Test
+    public void instantRunoffTest() {
+        StvCount count = new StvCount(List.of("a", "b", "c"), 1);
+        add(count, 4, "a");
+        add(count, 3, "b");
+        add(count, 2, "c", "b");
+
+        // a leads on first preferences, but c is eliminated and its ballots give b the majority
+        StvResult result = count.count();
+        assertThat(result.getWinners()).containsExactly("b");
+        assertThat(result.getQuota()).isEqualTo(5);
+    }
+
+    @Test
+    public void surplusIsTransferredTest() {
+        StvCount count = new StvCount(List.of("Oranges", "Pears", "Chocolate", "Strawberries", "Hamburgers"), 3);
+        add(count, 4, "Oranges");
+        add(count, 2, "Pears", "Oranges");
+        add(count, 8, "Chocolate", "Strawberries");
+        add(count, 4, "Chocolate", "Hamburgers");
+        add(count, 1, "Strawberries");
+        add(count, 1, "Hamburgers");
+
+        StvResult result = count.count();
+
+        assertThat(result.getQuota()).isEqualTo(6);
+        assertThat(result.getWinners()).containsExactly("Chocolate", "Oranges", "Strawberries");
+    }
+
+    @Test
+    public void singleChoiceBallotsElectTheMostVotesTest() {
+        StvCount count = new StvCount(List.of("a", "b", "c", "d"), 2);
+        add(count, 5, "a");
+        add(count, 7, "b");
+        add(count, 3, "c");
+        add(count, 1, "d");
+
+        assertThat(count.count().getWinners()).containsExactly("b", "a");
+    }
+
+    @Test
+    public void fewerCandidatesThanSeatsTest() {
+        StvCount count = new StvCount(List.of("a", "b"), 3);
+        add(count, 1, "b", "unknown");
+        add(count, 1, "unknown");
+
+        assertThat(count.size()).isEqualTo(1);
+        assertThat(count.count().getWinners()).containsExactly("b", "a");
+        assertThat(new StvCount(List.of(), 3).count().getWinners()).isEmpty();
+    }
+
+    @Test
+    public void hundredThousandRankedBallotsTest() {
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            candidates.add("candidate" + i);
+        }
+        Random random = new Random(42);
+        List<List<String>> ballots = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            List<String> ranking = new ArrayList<>(candidates);
+            Collections.shuffle(ranking, random);
+            ballots.add(ranking.subList(0, 5));
+        }
+
+        StvCount count = new StvCount(candidates, 5);
+        ballots.forEach(count::addBallot);
+        StvResult result = count.count();
+
+        assertThat(count.size()).isEqualTo(100000);
+        assertThat(result.getWinners()).hasSize(5).doesNotHaveDuplicates().isSubsetOf(candidates);
+    }
+}
@@ -0,0 +1,138 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.InvalidIdException;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class TallyConsistencyCheckerTest {
+    @Autowired
+    private transient VotingService votingService;
+    @Autowired
+    private transient TallyConsistencyChecker tallyConsistencyChecker;
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient TransactionTemplate transactionTemplate;
+    @Autowired
+    private transient BallotWriter ballotWriter;
+    long dayInMs = 1000 * 60 * 60 * 24;
+
+    private Election setupElection() {
+        Election election = new Election(1);
+        election.setEndDate(new Date(System.currentTimeMillis() + (int) (0.5 * dayInMs)));
+        election.addCandidate("a");
+        election.addCandidate("b");
+        return electionRepository.save(election);
+    }
+
+    private RuleVoting setupRuleVoting() {
+        RuleVoting ruleVoting = new RuleVoting(1, "1", "Bleep", null, VotingType.PROPOSAL);
+        ruleVoting.setEndDate(new Date(System.currentTimeMillis() + (int) (0.5 * dayInMs)));
+        return ruleVotingRepository.save(ruleVoting);
+    }
+
+    @Test
+    public void runningTallyFollowsChangedVotesTest() throws InvalidIdException {
+        Election election = setupElection();
+        RuleVoting ruleVoting = setupRuleVoting();
+
+        votingService.castElectionVote("1", 1, "a");
+        votingService.castElectionVote("2", 1, "a");
+        votingService.castElectionVote("1", 1, "b");
+        votingService.castRuleVote(ruleVoting.getId(), "1", "for", 1);
+        votingService.castRuleVote(ruleVoting.getId(), "2", "for", 1);
+        votingService.castRuleVote(ruleVoting.getId(), "1", "against", 1);
+
+        Election resElection = electionRepository.findById(election.getId()).get();
+        assertThat(resElection.tallyVotes().get("a")).isEqualTo(1);
+        assertThat(resElection.tallyVotes().get("b")).isEqualTo(1);
+
+        RuleVoting resRuleVoting = ruleVotingRepository.findById(ruleVoting.getId()).get();
+        assertThat(resRuleVoting.tallyVotes().get("for")).isEqualTo(1);
+        assertThat(resRuleVoting.tallyVotes().get("against")).isEqualTo(1);
+        assertThat(resRuleVoting.passedMotion()).isFalse();
+
+        assertThat(tallyConsistencyChecker.check()).isEmpty();
+    }
+
+    @Test
+    public void reportAndRepairDriftTest() {
+        Election election = setupElection();
+        votingService.castElectionVote("1", 1, "a");
+        transactionTemplate.execute(status -> electionRepository.addToTally(election.getId(), "b", 2));
+
+        List<TallyDrift> drift = tallyConsistencyChecker.check();
+        assertThat(drift).containsExactly(new TallyDrift(election.getId(), VotingType.ELECTION, "b", 2, 0));
+
+        assertThat(tallyConsistencyChecker.repair()).isEqualTo(drift);
+        assertThat(tallyConsistencyChecker.check()).isEmpty();
+        assertThat(electionRepository.findById(election.getId()).get().tallyVotes().get("b")).isEqualTo(0);
+    }
+
+    @Test
+    public void repairFlushesBufferedBallotsTest() {
+        Election election = setupElection();
+        ballotWriter.bufferElectionVote(election.getId(), "1", "a");
+
+        assertThat(tallyConsistencyChecker.repair()).isEmpty();
+        assertThat(ballotWriter.getBuffered()).isZero();
+        assertThat(electionRepository.findById(election.getId()).get().tallyVotes().get("a")).isEqualTo(1);
+    }
+
+    @Test
+    public void repairRuleVotingDriftTest() throws InvalidIdException {
+        RuleVoting ruleVoting = setupRuleVoting();
+        votingService.castRuleVote(ruleVoting.getId(), "1", "for", 1);
+        transactionTemplate.execute(status -> {
+            RuleVoting locked = ruleVotingRepository.findForUpdateById(ruleVoting.getId()).get();
+            locked.getTally().put("against", 3);
+            return ruleVotingRepository.save(locked);
+        });
+
+        assertThat(tallyConsistencyChecker.repair())
+                .containsExactly(new TallyDrift(ruleVoting.getId(), VotingType.PROPOSAL, "against", 3, 0));
+        assertThat(tallyConsistencyChecker.check()).isEmpty();
+    }
+
+    @Test
+    public void recountManyCandidatesTest() {
+        Election election = new Election(1);
+        election.setEndDate(new Date(System.currentTimeMillis() + (int) (0.5 * dayInMs)));
+        List<BallotModel> ballots = new ArrayList<>();
+        Set<String> members = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            election.addCandidate("c" + i);
+            ballots.add(new BallotModel("v" + i, "c" + i));
+            members.add("v" + i);
+        }
+        electionRepository.save(election);
+        votingService.castElectionVotes(1, ballots, members);
+
+        assertThat(tallyConsistencyChecker.check()).isEmpty();
+        assertThat(tallyConsistencyChecker.repair()).isEmpty();
+    }
+}
@@ -0,0 +1,124 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallot;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import nl.tudelft.sem.template.voting.models.ArchivedVotingModel;
+import nl.tudelft.sem.template.voting.models.ArchivedVotingsPageModel;
+import nl.tudelft.sem.template.voting.models.BallotModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Pair;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class VotingArchiveTest {
+    @Autowired
+    private transient VotingAssociationCommunication votingAssociationCommunication;
+    @Autowired
+    private transient VotingArchive votingArchive;
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+
+    private final long day = 24L * 60 * 60 * 1000;
+
+    private RuleVoting closedRuleVoting(int associationId, String rule, long endDate) {
+        RuleVoting ruleVoting = new RuleVoting(associationId, "42", rule, null, VotingType.PROPOSAL);
+        ruleVoting.castVote("1", "for");
+        ruleVoting.castVote("2", "against");
+        ruleVoting.castVote("3", "for");
+        ruleVoting.setEndDate(new Date(endDate));
+        return ruleVotingRepository.save(ruleVoting);
+    }
+
+    @Test
+    public void closedRuleVotingIsArchivedTest() {
+        long now = System.currentTimeMillis();
+        RuleVoting ruleVoting = closedRuleVoting(1, "No running in the halls.", now - day);
+
+        assertThat(votingAssociationCommunication.forwardRuleVoteResult(ruleVoting)).isTrue();
+
+        assertThat(ruleVotingRepository.count()).isZero();
+        ArchivedVotingsPageModel page = votingArchive.find(1, new Date(now - 2 * day), new Date(now), 0, 20);
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        ArchivedVotingModel archived = page.getVotings().get(0);
+        assertThat(archived.getKind()).isEqualTo("PROPOSAL");
+        assertThat(archived.getVotingId()).isEqualTo(ruleVoting.getId());
+        assertThat(archived.getRule()).isEqualTo("No running in the halls.");
+        assertThat(archived.getOutcome()).isEqualTo("passed");
+        assertThat(archived.getTally()).isEqualTo(Map.of("for", 2, "against", 1, "abstain", 0));
+        assertThat(archived.getBallotCount()).isEqualTo(3);
+        assertThat(votingArchive.getBallots(archived.getId())).containsExactlyInAnyOrder(
+                new BallotModel("1", "for"), new BallotModel("2", "against"), new BallotModel("3", "for"));
+    }
+
+    @Test
+    public void closedElectionIsArchivedWithRankingsTest() {
+        long now = System.currentTimeMillis();
+        Election election = new Election(1);
+        election.addCandidate("a");
+        election.addCandidate("b");
+        election.addVote(Pair.of("1", "a"));
+        election.getBallots().add(new ElectionBallot(election, "2", List.of("b", "a")));
+        election.setEndDate(new Date(now - day));
+        election = electionRepository.save(election);
+
+        assertThat(votingAssociationCommunication.forwardElectionResult(election)).isTrue();
+
+        ArchivedVotingModel archived = votingArchive.find(1, new Date(now - 2 * day), new Date(now), 0, 20)
+                .getVotings().get(0);
+        assertThat(archived.getKind()).isEqualTo(VotingArchive.ELECTION);
+        assertThat(archived.getBallotCount()).isEqualTo(2);
+        assertThat(votingArchive.getBallots(archived.getId())).containsExactlyInAnyOrder(
+                new BallotModel("1", "a"), new BallotModel("2", "[\"b\",\"a\"]"));
+        // Only the next election of the association is left in the live table
+        assertThat(electionRepository.findAll()).hasSize(1)
+                .allSatisfy(e -> assertThat(e.getId()).isNotEqualTo(archived.getVotingId()));
+    }
+
+    @Test
+    public void findByAssociationAndDateRangeTest() {
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= 5; i++) {
+            votingAssociationCommunication.forwardRuleVoteResult(closedRuleVoting(1, "Rule " + i, now - i * day));
+        }
+        votingAssociationCommunication.forwardRuleVoteResult(closedRuleVoting(2, "Rule 1", now - day));
+
+        ArchivedVotingsPageModel page = votingArchive.find(1, new Date(now - 4 * day - 1000),
+                new Date(now - 2 * day + 1000), 0, 2);
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getVotings()).extracting(ArchivedVotingModel::getRule).containsExactly("Rule 4", "Rule 3");
+        assertThat(votingArchive.find(2, new Date(0), new Date(now), 0, 20).getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidQueriesTest() {
+        Date now = new Date();
+        assertThatThrownBy(() -> votingArchive.find(1, now, new Date(0), 0, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> votingArchive.find(1, new Date(0), now, 0, 101))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> votingArchive.getBallots(12345))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VotingDeadlineQueueTest {
+
+    private VotingDeadlineQueue queue;
+    private BlockingQueue<List<VotingDeadlineQueue.Deadline>> handled;
+
+    /**
+     * Set up a running queue that records every batch of due deadlines.
+     */
+    @BeforeEach
+    public void setup() {
+        queue = new VotingDeadlineQueue();
+        handled = new LinkedBlockingQueue<>();
+        queue.start(handled::add);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queue.stop();
+    }
+
+    private Date in(long millis) {
+        return new Date(System.currentTimeMillis() + millis);
+    }
+
+    @Test
+    public void fireDueDeadlineTest() throws InterruptedException {
+        queue.scheduleRuleVoting(in(50));
+
+        List<VotingDeadlineQueue.Deadline> due = handled.poll(5, TimeUnit.SECONDS);
+
+        assertThat(due).hasSize(1);
+        assertThat(due.get(0).isElection()).isFalse();
+        assertThat(queue.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void futureDeadlineDoesNotFireTest() throws InterruptedException {
+        queue.scheduleElection(in(3600000));
+
+        assertThat(handled.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void earlierDeadlineWakesWorkerTest() throws InterruptedException {
+        queue.scheduleElection(in(3600000));
+        Thread.sleep(50);
+        queue.scheduleElection(in(50));
+
+        List<VotingDeadlineQueue.Deadline> due = handled.poll(5, TimeUnit.SECONDS);
+
+        assertThat(due).hasSize(1);
+        assertThat(due.get(0).isElection()).isTrue();
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void passedDeadlinesFireTogetherTest() throws InterruptedException {
+        queue.stop();
+        queue.scheduleElection(in(-2000));
+        queue.scheduleRuleVoting(in(-1000));
+        queue.start(handled::add);
+
+        List<VotingDeadlineQueue.Deadline> due = handled.poll(5, TimeUnit.SECONDS);
+
+        assertThat(due).hasSize(2);
+        assertThat(due.get(0).isElection()).isTrue();
+        assertThat(due.get(1).isElection()).isFalse();
+    }
+
+    @Test
+    public void idleQueueSweepsAllVotingsTest() throws InterruptedException {
+        queue.stop();
+        queue.scheduleElection(in(3600000));
+        queue.start(handled::add, 50);
+
+        List<VotingDeadlineQueue.Deadline> due = handled.poll(5, TimeUnit.SECONDS);
+
+        assertThat(due).extracting(VotingDeadlineQueue.Deadline::isElection).containsExactly(true, false);
+        assertThat(due).allSatisfy(deadline ->
+                assertThat(deadline.getDueAt()).isBeforeOrEqualTo(new Date()));
+        // The deadline of the replica itself stays queued
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void scheduleVotingByEndDateTest() {
+        queue.stop();
+        Election election = new Election(1);
+
+        queue.schedule(election);
+
+        assertThat(queue.nextDeadline()).contains(election.getEndDate());
+    }
+}
@@ -0,0 +1,184 @@
+package nl.tudelft.sem.template.voting.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.voting.domain.election.Election;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallot;
+import nl.tudelft.sem.template.voting.domain.election.ElectionBallotRepository;
+import nl.tudelft.sem.template.voting.domain.election.ElectionRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallotRepository;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Casts votes with the write-behind buffer enabled. The flusher interval is long enough that the
+ * tests decide when the buffer is applied.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+@TestPropertySource(properties = {"voting.write-behind.enabled=true", "voting.write-behind.flush-interval=600000",
+    "voting.write-behind.max-ballots=100000"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class WriteBehindCastVoteTest {
+    @Autowired
+    private transient VotingService votingService;
+    @Autowired
+    private transient BallotWriter ballotWriter;
+    @Autowired
+    private transient ElectionRepository electionRepository;
+    @Autowired
+    private transient ElectionBallotRepository electionBallotRepository;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient RuleVoteBallotRepository ruleVoteBallotRepository;
+    @Autowired
+    private transient BufferedBallotRepository bufferedBallotRepository;
+    long dayInMs = 1000 * 60 * 60 * 24;
+
+    private Election openElection(int associationId) {
+        Election election = new Election(associationId);
+        election.setEndDate(new Date(System.currentTimeMillis() + dayInMs));
+        election.addCandidate("a");
+        election.addCandidate("b");
+        return electionRepository.save(election);
+    }
+
+    private RuleVoting openRuleVoting(int associationId) {
+        RuleVoting ruleVoting = new RuleVoting(associationId, "1", "Bleep", null, VotingType.PROPOSAL);
+        ruleVoting.setEndDate(new Date(System.currentTimeMillis() + dayInMs));
+        return ruleVotingRepository.save(ruleVoting);
+    }
+
+    @Test
+    public void bufferedElectionVotesAreAppliedOnFlushTest() {
+        Election election = openElection(1);
+
+        votingService.castElectionVote("1", 1, "a");
+        votingService.castElectionVote("2", 1, "a");
+        votingService.castElectionVote("1", 1, "b");
+
+        assertThat(ballotWriter.getBuffered()).isEqualTo(3);
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isZero();
+
+        ballotWriter.flushAll();
+
+        assertThat(ballotWriter.getBuffered()).isZero();
+        assertThat(bufferedBallotRepository.count()).isZero();
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isEqualTo(2);
+        assertThat(electionRepository.findByAssociationId(1).get().tallyVotes())
+                .containsEntry("a", 1).containsEntry("b", 1);
+    }
+
+    @Test
+    public void invalidVoteIsNotBufferedTest() {
+        openElection(1);
+
+        assertThatThrownBy(() -> votingService.castElectionVote("1", 1, "nobody"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(ballotWriter.getBuffered()).isZero();
+    }
+
+    @Test
+    public void pendingVotesSeeBufferedRuleVoteTest() throws Exception {
+        RuleVoting ruleVoting = openRuleVoting(1);
+
+        votingService.castRuleVote(ruleVoting.getId(), "1", "for", 1);
+        votingService.castRuleVote(ruleVoting.getId(), "1", "against", 1);
+
+        assertThat(votingService.getPendingVotes(1, "1")).contains("Your vote: against");
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(ruleVoting.getId())).isEqualTo(1);
+    }
+
+    @Test
+    public void pendingVotesOnlyFlushTheirAssociationTest() throws Exception {
+        RuleVoting ruleVoting = openRuleVoting(1);
+        RuleVoting other = openRuleVoting(2);
+        Election election = openElection(1);
+
+        votingService.castRuleVote(ruleVoting.getId(), "1", "for", 1);
+        votingService.castRuleVote(other.getId(), "1", "for", 2);
+        votingService.castElectionVote("1", 1, "a");
+
+        assertThat(votingService.getPendingVotes(1, "1")).contains("Your vote: for");
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(ruleVoting.getId())).isEqualTo(1);
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(other.getId())).isZero();
+        assertThat(electionBallotRepository.countByElectionId(election.getId())).isZero();
+        assertThat(bufferedBallotRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void ballotsOfRemovedVotingAreDroppedTest() {
+        Election election = openElection(1);
+        votingService.castElectionVote("1", 1, "a");
+        electionRepository.delete(election);
+
+        assertThat(ballotWriter.flushElection(election.getId())).isZero();
+        assertThat(ballotWriter.getBuffered()).isZero();
+        assertThat(bufferedBallotRepository.count()).isZero();
+    }
+
+    @Test
+    public void ballotsJournaledByAnotherReplicaAreFlushedTest() {
+        Election election = openElection(1);
+        RuleVoting ruleVoting = openRuleVoting(1);
+        // Journaled by another replica, so this replica never counted them
+        bufferedBallotRepository.save(new BufferedBallot(true, election.getId(), "1",
+                ElectionBallot.encodeRanking(List.of("a"))));
+        bufferedBallotRepository.save(new BufferedBallot(false, ruleVoting.getId(), "1", "for"));
+        assertThat(ballotWriter.getBuffered()).isZero();
+
+        assertThat(ballotWriter.flushElection(election.getId())).isEqualTo(1);
+        assertThat(ballotWriter.flushRuleVoting(ruleVoting.getId())).isEqualTo(1);
+
+        assertThat(ballotWriter.getBuffered()).isZero();
+        assertThat(bufferedBallotRepository.count()).isZero();
+        assertThat(electionRepository.findByAssociationId(1).get().tallyVotes()).containsEntry("a", 1);
+        assertThat(ruleVoteBallotRepository.countByRuleVotingId(ruleVoting.getId())).isEqualTo(1);
+    }
+
+    /**
+     * Concurrent single casts on one election all end up in the tally after the final flush.
+     */
+    @Test
+    public void concurrentCastsAreAllAppliedTest() throws Exception {
+        int voters = 2000;
+        openElection(1);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int i = 0; i < voters; i++) {
+                String voterId = "voter" + i;
+                String candidateId = i % 3 == 0 ? "a" : "b";
+                tasks.add(() -> votingService.castElectionVote(voterId, 1, candidateId));
+            }
+
+            for (Future<String> result : executor.invokeAll(tasks)) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+            ballotWriter.flushAll();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(electionRepository.findByAssociationId(1).get().tallyVotes())
+                .containsEntry("a", voters / 3 + 1).containsEntry("b", voters - voters / 3 - 1);
+    }
+}
@@ -0,0 +1,99 @@
+package nl.tudelft.sem.template.voting.integration;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+import nl.tudelft.sem.template.voting.authentication.JwtTokenVerifier;
+import nl.tudelft.sem.template.voting.domain.EligibilityCache;
+import nl.tudelft.sem.template.voting.domain.VotingAssociationCommunication;
+import nl.tudelft.sem.template.voting.domain.VotingType;
+import nl.tudelft.sem.template.voting.domain.archive.VotingArchive;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"test", "mockTokenVerifier", "mockAuthenticationManager"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class ArchivedBallotsIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private transient JwtTokenVerifier mockJwtTokenVerifier;
+    @Autowired
+    private transient EligibilityCache eligibilityCache;
+    @Autowired
+    private transient VotingAssociationCommunication votingAssociationCommunication;
+    @Autowired
+    private transient VotingArchive votingArchive;
+    @Autowired
+    private transient RuleVotingRepository ruleVotingRepository;
+    private long archivedVotingId;
+
+    /**
+     * Archive a closed rule vote of association 1, with user "council" on its council and "member" not.
+     */
+    @BeforeEach
+    public void setup() {
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        long now = System.currentTimeMillis();
+        RuleVoting ruleVoting = new RuleVoting(1, "42", "Be nice.", null, VotingType.PROPOSAL);
+        ruleVoting.castVote("1", "for");
+        ruleVoting.setEndDate(new Date(now - 1000));
+        votingAssociationCommunication.forwardRuleVoteResult(ruleVotingRepository.save(ruleVoting));
+        archivedVotingId = votingArchive.find(1, new Date(0), new Date(now), 0, 20).getVotings().get(0).getId();
+        eligibilityCache.get(EligibilityCache.Check.COUNCIL_MEMBER, "council", 1, () -> true);
+        eligibilityCache.get(EligibilityCache.Check.COUNCIL_MEMBER, "member", 1, () -> false);
+    }
+
+    private void getBallots(String caller, String userId, int expectedStatus) throws Exception {
+        when(mockJwtTokenVerifier.getUserIdFromToken(anyString())).thenReturn(caller);
+        mockMvc.perform(get("/archive/ballots")
+                        .param("userId", userId)
+                        .param("archivedVotingId", String.valueOf(archivedVotingId))
+                        .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    public void councilMemberReadsBallotsTest() throws Exception {
+        when(mockJwtTokenVerifier.getUserIdFromToken(anyString())).thenReturn("council");
+        mockMvc.perform(get("/archive/ballots")
+                        .param("userId", "council")
+                        .param("archivedVotingId", String.valueOf(archivedVotingId))
+                        .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].voterId").value("1"))
+                .andExpect(jsonPath("$[0].vote").value("for"));
+    }
+
+    @Test
+    public void associationServiceReadsBallotsTest() throws Exception {
+        getBallots("AssociationService", "AssociationService", 200);
+    }
+
+    @Test
+    public void memberIsRejectedTest() throws Exception {
+        getBallots("member", "member", 401);
+    }
+
+    @Test
+    public void impersonatedCouncilMemberIsRejectedTest() throws Exception {
+        getBallots("member", "council", 401);
+    }
+}
@@ -7,8 +7,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.*;
+import java.util.stream.Collectors;
 import nl.tudelft.sem.template.voting.authentication.JwtTokenVerifier;
 import nl.tudelft.sem.template.voting.domain.VotingType;
+import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoteBallotRepository;
 import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVoting;
 import nl.tudelft.sem.template.voting.domain.rulevoting.RuleVotingRepository;
 import nl.tudelft.sem.template.voting.integration.utils.JsonUtil;
@@ -40,6 +42,8 @@ public class CastRuleVoteVotingIntegrationTest {
     private transient JwtTokenVerifier mockJwtTokenVerifier;
     @Autowired
     private transient RuleVotingRepository ruleVotingRepository;
+    @Autowired
+    private transient RuleVoteBallotRepository ruleVoteBallotRepository;
     private Long ruleVoteId;
     private String userId;
     private RuleVoting ruleVoting;
@@ -58,6 +62,11 @@ public class CastRuleVoteVotingIntegrationTest {
         when(mockJwtTokenVerifier.getUserIdFromToken(anyString())).thenReturn("ExampleUser");
     }
 
+    private List<Pair<String, String>> votes(long ruleVotingId) {
+        return ruleVoteBallotRepository.findAllByRuleVotingIdOrderByIdAsc(ruleVotingId).stream()
+                .map(ballot -> Pair.of(ballot.getVoterId(), ballot.getVote())).collect(Collectors.toList());
+    }
+
     @Test
     public void castRuleVoteInFavourTest() throws Exception {
         this.ruleVoting = ruleVotingRepository.findById(this.ruleVoteId).orElseGet(null);
@@ -324,7 +333,7 @@ public class CastRuleVoteVotingIntegrationTest {
         this.ruleVoting = ruleVotingRepository.findById(this.ruleVoteId).orElseGet(null);
         List<Pair<String, String>> expected = new ArrayList<>();
         expected.add(Pair.of(this.userId, "against"));
-        assertThat(this.ruleVoting.getVotes()).isEqualTo(expected);
+        assertThat(votes(this.ruleVoteId)).isEqualTo(expected);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package nl.tudelft.sem.template.voting.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import nl.tudelft.sem.template.voting.authentication.JwtTokenVerifier;
+import nl.tudelft.sem.template.voting.domain.EligibilityCache;
+import nl.tudelft.sem.template.voting.integration.utils.JsonUtil;
+import nl.tudelft.sem.template.voting.models.EligibilityInvalidationRequestModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"test", "mockTokenVerifier", "mockAuthenticationManager"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class EligibilityIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private transient JwtTokenVerifier mockJwtTokenVerifier;
+    @Autowired
+    private transient EligibilityCache eligibilityCache;
+
+    /**
+     * Cache an answer for user "1" in association 1.
+     */
+    @BeforeEach
+    public void setup() {
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        eligibilityCache.get(EligibilityCache.Check.CANDIDATE, "1", 1, () -> true);
+    }
+
+    private void invalidate(String caller, int expectedStatus) throws Exception {
+        when(mockJwtTokenVerifier.getUserIdFromToken(anyString())).thenReturn(caller);
+        mockMvc.perform(post("/eligibility/invalidate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JsonUtil.serialize(new EligibilityInvalidationRequestModel(List.of("1"), null)))
+                        .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    public void associationServiceInvalidatesTest() throws Exception {
+        invalidate("AssociationService", 200);
+
+        assertThat(eligibilityCache.snapshot().getSize()).isZero();
+    }
+
+    @Test
+    public void otherCallersAreRejectedTest() throws Exception {
+        invalidate("ExampleUser", 401);
+
+        assertThat(eligibilityCache.snapshot().getSize()).isEqualTo(1);
+        assertThat(eligibilityCache.snapshot().getInvalidations()).isZero();
+    }
+}